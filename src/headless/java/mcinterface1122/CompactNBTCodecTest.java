@@ -0,0 +1,224 @@
+package mcinterface1122;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import mcinterfaceheadless.AHeadlessTest;
+import mcinterfaceheadless.BenchmarkPack;
+import mcinterfaceheadless.HeadlessSimulation;
+import minecrafttransportsimulator.mcinterface.IInterfaceCore;
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
+import net.minecraft.nbt.NBTTagByteArray;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagDouble;
+import net.minecraft.nbt.NBTTagFloat;
+import net.minecraft.nbt.NBTTagIntArray;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagLongArray;
+import net.minecraft.nbt.NBTTagString;
+
+/**Tests for {@link CompactNBTCodec}.  Data is encoded and decoded, and must come back exactly as it went in.
+ * The data is a real vehicle's save data with the base entity data MC adds to it, which is what the codec
+ * sends when clients load vehicles.  Extra tags are added for every tag type and the edge cases of the
+ * compact forms, as a vehicle alone doesn't have all of them.  MC's tags are only data, so they work without MC running.
+ *
+ * @author don_bruce
+ */
+public class CompactNBTCodecTest extends AHeadlessTest{
+
+	public void testVehicleDataRoundTrips() throws IOException{
+		BenchmarkPack.load();
+		HeadlessSimulation simulation = BenchmarkPack.createSimulation();
+		EntityVehicleF_Physics vehicle = BenchmarkPack.getVehicle(simulation);
+		vehicle.motion.set(0.1, -0.25, 3.7);
+		vehicle.angles.set(0, 91.5, -2);
+		simulation.tick();
+		NBTTagCompound tag = saveVehicle(vehicle);
+		assertTrue(tag.getKeySet().contains("part_0"), "Vehicle didn't save any parts, so nested data isn't tested.");
+		addEntityData(tag);
+
+		NBTTagCompound decodedTag = roundTrip(tag);
+		assertTrue(tag.equals(decodedTag), "Decoded vehicle data didn't match.  Expected: " + tag + ", but got: " + decodedTag);
+	}
+
+	public void testAllTagTypesRoundTrip() throws IOException{
+		NBTTagCompound tag = new NBTTagCompound();
+		tag.setByte("byte", Byte.MIN_VALUE);
+		tag.setShort("short", Short.MIN_VALUE);
+		tag.setShort("shortMax", Short.MAX_VALUE);
+		tag.setInteger("int", Integer.MIN_VALUE);
+		tag.setInteger("intMax", Integer.MAX_VALUE);
+		tag.setInteger("intNegative", -1);
+		tag.setLong("long", Long.MIN_VALUE);
+		tag.setLong("longMax", Long.MAX_VALUE);
+		tag.setFloat("float", -1.17549435E-38F);
+		tag.setBoolean("boolean", true);
+		tag.setByteArray("bytes", new byte[]{-128, 0, 127});
+		tag.setIntArray("ints", new int[]{Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE});
+		tag.setTag("longs", new NBTTagLongArray(new long[]{Long.MIN_VALUE, 0, Long.MAX_VALUE}));
+		tag.setByteArray("emptyBytes", new byte[0]);
+		tag.setIntArray("emptyInts", new int[0]);
+
+		//Doubles in each of the compact forms.
+		tag.setDouble("zero", 0D);
+		tag.setDouble("whole", -2147483648D);
+		tag.setDouble("wholeTooBig", 2147483648D);
+		tag.setDouble("fromFloat", 0.1F);
+		tag.setDouble("full", 0.1D);
+		tag.setDouble("tiny", Double.MIN_VALUE);
+		tag.setDouble("infinite", Double.NEGATIVE_INFINITY);
+
+		//Strings, including repeats that are sent as indexes, and keys that aren't in the schema.
+		tag.setString("empty", "");
+		tag.setString("packID", "é中🚗");
+		tag.setString("systemName", "é中🚗");
+		tag.setString("é中🚗", "key");
+		tag.setString("", "emptyKey");
+		tag.setString("part_007", "leading zeros aren't a template");
+		tag.setString("part_2147483647", "largest template number");
+		tag.setString("part_99999999999", "too big for a template");
+		tag.setString("textLine3", "template");
+
+		//Nested and empty compounds and lists.
+		NBTTagCompound nestedTag = new NBTTagCompound();
+		nestedTag.setTag("empty", new NBTTagCompound());
+		nestedTag.setTag("emptyList", new NBTTagList());
+		NBTTagList compoundList = new NBTTagList();
+		compoundList.appendTag(nestedTag);
+		compoundList.appendTag(new NBTTagCompound());
+		NBTTagList listList = new NBTTagList();
+		listList.appendTag(compoundList);
+		listList.appendTag(new NBTTagList());
+		tag.setTag("lists", listList);
+		NBTTagList stringList = new NBTTagList();
+		stringList.appendTag(new NBTTagString("packID"));
+		stringList.appendTag(new NBTTagString("packID"));
+		tag.setTag("strings", stringList);
+		tag.setTag("nested", nestedTag);
+		tag.setTag("empty", new NBTTagCompound());
+
+		NBTTagCompound decodedTag = roundTrip(tag);
+		assertTrue(tag.equals(decodedTag), "Decoded data didn't match.  Expected: " + tag + ", but got: " + decodedTag);
+		assertTrue(roundTrip(new NBTTagCompound()).getKeySet().isEmpty(), "Empty data didn't decode as empty.");
+	}
+
+	public void testSpecialDoublesKeepTheirBits() throws IOException{
+		//MC compares doubles with ==, so these need checking by their bits.
+		double[] values = new double[]{-0D, Double.NaN, Float.NaN, Double.longBitsToDouble(0x7FF8000000000001L)};
+		NBTTagCompound tag = new NBTTagCompound();
+		NBTTagList floatList = new NBTTagList();
+		for(int i=0; i<values.length; ++i){
+			tag.setDouble("value" + i, values[i]);
+			floatList.appendTag(new NBTTagFloat((float) values[i]));
+		}
+		tag.setTag("floats", floatList);
+		NBTTagCompound decodedTag = roundTrip(tag);
+		for(int i=0; i<values.length; ++i){
+			double decodedValue = ((NBTTagDouble) decodedTag.getTag("value" + i)).getDouble();
+			if(Double.isNaN(values[i])){
+				assertTrue(Double.isNaN(decodedValue), "NaN didn't decode as NaN.");
+			}else{
+				assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(decodedValue), "Double " + values[i] + " changed bits.");
+			}
+			float decodedFloat = ((NBTTagFloat) ((NBTTagList) decodedTag.getTag("floats")).get(i)).getFloat();
+			assertEquals(Float.floatToRawIntBits((float) values[i]), Float.floatToRawIntBits(decodedFloat), "Float " + (float) values[i] + " changed bits.");
+		}
+	}
+
+	public void testOtherSchemaVersionFails(){
+		NBTTagCompound tag = new NBTTagCompound();
+		tag.setString("uniqueUUID", "abc");
+		ByteBuf buf = Unpooled.buffer();
+		CompactNBTCodec.write(tag, buf);
+		ByteBuf otherVersionBuf = Unpooled.buffer();
+		otherVersionBuf.writeByte(buf.readByte() + 1);
+		try{
+			CompactNBTCodec.read(otherVersionBuf);
+			assertTrue(false, "Data from another schema version was decoded.");
+		}catch(IOException e){
+			//Expected.
+		}
+	}
+
+	/**
+	 *  Encodes and decodes the passed-in tag, and checks that all the encoded data was read.
+	 */
+	private static NBTTagCompound roundTrip(NBTTagCompound tag) throws IOException{
+		ByteBuf buf = Unpooled.buffer();
+		CompactNBTCodec.write(tag, buf);
+		NBTTagCompound decodedTag = CompactNBTCodec.read(buf);
+		assertEquals(0, buf.readableBytes(), "Decoding didn't read all the encoded data.");
+		return decodedTag;
+	}
+
+	/**
+	 *  Saves the passed-in vehicle into MC tags.  The headless core makes headless data for parts and
+	 *  other sub-data, so it's swapped for one that makes MC data while saving, the same as in-game.
+	 */
+	private static NBTTagCompound saveVehicle(EntityVehicleF_Physics vehicle){
+		final IInterfaceCore headlessCore = MasterLoader.coreInterface;
+		MasterLoader.coreInterface = (IInterfaceCore) Proxy.newProxyInstance(IInterfaceCore.class.getClassLoader(), new Class<?>[]{IInterfaceCore.class}, new InvocationHandler(){
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable{
+				if(method.getName().equals("createNewTag")){
+					return new WrapperNBT(new NBTTagCompound());
+				}
+				try{
+					return method.invoke(headlessCore, args);
+				}catch(InvocationTargetException e){
+					throw e.getCause();
+				}
+			}
+		});
+		try{
+			WrapperNBT data = new WrapperNBT(new NBTTagCompound());
+			vehicle.save(data);
+			data.setString("entityid", "vehicle");
+			return data.tag;
+		}finally{
+			MasterLoader.coreInterface = headlessCore;
+		}
+	}
+
+	/**
+	 *  Adds the base entity data MC saves for all entities, with an inventory like the ones some entities have.
+	 */
+	private static void addEntityData(NBTTagCompound tag){
+		NBTTagList position = new NBTTagList();
+		position.appendTag(new NBTTagDouble(-1234.5678));
+		position.appendTag(new NBTTagDouble(64));
+		position.appendTag(new NBTTagDouble(0.5));
+		tag.setTag("Pos", position);
+		NBTTagList rotation = new NBTTagList();
+		rotation.appendTag(new NBTTagFloat(-179.9F));
+		rotation.appendTag(new NBTTagFloat(0F));
+		tag.setTag("Rotation", rotation);
+		tag.setFloat("FallDistance", 0F);
+		tag.setShort("Fire", (short) -1);
+		tag.setShort("Air", (short) 300);
+		tag.setBoolean("OnGround", true);
+		tag.setInteger("Dimension", -1);
+		tag.setLong("UUIDMost", 0x123456789ABCDEF0L);
+		tag.setLong("UUIDLeast", -0x123456789ABCDEF0L);
+
+		NBTTagList items = new NBTTagList();
+		NBTTagCompound itemTag = new NBTTagCompound();
+		itemTag.setByte("Slot", (byte) 3);
+		itemTag.setString("id", "mts:mtsbenchmark.wheel");
+		itemTag.setByte("Count", (byte) 64);
+		itemTag.setShort("Damage", (short) 0);
+		NBTTagCompound itemData = new NBTTagCompound();
+		itemData.setTag("display", new NBTTagCompound());
+		itemData.setTag("bytes", new NBTTagByteArray(new byte[]{1, 2, 3}));
+		itemData.setTag("ints", new NBTTagIntArray(new int[]{-5}));
+		itemTag.setTag("tag", itemData);
+		items.appendTag(itemTag);
+		tag.setTag("Items", items);
+	}
+}
@@ -0,0 +1,40 @@
+package mcinterfaceheadless;
+
+/**Base class for tests run by {@link HeadlessTests}.  Every public method in a test with a name
+ * starting with "test" and no parameters is a test case.  A new instance of the test is made for
+ * each case, so cases can't change each other's state.  Cases fail by throwing an exception,
+ * normally an {@link AssertionError} from one of the assert methods here.
+ * <br><br>
+ * Tests are put in the same package as the code they test, the same way the benchmarks are.
+ *
+ * @author don_bruce
+ */
+public abstract class AHeadlessTest{
+
+	/**
+	 *  Fails the current test case with the passed-in message if the condition is false.
+	 */
+	protected static void assertTrue(boolean condition, String message){
+		if(!condition){
+			throw new AssertionError(message);
+		}
+	}
+
+	/**
+	 *  Fails the current test case if the passed-in values aren't equal.
+	 */
+	protected static void assertEquals(long expected, long actual, String message){
+		if(expected != actual){
+			throw new AssertionError(message + "  Expected: " + expected + ", but got: " + actual);
+		}
+	}
+
+	/**
+	 *  Fails the current test case if the passed-in values are more than the tolerance apart.
+	 */
+	protected static void assertEquals(double expected, double actual, double tolerance, String message){
+		if(!(Math.abs(expected - actual) <= tolerance)){
+			throw new AssertionError(message + "  Expected: " + expected + ", but got: " + actual);
+		}
+	}
+}
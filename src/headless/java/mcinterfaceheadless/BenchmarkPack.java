@@ -0,0 +1,95 @@
+package mcinterfaceheadless;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import minecrafttransportsimulator.jsondefs.JSONConfig;
+import minecrafttransportsimulator.systems.ConfigSystem;
+import minecrafttransportsimulator.systems.PackParserSystem;
+import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
+
+/**Pack used by the benchmarks and the headless tests.  The JSONs for this pack are in the headless
+ * resources, and are added to the {@link PackParserSystem} directly rather than loaded from a jar.  This way
+ * the benchmarks and tests don't need any packs to be installed, and always run on the same definitions.  The vehicle in this
+ * pack has one of every part that has a packet, so it can be used to make every type of packet.
+ * <br><br>
+ * Call {@link #load()} in the setup of any benchmark or test that needs pack items or a vehicle.
+ *
+ * @author don_bruce
+ */
+public class BenchmarkPack{
+	public static final String PACK_ID = "mtsbenchmark";
+	private static final String[] PART_NAMES = new String[]{"wheel", "engine", "seat", "gun", "bullet", "barrel"};
+	private static boolean loaded;
+
+	/**
+	 *  Sets up the headless interfaces and adds all items in this pack.  The config is re-created
+	 *  after the items are added, as the default fuels depend on the engines in the loaded packs.
+	 *  Only the first call to this method does anything.
+	 */
+	public static synchronized void load(){
+		if(!loaded){
+			MasterInterface.init(new ArrayList<File>());
+			PackParserSystem.addVehicleDefinition(getReader("vehicles/car.json"), "car", PACK_ID);
+			for(String partName : PART_NAMES){
+				PackParserSystem.addPartDefinition(getReader("parts/" + partName + ".json"), partName, PACK_ID);
+			}
+			PackParserSystem.addDecorDefinition(getReader("decors/pump.json"), "pump", PACK_ID);
+			PackParserSystem.addPoleDefinition(getReader("poles/pole.json"), "pole", PACK_ID);
+			PackParserSystem.addPoleDefinition(getReader("poles/sign.json"), "sign", PACK_ID);
+			PackParserSystem.addRoadDefinition(getReader("roads/road.json"), "road", PACK_ID);
+			PackParserSystem.addInstrumentDefinition(getReader("instruments/gauge.json"), "gauge", PACK_ID);
+			ConfigSystem.configObject = new JSONConfig();
+			loaded = true;
+		}
+	}
+
+	/**
+	 *  Creates a new flat simulation with a single benchmark car in it.  The car has all its default parts.
+	 */
+	public static HeadlessSimulation createSimulation(){
+		HeadlessSimulation simulation = new HeadlessSimulation(0, 4, 0, 0);
+		simulation.spawnVehicle(PACK_ID, "car", "", 0.5, 0.5, 0);
+		simulation.addPlayer(simulation.getVehicles().get(0).position);
+		return simulation;
+	}
+
+	/**
+	 *  Helper method to get the benchmark car from a simulation made by {@link #createSimulation()}.
+	 */
+	public static EntityVehicleF_Physics getVehicle(HeadlessSimulation simulation){
+		return simulation.getVehicles().get(0);
+	}
+
+	/**
+	 *  Returns the text of the passed-in JSON file in this pack.  Used for benchmarking the parser
+	 *  without the cost of reading the file.
+	 */
+	public static String getJSON(String fileName){
+		try{
+			BufferedReader reader = new BufferedReader(getReader(fileName));
+			StringBuilder builder = new StringBuilder();
+			String line;
+			while((line = reader.readLine()) != null){
+				builder.append(line).append('\n');
+			}
+			reader.close();
+			return builder.toString();
+		}catch(IOException e){
+			throw new IllegalStateException("ERROR: Could not read benchmark JSON: " + fileName, e);
+		}
+	}
+
+	private static InputStreamReader getReader(String fileName){
+		InputStream stream = BenchmarkPack.class.getResourceAsStream("/benchmarkpack/" + fileName);
+		if(stream == null){
+			throw new NullPointerException("ERROR: Could not find benchmark JSON: " + fileName + ".  Make sure the benchmark resources are on the classpath.");
+		}
+		return new InputStreamReader(stream, StandardCharsets.UTF_8);
+	}
+}
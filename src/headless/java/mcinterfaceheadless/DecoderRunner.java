@@ -0,0 +1,90 @@
+package mcinterfaceheadless;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.LockSupport;
+
+import javazoom.jl.decoder.Equalizer;
+import minecrafttransportsimulator.sound.IStreamDecoder;
+import minecrafttransportsimulator.sound.MP3Decoder;
+import minecrafttransportsimulator.sound.RadioStreamReader;
+import minecrafttransportsimulator.sound.StreamDecoderPipeline;
+
+/**Decodes a local MP3 file through the {@link StreamDecoderPipeline} the same way a radio does,
+ * but without any audio hardware.  Arguments are given as "-name value" pairs:
+ * <ul>
+ * <li>-file - MP3 file to decode.  Required.</li>
+ * <li>-realtime - 1 to take blocks only as fast as they would play, 0 to take them as fast as possible.  Default 0.</li>
+ * </ul>
+ * When run in real time, blocks are taken from the pipeline on a 50ms tick like the client does, so
+ * the underrun and overrun counts are what a radio playing the file would see.  Otherwise, this
+ * reports how much faster than real time the file can be decoded.
+ *
+ * @author don_bruce
+ */
+public class DecoderRunner{
+	/**Time between client ticks, in nanoseconds.**/
+	private static final long TICK_TIME = 50L*1000*1000;
+
+	public static void main(String[] args) throws Exception{
+		String fileName = null;
+		boolean realTime = false;
+		for(int i=0; i+1<args.length; i+=2){
+			if(args[i].equals("-file")){
+				fileName = args[i+1];
+			}else if(args[i].equals("-realtime")){
+				realTime = !args[i+1].equals("0");
+			}else{
+				throw new IllegalArgumentException("ERROR: Unknown argument: " + args[i]);
+			}
+		}
+		if(fileName == null){
+			System.out.println("Usage: DecoderRunner -file <mp3> [-realtime 0|1]");
+			return;
+		}
+
+		final File musicFile = new File(fileName);
+		StreamDecoderPipeline pipeline = new StreamDecoderPipeline(new StreamDecoderPipeline.DecoderFactory(){
+			@Override
+			public IStreamDecoder createDecoder() throws Exception{
+				return new MP3Decoder(new RadioStreamReader(musicFile), new Equalizer());
+			}
+		});
+
+		//Take blocks until the pipeline is done.  In real time, we only take a block once the last one
+		//would have finished playing, checking once a tick just like the radio update does.
+		long blocks = 0;
+		long bytes = 0;
+		long startTime = System.nanoTime();
+		long nextBlockTime = startTime;
+		while(!pipeline.isFinished()){
+			if(realTime){
+				long currentTime = System.nanoTime();
+				if(currentTime < nextBlockTime){
+					LockSupport.parkNanos(Math.min(TICK_TIME, nextBlockTime - currentTime));
+					continue;
+				}
+			}
+			ByteBuffer block = realTime ? pipeline.pollBlock() : pipeline.readBlock();
+			if(block != null){
+				++blocks;
+				bytes += block.remaining();
+				if(realTime){
+					nextBlockTime += block.remaining()*1000000000L/(pipeline.getSampleRate()*(pipeline.isStereo() ? 4L : 2L));
+				}
+			}else if(realTime){
+				LockSupport.parkNanos(TICK_TIME);
+			}
+		}
+		long totalTime = System.nanoTime() - startTime;
+
+		if(pipeline.hasFailed()){
+			System.out.println("Decoding failed: " + pipeline.getFailureMessage());
+			return;
+		}
+		double audioSeconds = blocks > 0 ? bytes/(double) (pipeline.getSampleRate()*(pipeline.isStereo() ? 4 : 2)) : 0;
+		System.out.format("Decoded %d blocks, %.1f KB, %.1f seconds of %s audio at %d Hz%n", blocks, bytes/1024D, audioSeconds, blocks > 0 && pipeline.isStereo() ? "stereo" : "mono", blocks > 0 ? pipeline.getSampleRate() : 0);
+		System.out.format("Took %.3f seconds: %.1fx real time%n", totalTime/1E9, audioSeconds/(totalTime/1E9));
+		System.out.format("Underruns: %d, overruns: %d%n", pipeline.getUnderrunCount(), pipeline.getOverrunCount());
+	}
+}
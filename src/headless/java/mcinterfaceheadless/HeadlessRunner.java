@@ -0,0 +1,132 @@
+package mcinterfaceheadless;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.systems.ConfigSystem;
+
+/**Runs vehicles in a headless world and reports how fast they ran.  Arguments are given as
+ * "-name value" pairs.  Only -packs and -vehicle are required:
+ * <ul>
+ * <li>-packs - directory with pack jars.  May be given more than once.</li>
+ * <li>-vehicle - vehicle to spawn, as packID:systemName:subName.</li>
+ * <li>-count - number of vehicles to spawn.  Default 10.</li>
+ * <li>-ticks - number of ticks to run.  Default 600.</li>
+ * <li>-warmup - number of ticks to run before timing starts.  Default 0.</li>
+ * <li>-script - file with the inputs for the vehicles.  See {@link VehicleScript}.</li>
+ * <li>-threads - physics threads.  Default 1.</li>
+ * <li>-seed, -ground, -hills, -water - terrain settings.  Default is a flat world at height 4 with no water.</li>
+ * <li>-spacing - distance between spawned vehicles.  Default 16.</li>
+ * <li>-report - how often to print checksums, in ticks.  Default 100.</li>
+ * </ul>
+ * A player is put at the middle of the spawned vehicles, so they all run in the full simulation tier
+ * unless the spacing puts them far away.  The report includes the ticks per second, the memory
+ * allocated per tick by all threads, the packets sent per tick, and checksums of the vehicle states.
+ * Runs with the same arguments and code should always have the same checksums.
+ *
+ * @author don_bruce
+ */
+public class HeadlessRunner{
+
+	public static void main(String[] args) throws Exception{
+		//Parse arguments.
+		Map<String, String> arguments = new HashMap<String, String>();
+		List<File> packDirectories = new ArrayList<File>();
+		for(int i=0; i+1<args.length; i+=2){
+			if(!args[i].startsWith("-")){
+				throw new IllegalArgumentException("ERROR: Expected an argument name, but got: " + args[i]);
+			}
+			if(args[i].equals("-packs")){
+				packDirectories.add(new File(args[i+1]));
+			}else{
+				arguments.put(args[i].substring(1), args[i+1]);
+			}
+		}
+		if(packDirectories.isEmpty() || !arguments.containsKey("vehicle")){
+			System.out.println("Usage: HeadlessRunner -packs <dir> -vehicle <packID:systemName:subName> [-count N] [-ticks N] [-warmup N] [-script file] [-threads N] [-seed N] [-ground N] [-hills N] [-water N] [-spacing N] [-report N]");
+			return;
+		}
+		String[] vehicleName = (arguments.get("vehicle") + ":").split(":", -1);
+		int count = getArgument(arguments, "count", 10);
+		int ticks = getArgument(arguments, "ticks", 600);
+		int warmup = getArgument(arguments, "warmup", 0);
+		int threads = getArgument(arguments, "threads", 1);
+		int groundHeight = getArgument(arguments, "ground", 4);
+		int spacing = getArgument(arguments, "spacing", 16);
+		int reportInterval = getArgument(arguments, "report", 100);
+		List<String> scriptLines = arguments.containsKey("script") ? Files.readAllLines(new File(arguments.get("script")).toPath(), StandardCharsets.UTF_8) : VehicleScript.DEFAULT_SCRIPT;
+
+		//Set up the simulation.
+		MasterInterface.init(packDirectories);
+		ConfigSystem.configObject.general.physicsThreads.value = threads;
+		HeadlessSimulation simulation = new HeadlessSimulation(getArgument(arguments, "seed", 0), groundHeight, getArgument(arguments, "hills", 0), getArgument(arguments, "water", 0));
+		VehicleScript script = new VehicleScript(scriptLines);
+		int rowSize = (int) Math.ceil(Math.sqrt(count));
+		for(int i=0; i<count; ++i){
+			simulation.spawnVehicle(vehicleName[0], vehicleName[1], vehicleName[2], (i%rowSize)*spacing + 0.5, (i/rowSize)*spacing + 0.5, 0);
+		}
+		simulation.addPlayer(new Point3d(rowSize*spacing/2D, groundHeight, rowSize*spacing/2D));
+		System.out.println("Spawned " + simulation.getVehicles().size() + " vehicles of " + arguments.get("vehicle") + " with " + threads + " physics threads.");
+
+		//Run the warmup ticks.
+		for(int i=0; i<warmup; ++i){
+			script.apply(simulation.getTime(), simulation.getVehicles());
+			simulation.tick();
+		}
+
+		//Run and time the main ticks.
+		MasterInterface.resetNetworkMetrics();
+		long startAllocated = getAllocatedBytes();
+		long startTime = System.nanoTime();
+		for(int i=0; i<ticks; ++i){
+			script.apply(simulation.getTime(), simulation.getVehicles());
+			simulation.tick();
+			if(reportInterval > 0 && simulation.getTime()%reportInterval == 0){
+				System.out.format("Tick %d: %d vehicles, checksum %016x%n", simulation.getTime(), simulation.getVehicles().size(), simulation.getStateChecksum());
+			}
+		}
+		long totalTime = System.nanoTime() - startTime;
+		long totalAllocated = getAllocatedBytes() - startAllocated;
+
+		//Report results.
+		System.out.format("Ran %d ticks in %.3f seconds: %.1f ticks/sec, %.3f ms/tick%n", ticks, totalTime/1E9, ticks/(totalTime/1E9), totalTime/1E6/ticks);
+		if(startAllocated >= 0){
+			System.out.format("Allocated %.1f KB/tick, %.1f MB/sec%n", totalAllocated/1024D/ticks, totalAllocated/1048576D/(totalTime/1E9));
+		}else{
+			System.out.println("Allocation tracking is not supported by this JVM.");
+		}
+		System.out.format("Sent %.1f packets/tick, %.1f bytes/tick%n", MasterInterface.getPacketsSent()/(double) ticks, MasterInterface.getBytesSent()/(double) ticks);
+		System.out.format("Final checksum: %016x%n", simulation.getStateChecksum());
+	}
+
+	private static int getArgument(Map<String, String> arguments, String name, int defaultValue){
+		return arguments.containsKey(name) ? Integer.parseInt(arguments.get(name)) : defaultValue;
+	}
+
+	/**
+	 *  Returns the total bytes allocated by all live threads, or -1 if the JVM can't tell us.
+	 *  This includes the physics worker threads, so allocations in parallel physics are counted.
+	 */
+	private static long getAllocatedBytes(){
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if(threadBean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()){
+			long total = 0;
+			for(long allocated : ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(threadBean.getAllThreadIds())){
+				if(allocated > 0){
+					total += allocated;
+				}
+			}
+			return total;
+		}else{
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package mcinterfaceheadless;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.items.components.AItemBase;
+import minecrafttransportsimulator.items.components.AItemPack;
+import minecrafttransportsimulator.items.instances.ItemVehicle;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.packets.components.APacketBase;
+import minecrafttransportsimulator.systems.PackParserSystem;
+import minecrafttransportsimulator.vehicles.main.AEntityBase;
+import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
+
+/**A simulation of vehicles in a headless world.  Vehicles are spawned from pack definitions
+ * the same way the vehicle item spawns them in MC, and the world is ticked the same way MC
+ * ticks it.  This lets vehicle physics be run and timed without the game, and the state of all
+ * vehicles can be reduced to a checksum to check that changes to the code don't change the results.
+ * <br><br>
+ * {@link MasterInterface#init(List)} must be called before creating a simulation.
+ *
+ * @author don_bruce
+ */
+public class HeadlessSimulation{
+	private final WrapperWorld world;
+	private final List<EntityVehicleF_Physics> vehicles = new ArrayList<EntityVehicleF_Physics>();
+
+	/**
+	 *  Creates a new simulation.  The ground will be at the passed-in height, with hills up to
+	 *  the passed-in hill height above it.  A hill height of 0 makes a flat world.  Everything
+	 *  below the water height that isn't ground is water.  The seed controls the shape of the hills.
+	 */
+	public HeadlessSimulation(long seed, int groundHeight, int hillHeight, int waterHeight){
+		this(seed, groundHeight, hillHeight, waterHeight, false);
+	}
+
+	/**
+	 *  Like {@link #HeadlessSimulation(long, int, int, int)}, but the world may be a client world.
+	 *  Client worlds run the client code paths, and only get server state from packets passed to them.
+	 */
+	public HeadlessSimulation(long seed, int groundHeight, int hillHeight, int waterHeight, boolean isClient){
+		this.world = new WrapperWorld(seed, groundHeight, hillHeight, waterHeight, isClient);
+	}
+
+	/**
+	 *  Adds a player at the passed-in position.  Players aren't entities, they are only used for distance checks.
+	 */
+	public void addPlayer(Point3d position){
+		world.playerPositions.add(position.copy());
+	}
+
+	/**
+	 *  Spawns a new vehicle on the ground at the passed-in x and z position, facing the passed-in yaw.
+	 *  The vehicle will have all its default parts, fuel, and instruments, just like a vehicle spawned
+	 *  from a new item in MC.  Returns the spawned vehicle.
+	 */
+	public EntityVehicleF_Physics spawnVehicle(String packID, String systemName, String subName, double x, double z, double yaw){
+		AItemPack<?> item = PackParserSystem.getItem(packID, systemName, subName);
+		if(!(item instanceof ItemVehicle)){
+			throw new IllegalArgumentException("ERROR: Could not find vehicle: " + packID + ":" + systemName + subName + " in the loaded packs.");
+		}
+		ItemVehicle vehicleItem = (ItemVehicle) item;
+		WrapperNBT data = new WrapperNBT();
+		data.setString("packID", packID);
+		data.setString("systemName", systemName);
+		data.setString("subName", subName);
+
+		EntityVehicleF_Physics vehicle = vehicleItem.createEntity(world, world.generateEntity(), data);
+		vehicle.position.set(x, world.getTerrainHeight((int) Math.floor(x), (int) Math.floor(z)), z);
+		vehicle.prevPosition.setTo(vehicle.position);
+		vehicle.angles.y = yaw;
+		vehicle.prevAngles.setTo(vehicle.angles);
+		vehicleItem.setDefaultProperties(vehicle);
+		vehicle.position.y += -ItemVehicle.getGroundOffset(vehicle);
+		world.spawnEntity(vehicle);
+		vehicles.add(vehicle);
+		return vehicle;
+	}
+
+	/**
+	 *  Loads a vehicle from the passed-in data, like clients do when the server sends them a vehicle.
+	 *  The data should come from saving a vehicle in another simulation.  Returns the loaded vehicle.
+	 */
+	public EntityVehicleF_Physics loadVehicle(IWrapperNBT data){
+		AItemPack<?> item = PackParserSystem.getItem(data.getString("packID"), data.getString("systemName"), data.getString("subName"));
+		if(!(item instanceof ItemVehicle)){
+			throw new IllegalArgumentException("ERROR: Could not find vehicle: " + data.getString("packID") + ":" + data.getString("systemName") + data.getString("subName") + " in the loaded packs.");
+		}
+		EntityVehicleF_Physics vehicle = ((ItemVehicle) item).createEntity(world, world.generateEntity(), data);
+		world.spawnEntity(vehicle);
+		vehicles.add(vehicle);
+		return vehicle;
+	}
+
+	/**
+	 *  Returns all vehicles spawned in this simulation that are still in the world.
+	 */
+	public List<EntityVehicleF_Physics> getVehicles(){
+		return vehicles;
+	}
+
+	/**
+	 *  Sets whether vehicles are updated in phases like on MC servers, or one at a time like on MC clients.
+	 *  Phased by default.  Used to check that the phases don't change how vehicles move.
+	 */
+	public void setPhasedUpdates(boolean phasedUpdates){
+		world.phasedUpdates = phasedUpdates;
+	}
+
+	/**
+	 *  Ticks the world once.  Vehicles removed from the world are removed from this simulation.
+	 */
+	public void tick(){
+		world.tick();
+		for(int i=vehicles.size()-1; i>=0; --i){
+			if(!vehicles.get(i).isValid){
+				vehicles.remove(i);
+			}
+		}
+	}
+
+	/**
+	 *  Returns the world for this simulation.  Used to create things that aren't vehicles, like tile entities.
+	 */
+	public IWrapperWorld getWorld(){
+		return world;
+	}
+
+	/**
+	 *  Returns the player of this simulation.  Only client worlds have a player, so this is null for servers.
+	 */
+	public IWrapperPlayer getPlayer(){
+		return world.clientPlayer;
+	}
+
+	/**
+	 *  Sets the item the player of this simulation is holding.  Only client worlds have a player.
+	 */
+	public void setHeldItem(AItemBase item){
+		world.clientPlayer.heldItem = item;
+	}
+
+	/**
+	 *  Sends the passed-in packet through a buffer, and handles the packet read from it in this simulation.
+	 *  This is what happens to packets sent to this simulation from the other side.  The player should
+	 *  be the one that sent the packet for servers, and this simulation's player for clients.
+	 */
+	public void handlePacket(APacketBase packet, IWrapperPlayer player){
+		MasterInterface.networkInterface.copyThroughBuffer(packet).handle(world, player);
+	}
+
+	/**
+	 *  Returns the number of ticks this simulation has run.
+	 */
+	public long getTime(){
+		return world.getTime();
+	}
+
+	/**
+	 *  Returns a checksum of the state of all vehicles.  This includes the exact position, motion,
+	 *  angles, and rotation, so any difference in the physics, no matter how small, will change it.
+	 *  Vehicles are checked in the order they were spawned.
+	 */
+	public long getStateChecksum(){
+		long checksum = 17;
+		for(EntityVehicleF_Physics vehicle : vehicles){
+			checksum = 31*checksum + getStateChecksum(vehicle);
+		}
+		return checksum;
+	}
+
+	/**
+	 *  Returns a checksum of the state of the passed-in entity.
+	 */
+	public static long getStateChecksum(AEntityBase entity){
+		long checksum = 17;
+		checksum = addToChecksum(checksum, entity.position);
+		checksum = addToChecksum(checksum, entity.motion);
+		checksum = addToChecksum(checksum, entity.angles);
+		checksum = addToChecksum(checksum, entity.rotation);
+		return checksum;
+	}
+
+	private static long addToChecksum(long checksum, Point3d point){
+		checksum = 31*checksum + Double.doubleToLongBits(point.x);
+		checksum = 31*checksum + Double.doubleToLongBits(point.y);
+		return 31*checksum + Double.doubleToLongBits(point.z);
+	}
+}
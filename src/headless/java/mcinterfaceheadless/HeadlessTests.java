@@ -0,0 +1,83 @@
+package mcinterfaceheadless;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import mcinterface1122.CompactNBTCodecTest;
+import minecrafttransportsimulator.baseclasses.SignalNetworkScheduleTest;
+import minecrafttransportsimulator.packets.instances.PacketVehicleControlSyncTest;
+import minecrafttransportsimulator.rendering.components.RoadMeshBuilderTest;
+import minecrafttransportsimulator.sound.StreamDecoderPipelineTest;
+import minecrafttransportsimulator.systems.ProfilerSystemTest;
+import minecrafttransportsimulator.systems.VehiclePhysicsSystemTest;
+import minecrafttransportsimulator.vehicles.main.EntityVehicleA_BaseTest;
+import minecrafttransportsimulator.vehicles.main.EntityVehicleD_MovingTest;
+
+/**Runs all the headless tests and reports the results.  Tests don't need MC running or any installed packs,
+ * so they can be run anywhere.  If arguments are given, only tests with a class name containing one
+ * of them are run.  Exits with a status of 1 if any test case fails, so this can be used in builds.
+ * <br><br>
+ * New tests must be added to {@link #TESTS} to be run.
+ *
+ * @author don_bruce
+ */
+public class HeadlessTests{
+	private static final List<Class<? extends AHeadlessTest>> TESTS = Arrays.<Class<? extends AHeadlessTest>>asList(
+		StreamDecoderPipelineTest.class,
+		PacketVehicleControlSyncTest.class,
+		EntityVehicleD_MovingTest.class,
+		VehiclePhysicsSystemTest.class,
+		ProfilerSystemTest.class,
+		RoadMeshBuilderTest.class,
+		SignalNetworkScheduleTest.class,
+		EntityVehicleA_BaseTest.class,
+		CompactNBTCodecTest.class
+	);
+
+	public static void main(String[] args) throws Exception{
+		int passed = 0;
+		List<String> failures = new ArrayList<String>();
+		for(Class<? extends AHeadlessTest> testClass : TESTS){
+			if(!shouldRun(testClass, args)){
+				continue;
+			}
+			for(Method method : testClass.getMethods()){
+				if(method.getName().startsWith("test") && method.getParameterTypes().length == 0 && !Modifier.isStatic(method.getModifiers())){
+					String caseName = testClass.getSimpleName() + "." + method.getName();
+					long startTime = System.nanoTime();
+					try{
+						method.invoke(testClass.newInstance());
+						System.out.format("PASS %s (%.1f ms)%n", caseName, (System.nanoTime() - startTime)/1E6);
+						++passed;
+					}catch(InvocationTargetException e){
+						System.out.format("FAIL %s (%.1f ms)%n", caseName, (System.nanoTime() - startTime)/1E6);
+						e.getCause().printStackTrace(System.out);
+						failures.add(caseName);
+					}
+				}
+			}
+		}
+
+		System.out.println("Ran " + (passed + failures.size()) + " test cases: " + passed + " passed, " + failures.size() + " failed.");
+		for(String failure : failures){
+			System.out.println("Failed: " + failure);
+		}
+		System.exit(failures.isEmpty() ? 0 : 1);
+	}
+
+	private static boolean shouldRun(Class<?> testClass, String[] args){
+		if(args.length == 0){
+			return true;
+		}
+		for(String arg : args){
+			if(testClass.getName().contains(arg)){
+				return true;
+			}
+		}
+		return false;
+	}
+}
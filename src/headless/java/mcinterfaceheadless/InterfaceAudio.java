@@ -0,0 +1,47 @@
+package mcinterfaceheadless;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import minecrafttransportsimulator.mcinterface.IInterfaceAudio;
+import minecrafttransportsimulator.sound.IStreamDecoder;
+import minecrafttransportsimulator.sound.RadioStation;
+import minecrafttransportsimulator.sound.SoundInstance;
+
+/**Audio interface for the headless world.  Nothing to play sounds on, so everything here does nothing.
+ *
+ * @author don_bruce
+ */
+class InterfaceAudio implements IInterfaceAudio{
+
+	@Override
+	public void update(){}
+
+	@Override
+	public void playQuickSound(SoundInstance sound){}
+
+	@Override
+	public void prefetchSound(String soundName){}
+
+	@Override
+	public void addRadioStation(RadioStation station){}
+
+	@Override
+	public void addRadioSound(SoundInstance sound, List<Integer> buffers){}
+
+	@Override
+	public int createBuffer(ByteBuffer buffer, IStreamDecoder decoder){
+		return 0;
+	}
+
+	@Override
+	public void deleteBuffer(int bufferIndex){}
+
+	@Override
+	public void bindBuffer(SoundInstance sound, int bufferIndex){}
+
+	@Override
+	public int unqueueProcessedBuffers(SoundInstance sound){
+		return 0;
+	}
+}
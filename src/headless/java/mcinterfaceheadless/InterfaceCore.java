@@ -0,0 +1,71 @@
+package mcinterfaceheadless;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import minecrafttransportsimulator.items.components.AItemBase;
+import minecrafttransportsimulator.items.components.AItemPack;
+import minecrafttransportsimulator.mcinterface.IInterfaceCore;
+import minecrafttransportsimulator.mcinterface.IWrapperItemStack;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.IWrapperTileEntity;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+
+/**Core interface for the headless world.  There's no game here, so there are no
+ * other mods, no translations, and no item stacks.  Errors go to the error stream.
+ *
+ * @author don_bruce
+ */
+class InterfaceCore implements IInterfaceCore{
+
+	@Override
+	public String getGameVersion(){
+		return "1.12.2";
+	}
+
+	@Override
+	public boolean isModPresent(String modID){
+		return false;
+	}
+
+	@Override
+	public String getModName(String modID){
+		return modID;
+	}
+
+	@Override
+	public String getFluidName(String fluidID){
+		return fluidID;
+	}
+
+	@Override
+	public String translate(String text){
+		return text;
+	}
+
+	@Override
+	public void logError(String message){
+		System.err.println(message);
+	}
+
+	@Override
+	public IWrapperNBT createNewTag(){
+		return new WrapperNBT();
+	}
+
+	@Override
+	public IWrapperItemStack getStack(AItemBase item){
+		return null;
+	}
+
+	@Override
+	public List<IWrapperItemStack> parseFromJSON(AItemPack<?> item, boolean includeMain, boolean includeSub){
+		return new ArrayList<IWrapperItemStack>();
+	}
+
+	@Override
+	public IWrapperTileEntity getFakeTileEntity(String type, IWrapperWorld world, IWrapperNBT data, int inventoryUnits){
+		//Parts handle not having a fake tile entity, so just don't make one.
+		return null;
+	}
+}
@@ -0,0 +1,65 @@
+package mcinterfaceheadless;
+
+import minecrafttransportsimulator.mcinterface.IInterfaceGame;
+import minecrafttransportsimulator.mcinterface.IWrapperEntity;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+
+/**Game interface for the headless world.  The client world is the last client world that was
+ * made or ticked, and the client player is that world's player.  The game is never paused, and
+ * the camera is always in first-person on the player.
+ *
+ * @author don_bruce
+ */
+class InterfaceGame implements IInterfaceGame{
+	WrapperWorld clientWorld;
+	private float fov = 70;
+
+	@Override
+	public boolean isGamePaused(){
+		return false;
+	}
+
+	@Override
+	public boolean isChatOpen(){
+		return false;
+	}
+
+	@Override
+	public boolean inFirstPerson(){
+		return true;
+	}
+
+	@Override
+	public boolean inThirdPerson(){
+		return false;
+	}
+
+	@Override
+	public void toggleFirstPerson(){}
+
+	@Override
+	public float getFOV(){
+		return fov;
+	}
+
+	@Override
+	public void setFOV(float setting){
+		fov = setting;
+	}
+
+	@Override
+	public IWrapperWorld getClientWorld(){
+		return clientWorld;
+	}
+
+	@Override
+	public IWrapperPlayer getClientPlayer(){
+		return clientWorld != null ? clientWorld.clientPlayer : null;
+	}
+
+	@Override
+	public IWrapperEntity getRenderViewEntity(){
+		return getClientPlayer();
+	}
+}
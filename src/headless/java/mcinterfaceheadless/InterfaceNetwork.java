@@ -0,0 +1,91 @@
+package mcinterfaceheadless;
+
+import java.util.List;
+
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import minecrafttransportsimulator.mcinterface.IInterfaceNetwork;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.packets.components.APacketBase;
+
+/**Network interface for the headless world.  There are no clients to send packets to,
+ * but packets sent to clients are still written to a buffer.  This keeps the cost of
+ * creating packets in the simulation, and lets us count how much data would have been sent.
+ * Packets sent to the server are dropped, as this world is the server.
+ * <br><br>
+ * Tests can also have sent packets kept so they can be checked, or handled by a second world
+ * that stands in for a client.  See {@link MasterInterface#setCapturingPackets(boolean)}.
+ *
+ * @author don_bruce
+ */
+class InterfaceNetwork implements IInterfaceNetwork{
+	private final BiMap<Byte, Class<? extends APacketBase>> packetMappings = HashBiMap.create();
+	private final ByteBuf buffer = Unpooled.buffer();
+	long packetsSent;
+	long bytesSent;
+	/**Packets sent to the server and to clients since capturing was turned on.  Null when not capturing.**/
+	List<APacketBase> serverPackets;
+	List<APacketBase> clientPackets;
+
+	@Override
+	public void registerPacket(byte packetIndex, Class<? extends APacketBase> packetClass){
+		packetMappings.put(packetIndex, packetClass);
+	}
+
+	@Override
+	public byte getPacketIndex(APacketBase packet){
+		return packetMappings.inverse().get(packet.getClass());
+	}
+
+	@Override
+	public synchronized void sendToServer(APacketBase packet){
+		if(serverPackets != null){
+			serverPackets.add(packet);
+		}
+	}
+
+	@Override
+	public synchronized void sendToAllClients(APacketBase packet){
+		buffer.clear();
+		packet.writeToBuffer(buffer);
+		++packetsSent;
+		bytesSent += buffer.writerIndex();
+		if(clientPackets != null){
+			clientPackets.add(packet);
+		}
+	}
+
+	@Override
+	public void sendToClientsInWorld(APacketBase packet, IWrapperWorld world){
+		//Only one world, so all clients are in it.
+		sendToAllClients(packet);
+	}
+
+	/**
+	 *  Writes the passed-in packet to a buffer, and returns the packet read back from it.
+	 *  This is the packet the other side of the network would get.
+	 */
+	APacketBase copyThroughBuffer(APacketBase packet){
+		ByteBuf packetBuffer = Unpooled.buffer();
+		packet.writeToBuffer(packetBuffer);
+		try{
+			return packetMappings.get(packetBuffer.readByte()).getConstructor(ByteBuf.class).newInstance(packetBuffer);
+		}catch(Exception e){
+			throw new IllegalStateException("ERROR: Could not read packet: " + packet.getClass().getSimpleName() + " from its buffer.", e);
+		}
+	}
+
+	@Override
+	public IWrapperNBT createDataFromBuffer(ByteBuf buf){
+		return WrapperNBT.readFromBuffer(buf);
+	}
+
+	@Override
+	public IWrapperNBT createDataFromCompactBuffer(ByteBuf buf){
+		return WrapperNBT.readFromBuffer(buf);
+	}
+}
@@ -0,0 +1,73 @@
+package mcinterfaceheadless;
+
+import java.util.List;
+
+import minecrafttransportsimulator.baseclasses.Point3i;
+import minecrafttransportsimulator.jsondefs.JSONText;
+import minecrafttransportsimulator.mcinterface.IInterfaceRender;
+import minecrafttransportsimulator.rendering.components.AParticle;
+import minecrafttransportsimulator.vehicles.main.AEntityBase;
+
+/**Render interface for the headless world.  Nothing to render to, so everything here does nothing.
+ *
+ * @author don_bruce
+ */
+class InterfaceRender implements IInterfaceRender{
+
+	@Override
+	public int getRenderPass(){
+		return 0;
+	}
+
+	@Override
+	public boolean shouldRenderBoundingBoxes(){
+		return false;
+	}
+
+	@Override
+	public void bindTexture(String textureLocation){}
+
+	@Override
+	public void setTexture(String textureLocation){}
+
+	@Override
+	public void recallTexture(){}
+
+	@Override
+	public void setLightingState(boolean enabled){}
+
+	@Override
+	public void setSystemLightingState(boolean enabled){}
+
+	@Override
+	public void setInternalLightingState(boolean enabled){}
+
+	@Override
+	public void setLightingToEntity(AEntityBase entity){}
+
+	@Override
+	public void setLightingToBlock(Point3i location){}
+
+	@Override
+	public void setBlendState(boolean enabled, boolean brightBlend){}
+
+	@Override
+	public void setColorState(float red, float green, float blue, float alpha){}
+
+	@Override
+	public void resetStates(){}
+
+	@Override
+	public void renderEntityRiders(AEntityBase entity, float partialTicks){}
+
+	@Override
+	public void spawnParticle(AParticle particle){}
+
+	@Override
+	public void spawnBlockBreakParticles(Point3i point, boolean playSound){}
+
+	@Override
+	public boolean renderTextMarkings(List<JSONText> textDefinitions, List<String> textLines, String inheritedColor, String objectRendering, boolean lightsOn){
+		return false;
+	}
+}
@@ -0,0 +1,103 @@
+package mcinterfaceheadless;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import minecrafttransportsimulator.jsondefs.JSONConfig;
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.packets.components.APacketBase;
+import minecrafttransportsimulator.systems.ConfigSystem;
+import minecrafttransportsimulator.systems.PackParserSystem;
+
+/**Master interface for running without MC.  This sets up the {@link MasterLoader} with the
+ * headless interfaces and loads packs without creating any MC items.  Client-only interfaces
+ * like GUIs and input are left null, as nothing is shown or pressed.  The game interface is set,
+ * so client worlds have a client player.
+ * <br><br>
+ * We don't go through {@link MasterLoader#setInterfaces} here, as that creates MC items.
+ * The main items it creates aren't needed for simulation, so we just set the fields.
+ *
+ * @author don_bruce
+ */
+public class MasterInterface{
+	static final InterfaceNetwork networkInterface = new InterfaceNetwork();
+	static final InterfaceGame gameInterface = new InterfaceGame();
+	private static boolean initialized;
+
+	/**
+	 *  Sets up the interfaces and loads all packs in the passed-in directories.  The config
+	 *  is created after the packs, as the default fuels depend on the loaded engines.
+	 *  Only the first call to this method does anything.
+	 */
+	public static synchronized void init(List<File> packDirectories){
+		if(!initialized){
+			MasterLoader.resourceDomain = MasterLoader.MODID;
+			MasterLoader.audioInterface = new InterfaceAudio();
+			MasterLoader.coreInterface = new InterfaceCore();
+			MasterLoader.gameInterface = gameInterface;
+			MasterLoader.networkInterface = networkInterface;
+			MasterLoader.renderInterface = new InterfaceRender();
+			MasterLoader.gameDirectory = new File("").getAbsolutePath();
+			MasterLoader.registerPackets((byte) 0);
+			PackParserSystem.loadPacks(packDirectories);
+			ConfigSystem.configObject = new JSONConfig();
+			initialized = true;
+		}
+	}
+
+	/**
+	 *  Returns the number of packets that would have been sent to clients since the last reset.
+	 */
+	public static long getPacketsSent(){
+		return networkInterface.packetsSent;
+	}
+
+	/**
+	 *  Returns the number of bytes that would have been sent to clients since the last reset.
+	 */
+	public static long getBytesSent(){
+		return networkInterface.bytesSent;
+	}
+
+	/**
+	 *  Resets the packet counts.
+	 */
+	public static void resetNetworkMetrics(){
+		networkInterface.packetsSent = 0;
+		networkInterface.bytesSent = 0;
+	}
+
+	/**
+	 *  Starts or stops keeping all sent packets.  Kept packets can be gotten with
+	 *  {@link #takeServerPackets()} and {@link #takeClientPackets()}.  Used by tests.
+	 */
+	public static void setCapturingPackets(boolean capture){
+		synchronized(networkInterface){
+			networkInterface.serverPackets = capture ? new ArrayList<APacketBase>() : null;
+			networkInterface.clientPackets = capture ? new ArrayList<APacketBase>() : null;
+		}
+	}
+
+	/**
+	 *  Returns all packets sent to the server since the last call, and clears them.
+	 */
+	public static List<APacketBase> takeServerPackets(){
+		synchronized(networkInterface){
+			List<APacketBase> packets = new ArrayList<APacketBase>(networkInterface.serverPackets);
+			networkInterface.serverPackets.clear();
+			return packets;
+		}
+	}
+
+	/**
+	 *  Returns all packets sent to clients since the last call, and clears them.
+	 */
+	public static List<APacketBase> takeClientPackets(){
+		synchronized(networkInterface){
+			List<APacketBase> packets = new ArrayList<APacketBase>(networkInterface.clientPackets);
+			networkInterface.clientPackets.clear();
+			return packets;
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package mcinterfaceheadless;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
+import minecrafttransportsimulator.vehicles.parts.PartEngine;
+
+/**Script of inputs for vehicles in a {@link HeadlessSimulation}.  Each line of a script is
+ * in the format "tick control value", and sets the control to the value on that tick.
+ * Blank lines and lines starting with # are ignored.  Controls are:
+ * <ul>
+ * <li>throttle - 0 to 100.</li>
+ * <li>brake - 0 to 100.</li>
+ * <li>steering, aileron, elevator - angle in tenths of a degree.  Held until changed.</li>
+ * <li>parkingbrake, magneto, starter - 1 for on, 0 for off.</li>
+ * <li>shiftup, shiftdown - shifts all engines once.  Value is ignored.</li>
+ * </ul>
+ * Inputs are applied to all vehicles, so all vehicles driven by a script do the same thing.
+ *
+ * @author don_bruce
+ */
+public class VehicleScript{
+	/**Script used if none is given.  Starts the engines, drives forwards, turns, and then stops.**/
+	public static final List<String> DEFAULT_SCRIPT = Arrays.asList(
+		"0 parkingbrake 0",
+		"0 magneto 1",
+		"0 starter 1",
+		"40 starter 0",
+		"60 shiftup 0",
+		"60 throttle 60",
+		"200 steering 200",
+		"300 steering 0",
+		"400 throttle 0",
+		"400 brake 50"
+	);
+
+	private static final List<String> CONTROLS = Arrays.asList("throttle", "brake", "parkingbrake", "steering", "aileron", "elevator", "magneto", "starter", "shiftup", "shiftdown");
+
+	private final List<ScriptEntry> entries = new ArrayList<ScriptEntry>();
+	private int nextEntry;
+	private short steeringAngle;
+	private short aileronAngle;
+	private short elevatorAngle;
+
+	public VehicleScript(List<String> lines){
+		for(String line : lines){
+			line = line.trim();
+			if(!line.isEmpty() && !line.startsWith("#")){
+				String[] parts = line.split("\\s+");
+				if(parts.length != 3){
+					throw new IllegalArgumentException("ERROR: Script line: " + line + " is not in the format \"tick control value\".");
+				}
+				if(!CONTROLS.contains(parts[1].toLowerCase())){
+					throw new IllegalArgumentException("ERROR: Unknown control: " + parts[1] + " in script line: " + line + ".  Valid controls are: " + CONTROLS);
+				}
+				entries.add(new ScriptEntry(Long.parseLong(parts[0]), parts[1].toLowerCase(), Integer.parseInt(parts[2])));
+			}
+		}
+		for(int i=1; i<entries.size(); ++i){
+			if(entries.get(i).tick < entries.get(i-1).tick){
+				throw new IllegalArgumentException("ERROR: Script lines must be in tick order.  Line for tick " + entries.get(i).tick + " is after a line for tick " + entries.get(i-1).tick + ".");
+			}
+		}
+	}
+
+	/**
+	 *  Applies the inputs for the passed-in tick to the passed-in vehicles.  This should be called
+	 *  once per tick, prior to ticking the simulation, with ticks in order.
+	 */
+	public void apply(long tick, List<EntityVehicleF_Physics> vehicles){
+		while(nextEntry < entries.size() && entries.get(nextEntry).tick <= tick){
+			ScriptEntry entry = entries.get(nextEntry++);
+			for(EntityVehicleF_Physics vehicle : vehicles){
+				applyEntry(entry, vehicle);
+			}
+		}
+
+		//Hold the control surfaces.  If we don't, the vehicle will dampen them back to 0.
+		for(EntityVehicleF_Physics vehicle : vehicles){
+			vehicle.rudderAngle = steeringAngle;
+			vehicle.rudderCooldown = Byte.MAX_VALUE;
+			vehicle.aileronAngle = aileronAngle;
+			vehicle.aileronCooldown = Byte.MAX_VALUE;
+			vehicle.elevatorAngle = elevatorAngle;
+			vehicle.elevatorCooldown = Byte.MAX_VALUE;
+		}
+	}
+
+	private void applyEntry(ScriptEntry entry, EntityVehicleF_Physics vehicle){
+		switch(entry.control){
+			case("throttle") : vehicle.throttle = (byte) Math.max(0, Math.min(EntityVehicleF_Physics.MAX_THROTTLE, entry.value)); break;
+			case("brake") : vehicle.brake = (byte) Math.max(0, Math.min(EntityVehicleF_Physics.MAX_BRAKE, entry.value)); break;
+			case("parkingbrake") : vehicle.parkingBrakeOn = entry.value != 0; break;
+			case("steering") : steeringAngle = (short) Math.max(-EntityVehicleF_Physics.MAX_RUDDER_ANGLE, Math.min(EntityVehicleF_Physics.MAX_RUDDER_ANGLE, entry.value)); break;
+			case("aileron") : aileronAngle = (short) Math.max(-EntityVehicleF_Physics.MAX_AILERON_ANGLE, Math.min(EntityVehicleF_Physics.MAX_AILERON_ANGLE, entry.value)); break;
+			case("elevator") : elevatorAngle = (short) Math.max(-EntityVehicleF_Physics.MAX_ELEVATOR_ANGLE, Math.min(EntityVehicleF_Physics.MAX_ELEVATOR_ANGLE, entry.value)); break;
+			case("magneto") : {
+				for(PartEngine engine : vehicle.engines.values()){
+					engine.setMagnetoStatus(entry.value != 0);
+				}
+				break;
+			}
+			case("starter") : {
+				for(PartEngine engine : vehicle.engines.values()){
+					engine.setElectricStarterStatus(entry.value != 0);
+				}
+				break;
+			}
+			case("shiftup") : {
+				for(PartEngine engine : vehicle.engines.values()){
+					engine.shiftUp(false);
+				}
+				break;
+			}
+			case("shiftdown") : {
+				for(PartEngine engine : vehicle.engines.values()){
+					engine.shiftDown(false);
+				}
+				break;
+			}
+		}
+		vehicle.wakeUp();
+	}
+
+	private static class ScriptEntry{
+		private final long tick;
+		private final String control;
+		private final int value;
+
+		private ScriptEntry(long tick, String control, int value){
+			this.tick = tick;
+			this.control = control;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package mcinterfaceheadless;
+
+import minecrafttransportsimulator.baseclasses.Point3i;
+import minecrafttransportsimulator.mcinterface.IWrapperBlock;
+
+/**Block wrapper for the headless world.  Blocks are either solid ground or water, and
+ * use the same hardness and slipperiness values as MC's grass and water blocks.
+ *
+ * @author don_bruce
+ */
+class WrapperBlock implements IWrapperBlock{
+	private final Point3i position;
+	private final boolean liquid;
+
+	WrapperBlock(Point3i position, boolean liquid){
+		this.position = position;
+		this.liquid = liquid;
+	}
+
+	@Override
+	public Point3i getPosition(){
+		return position;
+	}
+
+	@Override
+	public float getHardness(){
+		return liquid ? 100.0F : 0.6F;
+	}
+
+	@Override
+	public float getSlipperiness(){
+		return 0.6F;
+	}
+
+	@Override
+	public boolean isLiquid(){
+		return liquid;
+	}
+
+	@Override
+	public boolean isRaining(){
+		return false;
+	}
+}
@@ -0,0 +1,165 @@
+package mcinterfaceheadless;
+
+import minecrafttransportsimulator.baseclasses.Damage;
+import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.mcinterface.IWrapperEntity;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+import minecrafttransportsimulator.vehicles.main.AEntityBase;
+
+/**Fake entity for the headless world.  If this wrapper holds one of our entities, all
+ * position and rotation calls go to that entity, like they would for a MC builder.
+ * Otherwise, this wrapper keeps its own position and rotation, which can be used to
+ * put simple entities like players or mobs in the world.
+ *
+ * @author don_bruce
+ */
+class WrapperEntity implements IWrapperEntity{
+	private static int idCounter = 1;
+
+	final int id;
+	AEntityBase entity;
+	AEntityBase entityRiding;
+	boolean isDead;
+	private final Point3d position = new Point3d(0D, 0D, 0D);
+	private final Point3d velocity = new Point3d(0D, 0D, 0D);
+	private double yaw;
+	private double headYaw;
+	private double pitch;
+	private WrapperNBT data = new WrapperNBT();
+
+	WrapperEntity(){
+		this.id = idCounter++;
+	}
+
+	@Override
+	public boolean isValid(){
+		return entity != null ? entity.isValid : !isDead;
+	}
+
+	@Override
+	public int getID(){
+		return id;
+	}
+
+	@Override
+	public AEntityBase getEntityRiding(){
+		return entityRiding;
+	}
+
+	@Override
+	public void setRiding(AEntityBase entityToRide){
+		entityRiding = entityToRide;
+	}
+
+	@Override
+	public AEntityBase getBaseEntity(){
+		return entity;
+	}
+
+	@Override
+	public double getSeatOffset(){
+		return 0D;
+	}
+
+	@Override
+	public double getEyeHeight(){
+		return entity != null ? 0D : 1.62D;
+	}
+
+	@Override
+	public Point3d getPosition(){
+		return entity != null ? entity.position : position;
+	}
+
+	@Override
+	public void setPosition(Point3d position){
+		if(entity != null){
+			entity.position.setTo(position);
+		}else{
+			this.position.setTo(position);
+		}
+	}
+
+	@Override
+	public Point3d getVelocity(){
+		return entity != null ? entity.motion : velocity;
+	}
+
+	@Override
+	public void setVelocity(Point3d motion){
+		if(entity != null){
+			entity.motion.setTo(motion);
+		}else{
+			velocity.setTo(motion);
+		}
+	}
+
+	@Override
+	public float getPitch(){
+		return (float) (entity != null ? entity.angles.x : pitch);
+	}
+
+	@Override
+	public float getYaw(){
+		return (float) (entity != null ? entity.angles.y : yaw);
+	}
+
+	@Override
+	public float getHeadYaw(){
+		return entity != null ? getYaw() : (float) headYaw;
+	}
+
+	@Override
+	public Point3d getLineOfSight(float distance){
+		return (new Point3d(0D, 0D, distance)).rotateFine(new Point3d(getPitch(), 0D, 0D)).rotateFine(new Point3d(0D, getYaw(), 0));
+	}
+
+	@Override
+	public void setYaw(double yaw){
+		this.yaw = yaw;
+	}
+
+	@Override
+	public void setHeadYaw(double yaw){
+		this.headYaw = yaw;
+	}
+
+	@Override
+	public void setPitch(double pitch){
+		this.pitch = pitch;
+	}
+
+	@Override
+	public IWrapperNBT getNBT(){
+		return data;
+	}
+
+	@Override
+	public void setNBT(IWrapperNBT data){
+		this.data = (WrapperNBT) data;
+	}
+
+	@Override
+	public boolean leashTo(IWrapperPlayer player){
+		return false;
+	}
+
+	@Override
+	public void attack(Damage damage){
+		if(entity != null){
+			entity.attack(damage);
+		}
+	}
+
+	@Override
+	public Point3d getRenderedPosition(float partialTicks){
+		return getPosition();
+	}
+
+	@Override
+	public void addPotionEffect(String name, int duration, int amplifier){}
+
+	@Override
+	public void removePotionEffect(String name){}
+}
@@ -0,0 +1,223 @@
+package mcinterfaceheadless;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import io.netty.buffer.ByteBuf;
+import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.baseclasses.Point3i;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+
+/**Map-backed NBT wrapper.  Values are stored in a map rather than in a MC tag, but they
+ * are read back the same way MC does it.  Missing values come back as false, 0, or an
+ * empty string, and numbers can be read back as any other number type.  Keys for lists
+ * and points use the same names the MC wrapper does, so data saved by one can be read by
+ * the other's code without issue.
+ *
+ * @author don_bruce
+ */
+class WrapperNBT implements IWrapperNBT{
+	private static final byte TYPE_BOOLEAN = 0;
+	private static final byte TYPE_INTEGER = 1;
+	private static final byte TYPE_DOUBLE = 2;
+	private static final byte TYPE_STRING = 3;
+	private static final byte TYPE_DATA = 4;
+
+	final Map<String, Object> values = new LinkedHashMap<String, Object>();
+
+	@Override
+	public boolean getBoolean(String name){
+		Object value = values.get(name);
+		return value instanceof Boolean ? (Boolean) value : (value instanceof Number ? ((Number) value).byteValue() != 0 : false);
+	}
+
+	@Override
+	public void setBoolean(String name, boolean value){
+		values.put(name, value);
+	}
+
+	@Override
+	public int getInteger(String name){
+		Object value = values.get(name);
+		return value instanceof Number ? ((Number) value).intValue() : (value instanceof Boolean ? ((Boolean) value ? 1 : 0) : 0);
+	}
+
+	@Override
+	public void setInteger(String name, int value){
+		values.put(name, value);
+	}
+
+	@Override
+	public double getDouble(String name){
+		Object value = values.get(name);
+		return value instanceof Number ? ((Number) value).doubleValue() : (value instanceof Boolean ? ((Boolean) value ? 1 : 0) : 0);
+	}
+
+	@Override
+	public void setDouble(String name, double value){
+		values.put(name, value);
+	}
+
+	@Override
+	public String getString(String name){
+		Object value = values.get(name);
+		return value instanceof String ? (String) value : "";
+	}
+
+	@Override
+	public void setString(String name, String value){
+		values.put(name, value);
+	}
+
+	@Override
+	public List<String> getStrings(String name, int qty){
+		List<String> values = new ArrayList<String>();
+		for(int i=0; i<qty; ++i){
+			values.add(getString(name + i));
+		}
+		return values;
+	}
+
+	@Override
+	public void setStrings(String name, List<String> values){
+		setInteger(name + "count", values.size());
+		for(int i=0; i<values.size(); ++i){
+			setString(name + i, values.get(i));
+		}
+	}
+
+	@Override
+	public Point3i getPoint3i(String name){
+		return new Point3i(getInteger(name + "x"), getInteger(name + "y"), getInteger(name + "z"));
+	}
+
+	@Override
+	public void setPoint3i(String name, Point3i value){
+		setInteger(name + "x", value.x);
+		setInteger(name + "y", value.y);
+		setInteger(name + "z", value.z);
+	}
+
+	@Override
+	public Point3d getPoint3d(String name){
+		return new Point3d(getDouble(name + "x"), getDouble(name + "y"), getDouble(name + "z"));
+	}
+
+	@Override
+	public void setPoint3d(String name, Point3d value){
+		setDouble(name + "x", value.x);
+		setDouble(name + "y", value.y);
+		setDouble(name + "z", value.z);
+	}
+
+	@Override
+	public List<Point3i> getPoints(String name){
+		List<Point3i> values = new ArrayList<Point3i>();
+		int count = getInteger(name + "count");
+		for(int i=0; i<count; ++i){
+			Point3i point = new Point3i(getInteger(name + i + "x"), getInteger(name + i + "y"), getInteger(name + i + "z"));
+			if(!point.isZero()){
+				values.add(point);
+			}
+		}
+		return values;
+	}
+
+	@Override
+	public void setPoints(String name, List<Point3i> values){
+		setInteger(name + "count", values.size());
+		for(int i=0; i<values.size(); ++i){
+			setInteger(name + i + "x", values.get(i).x);
+			setInteger(name + i + "y", values.get(i).y);
+			setInteger(name + i + "z", values.get(i).z);
+		}
+	}
+
+	@Override
+	public WrapperNBT getData(String name){
+		Object value = values.get(name);
+		return value instanceof WrapperNBT ? (WrapperNBT) value : null;
+	}
+
+	@Override
+	public void setData(String name, IWrapperNBT value){
+		values.put(name, value);
+	}
+
+	@Override
+	public void deleteData(String name){
+		values.remove(name);
+	}
+
+	/**
+	 *  Writes this data to the buffer.  Each value is written with its name and a type byte,
+	 *  so {@link #readFromBuffer(ByteBuf)} can re-create it without knowing what's in it.
+	 */
+	@Override
+	public void writeToBuffer(ByteBuf buf){
+		buf.writeInt(values.size());
+		for(Entry<String, Object> entry : values.entrySet()){
+			writeString(entry.getKey(), buf);
+			Object value = entry.getValue();
+			if(value instanceof Boolean){
+				buf.writeByte(TYPE_BOOLEAN);
+				buf.writeBoolean((Boolean) value);
+			}else if(value instanceof Integer){
+				buf.writeByte(TYPE_INTEGER);
+				buf.writeInt((Integer) value);
+			}else if(value instanceof Double){
+				buf.writeByte(TYPE_DOUBLE);
+				buf.writeDouble((Double) value);
+			}else if(value instanceof String){
+				buf.writeByte(TYPE_STRING);
+				writeString((String) value, buf);
+			}else{
+				buf.writeByte(TYPE_DATA);
+				((WrapperNBT) value).writeToBuffer(buf);
+			}
+		}
+	}
+
+	/**
+	 *  There's no compact codec without MC tags, so this just writes the normal format.
+	 */
+	@Override
+	public void writeCompactToBuffer(ByteBuf buf){
+		writeToBuffer(buf);
+	}
+
+	/**
+	 *  Reads data written by {@link #writeToBuffer(ByteBuf)}.
+	 */
+	static WrapperNBT readFromBuffer(ByteBuf buf){
+		WrapperNBT data = new WrapperNBT();
+		int count = buf.readInt();
+		for(int i=0; i<count; ++i){
+			String name = readString(buf);
+			switch(buf.readByte()){
+				case(TYPE_BOOLEAN): data.values.put(name, buf.readBoolean()); break;
+				case(TYPE_INTEGER): data.values.put(name, buf.readInt()); break;
+				case(TYPE_DOUBLE): data.values.put(name, buf.readDouble()); break;
+				case(TYPE_STRING): data.values.put(name, readString(buf)); break;
+				default: data.values.put(name, readFromBuffer(buf)); break;
+			}
+		}
+		return data;
+	}
+
+	private static void writeString(String string, ByteBuf buf){
+		byte[] stringAsBytes = string.getBytes(StandardCharsets.UTF_8);
+		buf.writeInt(stringAsBytes.length);
+		buf.writeBytes(stringAsBytes);
+	}
+
+	private static String readString(ByteBuf buf){
+		byte[] stringAsBytes = new byte[buf.readInt()];
+		buf.readBytes(stringAsBytes);
+		return new String(stringAsBytes, StandardCharsets.UTF_8);
+	}
+}
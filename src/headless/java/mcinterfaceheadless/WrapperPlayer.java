@@ -0,0 +1,77 @@
+package mcinterfaceheadless;
+
+import java.util.UUID;
+
+import minecrafttransportsimulator.items.components.AItemBase;
+import minecrafttransportsimulator.mcinterface.IWrapperEntity;
+import minecrafttransportsimulator.mcinterface.IWrapperInventory;
+import minecrafttransportsimulator.mcinterface.IWrapperItemStack;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+import minecrafttransportsimulator.mcinterface.IWrapperTileEntity;
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.packets.components.APacketBase;
+
+/**Fake player for the headless world.  Client worlds have one of these as the client player.
+ * There are no stacks or inventories, so only the held item is kept, and GUIs and chat do nothing.
+ * Packets sent to this player are sent like packets sent to all clients.
+ *
+ * @author don_bruce
+ */
+class WrapperPlayer extends WrapperEntity implements IWrapperPlayer{
+	private final String uuid = UUID.randomUUID().toString();
+	AItemBase heldItem;
+
+	@Override
+	public String getUUID(){
+		return uuid;
+	}
+
+	@Override
+	public boolean isOP(){
+		return true;
+	}
+
+	@Override
+	public void displayChatMessage(String message){}
+
+	@Override
+	public boolean isCreative(){
+		return false;
+	}
+
+	@Override
+	public boolean isSneaking(){
+		return false;
+	}
+
+	@Override
+	public IWrapperEntity getLeashedEntity(){
+		return null;
+	}
+
+	@Override
+	public AItemBase getHeldItem(){
+		return heldItem;
+	}
+
+	@Override
+	public IWrapperItemStack getHeldStack(){
+		return null;
+	}
+
+	@Override
+	public IWrapperInventory getInventory(){
+		return null;
+	}
+
+	@Override
+	public void sendPacket(APacketBase packet){
+		MasterLoader.networkInterface.sendToAllClients(packet);
+	}
+
+	@Override
+	public void openCraftingGUI(){}
+
+	@Override
+	public void openTileEntityGUI(IWrapperTileEntity tile){}
+}
@@ -0,0 +1,541 @@
+package mcinterfaceheadless;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import minecrafttransportsimulator.baseclasses.BoundingBox;
+import minecrafttransportsimulator.baseclasses.Damage;
+import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.baseclasses.Point3i;
+import minecrafttransportsimulator.blocks.components.ABlockBase;
+import minecrafttransportsimulator.blocks.components.ABlockBase.Axis;
+import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityBase;
+import minecrafttransportsimulator.items.components.AItemBase;
+import minecrafttransportsimulator.jsondefs.AJSONItem;
+import minecrafttransportsimulator.mcinterface.IWrapperBlock;
+import minecrafttransportsimulator.mcinterface.IWrapperEntity;
+import minecrafttransportsimulator.mcinterface.IWrapperItemStack;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+import minecrafttransportsimulator.mcinterface.IWrapperTileEntity;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.systems.PresenceSensorSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem;
+import minecrafttransportsimulator.systems.ScheduledEventSystem;
+import minecrafttransportsimulator.systems.VehiclePhysicsSystem;
+import minecrafttransportsimulator.vehicles.main.AEntityBase;
+import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
+
+/**In-memory world with no MC code behind it.  Terrain is generated from a ground height, and
+ * optionally a seeded heightmap for hills, with water filling everything below the water height.
+ * Blocks that are destroyed are tracked in a map, so the world can change after creation.
+ * Worlds are server worlds unless made as client worlds, which run the client code paths of
+ * the entities in them.  Worlds are ticked via {@link #tick()} rather than by MC.  Ticking
+ * updates entities the same way the MC builders do, so vehicles in this world behave like
+ * they would in MC, just without anything to interact with but the ground.
+ *
+ * @author don_bruce
+ */
+class WrapperWorld implements IWrapperWorld{
+	/**Size of the squares between heightmap points.  Heights between points are interpolated.**/
+	private static final int HEIGHTMAP_CELL_SIZE = 16;
+
+	private final long seed;
+	private final int groundHeight;
+	private final int hillHeight;
+	private final int waterHeight;
+	private final boolean isClient;
+	private final Map<Long, Boolean> changedBlocks = new HashMap<Long, Boolean>();
+	private final Map<Integer, WrapperEntity> entities = new LinkedHashMap<Integer, WrapperEntity>();
+	private final List<EntityVehicleF_Physics> phasedVehicles = new ArrayList<EntityVehicleF_Physics>();
+	/**Positions of the players in this world.  Used for distance checks, such as for simulation tiers.**/
+	final List<Point3d> playerPositions = new ArrayList<Point3d>();
+	/**Player for client worlds, as returned by the game interface.  Null for server worlds.**/
+	final WrapperPlayer clientPlayer;
+	/**If false, vehicles are updated one at a time rather than in phases.  Used to check both orders give the same results.**/
+	boolean phasedUpdates = true;
+	private WrapperNBT savedData = new WrapperNBT();
+	private final Map<String, WrapperNBT> serverData = new HashMap<String, WrapperNBT>();
+	private long time;
+
+	WrapperWorld(long seed, int groundHeight, int hillHeight, int waterHeight, boolean isClient){
+		this.seed = seed;
+		this.groundHeight = groundHeight;
+		this.hillHeight = hillHeight;
+		this.waterHeight = waterHeight;
+		this.isClient = isClient;
+		//Clients don't update vehicles in phases.
+		this.phasedUpdates = !isClient;
+		if(isClient){
+			this.clientPlayer = new WrapperPlayer();
+			MasterInterface.gameInterface.clientWorld = this;
+		}else{
+			this.clientPlayer = null;
+		}
+	}
+
+	/**
+	 *  Ticks this world.  All vehicles that are awake and not being towed are updated via the
+	 *  {@link VehiclePhysicsSystem}, and all other awake entities are updated on their own.
+	 *  If {@link #phasedUpdates} is false, vehicles are updated on their own too, like on clients.
+	 *  Scheduled events are run on servers before any entities update, like they are in the real game.
+	 *  Client worlds become the client world of the game interface while they tick.
+	 *  Entities that are no longer valid, or have fallen out of the world, are then removed.
+	 *  The profiler times for the tick are merged last, so they can be checked right after ticking.
+	 */
+	void tick(){
+		++time;
+		if(isClient){
+			MasterInterface.gameInterface.clientWorld = this;
+		}else{
+			ScheduledEventSystem.tick(this);
+		}
+		for(WrapperEntity wrapper : entities.values()){
+			if(wrapper.entity instanceof EntityVehicleF_Physics){
+				EntityVehicleF_Physics vehicle = (EntityVehicleF_Physics) wrapper.entity;
+				if(!vehicle.sleeping && vehicle.towedByVehicle == null){
+					if(phasedUpdates){
+						phasedVehicles.add(vehicle);
+					}else{
+						vehicle.update();
+					}
+				}
+			}else if(wrapper.entity != null && !wrapper.entity.sleeping){
+				wrapper.entity.update();
+			}
+		}
+		VehiclePhysicsSystem.updateVehicles(phasedVehicles);
+		phasedVehicles.clear();
+
+		Iterator<WrapperEntity> iterator = entities.values().iterator();
+		while(iterator.hasNext()){
+			WrapperEntity wrapper = iterator.next();
+			if(wrapper.entity != null && (!wrapper.entity.isValid || wrapper.entity.position.y < -5)){
+				wrapper.entity.isValid = false;
+				if(isClient){
+					AEntityBase.createdClientEntities.remove(wrapper.entity);
+				}else{
+					AEntityBase.createdServerEntities.remove(wrapper.entity);
+				}
+				PresenceSensorSystem.removeEntity(wrapper.entity);
+				ProfilerSystem.removeEntity(wrapper.entity);
+				wrapper.entity.remove();
+				iterator.remove();
+			}else if(wrapper.entity == null && wrapper.isDead){
+				iterator.remove();
+			}
+		}
+		ProfilerSystem.mergeTimes(isClient);
+	}
+
+	/**
+	 *  Returns all entities in this world.  Used by tools to get the state of the world.
+	 */
+	List<AEntityBase> getBaseEntities(){
+		List<AEntityBase> baseEntities = new ArrayList<AEntityBase>();
+		for(WrapperEntity wrapper : entities.values()){
+			if(wrapper.entity != null){
+				baseEntities.add(wrapper.entity);
+			}
+		}
+		return baseEntities;
+	}
+
+	/**
+	 *  Returns the height of the top of the terrain at the passed-in column.
+	 *  This is the y-value of the first air or water block in the column.
+	 */
+	int getTerrainHeight(int x, int z){
+		if(hillHeight == 0){
+			return groundHeight;
+		}
+
+		//Get the heights of the four heightmap points around us and interpolate between them.
+		int cellX = Math.floorDiv(x, HEIGHTMAP_CELL_SIZE);
+		int cellZ = Math.floorDiv(z, HEIGHTMAP_CELL_SIZE);
+		double factorX = smooth((x - cellX*HEIGHTMAP_CELL_SIZE)/(double) HEIGHTMAP_CELL_SIZE);
+		double factorZ = smooth((z - cellZ*HEIGHTMAP_CELL_SIZE)/(double) HEIGHTMAP_CELL_SIZE);
+		double north = getHeightmapValue(cellX, cellZ) + (getHeightmapValue(cellX + 1, cellZ) - getHeightmapValue(cellX, cellZ))*factorX;
+		double south = getHeightmapValue(cellX, cellZ + 1) + (getHeightmapValue(cellX + 1, cellZ + 1) - getHeightmapValue(cellX, cellZ + 1))*factorX;
+		return groundHeight + (int) Math.round((north + (south - north)*factorZ)*hillHeight);
+	}
+
+	/**
+	 *  Returns a value between 0 and 1 for the passed-in heightmap point.  This is a hash of the
+	 *  point and the seed, so the same seed will always make the same terrain.
+	 */
+	private double getHeightmapValue(int cellX, int cellZ){
+		long hash = seed ^ (cellX*0x9E3779B97F4A7C15L) ^ (cellZ*0xC2B2AE3D27D4EB4FL);
+		hash = (hash ^ (hash >>> 30))*0xBF58476D1CE4E5B9L;
+		hash = (hash ^ (hash >>> 27))*0x94D049BB133111EBL;
+		hash = hash ^ (hash >>> 31);
+		return (hash >>> 11)/(double) (1L << 53);
+	}
+
+	private static double smooth(double factor){
+		return factor*factor*(3 - 2*factor);
+	}
+
+	private static long getBlockKey(int x, int y, int z){
+		return ((x & 0x3FFFFFFL) << 38) | ((z & 0x3FFFFFFL) << 12) | (y & 0xFFFL);
+	}
+
+	private boolean isSolid(int x, int y, int z){
+		Boolean changedBlock = changedBlocks.get(getBlockKey(x, y, z));
+		return changedBlock != null ? changedBlock : y < getTerrainHeight(x, z);
+	}
+
+	private boolean isLiquid(int x, int y, int z){
+		return y < waterHeight && !isSolid(x, y, z) && !changedBlocks.containsKey(getBlockKey(x, y, z));
+	}
+
+	@Override
+	public boolean isClient(){
+		return isClient;
+	}
+
+	@Override
+	public int getDimensionID(){
+		return 0;
+	}
+
+	@Override
+	public long getTime(){
+		return time;
+	}
+
+	@Override
+	public long getMaxHeight(){
+		return 256;
+	}
+
+	@Override
+	public IWrapperNBT getData(){
+		return savedData;
+	}
+
+	@Override
+	public void setData(IWrapperNBT data){
+		savedData = (WrapperNBT) data;
+	}
+
+	@Override
+	public IWrapperNBT getServerData(String name){
+		if(isClient){
+			return null;
+		}
+		WrapperNBT data = serverData.get(name);
+		return data != null ? data : new WrapperNBT();
+	}
+
+	@Override
+	public void setServerData(String name, IWrapperNBT data){
+		if(!isClient){
+			serverData.put(name, (WrapperNBT) data);
+		}
+	}
+
+	@Override
+	public WrapperEntity getEntity(int id){
+		return entities.get(id);
+	}
+
+	@Override
+	public List<IWrapperEntity> getEntitiesWithin(BoundingBox box){
+		List<IWrapperEntity> entitiesWithin = new ArrayList<IWrapperEntity>();
+		for(WrapperEntity wrapper : entities.values()){
+			if(box.isPointInside(wrapper.getPosition())){
+				entitiesWithin.add(wrapper);
+			}
+		}
+		return entitiesWithin;
+	}
+
+	@Override
+	public IWrapperEntity getNearestHostile(IWrapperEntity entityLooking, int searchRadius){
+		//No mobs in this world.
+		return null;
+	}
+
+	@Override
+	public double getNearestPlayerDistance(Point3d point){
+		double smallestDistance = Double.MAX_VALUE;
+		for(Point3d playerPosition : playerPositions){
+			double distance = playerPosition.distanceTo(point);
+			if(distance < smallestDistance){
+				smallestDistance = distance;
+			}
+		}
+		return smallestDistance;
+	}
+
+	@Override
+	public IWrapperEntity getEntityLookingAt(IWrapperEntity entityLooking, float searchRadius){
+		return null;
+	}
+
+	@Override
+	public WrapperEntity generateEntity(){
+		return new WrapperEntity();
+	}
+
+	@Override
+	public void spawnEntity(AEntityBase entity){
+		WrapperEntity wrapper = (WrapperEntity) entity.wrapper;
+		wrapper.entity = entity;
+		entities.put(wrapper.id, wrapper);
+	}
+
+	@Override
+	public Map<IWrapperEntity, BoundingBox> attackEntities(Damage damage, AEntityBase damageSource, Point3d motion){
+		return new HashMap<IWrapperEntity, BoundingBox>();
+	}
+
+	@Override
+	public void moveEntities(List<BoundingBox> boxesToCheck, Point3d intialPosition, Point3d initalRotation, Point3d linearMovement, Point3d angularMovement){
+		//There are no MC entities to push around, but we still need to wake up any sleeping
+		//entities we hit, as we may be pushing into them.
+		for(WrapperEntity wrapper : entities.values()){
+			if(wrapper.entity != null && wrapper.entity.sleeping){
+				for(BoundingBox box : boxesToCheck){
+					for(BoundingBox otherBox : wrapper.entity.collisionBoxes){
+						if(box.intersects(otherBox)){
+							wrapper.entity.wakeUp();
+							break;
+						}
+					}
+					if(!wrapper.entity.sleeping){
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public void loadEntities(BoundingBox box, AEntityBase vehicle){}
+
+	@Override
+	public IWrapperBlock getWrapperBlock(Point3i point){
+		if(isSolid(point.x, point.y, point.z)){
+			return new WrapperBlock(point, false);
+		}else if(isLiquid(point.x, point.y, point.z)){
+			return new WrapperBlock(point, true);
+		}else{
+			return null;
+		}
+	}
+
+	@Override
+	public ABlockBase getBlock(Point3i point){
+		//Only ground and water in this world, none of our blocks.
+		return null;
+	}
+
+	@Override
+	public Point3i getBlockHit(Point3d position, Point3d delta){
+		//Step along the path in small increments.  Not as exact as MC's raytracing, but close enough here.
+		double length = delta.length();
+		int steps = (int) Math.ceil(length*8);
+		for(int i=0; i<=steps; ++i){
+			double factor = steps != 0 ? i/(double) steps : 0;
+			int x = (int) Math.floor(position.x + delta.x*factor);
+			int y = (int) Math.floor(position.y + delta.y*factor);
+			int z = (int) Math.floor(position.z + delta.z*factor);
+			if(isSolid(x, y, z)){
+				return new Point3i(x, y, z);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public float getBlockRotation(Point3i point){
+		return 0;
+	}
+
+	@Override
+	public boolean isBlockSolid(Point3i point){
+		return isSolid(point.x, point.y, point.z);
+	}
+
+	@Override
+	public boolean isBlockLiquid(Point3i point){
+		return isLiquid(point.x, point.y, point.z);
+	}
+
+	@Override
+	public boolean isBlockBottomSlab(Point3i point){
+		return false;
+	}
+
+	@Override
+	public boolean isBlockTopSlab(Point3i point){
+		return false;
+	}
+
+	@Override
+	public void updateBoundingBoxCollisions(BoundingBox box, Point3d collisionMotion, boolean ignoreIfGreater){
+		//This mirrors the MC version, with full-block boxes for all solid and liquid blocks.
+		double minX = box.globalCenter.x - box.widthRadius;
+		double minY = box.globalCenter.y - box.heightRadius;
+		double minZ = box.globalCenter.z - box.depthRadius;
+		double maxX = box.globalCenter.x + box.widthRadius;
+		double maxY = box.globalCenter.y + box.heightRadius;
+		double maxZ = box.globalCenter.z + box.depthRadius;
+		box.collidingBlocks.clear();
+		List<Point3i> collidingPositions = new ArrayList<Point3i>();
+		for(int i = (int) Math.floor(minX); i < Math.ceil(maxX); ++i){
+			for(int j = (int) Math.floor(minY); j < Math.ceil(maxY); ++j){
+				for(int k = (int) Math.floor(minZ); k < Math.ceil(maxZ); ++k){
+					if(isSolid(i, j, k)){
+						if(i + 1 > minX && i < maxX && j + 1 > minY && j < maxY && k + 1 > minZ && k < maxZ){
+							Point3i position = new Point3i(i, j, k);
+							collidingPositions.add(position);
+							box.collidingBlocks.add(new WrapperBlock(position, false));
+						}
+					}else if(box.collidesWithLiquids && isLiquid(i, j, k)){
+						Point3i position = new Point3i(i, j, k);
+						collidingPositions.add(position);
+						box.collidingBlocks.add(new WrapperBlock(position, true));
+					}
+				}
+			}
+		}
+
+		//If we are in the depth bounds for this collision, set it as the collision depth.
+		box.currentCollisionDepth.set(0D, 0D, 0D);
+		double boxCollisionDepth;
+		for(Point3i colBox : collidingPositions){
+			if(collisionMotion.x > 0){
+				boxCollisionDepth = maxX - colBox.x;
+				if(!ignoreIfGreater || collisionMotion.x - boxCollisionDepth > 0){
+					box.currentCollisionDepth.x = Math.max(box.currentCollisionDepth.x, boxCollisionDepth);
+				}
+			}else if(collisionMotion.x < 0){
+				boxCollisionDepth = colBox.x + 1 - minX;
+				if(!ignoreIfGreater || collisionMotion.x + boxCollisionDepth < 0){
+					box.currentCollisionDepth.x = Math.max(box.currentCollisionDepth.x, boxCollisionDepth);
+				}
+			}
+			if(collisionMotion.y > 0){
+				boxCollisionDepth = maxY - colBox.y;
+				if(!ignoreIfGreater || collisionMotion.y - boxCollisionDepth > 0){
+					box.currentCollisionDepth.y = Math.max(box.currentCollisionDepth.y, boxCollisionDepth);
+				}
+			}else if(collisionMotion.y < 0){
+				boxCollisionDepth = colBox.y + 1 - minY;
+				if(!ignoreIfGreater || collisionMotion.y + boxCollisionDepth < 0){
+					box.currentCollisionDepth.y = Math.max(box.currentCollisionDepth.y, boxCollisionDepth);
+				}
+			}
+			if(collisionMotion.z > 0){
+				boxCollisionDepth = colBox.z + 1 - minZ;
+				if(!ignoreIfGreater || collisionMotion.z - boxCollisionDepth > 0){
+					box.currentCollisionDepth.z = Math.max(box.currentCollisionDepth.z, boxCollisionDepth);
+				}
+			}else if(collisionMotion.z < 0){
+				boxCollisionDepth = colBox.z + 1 - minZ;
+				if(!ignoreIfGreater || collisionMotion.z + boxCollisionDepth < 0){
+					box.currentCollisionDepth.z = Math.max(box.currentCollisionDepth.z, boxCollisionDepth);
+				}
+			}
+		}
+	}
+
+	@Override
+	public int getRedstonePower(Point3i point){
+		return 0;
+	}
+
+	@Override
+	public float getRainStrength(Point3i point){
+		return 0;
+	}
+
+	@Override
+	public float getTemperature(Point3i point){
+		//Same as MC's plains biome.
+		return 0.8F;
+	}
+
+	@Override
+	public <TileEntityType extends ATileEntityBase<JSONDefinition>, JSONDefinition extends AJSONItem<?>> boolean setBlock(ABlockBase block, Point3i location, IWrapperPlayer player, Axis axis){
+		return false;
+	}
+
+	@Override
+	public IWrapperTileEntity getWrapperTileEntity(Point3i position){
+		return null;
+	}
+
+	@Override
+	public <TileEntityType extends ATileEntityBase<?>> TileEntityType getTileEntity(Point3i point){
+		return null;
+	}
+
+	@Override
+	public void markTileEntityChanged(Point3i point){}
+
+	@Override
+	public float getLightBrightness(Point3i point, boolean calculateBlock){
+		return 1.0F;
+	}
+
+	@Override
+	public void updateLightBrightness(Point3i point){}
+
+	@Override
+	public void destroyBlock(Point3i point){
+		changedBlocks.put(getBlockKey(point.x, point.y, point.z), false);
+	}
+
+	@Override
+	public boolean isAir(Point3i point){
+		return !isSolid(point.x, point.y, point.z) && !isLiquid(point.x, point.y, point.z);
+	}
+
+	@Override
+	public boolean isFire(Point3i point){
+		return false;
+	}
+
+	@Override
+	public void setToFire(Point3i point){}
+
+	@Override
+	public boolean fertilizeBlock(Point3i point, IWrapperItemStack stack){
+		return false;
+	}
+
+	@Override
+	public List<IWrapperItemStack> harvestBlock(Point3i point){
+		return new ArrayList<IWrapperItemStack>();
+	}
+
+	@Override
+	public boolean plantBlock(Point3i point, IWrapperItemStack stack){
+		return false;
+	}
+
+	@Override
+	public boolean plowBlock(Point3i point){
+		return false;
+	}
+
+	@Override
+	public void spawnItem(AItemBase item, IWrapperNBT data, Point3d point){}
+
+	@Override
+	public void spawnItemStack(IWrapperItemStack stack, Point3d point){}
+
+	@Override
+	public void spawnExplosion(AEntityBase source, Point3d location, double strength, boolean flames){}
+
+	@Override
+	public void spawnExplosion(IWrapperPlayer player, Point3d location, double strength, boolean flames){}
+}
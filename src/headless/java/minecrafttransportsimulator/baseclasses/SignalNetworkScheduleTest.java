@@ -0,0 +1,75 @@
+package minecrafttransportsimulator.baseclasses;
+
+import mcinterfaceheadless.AHeadlessTest;
+
+/**Tests for {@link SignalNetworkSchedule}.  Schedules don't need a world, so these make them
+ * from plain numbers and check the states they give over whole cycles.  State times are in the
+ * same order signal controllers use: main green, main yellow, all red, cross green, cross yellow, all red.
+ *
+ * @author don_bruce
+ */
+public class SignalNetworkScheduleTest extends AHeadlessTest{
+	private static final double WAVE_SPEED = 0.5D;
+	private static final int[] LONG_CYCLE = new int[]{400, 40, 20, 200, 40, 20};
+	private static final int[] SHORT_CYCLE = new int[]{200, 40, 20, 200, 40, 20};
+
+	public void testOffsetsFollowDistance(){
+		assertEquals(0, SignalNetworkSchedule.getOffset(0, WAVE_SPEED, 720), "Start of the network should have no offset.");
+		assertEquals(200, SignalNetworkSchedule.getOffset(100, WAVE_SPEED, 720), "Offset should be the time to get there at the wave speed.");
+		assertEquals(80, SignalNetworkSchedule.getOffset(400, WAVE_SPEED, 720), "Offsets longer than the cycle should wrap.");
+		assertEquals(520, SignalNetworkSchedule.getOffset(-100, WAVE_SPEED, 720), "Controllers behind the start should wrap to a positive offset.");
+		assertEquals(0, SignalNetworkSchedule.getOffset(100, 0, 720), "No wave speed should give no offset.");
+
+		SignalNetworkSchedule schedule = new SignalNetworkSchedule(new int[][]{LONG_CYCLE, LONG_CYCLE, LONG_CYCLE}, new double[]{0, 100, 400}, WAVE_SPEED);
+		assertEquals(3, schedule.getMemberCount(), "Wrong member count.");
+		assertEquals(0, schedule.getOffset(0), "Wrong offset for the first member.");
+		assertEquals(200, schedule.getOffset(1), "Wrong offset for the second member.");
+		assertEquals(80, schedule.getOffset(2), "Wrong offset for the third member.");
+	}
+
+	public void testShortCyclesStretchMainGreen(){
+		SignalNetworkSchedule schedule = new SignalNetworkSchedule(new int[][]{LONG_CYCLE, SHORT_CYCLE}, new double[]{0, 0}, WAVE_SPEED);
+		assertEquals(720, schedule.cycleTime, "Cycle should be the longest member's cycle.");
+		//The short member gets the extra 200 ticks at the start of its main green, so both end up the same.
+		int[] expectedEndTimes = new int[]{400, 440, 460, 660, 700, 720};
+		for(int member=0; member<2; ++member){
+			int state = 0;
+			for(int time=0; time<schedule.cycleTime; ++time){
+				if(time == expectedEndTimes[state]){
+					++state;
+				}
+				assertEquals(state, schedule.getState(member, time), "Member " + member + " is in the wrong state at tick " + time + ".");
+			}
+		}
+	}
+
+	public void testGreenWaveFollowsOffsets(){
+		SignalNetworkSchedule schedule = new SignalNetworkSchedule(new int[][]{LONG_CYCLE, LONG_CYCLE}, new double[]{0, 100}, WAVE_SPEED);
+		int travelTime = (int) Math.round(100/WAVE_SPEED);
+		for(long time=-schedule.cycleTime; time<2*schedule.cycleTime; ++time){
+			assertEquals(schedule.getState(0, time), schedule.getState(1, time + travelTime), "Second member isn't the first member's states delayed by the travel time at tick " + time + ".");
+		}
+
+		//A vehicle leaving the first member as it turns green should get to the second just as it turns green.
+		assertEquals(0, schedule.getState(0, 0), "First member should turn green at the start of the cycle.");
+		assertEquals(5, schedule.getState(1, travelTime - 1), "Second member should still be red just before the vehicle gets there.");
+		assertEquals(0, schedule.getState(1, travelTime), "Second member should turn green as the vehicle gets there.");
+	}
+
+	public void testNextChangeTimesMatchStates(){
+		SignalNetworkSchedule schedule = new SignalNetworkSchedule(new int[][]{LONG_CYCLE, SHORT_CYCLE, LONG_CYCLE}, new double[]{0, 37, -250}, WAVE_SPEED);
+		for(long time=-100; time<2*schedule.cycleTime; ++time){
+			long networkChangeTime = Long.MAX_VALUE;
+			for(int member=0; member<schedule.getMemberCount(); ++member){
+				//Step forwards until the state changes.  This must be the time the schedule gives.
+				long changeTime = time + 1;
+				while(schedule.getState(member, changeTime) == schedule.getState(member, time)){
+					++changeTime;
+				}
+				assertEquals(changeTime, schedule.getNextChangeTime(member, time), "Wrong next change time for member " + member + " at tick " + time + ".");
+				networkChangeTime = Math.min(networkChangeTime, changeTime);
+			}
+			assertEquals(networkChangeTime, schedule.getNextChangeTime(time), "Wrong next change time for the network at tick " + time + ".");
+		}
+	}
+}
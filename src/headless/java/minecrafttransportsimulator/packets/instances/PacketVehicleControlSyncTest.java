@@ -0,0 +1,180 @@
+package minecrafttransportsimulator.packets.instances;
+
+import java.util.List;
+
+import mcinterfaceheadless.AHeadlessTest;
+import mcinterfaceheadless.BenchmarkPack;
+import mcinterfaceheadless.HeadlessSimulation;
+import mcinterfaceheadless.MasterInterface;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.packets.components.APacketBase;
+import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
+import minecrafttransportsimulator.vehicles.parts.PartEngine;
+
+/**Tests for {@link PacketVehicleControlSync}.  The same input trace is replayed on two simulations,
+ * a server and a client world that loads its vehicle from the server's data.  The client only gets the
+ * inputs and the packets the server sends, so control dampening and auto-shifting have to be simulated
+ * the same on both for them to stay converged.  All packets are sent through a buffer, so their encoding
+ * is checked too.
+ *
+ * @author don_bruce
+ */
+public class PacketVehicleControlSyncTest extends AHeadlessTest{
+	private static final int TRACE_TICKS = 480;
+	/**Tick the client is knocked out of sync in the drift test.  Between server syncs.**/
+	private static final int DRIFT_TICK = 125;
+	/**Ticks the client has to get back in sync.  Two sync intervals.**/
+	private static final int MAX_RESYNC_TICKS = 40;
+	/**Tick the vehicle is stopped and idling in 1st gear by in the trace.  No controls change after this.**/
+	private static final int IDLE_TICK = 400;
+	/**Distance the client vehicle may be from the server vehicle.  Clients move themselves, and are only corrected by the server.**/
+	private static final double MAX_CLIENT_DISTANCE = 0.01;
+
+	private HeadlessSimulation server;
+	private HeadlessSimulation client;
+	private EntityVehicleF_Physics serverVehicle;
+	private EntityVehicleF_Physics clientVehicle;
+	private int requestsSent;
+	private int checksumsSent;
+	private int controlPacketsSent;
+
+	public void testReplayConverges(){
+		BenchmarkPack.load();
+		MasterInterface.setCapturingPackets(true);
+		try{
+			createSimulations();
+			byte highestGear = 0;
+			int checksumsBeforeIdle = 0;
+			for(int tick=0; tick<TRACE_TICKS; ++tick){
+				if(tick == IDLE_TICK){
+					checksumsBeforeIdle = checksumsSent;
+				}
+				runTick(tick);
+				assertEquals(serverVehicle.getControlChecksum(), clientVehicle.getControlChecksum(), "Client controls diverged on tick " + tick + ".");
+				assertEquals(0, serverVehicle.position.distanceTo(clientVehicle.position), MAX_CLIENT_DISTANCE, "Client movement diverged on tick " + tick + ".");
+				highestGear = (byte) Math.max(highestGear, serverVehicle.engines.values().iterator().next().currentGear);
+			}
+			assertTrue(serverVehicle.engines.values().iterator().next().state.running, "Engine wasn't running at the end of the trace.");
+			assertTrue(highestGear > 1, "Trace didn't make the automatic transmission shift up, so auto-shifting wasn't tested.");
+			assertTrue(checksumsBeforeIdle > 0, "Server never sent a control checksum.");
+			assertEquals(checksumsBeforeIdle, checksumsSent, "Server sent control checksums while idling.");
+			assertEquals(0, requestsSent, "Client asked for the control state while in sync.");
+			assertEquals(0, controlPacketsSent, "Server sent control packets for simulated controls.");
+		}finally{
+			MasterInterface.setCapturingPackets(false);
+		}
+	}
+
+	public void testDriftIsCorrected(){
+		BenchmarkPack.load();
+		MasterInterface.setCapturingPackets(true);
+		try{
+			createSimulations();
+			int resyncTick = -1;
+			int requestsBeforeDrift = 0;
+			for(int tick=0; tick<TRACE_TICKS; ++tick){
+				if(tick == DRIFT_TICK){
+					requestsBeforeDrift = requestsSent;
+					clientVehicle.rudderAngle += 37;
+					clientVehicle.rudderCooldown = 5;
+					clientVehicle.engines.values().iterator().next().shiftCooldown += 3;
+				}
+				runTick(tick);
+				if(tick >= DRIFT_TICK && resyncTick == -1 && requestsSent > requestsBeforeDrift){
+					resyncTick = tick;
+				}
+			}
+			assertTrue(resyncTick != -1, "Client never asked the server for the control state after drifting.");
+			assertTrue(resyncTick - DRIFT_TICK <= MAX_RESYNC_TICKS, "Client took " + (resyncTick - DRIFT_TICK) + " ticks to get back in sync.");
+		}finally{
+			MasterInterface.setCapturingPackets(false);
+		}
+	}
+
+	/**
+	 *  Creates the server with a fueled benchmark car, and a client that loads the car from the server's data.
+	 */
+	private void createSimulations(){
+		server = BenchmarkPack.createSimulation();
+		serverVehicle = BenchmarkPack.getVehicle(server);
+		serverVehicle.fuelTank.manuallySet("diesel", serverVehicle.definition.motorized.fuelCapacity);
+		IWrapperNBT data = MasterLoader.coreInterface.createNewTag();
+		serverVehicle.save(data);
+		client = new HeadlessSimulation(0, 4, 0, 0, true);
+		clientVehicle = client.loadVehicle(data);
+		client.addPlayer(clientVehicle.position);
+	}
+
+	/**
+	 *  Applies the trace inputs for the passed-in tick to both vehicles, ticks both simulations,
+	 *  and then passes the server's packets to the client and the client's requests back.
+	 *  Once a sync is handled, the client must always have the same controls as the server.
+	 */
+	private void runTick(int tick){
+		applyInputs(tick, server, serverVehicle);
+		applyInputs(tick, client, clientVehicle);
+
+		server.tick();
+		List<APacketBase> serverPackets = MasterInterface.takeClientPackets();
+		MasterInterface.takeServerPackets();
+		client.tick();
+		MasterInterface.takeClientPackets();
+		MasterInterface.takeServerPackets();
+
+		for(APacketBase packet : serverPackets){
+			client.handlePacket(packet, client.getPlayer());
+			if(packet instanceof PacketVehicleControlSync){
+				++checksumsSent;
+				for(APacketBase request : MasterInterface.takeServerPackets()){
+					//Server gets the request and sends its state back to the client.
+					++requestsSent;
+					server.handlePacket(request, client.getPlayer());
+					for(APacketBase response : MasterInterface.takeClientPackets()){
+						client.handlePacket(response, client.getPlayer());
+					}
+				}
+				assertEquals(serverVehicle.getControlChecksum(), clientVehicle.getControlChecksum(), "Client controls weren't in sync after handling the server's sync on tick " + tick + ".");
+			}else if(packet instanceof PacketVehicleControlAnalog || packet instanceof PacketVehicleControlDigital){
+				++controlPacketsSent;
+			}
+		}
+	}
+
+	/**
+	 *  Applies the player inputs for the passed-in tick.  These are the same inputs a player would
+	 *  send packets for, so they are applied to both sides.  Keyboard inputs set a cooldown, so the
+	 *  controls dampen back to center once they stop.
+	 */
+	private static void applyInputs(int tick, HeadlessSimulation simulation, EntityVehicleF_Physics vehicle){
+		if(tick == 0){
+			vehicle.parkingBrakeOn = false;
+			for(PartEngine engine : vehicle.engines.values()){
+				engine.setMagnetoStatus(true);
+				engine.setElectricStarterStatus(true);
+			}
+		}else if(tick == 40){
+			for(PartEngine engine : vehicle.engines.values()){
+				engine.setElectricStarterStatus(false);
+			}
+		}else if(tick == 60){
+			for(PartEngine engine : vehicle.engines.values()){
+				engine.shiftUp(false);
+			}
+			applyAnalog(simulation, vehicle, PacketVehicleControlAnalog.Controls.THROTTLE, 80, Byte.MAX_VALUE);
+		}else if(tick >= 100 && tick < 120){
+			applyAnalog(simulation, vehicle, PacketVehicleControlAnalog.Controls.RUDDER, 10, 20);
+		}else if(tick >= 150 && tick < 160){
+			applyAnalog(simulation, vehicle, PacketVehicleControlAnalog.Controls.AILERON, -10, 10);
+			applyAnalog(simulation, vehicle, PacketVehicleControlAnalog.Controls.ELEVATOR, 10, 10);
+		}else if(tick == 250){
+			applyAnalog(simulation, vehicle, PacketVehicleControlAnalog.Controls.THROTTLE, 0, Byte.MAX_VALUE);
+			applyAnalog(simulation, vehicle, PacketVehicleControlAnalog.Controls.BRAKE, 50, Byte.MAX_VALUE);
+		}
+		vehicle.wakeUp();
+	}
+
+	private static void applyAnalog(HeadlessSimulation simulation, EntityVehicleF_Physics vehicle, PacketVehicleControlAnalog.Controls control, int value, int cooldown){
+		new PacketVehicleControlAnalog(vehicle, control, (short) value, (byte) cooldown).handle(simulation.getWorld(), null, vehicle);
+	}
+}
@@ -0,0 +1,156 @@
+package minecrafttransportsimulator.rendering.components;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import mcinterfaceheadless.AHeadlessTest;
+import minecrafttransportsimulator.baseclasses.BezierCurve;
+import minecrafttransportsimulator.baseclasses.Point3d;
+
+/**Tests for {@link RoadMeshBuilder}.  The builder does no OpenGL calls, so the meshes are checked
+ * directly.  The model used is a one-block long strip going down the +Z axis, with its normals
+ * pointing out from its center.  This means moving any vertex in against its normal by the strip's
+ * half-width puts it back on the lane curve, no matter how the strip was bent.
+ *
+ * @author don_bruce
+ */
+public class RoadMeshBuilderTest extends AHeadlessTest{
+	private static final float HALF_WIDTH = 1;
+	private static final double TOLERANCE = 0.05;
+	/**Origin of the road.  Negative so chunk keys are tested with negative coordinates.**/
+	private static final Point3d ORIGIN = new Point3d(-20.5, 64, -7.5);
+
+	public void testChunkKeysRoundTrip(){
+		int[] coords = new int[]{-1048576, -300, -1, 0, 1, 4, 1048575};
+		for(int chunkX : coords){
+			for(int chunkY : coords){
+				for(int chunkZ : coords){
+					long chunkKey = RoadMeshBuilder.getChunkKey(chunkX, chunkY, chunkZ);
+					assertEquals(chunkX*RoadMeshBuilder.CHUNK_SIZE, RoadMeshBuilder.getChunkOriginX(chunkKey), "Wrong X origin for chunk key.");
+					assertEquals(chunkY*RoadMeshBuilder.CHUNK_SIZE, RoadMeshBuilder.getChunkOriginY(chunkKey), "Wrong Y origin for chunk key.");
+					assertEquals(chunkZ*RoadMeshBuilder.CHUNK_SIZE, RoadMeshBuilder.getChunkOriginZ(chunkKey), "Wrong Z origin for chunk key.");
+				}
+			}
+		}
+	}
+
+	public void testStraightLaneSplitsIntoChunks(){
+		List<Point3d> laneStarts = new ArrayList<Point3d>();
+		List<BezierCurve> laneCurves = new ArrayList<BezierCurve>();
+		laneStarts.add(new Point3d(0, 0, 0));
+		laneCurves.add(new BezierCurve(new Point3d(0, 0, 40), 0, 180));
+		Map<Long, float[]> mesh = RoadMeshBuilder.buildMesh(createStrip(0, 0), ORIGIN, laneStarts, laneCurves, new float[]{0});
+
+		assertTrue(mesh.size() > 1, "Mesh covering " + laneCurves.get(0).pathLength + " blocks was only put in " + mesh.size() + " chunk.");
+		int vertexCount = 0;
+		for(Entry<Long, float[]> chunkEntry : mesh.entrySet()){
+			float[] vertices = chunkEntry.getValue();
+			assertEquals(0, vertices.length%(3*RoadMeshBuilder.VERTEX_SIZE), "Chunk mesh isn't made of whole triangles.");
+			for(int i=0; i<vertices.length; i+=3*RoadMeshBuilder.VERTEX_SIZE){
+				//Triangles go in the chunk their center is in, and are relative to it.
+				for(int axis=0; axis<3; ++axis){
+					float center = (vertices[i + axis] + vertices[i + RoadMeshBuilder.VERTEX_SIZE + axis] + vertices[i + 2*RoadMeshBuilder.VERTEX_SIZE + axis])/3F;
+					assertTrue(center >= 0 && center < RoadMeshBuilder.CHUNK_SIZE, "Triangle center " + center + " on axis " + axis + " is outside its chunk.");
+				}
+			}
+			for(int i=0; i<vertices.length; i+=RoadMeshBuilder.VERTEX_SIZE){
+				Point3d position = getWorldPosition(chunkEntry.getKey(), vertices, i);
+				assertEquals(ORIGIN.y, position.y, TOLERANCE, "Straight flat lane changed height.");
+				assertEquals(ORIGIN.x, position.x, HALF_WIDTH + TOLERANCE, "Vertex is off the side of the lane.");
+				assertTrue(position.z >= ORIGIN.z - TOLERANCE && position.z <= ORIGIN.z + laneCurves.get(0).pathLength + TOLERANCE, "Vertex is past the ends of the lane.");
+				assertEquals(Math.signum(position.x - ORIGIN.x), vertices[i + 5], TOLERANCE, "Straight lane changed the normal X.");
+				assertEquals(0, vertices[i + 7], TOLERANCE, "Straight lane changed the normal Z.");
+				++vertexCount;
+			}
+		}
+		//Model is two triangles a block long, so there should be two per block of lane.
+		int sections = Math.round(laneCurves.get(0).pathLength);
+		assertEquals(sections*2*3, vertexCount, "Model wasn't repeated once per block of lane.");
+	}
+
+	public void testTurnBendsModelAlongCurve(){
+		List<Point3d> laneStarts = new ArrayList<Point3d>();
+		List<BezierCurve> laneCurves = new ArrayList<BezierCurve>();
+		laneStarts.add(new Point3d(0, 0, 0));
+		BezierCurve curve = new BezierCurve(new Point3d(16, 2, 16), 0, 270);
+		laneCurves.add(curve);
+		Map<Long, float[]> mesh = RoadMeshBuilder.buildMesh(createStrip(0, 0), ORIGIN, laneStarts, laneCurves, new float[]{0});
+
+		//Sample the curve so we can find how far vertices are from it.
+		List<Point3d> curvePoints = new ArrayList<Point3d>();
+		for(float segment=0; segment<curve.pathLength; segment+=0.01F){
+			curvePoints.add(curve.getPointAt(segment, new Point3d(0, 0, 0)).add(ORIGIN));
+		}
+		curvePoints.add(curve.getPointAt(curve.pathLength, new Point3d(0, 0, 0)).add(ORIGIN));
+
+		for(Entry<Long, float[]> chunkEntry : mesh.entrySet()){
+			float[] vertices = chunkEntry.getValue();
+			for(int i=0; i<vertices.length; i+=RoadMeshBuilder.VERTEX_SIZE){
+				double normalLength = Math.sqrt(vertices[i + 5]*vertices[i + 5] + vertices[i + 6]*vertices[i + 6] + vertices[i + 7]*vertices[i + 7]);
+				assertEquals(1, normalLength, TOLERANCE, "Bending the model changed the normal length.");
+
+				//Move the vertex back to the center of the strip.  This should be on the curve.
+				Point3d center = getWorldPosition(chunkEntry.getKey(), vertices, i).add(-vertices[i + 5]*HALF_WIDTH, -vertices[i + 6]*HALF_WIDTH, -vertices[i + 7]*HALF_WIDTH);
+				double closestDistance = Double.MAX_VALUE;
+				for(Point3d curvePoint : curvePoints){
+					closestDistance = Math.min(closestDistance, curvePoint.distanceTo(center));
+				}
+				assertEquals(0, closestDistance, TOLERANCE, "Vertex at " + center + " isn't the strip half-width from the curve.");
+			}
+		}
+	}
+
+	public void testTrianglesGoToClosestLane(){
+		//Two lanes far apart, with part of the model over each lane.  Texture U says which lane the part is for.
+		List<Point3d> laneStarts = new ArrayList<Point3d>();
+		List<BezierCurve> laneCurves = new ArrayList<BezierCurve>();
+		laneStarts.add(new Point3d(-2, 0, 0));
+		laneStarts.add(new Point3d(30, 0, 0));
+		laneCurves.add(new BezierCurve(new Point3d(0, 0, 8), 0, 180));
+		laneCurves.add(new BezierCurve(new Point3d(0, 0, 8), 0, 180));
+		Float[][] leftStrip = createStrip(-2, 0);
+		Float[][] rightStrip = createStrip(2, 1);
+		Float[][] model = new Float[leftStrip.length + rightStrip.length][];
+		System.arraycopy(leftStrip, 0, model, 0, leftStrip.length);
+		System.arraycopy(rightStrip, 0, model, leftStrip.length, rightStrip.length);
+		Map<Long, float[]> mesh = RoadMeshBuilder.buildMesh(model, ORIGIN, laneStarts, laneCurves, new float[]{-2, 2});
+
+		int[] laneVertices = new int[2];
+		for(Entry<Long, float[]> chunkEntry : mesh.entrySet()){
+			float[] vertices = chunkEntry.getValue();
+			for(int i=0; i<vertices.length; i+=RoadMeshBuilder.VERTEX_SIZE){
+				int lane = (int) vertices[i + 3];
+				Point3d position = getWorldPosition(chunkEntry.getKey(), vertices, i);
+				assertEquals(ORIGIN.x + laneStarts.get(lane).x, position.x, HALF_WIDTH + TOLERANCE, "Triangle for lane " + lane + " wasn't put on that lane.");
+				++laneVertices[lane];
+			}
+		}
+		assertTrue(laneVertices[0] > 0 && laneVertices[0] == laneVertices[1], "Lanes didn't get the same number of vertices: " + laneVertices[0] + " and " + laneVertices[1] + ".");
+	}
+
+	/**
+	 *  Creates a one-block long strip model centered on the passed-in X offset.  All vertices get the
+	 *  passed-in texture U, and normals that point out along the X axis from the center of the strip.
+	 */
+	private static Float[][] createStrip(float centerX, float textureU){
+		float left = centerX - HALF_WIDTH;
+		float right = centerX + HALF_WIDTH;
+		return new Float[][]{
+			new Float[]{left, 0F, 0F, textureU, 0F, -1F, 0F, 0F},
+			new Float[]{right, 0F, 0F, textureU, 0F, 1F, 0F, 0F},
+			new Float[]{right, 0F, 1F, textureU, 1F, 1F, 0F, 0F},
+			new Float[]{left, 0F, 0F, textureU, 0F, -1F, 0F, 0F},
+			new Float[]{right, 0F, 1F, textureU, 1F, 1F, 0F, 0F},
+			new Float[]{left, 0F, 1F, textureU, 1F, -1F, 0F, 0F}
+		};
+	}
+
+	/**
+	 *  Returns the world position of the vertex at the passed-in index of the passed-in chunk's vertices.
+	 */
+	private static Point3d getWorldPosition(long chunkKey, float[] vertices, int index){
+		return new Point3d(RoadMeshBuilder.getChunkOriginX(chunkKey) + vertices[index], RoadMeshBuilder.getChunkOriginY(chunkKey) + vertices[index + 1], RoadMeshBuilder.getChunkOriginZ(chunkKey) + vertices[index + 2]);
+	}
+}
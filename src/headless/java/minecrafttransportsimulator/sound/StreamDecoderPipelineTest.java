@@ -0,0 +1,152 @@
+package minecrafttransportsimulator.sound;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.LockSupport;
+
+import mcinterfaceheadless.AHeadlessTest;
+
+/**Tests for {@link StreamDecoderPipeline}.  The pipeline is fed by a decoder that makes a known
+ * pattern of bytes rather than decoding a file, so the tests can check every byte that comes out
+ * and don't need audio files or hardware.  Use {@link mcinterfaceheadless.DecoderRunner} to run
+ * a real file through the pipeline.
+ *
+ * @author don_bruce
+ */
+public class StreamDecoderPipelineTest extends AHeadlessTest{
+	/**Size of the blocks made by the test decoder.  Smaller than the pipeline blocks so they get joined.**/
+	private static final int SOURCE_BLOCK_SIZE = 16*1024;
+	/**Blocks made by the test decoder.  More than fits in the ring, so the producer has to wait on the consumer.**/
+	private static final int SOURCE_BLOCKS = 64;
+	private static final long TEST_TIMEOUT = 10L*1000*1000*1000;
+
+	public void testAllDataArrivesInOrder(){
+		PatternDecoder source = new PatternDecoder(44100);
+		StreamDecoderPipeline pipeline = createPipeline(source);
+		long bytesRead = 0;
+		ByteBuffer block;
+		while((block = pipeline.readBlock()) != null){
+			while(block.hasRemaining()){
+				assertEquals(getPatternByte(bytesRead), block.get(), "Wrong byte at position " + bytesRead + ".");
+				++bytesRead;
+			}
+		}
+		assertEquals((long) SOURCE_BLOCK_SIZE*SOURCE_BLOCKS, bytesRead, "Pipeline didn't give out all the decoded data.");
+		assertTrue(pipeline.isFinished(), "Pipeline should be finished once the source is done and all blocks are read.");
+		assertTrue(!pipeline.hasFailed(), "Pipeline failed: " + pipeline.getFailureMessage());
+		waitFor(source, true);
+		assertTrue(source.stopped, "Pipeline didn't stop its source once it was done.");
+	}
+
+	public void testFullRingIsNotAnOverrun(){
+		//Take blocks faster than they play.  The ring is always full as the producer is ahead, but that's normal.
+		PatternDecoder source = new PatternDecoder(44100);
+		StreamDecoderPipeline pipeline = createPipeline(source);
+		long startTime = System.nanoTime();
+		while(!pipeline.isFinished()){
+			assertTrue(System.nanoTime() - startTime < TEST_TIMEOUT, "Timed out reading from the pipeline.");
+			pipeline.pollBlock();
+			LockSupport.parkNanos(5*1000*1000);
+		}
+		assertEquals(0, pipeline.getOverrunCount(), "Overruns counted for a consumer that kept up with playback.");
+	}
+
+	public void testStalledConsumerIsOneOverrun(){
+		//Fast sample rate so a block only plays for about 25ms.  Then stall the consumer for far longer.
+		PatternDecoder source = new PatternDecoder(1000000);
+		StreamDecoderPipeline pipeline = createPipeline(source);
+		assertTrue(pipeline.readBlock() != null, "Pipeline didn't give out a first block.");
+		LockSupport.parkNanos(300*1000*1000);
+		assertEquals(1, pipeline.getOverrunCount(), "A single stall should be a single overrun.");
+
+		//Read the rest.  Nothing more should be counted as we keep up now.
+		while(pipeline.readBlock() != null){}
+		assertEquals(1, pipeline.getOverrunCount(), "Overruns counted after the consumer caught up.");
+	}
+
+	public void testStopEndsProducer(){
+		PatternDecoder source = new PatternDecoder(44100);
+		StreamDecoderPipeline pipeline = createPipeline(source);
+		assertTrue(pipeline.readBlock() != null, "Pipeline didn't give out a first block.");
+		pipeline.stop();
+		waitFor(source, false);
+		assertTrue(source.stopped, "Pipeline didn't stop its source when stopped.");
+	}
+
+	private static StreamDecoderPipeline createPipeline(final PatternDecoder source){
+		return new StreamDecoderPipeline(new StreamDecoderPipeline.DecoderFactory(){
+			@Override
+			public IStreamDecoder createDecoder(){
+				return source;
+			}
+		});
+	}
+
+	private static void waitFor(PatternDecoder source, boolean mustBeDone){
+		long startTime = System.nanoTime();
+		while(!source.stopped && System.nanoTime() - startTime < TEST_TIMEOUT){
+			LockSupport.parkNanos(1000*1000);
+		}
+		if(mustBeDone){
+			assertEquals(SOURCE_BLOCKS, source.blocksMade, "Source wasn't fully read.");
+		}
+	}
+
+	private static byte getPatternByte(long position){
+		return (byte) (position*31 + (position >> 8));
+	}
+
+	/**Decoder that makes {@link #SOURCE_BLOCKS} blocks of a known byte pattern.
+	 *
+	 * @author don_bruce
+	 */
+	private static class PatternDecoder implements IStreamDecoder{
+		private final ByteBuffer block = ByteBuffer.allocate(SOURCE_BLOCK_SIZE);
+		private final int sampleRate;
+		private volatile int blocksMade;
+		private volatile boolean stopped;
+
+		private PatternDecoder(int sampleRate){
+			this.sampleRate = sampleRate;
+		}
+
+		@Override
+		public ByteBuffer readBlock(){
+			return pollBlock();
+		}
+
+		@Override
+		public ByteBuffer pollBlock(){
+			if(blocksMade == SOURCE_BLOCKS){
+				return null;
+			}
+			block.clear();
+			long position = (long) blocksMade*SOURCE_BLOCK_SIZE;
+			while(block.hasRemaining()){
+				block.put(getPatternByte(position++));
+			}
+			block.flip();
+			++blocksMade;
+			return block;
+		}
+
+		@Override
+		public boolean isFinished(){
+			return blocksMade == SOURCE_BLOCKS;
+		}
+
+		@Override
+		public void stop(){
+			stopped = true;
+		}
+
+		@Override
+		public boolean isStereo(){
+			return true;
+		}
+
+		@Override
+		public int getSampleRate(){
+			return sampleRate;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package minecrafttransportsimulator.systems;
+
+import java.util.List;
+
+import mcinterfaceheadless.AHeadlessTest;
+import mcinterfaceheadless.BenchmarkPack;
+import mcinterfaceheadless.HeadlessSimulation;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerStage;
+import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
+
+/**Tests for {@link ProfilerSystem}.  Times are read back through the profiler command, the same
+ * way players see them, so these also check that the command reports what was recorded.
+ * Most tests time every update, so the sample counts are the update counts.
+ *
+ * @author don_bruce
+ */
+public class ProfilerSystemTest extends AHeadlessTest{
+	private static final int TICKS = 20;
+	private static final int SAMPLE_INTERVAL = 4;
+
+	public void testPartsCountedOncePerUpdate(){
+		BenchmarkPack.load();
+		boolean wasEnabled = ProfilerSystem.isEnabled();
+		int oldSampleInterval = ConfigSystem.configObject.general.profilerSampleInterval.value;
+		try{
+			ConfigSystem.configObject.general.profiler.value = true;
+			ConfigSystem.configObject.general.profilerSampleInterval.value = 1;
+			ProfilerSystem.reset();
+			HeadlessSimulation simulation = BenchmarkPack.createSimulation();
+			EntityVehicleF_Physics vehicle = BenchmarkPack.getVehicle(simulation);
+			assertTrue(vehicle.parts.size() > 1, "Test vehicle needs multiple parts to tell per-part and per-vehicle samples apart.");
+			for(int tick=0; tick<TICKS; ++tick){
+				vehicle.wakeUp();
+				simulation.tick();
+			}
+			assertEquals(TICKS, getStageSamples(ProfilerStage.COLLISION_BOXES), "Vehicle wasn't updated every tick.");
+			assertEquals(TICKS, getStageSamples(ProfilerStage.PARTS), "Parts stage should have one sample per vehicle update.");
+		}finally{
+			ConfigSystem.configObject.general.profiler.value = wasEnabled;
+			ConfigSystem.configObject.general.profilerSampleInterval.value = oldSampleInterval;
+			ProfilerSystem.reset();
+		}
+	}
+
+	public void testRemovedEntitiesArePruned(){
+		BenchmarkPack.load();
+		boolean wasEnabled = ProfilerSystem.isEnabled();
+		int oldSampleInterval = ConfigSystem.configObject.general.profilerSampleInterval.value;
+		try{
+			ConfigSystem.configObject.general.profiler.value = true;
+			ConfigSystem.configObject.general.profilerSampleInterval.value = 1;
+			ProfilerSystem.reset();
+			HeadlessSimulation simulation = BenchmarkPack.createSimulation();
+			EntityVehicleF_Physics vehicle = BenchmarkPack.getVehicle(simulation);
+			simulation.tick();
+			assertTrue(hasEntity(vehicle), "Vehicle wasn't in the profiler entities.");
+			vehicle.isValid = false;
+			simulation.tick();
+			assertTrue(!hasEntity(vehicle), "Removed vehicle was still in the profiler entities.");
+			assertTrue(getStageSamples(ProfilerStage.COLLISION_BOXES) > 0, "Removing the vehicle removed its stage times.");
+		}finally{
+			ConfigSystem.configObject.general.profiler.value = wasEnabled;
+			ConfigSystem.configObject.general.profilerSampleInterval.value = oldSampleInterval;
+			ProfilerSystem.reset();
+		}
+	}
+
+	public void testOnlySampledUpdatesAreTimed(){
+		BenchmarkPack.load();
+		boolean wasEnabled = ProfilerSystem.isEnabled();
+		int oldSampleInterval = ConfigSystem.configObject.general.profilerSampleInterval.value;
+		try{
+			ConfigSystem.configObject.general.profiler.value = true;
+			ConfigSystem.configObject.general.profilerSampleInterval.value = SAMPLE_INTERVAL;
+			ProfilerSystem.reset();
+			HeadlessSimulation simulation = BenchmarkPack.createSimulation();
+			EntityVehicleF_Physics vehicle = BenchmarkPack.getVehicle(simulation);
+			for(int tick=0; tick<TICKS*SAMPLE_INTERVAL; ++tick){
+				vehicle.wakeUp();
+				simulation.tick();
+			}
+			assertEquals(TICKS, getStageSamples(ProfilerStage.COLLISION_BOXES), "Vehicle should be timed once every " + SAMPLE_INTERVAL + " updates.");
+
+			//Turning the profiler off must stop timing updates.
+			ConfigSystem.configObject.general.profiler.value = false;
+			for(int tick=0; tick<TICKS*SAMPLE_INTERVAL; ++tick){
+				vehicle.wakeUp();
+				simulation.tick();
+			}
+			assertEquals(TICKS, getStageSamples(ProfilerStage.COLLISION_BOXES), "Vehicle was timed with the profiler off.");
+		}finally{
+			ConfigSystem.configObject.general.profiler.value = wasEnabled;
+			ConfigSystem.configObject.general.profilerSampleInterval.value = oldSampleInterval;
+			ProfilerSystem.reset();
+		}
+	}
+
+	/**
+	 *  Returns the number of server samples for the passed-in stage, as shown by the stages command.
+	 */
+	private static long getStageSamples(ProfilerStage stage){
+		for(String line : ProfilerSystem.runCommand(new String[]{"stages"})){
+			if(line.startsWith(stage.name() + ": ")){
+				return Long.parseLong(line.substring(stage.name().length() + 2, line.indexOf(" samples")));
+			}
+		}
+		return 0;
+	}
+
+	private static boolean hasEntity(EntityVehicleF_Physics vehicle){
+		List<String> lines = ProfilerSystem.runCommand(new String[]{"entities", String.valueOf(ProfilerSystem.MAX_ENTITIES)});
+		for(String line : lines){
+			if(line.contains(vehicle.uniqueUUID)){
+				return true;
+			}
+		}
+		return false;
+	}
+}
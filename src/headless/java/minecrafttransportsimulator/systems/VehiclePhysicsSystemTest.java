@@ -0,0 +1,104 @@
+package minecrafttransportsimulator.systems;
+
+import mcinterfaceheadless.AHeadlessTest;
+import mcinterfaceheadless.BenchmarkPack;
+import mcinterfaceheadless.HeadlessSimulation;
+import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
+import minecrafttransportsimulator.vehicles.parts.PartEngine;
+
+/**Tests for {@link VehiclePhysicsSystem}.  The same set of vehicles is driven in two simulations
+ * that only differ in how the vehicles are updated, and every vehicle must end up in exactly the
+ * same state on every tick.  Vehicles are spaced out so they don't interact, as the phases only
+ * change the order vehicles see each other in.
+ *
+ * @author don_bruce
+ */
+public class VehiclePhysicsSystemTest extends AHeadlessTest{
+	private static final int VEHICLES = 12;
+	/**Space between vehicles.  Far enough they can't reach each other in the test, but all in the full simulation tier.**/
+	private static final double VEHICLE_SPACING = 8;
+	private static final int TICKS = 200;
+
+	public void testPhasesMatchSingleUpdates(){
+		BenchmarkPack.load();
+		HeadlessSimulation phased = createSimulation();
+		HeadlessSimulation single = createSimulation();
+		single.setPhasedUpdates(false);
+		for(int tick=0; tick<TICKS; ++tick){
+			applyInputs(tick, phased);
+			applyInputs(tick, single);
+			phased.tick();
+			single.tick();
+			for(int i=0; i<VEHICLES; ++i){
+				assertEquals(HeadlessSimulation.getStateChecksum(single.getVehicles().get(i)), HeadlessSimulation.getStateChecksum(phased.getVehicles().get(i)), "Phased vehicle " + i + " diverged on tick " + tick + ".");
+			}
+		}
+		double distanceMoved = phased.getVehicles().get(0).position.distanceTo(new Point3d(0.5, phased.getVehicles().get(0).position.y, 0.5));
+		assertTrue(distanceMoved > 5, "Vehicles only moved " + distanceMoved + " blocks, so nothing was tested.");
+	}
+
+	public void testThreadsMatchSingleThread(){
+		BenchmarkPack.load();
+		HeadlessSimulation singleThread = createSimulation();
+		HeadlessSimulation multiThread = createSimulation();
+		int oldThreads = ConfigSystem.configObject.general.physicsThreads.value;
+		try{
+			for(int tick=0; tick<TICKS; ++tick){
+				applyInputs(tick, singleThread);
+				applyInputs(tick, multiThread);
+				ConfigSystem.configObject.general.physicsThreads.value = 1;
+				singleThread.tick();
+				ConfigSystem.configObject.general.physicsThreads.value = 4;
+				multiThread.tick();
+				assertEquals(singleThread.getStateChecksum(), multiThread.getStateChecksum(), "Threaded physics diverged on tick " + tick + ".");
+			}
+		}finally{
+			ConfigSystem.configObject.general.physicsThreads.value = oldThreads;
+		}
+	}
+
+	/**
+	 *  Creates a simulation with a row of vehicles and a player at the start of the row.
+	 */
+	private static HeadlessSimulation createSimulation(){
+		HeadlessSimulation simulation = new HeadlessSimulation(0, 4, 0, 0);
+		for(int i=0; i<VEHICLES; ++i){
+			simulation.spawnVehicle(BenchmarkPack.PACK_ID, "car", "", 0.5 + i*VEHICLE_SPACING, 0.5, 0);
+		}
+		simulation.addPlayer(new Point3d(0.5, 4, 0.5));
+		return simulation;
+	}
+
+	/**
+	 *  Starts the vehicles and drives them forwards.  Each vehicle gets a different throttle and
+	 *  steering so they all do different things.
+	 */
+	private static void applyInputs(int tick, HeadlessSimulation simulation){
+		for(int i=0; i<VEHICLES; ++i){
+			EntityVehicleF_Physics vehicle = simulation.getVehicles().get(i);
+			if(tick == 0){
+				//Test vehicles don't come with fuel, so fill them up.
+				vehicle.fuelTank.manuallySet("diesel", vehicle.definition.motorized.fuelCapacity);
+				vehicle.parkingBrakeOn = false;
+				for(PartEngine engine : vehicle.engines.values()){
+					engine.setMagnetoStatus(true);
+					engine.setElectricStarterStatus(true);
+				}
+			}else if(tick == 40){
+				for(PartEngine engine : vehicle.engines.values()){
+					engine.setElectricStarterStatus(false);
+				}
+			}else if(tick == 60){
+				for(PartEngine engine : vehicle.engines.values()){
+					engine.shiftUp(false);
+				}
+				vehicle.throttle = (byte) (EntityVehicleF_Physics.MAX_THROTTLE - i*3);
+			}else if(tick == 100){
+				vehicle.rudderAngle = (short) (i%2 == 0 ? 100 : -100);
+				vehicle.rudderCooldown = 20;
+			}
+			vehicle.wakeUp();
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package minecrafttransportsimulator.vehicles.main;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import mcinterfaceheadless.AHeadlessTest;
+import mcinterfaceheadless.BenchmarkPack;
+import mcinterfaceheadless.HeadlessSimulation;
+import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.jsondefs.JSONVehicle.VehiclePart;
+import minecrafttransportsimulator.rendering.components.ATransform;
+import minecrafttransportsimulator.systems.PackParserSystem;
+import minecrafttransportsimulator.vehicles.parts.APart;
+
+/**Soak tests for {@link EntityVehicleA_Base}.  Vehicles are spawned and removed over and over, and
+ * nothing they leave behind may keep them in memory.  Removed vehicles are tracked with weak references,
+ * so a leak is caught even if it's too small to see in the heap, and the heap is checked as well to catch
+ * anything else that builds up as vehicles come and go.
+ *
+ * @author don_bruce
+ */
+public class EntityVehicleA_BaseTest extends AHeadlessTest{
+	private static final int ROUNDS = 20;
+	private static final int VEHICLES_PER_ROUND = 100;
+	private static final int TICKS_PER_ROUND = 5;
+	/**How much the heap may grow from the first round to the last.  Far less than the vehicles take up.**/
+	private static final long MAX_HEAP_GROWTH = 8*1024*1024;
+
+	public void testSpawnAndRemoveLeavesNothing(){
+		BenchmarkPack.load();
+		HeadlessSimulation simulation = new HeadlessSimulation(0, 4, 0, 0);
+		simulation.addPlayer(new Point3d(0, 4, 0));
+		//Other tests may leave their vehicles in the created entities, so only count ours.
+		int startingEntities = AEntityBase.createdServerEntities.size();
+		List<WeakReference<EntityVehicleF_Physics>> removedVehicles = new ArrayList<WeakReference<EntityVehicleF_Physics>>();
+		long startingHeap = 0;
+		for(int round=0; round<ROUNDS; ++round){
+			runRound(simulation, removedVehicles);
+			if(round == 0){
+				//Measure after the first round, so things that are only loaded once aren't counted.
+				startingHeap = getUsedHeap();
+			}
+		}
+		long endingHeap = getUsedHeap();
+
+		assertEquals(0, simulation.getVehicles().size(), "Simulation still had vehicles after they were removed.");
+		assertEquals(startingEntities, AEntityBase.createdServerEntities.size(), "Removed vehicles were still in the created entities.");
+		int leakedVehicles = 0;
+		for(WeakReference<EntityVehicleF_Physics> vehicleReference : removedVehicles){
+			if(vehicleReference.get() != null){
+				++leakedVehicles;
+			}
+		}
+		assertEquals(0, leakedVehicles, "Removed vehicles were still in memory.");
+		assertTrue(endingHeap - startingHeap < MAX_HEAP_GROWTH, "Heap grew by " + (endingHeap - startingHeap)/1024 + "KB over " + ROUNDS*VEHICLES_PER_ROUND + " vehicles.");
+	}
+
+	public void testSubPackMappingsFollowDefinitions(){
+		BenchmarkPack.load();
+		HeadlessSimulation simulation = BenchmarkPack.createSimulation();
+		EntityVehicleF_Physics vehicle = BenchmarkPack.getVehicle(simulation);
+		VehiclePart partDefinition = vehicle.definition.parts.get(0);
+		int startingMappings = EntityVehicleA_Base.getSubPackMappingCount();
+
+		//Make new definitions each round, the same way a pack reload does, and get sub-parts for them.
+		for(int round=0; round<ROUNDS; ++round){
+			VehiclePart parentPack = copyDefinition(partDefinition);
+			VehiclePart subPack = copyDefinition(partDefinition);
+			subPack.pos = new Point3d(0, 1, 0);
+			VehiclePart correctedPack = vehicle.getPackForSubPart(parentPack, subPack);
+			assertTrue(correctedPack == vehicle.getPackForSubPart(parentPack, subPack), "Sub-part pack wasn't cached.");
+			assertEquals(parentPack.pos.y + 1, correctedPack.pos.y, 1E-9, "Sub-part pack wasn't moved by its parent.");
+		}
+		assertTrue(EntityVehicleA_Base.getSubPackMappingCount() > startingMappings, "No sub-part packs were mapped, so nothing was tested.");
+
+		//Old definitions are gone, so their mappings should be too.
+		for(int i=0; i<10 && EntityVehicleA_Base.getSubPackMappingCount() > startingMappings; ++i){
+			getUsedHeap();
+		}
+		assertEquals(startingMappings, EntityVehicleA_Base.getSubPackMappingCount(), "Sub-part packs were kept for definitions that are gone.");
+	}
+
+	public void testTransformClocksFollowVehicles(){
+		BenchmarkPack.load();
+		HeadlessSimulation simulation = new HeadlessSimulation(0, 4, 0, 0);
+		ATransform transform = new ATransform(null){
+			@Override
+			public double applyTransform(EntityVehicleF_Physics vehicle, APart optionalPart, float partialTicks, double offset){
+				return offset;
+			}
+		};
+		int startingClocks = ATransform.getClockCount();
+
+		//Get clocks the same way rendering does, then remove the vehicles.
+		for(int i=0; i<VEHICLES_PER_ROUND; ++i){
+			EntityVehicleF_Physics vehicle = simulation.spawnVehicle(BenchmarkPack.PACK_ID, "car", "", (i%10)*8, (i/10)*8, 0);
+			assertTrue(transform.getClock(vehicle) == transform.getClock(vehicle), "Transform clock wasn't kept for its vehicle.");
+		}
+		assertEquals(startingClocks + VEHICLES_PER_ROUND, ATransform.getClockCount(), "Transform didn't have one clock per vehicle.");
+		for(EntityVehicleF_Physics vehicle : simulation.getVehicles()){
+			vehicle.isValid = false;
+		}
+		simulation.tick();
+
+		//Removed vehicles are gone, so their clocks should be too.
+		for(int i=0; i<10 && ATransform.getClockCount() > startingClocks; ++i){
+			getUsedHeap();
+		}
+		assertEquals(startingClocks, ATransform.getClockCount(), "Transform clocks were kept for vehicles that are gone.");
+	}
+
+	/**
+	 *  Spawns a round of vehicles, ticks them, and then removes them.  Weak references to
+	 *  the removed vehicles are added to the passed-in list.
+	 */
+	private static void runRound(HeadlessSimulation simulation, List<WeakReference<EntityVehicleF_Physics>> removedVehicles){
+		for(int i=0; i<VEHICLES_PER_ROUND; ++i){
+			EntityVehicleF_Physics vehicle = simulation.spawnVehicle(BenchmarkPack.PACK_ID, "car", "", (i%10)*8, (i/10)*8, 0);
+			vehicle.parkingBrakeOn = false;
+		}
+		for(int tick=0; tick<TICKS_PER_ROUND; ++tick){
+			for(EntityVehicleF_Physics vehicle : simulation.getVehicles()){
+				vehicle.motion.z = 0.2;
+				vehicle.wakeUp();
+			}
+			simulation.tick();
+		}
+		for(EntityVehicleF_Physics vehicle : simulation.getVehicles()){
+			vehicle.isValid = false;
+			removedVehicles.add(new WeakReference<EntityVehicleF_Physics>(vehicle));
+		}
+		simulation.tick();
+	}
+
+	/**
+	 *  Returns a copy of the passed-in definition, made the same way packs are parsed.
+	 */
+	private static VehiclePart copyDefinition(VehiclePart definition){
+		return PackParserSystem.packParser.fromJson(PackParserSystem.packParser.toJson(definition, VehiclePart.class), VehiclePart.class);
+	}
+
+	/**
+	 *  Runs the garbage collector and returns how much of the heap is in use.
+	 */
+	private static long getUsedHeap(){
+		Runtime runtime = Runtime.getRuntime();
+		for(int i=0; i<3; ++i){
+			System.gc();
+			System.runFinalization();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,150 @@
+package minecrafttransportsimulator.vehicles.main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mcinterfaceheadless.AHeadlessTest;
+import mcinterfaceheadless.BenchmarkPack;
+import mcinterfaceheadless.HeadlessSimulation;
+import minecrafttransportsimulator.baseclasses.BoundingBox;
+import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.systems.SimulationTierSystem.SimulationTier;
+import minecrafttransportsimulator.vehicles.parts.APart;
+import minecrafttransportsimulator.vehicles.parts.PartSeat;
+
+/**Tests for the simulation tiers and sleeping of {@link EntityVehicleD_Moving}.  Vehicles far from players only
+ * move along their current path on most ticks, so these check that doing so keeps their boxes with
+ * them and gets them to about the same place full physics would.  Vehicles are given a push and left
+ * to coast, as vehicles in the lower tiers don't update their engines on every tick.
+ *
+ * @author don_bruce
+ */
+public class EntityVehicleD_MovingTest extends AHeadlessTest{
+	/**Distances to put the player at to get each tier.  Between the config distances.**/
+	private static final double REDUCED_PLAYER_DISTANCE = 120;
+	private static final double MINIMAL_PLAYER_DISTANCE = 400;
+	/**Ticks to leave parked vehicles for.  More than enough for them to go to sleep.**/
+	private static final int PARKED_TICKS = 300;
+	/**Tick the vehicles are pushed on.  Gives them time to settle on the ground and drop to their tier.**/
+	private static final int PUSH_TICK = 20;
+	private static final int COAST_TICKS = 60;
+	/**How far the lower tiers can be from full physics at the end, as a fraction of the distance moved.**/
+	private static final double POSITION_TOLERANCE = 0.02;
+
+	public void testKinematicMovementMovesBoxes(){
+		BenchmarkPack.load();
+		HeadlessSimulation simulation = createSimulation(MINIMAL_PLAYER_DISTANCE);
+		EntityVehicleF_Physics vehicle = simulation.getVehicles().get(0);
+		List<Point3d> movedCenters = new ArrayList<Point3d>();
+		int kinematicTicks = 0;
+		for(int tick=0; tick<PUSH_TICK + COAST_TICKS; ++tick){
+			if(tick == PUSH_TICK){
+				push(vehicle);
+			}
+			simulation.tick();
+			if(vehicle.ticksSinceFullUpdate > 0 && !vehicle.position.equals(vehicle.prevPosition)){
+				//Just moved without a full update.  Our boxes should be where a full update would put them.
+				++kinematicTicks;
+				movedCenters.clear();
+				for(BoundingBox box : vehicle.collisionBoxes){
+					movedCenters.add(box.globalCenter.copy());
+				}
+				for(APart part : vehicle.parts){
+					movedCenters.add(part.worldPos.copy());
+				}
+				vehicle.updateCollisionBoxes();
+				int index = 0;
+				for(BoundingBox box : vehicle.collisionBoxes){
+					assertEquals(0, box.globalCenter.distanceTo(movedCenters.get(index++)), 1E-9, "Collision box was left behind on tick " + tick + ".");
+				}
+				for(APart part : vehicle.parts){
+					part.updateWorldPos();
+					assertEquals(0, part.worldPos.distanceTo(movedCenters.get(index++)), 1E-9, "Part " + part.definition.systemName + " was left behind on tick " + tick + ".");
+				}
+			}
+		}
+		assertTrue(kinematicTicks > COAST_TICKS/2, "Vehicle only moved without full updates on " + kinematicTicks + " ticks.");
+	}
+
+	public void testLowerTiersEndUpWithFullTier(){
+		BenchmarkPack.load();
+		HeadlessSimulation fullSimulation = createSimulation(0);
+		HeadlessSimulation reducedSimulation = createSimulation(REDUCED_PLAYER_DISTANCE);
+		HeadlessSimulation minimalSimulation = createSimulation(MINIMAL_PLAYER_DISTANCE);
+		EntityVehicleF_Physics fullVehicle = fullSimulation.getVehicles().get(0);
+		EntityVehicleF_Physics reducedVehicle = reducedSimulation.getVehicles().get(0);
+		EntityVehicleF_Physics minimalVehicle = minimalSimulation.getVehicles().get(0);
+		Point3d startPosition = null;
+		for(int tick=0; tick<PUSH_TICK + COAST_TICKS; ++tick){
+			if(tick == PUSH_TICK){
+				startPosition = fullVehicle.position.copy();
+				push(fullVehicle);
+				push(reducedVehicle);
+				push(minimalVehicle);
+			}
+			fullSimulation.tick();
+			reducedSimulation.tick();
+			minimalSimulation.tick();
+		}
+		assertTrue(fullVehicle.simulationTier.equals(SimulationTier.FULL), "Full vehicle was in tier " + fullVehicle.simulationTier + ".");
+		assertTrue(reducedVehicle.simulationTier.equals(SimulationTier.REDUCED), "Reduced vehicle was in tier " + reducedVehicle.simulationTier + ".");
+		assertTrue(minimalVehicle.simulationTier.equals(SimulationTier.MINIMAL), "Minimal vehicle was in tier " + minimalVehicle.simulationTier + ".");
+
+		double distanceMoved = fullVehicle.position.distanceTo(startPosition);
+		assertTrue(distanceMoved > 5, "Vehicle only moved " + distanceMoved + " blocks, so there's nothing to compare.");
+		assertEquals(0, reducedVehicle.position.distanceTo(fullVehicle.position), distanceMoved*POSITION_TOLERANCE, "Reduced tier vehicle didn't end up with the full tier vehicle.");
+		assertEquals(0, minimalVehicle.position.distanceTo(fullVehicle.position), distanceMoved*POSITION_TOLERANCE, "Minimal tier vehicle didn't end up with the full tier vehicle.");
+	}
+
+	public void testParkedVehiclesOnlySleepOnServers(){
+		BenchmarkPack.load();
+		HeadlessSimulation server = BenchmarkPack.createSimulation();
+		EntityVehicleF_Physics serverVehicle = BenchmarkPack.getVehicle(server);
+		IWrapperNBT data = MasterLoader.coreInterface.createNewTag();
+		serverVehicle.save(data);
+		HeadlessSimulation client = new HeadlessSimulation(0, 4, 0, 0, true);
+		EntityVehicleF_Physics clientVehicle = client.loadVehicle(data);
+		client.addPlayer(clientVehicle.position);
+
+		//Take the seat out, so the client has an open slot to show when the player holds one.
+		APart seat = null;
+		for(APart part : clientVehicle.parts){
+			if(part instanceof PartSeat){
+				seat = part;
+			}
+		}
+		clientVehicle.removePart(seat, null);
+		for(int tick=0; tick<PARKED_TICKS; ++tick){
+			server.tick();
+			client.tick();
+		}
+		assertTrue(serverVehicle.sleeping, "Parked server vehicle didn't go to sleep.");
+		assertTrue(!clientVehicle.sleeping, "Parked client vehicle went to sleep.");
+
+		client.setHeldItem(seat.getItem());
+		client.tick();
+		assertTrue(!clientVehicle.activePartSlotBoxes.isEmpty(), "Parked client vehicle didn't add a slot box for the held part.");
+	}
+
+	/**
+	 *  Creates a simulation with a single vehicle and a player the passed-in distance from it.
+	 */
+	private static HeadlessSimulation createSimulation(double playerDistance){
+		HeadlessSimulation simulation = new HeadlessSimulation(0, 4, 0, 0);
+		EntityVehicleF_Physics vehicle = simulation.spawnVehicle(BenchmarkPack.PACK_ID, "car", "", 0.5, 0.5, 0);
+		vehicle.parkingBrakeOn = false;
+		simulation.addPlayer(new Point3d(vehicle.position.x + playerDistance, vehicle.position.y, vehicle.position.z));
+		return simulation;
+	}
+
+	/**
+	 *  Pushes the vehicle forwards and into a slow turn, so both movement and rotation are tested.
+	 */
+	private static void push(EntityVehicleF_Physics vehicle){
+		vehicle.motion.z = 0.5;
+		vehicle.rotation.y = 0.5;
+		vehicle.wakeUp();
+	}
+}
@@ -0,0 +1,93 @@
+package mcinterface1122;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import minecrafttransportsimulator.baseclasses.BoundingBox;
+import minecrafttransportsimulator.baseclasses.Point3d;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.RayTraceResult;
+import net.minecraft.util.math.Vec3d;
+
+/**Benchmarks for the collision checks in {@link WrapperAABBCollective}.  MC calls these for
+ * every entity that moves near a vehicle, so large vehicles with lots of collision boxes are the
+ * worst case.  The collective here has 200 boxes in a 10x20 grid, which is about what a big
+ * ship or plane has.  The moving box is player-sized and sits just outside one edge of the grid,
+ * moving towards it, so some boxes overlap it on the other axes and the offset gets clamped.
+ * The far box is outside the collective, which is the common case of a mob walking near a vehicle.
+ * The ray goes down the middle of the grid from above, like a player looking at the vehicle.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WrapperAABBCollectiveBenchmark{
+	private static final int BOXES_WIDE = 10;
+	private static final int BOXES_LONG = 20;
+	
+	private List<BoundingBox> boxes;
+	private WrapperAABBCollective collective;
+	private AxisAlignedBB sideBox;
+	private AxisAlignedBB topBox;
+	private AxisAlignedBB endBox;
+	private AxisAlignedBB farBox;
+	private Vec3d rayStart;
+	private Vec3d rayEnd;
+	
+	@Setup
+	public void setup(){
+		boxes = new ArrayList<BoundingBox>();
+		for(int i=0; i<BOXES_WIDE; ++i){
+			for(int j=0; j<BOXES_LONG; ++j){
+				boxes.add(new BoundingBox(new Point3d(i - BOXES_WIDE/2D + 0.5, 1.0 + (i+j)%3*0.25, j - BOXES_LONG/2D + 0.5), 0.5, 0.5, 0.5));
+			}
+		}
+		collective = WrapperAABBCollective.create(boxes);
+		sideBox = new AxisAlignedBB(BOXES_WIDE/2D + 0.1, 0.5, 0.2, BOXES_WIDE/2D + 0.7, 2.3, 0.8);
+		topBox = new AxisAlignedBB(0.2, 2.6, 0.2, 0.8, 4.4, 0.8);
+		endBox = new AxisAlignedBB(0.2, 0.5, BOXES_LONG/2D + 0.1, 0.8, 2.3, BOXES_LONG/2D + 0.7);
+		farBox = new AxisAlignedBB(BOXES_WIDE + 0.2, 0.5, 0.2, BOXES_WIDE + 0.8, 2.3, 0.8);
+		rayStart = new Vec3d(0.3, 5.0, 0.3);
+		rayEnd = new Vec3d(0.3, -1.0, 0.7);
+	}
+	
+	@Benchmark
+	public double calculateXOffset(){
+		return collective.calculateXOffset(sideBox, -0.5);
+	}
+	
+	@Benchmark
+	public double calculateYOffset(){
+		return collective.calculateYOffset(topBox, -0.5);
+	}
+	
+	@Benchmark
+	public double calculateZOffset(){
+		return collective.calculateZOffset(endBox, -0.5);
+	}
+	
+	@Benchmark
+	public boolean intersectsFar(){
+		return collective.intersects(farBox);
+	}
+	
+	@Benchmark
+	public RayTraceResult calculateIntercept(){
+		return collective.calculateIntercept(rayStart, rayEnd);
+	}
+	
+	@Benchmark
+	public WrapperAABBCollective update(){
+		return collective.update(boxes);
+	}
+}
@@ -0,0 +1,57 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**Benchmarks for {@link BezierCurve}.  The curve is a full-length road segment with a bend in it,
+ * and the lookups are done part-way along it so the search has to go a few levels deep.
+ * Creating the curve is also benchmarked, as that's done for every lane of every road that loads.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BezierCurveBenchmark{
+	private final Point3d endPos = new Point3d(12, 3, 28);
+	private final BezierCurve curve = new BezierCurve(endPos, 0, 90);
+	private final Point3d point = new Point3d(0, 0, 0);
+	private final Point3d testPoint = new Point3d(8, 2, 14);
+	private final float segment = curve.pathLength*0.37F;
+
+	@Benchmark
+	public BezierCurve create(){
+		return new BezierCurve(endPos, 0, 90);
+	}
+
+	@Benchmark
+	public Point3d getPointAt(){
+		return curve.getPointAt(segment, point);
+	}
+
+	@Benchmark
+	public Point3d getActualPointAt(){
+		return curve.getActualPointAt(segment, point);
+	}
+
+	@Benchmark
+	public double getYawAt(){
+		return curve.getYawAt(segment);
+	}
+
+	@Benchmark
+	public double getPitchAt(){
+		return curve.getPitchAt(segment);
+	}
+
+	@Benchmark
+	public float getClosestSegmentTo(){
+		return curve.getClosestSegmentTo(testPoint);
+	}
+}
@@ -0,0 +1,48 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**Benchmarks for the collision checks in {@link BoundingBox}.  Both the hit and miss cases are
+ * benchmarked, as intersection checks can exit early on a miss.  The ray is a typical bullet or
+ * player raytrace that passes through the box at an angle.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BoundingBoxBenchmark{
+	private final BoundingBox box = new BoundingBox(new Point3d(0, 1, 0), 1.5, 1.0, 2.5);
+	private final BoundingBox hitBox = new BoundingBox(new Point3d(1.0, 1.5, 2.0), 1.0, 1.0, 1.0);
+	private final BoundingBox missBox = new BoundingBox(new Point3d(10.0, 1.5, 2.0), 1.0, 1.0, 1.0);
+	private final Point3d rayStart = new Point3d(-5, 3, -6);
+	private final Point3d rayEnd = new Point3d(5, 0, 6);
+	private final Point3d missRayEnd = new Point3d(-5, 3, 6);
+	
+	@Benchmark
+	public boolean intersectsHit(){
+		return box.intersects(hitBox);
+	}
+	
+	@Benchmark
+	public boolean intersectsMiss(){
+		return box.intersects(missBox);
+	}
+	
+	@Benchmark
+	public Point3d getIntersectionPointHit(){
+		return box.getIntersectionPoint(rayStart, rayEnd);
+	}
+	
+	@Benchmark
+	public Point3d getIntersectionPointMiss(){
+		return box.getIntersectionPoint(rayStart, missRayEnd);
+	}
+}
@@ -0,0 +1,40 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**Benchmarks for the rotation methods in {@link Point3d}.  These are called for every part
+ * and collision box on every vehicle every tick, so they're some of the hottest code we have.
+ * The point is reset before each rotation, so all runs rotate the same point.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Point3dBenchmark{
+	private final Point3d point = new Point3d(0, 0, 0);
+	private final Point3d angles = new Point3d(12.5, 137.25, -4.75);
+	private final Point3d zeroAngles = new Point3d(0, 0, 0);
+	
+	@Benchmark
+	public Point3d rotateFine(){
+		return point.set(1.5, 0.75, -2.25).rotateFine(angles);
+	}
+	
+	@Benchmark
+	public Point3d rotateFineZero(){
+		return point.set(1.5, 0.75, -2.25).rotateFine(zeroAngles);
+	}
+	
+	@Benchmark
+	public Point3d rotateCoarse(){
+		return point.set(1.5, 0.75, -2.25).rotateCoarse(angles);
+	}
+}
@@ -0,0 +1,53 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**Benchmarks for {@link SignalNetworkSchedule}.  The network is a long road with a controller
+ * every 64 blocks, each with slightly different times, like a real corridor that's had its
+ * controllers set up by different people.  Getting the next change time checks every member,
+ * so it's the cost of each batched network update.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SignalNetworkScheduleBenchmark{
+	private static final int MEMBERS = 32;
+	private final int[][] stateTimes = new int[MEMBERS][];
+	private final double[] distances = new double[MEMBERS];
+	private SignalNetworkSchedule schedule;
+	private long time = 123456;
+
+	@Setup
+	public void setup(){
+		for(int i=0; i<MEMBERS; ++i){
+			stateTimes[i] = new int[]{400 + (i%4)*20, 40, 20, 200 - (i%3)*20, 40, 20};
+			distances[i] = i*64;
+		}
+		schedule = new SignalNetworkSchedule(stateTimes, distances, 0.5D);
+	}
+
+	@Benchmark
+	public SignalNetworkSchedule create(){
+		return new SignalNetworkSchedule(stateTimes, distances, 0.5D);
+	}
+
+	@Benchmark
+	public int getState(){
+		return schedule.getState(MEMBERS/2, ++time);
+	}
+
+	@Benchmark
+	public long getNextChangeTime(){
+		return schedule.getNextChangeTime(++time);
+	}
+}
@@ -0,0 +1,274 @@
+package minecrafttransportsimulator.packets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import mcinterfaceheadless.BenchmarkPack;
+import mcinterfaceheadless.HeadlessSimulation;
+import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.baseclasses.Point3i;
+import minecrafttransportsimulator.blocks.components.ABlockBase.Axis;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityDecor;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityFluidLoader;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityFuelPump;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityPole;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityRoad;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityRoad.RoadComponent;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntitySignalController;
+import minecrafttransportsimulator.items.instances.ItemDecor;
+import minecrafttransportsimulator.items.instances.ItemInstrument;
+import minecrafttransportsimulator.items.instances.ItemPart;
+import minecrafttransportsimulator.items.instances.ItemPoleComponent;
+import minecrafttransportsimulator.items.instances.ItemRoadComponent;
+import minecrafttransportsimulator.items.instances.ItemVehicle;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.packets.components.APacketBase;
+import minecrafttransportsimulator.packets.instances.PacketBeaconListingChange;
+import minecrafttransportsimulator.packets.instances.PacketBulletHit;
+import minecrafttransportsimulator.packets.instances.PacketEntityRiderChange;
+import minecrafttransportsimulator.packets.instances.PacketFluidTankChange;
+import minecrafttransportsimulator.packets.instances.PacketPlayerChatMessage;
+import minecrafttransportsimulator.packets.instances.PacketPlayerCraftItem;
+import minecrafttransportsimulator.packets.instances.PacketRadioStateChange;
+import minecrafttransportsimulator.packets.instances.PacketSignalNetworkState;
+import minecrafttransportsimulator.packets.instances.PacketTileEntityDecorColorChange;
+import minecrafttransportsimulator.packets.instances.PacketTileEntityDecorTextChange;
+import minecrafttransportsimulator.packets.instances.PacketTileEntityFluidLoaderConnection;
+import minecrafttransportsimulator.packets.instances.PacketTileEntityFuelPumpConnection;
+import minecrafttransportsimulator.packets.instances.PacketTileEntityPoleChange;
+import minecrafttransportsimulator.packets.instances.PacketTileEntityRoadChange;
+import minecrafttransportsimulator.packets.instances.PacketTileEntitySignalControllerChange;
+import minecrafttransportsimulator.packets.instances.PacketTileEntitySignalControllerState;
+import minecrafttransportsimulator.packets.instances.PacketVehicleBeaconChange;
+import minecrafttransportsimulator.packets.instances.PacketVehicleColorChange;
+import minecrafttransportsimulator.packets.instances.PacketVehicleControlAnalog;
+import minecrafttransportsimulator.packets.instances.PacketVehicleControlDigital;
+import minecrafttransportsimulator.packets.instances.PacketVehicleControlSync;
+import minecrafttransportsimulator.packets.instances.PacketVehicleControlSync.SyncType;
+import minecrafttransportsimulator.packets.instances.PacketVehicleCustomToggle;
+import minecrafttransportsimulator.packets.instances.PacketVehicleInstruments;
+import minecrafttransportsimulator.packets.instances.PacketVehicleInteract;
+import minecrafttransportsimulator.packets.instances.PacketVehicleLightToggle;
+import minecrafttransportsimulator.packets.instances.PacketVehiclePartChange;
+import minecrafttransportsimulator.packets.instances.PacketVehiclePartEngine;
+import minecrafttransportsimulator.packets.instances.PacketVehiclePartEngine.Signal;
+import minecrafttransportsimulator.packets.instances.PacketVehiclePartGroundDevice;
+import minecrafttransportsimulator.packets.instances.PacketVehiclePartGun;
+import minecrafttransportsimulator.packets.instances.PacketVehiclePartInteractable;
+import minecrafttransportsimulator.packets.instances.PacketVehiclePartSeat;
+import minecrafttransportsimulator.packets.instances.PacketVehicleServerMovement;
+import minecrafttransportsimulator.packets.instances.PacketVehicleTextChange;
+import minecrafttransportsimulator.packets.instances.PacketVehicleTrailerChange;
+import minecrafttransportsimulator.rendering.components.LightType;
+import minecrafttransportsimulator.sound.RadioManager.RadioSources;
+import minecrafttransportsimulator.systems.PackParserSystem;
+import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
+import minecrafttransportsimulator.vehicles.parts.APart;
+import minecrafttransportsimulator.vehicles.parts.PartEngine;
+import minecrafttransportsimulator.vehicles.parts.PartGroundDevice;
+import minecrafttransportsimulator.vehicles.parts.PartGun;
+import minecrafttransportsimulator.vehicles.parts.PartInteractable;
+import minecrafttransportsimulator.vehicles.parts.PartSeat;
+
+/**Benchmarks for encoding and decoding every packet in {@link minecrafttransportsimulator.packets.instances}.
+ * Packets are made from the vehicle and tile entities in the {@link BenchmarkPack}, with typical
+ * values for what they'd be sent with in-game.  Encoding is timed by writing the packet to a buffer.
+ * Decoding is timed by creating the packet from the encoded buffer with the buffer constructor, the
+ * same way the network interface does it.  Handling isn't timed, as that's game logic, not networking.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PacketBenchmark{
+	@Param({
+		"PacketBeaconListingChange",
+		"PacketBulletHit",
+		"PacketEntityRiderChange",
+		"PacketFluidTankChange",
+		"PacketPlayerChatMessage",
+		"PacketPlayerCraftItem",
+		"PacketRadioStateChange",
+		"PacketSignalNetworkState",
+		"PacketTileEntityDecorColorChange",
+		"PacketTileEntityDecorTextChange",
+		"PacketTileEntityFluidLoaderConnection",
+		"PacketTileEntityFuelPumpConnection",
+		"PacketTileEntityPoleChange",
+		"PacketTileEntityRoadChange",
+		"PacketTileEntitySignalControllerChange",
+		"PacketTileEntitySignalControllerState",
+		"PacketVehicleBeaconChange",
+		"PacketVehicleColorChange",
+		"PacketVehicleControlAnalog",
+		"PacketVehicleControlDigital",
+		"PacketVehicleControlSync",
+		"PacketVehicleCustomToggle",
+		"PacketVehicleInstruments",
+		"PacketVehicleInteract",
+		"PacketVehicleLightToggle",
+		"PacketVehiclePartChange",
+		"PacketVehiclePartEngine",
+		"PacketVehiclePartGroundDevice",
+		"PacketVehiclePartGun",
+		"PacketVehiclePartInteractable",
+		"PacketVehiclePartSeat",
+		"PacketVehicleServerMovement",
+		"PacketVehicleTextChange",
+		"PacketVehicleTrailerChange"
+	})
+	public String packetName;
+
+	private APacketBase packet;
+	private ByteBuf encodeBuffer;
+	private ByteBuf decodeBuffer;
+
+	@Setup
+	public void setup(){
+		BenchmarkPack.load();
+		packet = createPacket(packetName, BenchmarkPack.createSimulation());
+		encodeBuffer = Unpooled.buffer();
+		decodeBuffer = Unpooled.buffer();
+		packet.writeToBuffer(decodeBuffer);
+	}
+
+	@Benchmark
+	public int encode(){
+		encodeBuffer.clear();
+		packet.writeToBuffer(encodeBuffer);
+		return encodeBuffer.writerIndex();
+	}
+
+	@Benchmark
+	public APacketBase decode() throws Exception{
+		//Skip the packet index, as the network interface reads this to get the class.
+		decodeBuffer.readerIndex(1);
+		return packet.getClass().getConstructor(ByteBuf.class).newInstance(decodeBuffer);
+	}
+
+	/**
+	 *  Creates the packet with the passed-in name, using the vehicle in the passed-in simulation
+	 *  and tile entities placed in its world.
+	 */
+	private static APacketBase createPacket(String packetName, HeadlessSimulation simulation){
+		IWrapperWorld world = simulation.getWorld();
+		EntityVehicleF_Physics vehicle = BenchmarkPack.getVehicle(simulation);
+		switch(packetName){
+			case("PacketBeaconListingChange") : return new PacketBeaconListingChange("benchmark_beacon");
+			case("PacketBulletHit") : {
+				PartGun gun = getPart(vehicle, PartGun.class);
+				ItemPart bullet = PackParserSystem.getItem(BenchmarkPack.PACK_ID, "bullet");
+				return new PacketBulletHit(vehicle.collisionBoxes.get(0), 40, bullet, gun, 12, null, world.generateEntity());
+			}
+			case("PacketEntityRiderChange") : return new PacketEntityRiderChange(vehicle, world.generateEntity(), getPart(vehicle, PartSeat.class).placementOffset);
+			case("PacketFluidTankChange") : return new PacketFluidTankChange(getPart(vehicle, PartInteractable.class).tank);
+			case("PacketPlayerChatMessage") : return new PacketPlayerChatMessage("interact.fuelpump.complete");
+			case("PacketPlayerCraftItem") : return new PacketPlayerCraftItem(PackParserSystem.getItem(BenchmarkPack.PACK_ID, "car"));
+			case("PacketRadioStateChange") : return new PacketRadioStateChange(vehicle.getRadio(), RadioSources.LOCAL, 10, 2);
+			case("PacketSignalNetworkState") : {
+				List<TileEntitySignalController> controllers = new ArrayList<TileEntitySignalController>();
+				for(int i=0; i<8; ++i){
+					controllers.add(new TileEntitySignalController(world, new Point3i(i*48, 5, 0), createTileData("pump")));
+				}
+				return new PacketSignalNetworkState(controllers);
+			}
+			case("PacketTileEntityDecorColorChange") : {
+				ItemDecor redPump = PackParserSystem.getItem(BenchmarkPack.PACK_ID, "pump", "_red");
+				return new PacketTileEntityDecorColorChange(new TileEntityDecor(world, new Point3i(0, 5, 0), createTileData("pump")), redPump);
+			}
+			case("PacketTileEntityDecorTextChange") : return new PacketTileEntityDecorTextChange(new TileEntityDecor(world, new Point3i(0, 5, 0), createTileData("pump")), Arrays.asList("DIESEL"));
+			case("PacketTileEntityFluidLoaderConnection") : {
+				TileEntityFluidLoader loader = new TileEntityFluidLoader(world, new Point3i(0, 5, 0), createTileData("pump"));
+				loader.connectedPart = getPart(vehicle, PartInteractable.class);
+				return new PacketTileEntityFluidLoaderConnection(loader, true);
+			}
+			case("PacketTileEntityFuelPumpConnection") : {
+				TileEntityFuelPump pump = new TileEntityFuelPump(world, new Point3i(0, 5, 0), createTileData("pump"));
+				pump.connectedVehicle = vehicle;
+				return new PacketTileEntityFuelPumpConnection(pump, true);
+			}
+			case("PacketTileEntityPoleChange") : {
+				ItemPoleComponent sign = PackParserSystem.getItem(BenchmarkPack.PACK_ID, "sign");
+				return new PacketTileEntityPoleChange(new TileEntityPole(world, new Point3i(0, 5, 0), createTileData("pole")), Axis.NORTH, sign, Arrays.asList("EXIT 12"), false);
+			}
+			case("PacketTileEntityRoadChange") : {
+				ItemRoadComponent road = PackParserSystem.getItem(BenchmarkPack.PACK_ID, "road");
+				return new PacketTileEntityRoadChange(new TileEntityRoad(world, new Point3i(0, 5, 0), createTileData("road")), RoadComponent.CORE, road);
+			}
+			case("PacketTileEntitySignalControllerChange") : {
+				TileEntitySignalController controller = new TileEntitySignalController(world, new Point3i(0, 5, 0), createTileData("pump"));
+				for(int i=0; i<4; ++i){
+					controller.componentLocations.add(new Point3i(i*8 - 12, 5, i%2 == 0 ? -8 : 8));
+				}
+				return new PacketTileEntitySignalControllerChange(controller);
+			}
+			case("PacketTileEntitySignalControllerState") : return new PacketTileEntitySignalControllerState(new TileEntitySignalController(world, new Point3i(0, 5, 0), createTileData("pump")));
+			case("PacketVehicleBeaconChange") : return new PacketVehicleBeaconChange(vehicle, "benchmark_beacon");
+			case("PacketVehicleColorChange") : {
+				ItemVehicle car = PackParserSystem.getItem(BenchmarkPack.PACK_ID, "car");
+				return new PacketVehicleColorChange(vehicle, car);
+			}
+			case("PacketVehicleControlAnalog") : return new PacketVehicleControlAnalog(vehicle, PacketVehicleControlAnalog.Controls.RUDDER, (short) 150, Byte.MAX_VALUE);
+			case("PacketVehicleControlDigital") : return new PacketVehicleControlDigital(vehicle, PacketVehicleControlDigital.Controls.P_BRAKE, true);
+			case("PacketVehicleControlSync") : return new PacketVehicleControlSync(vehicle, SyncType.STATE);
+			case("PacketVehicleCustomToggle") : return new PacketVehicleCustomToggle(vehicle, "benchmark_custom");
+			case("PacketVehicleInstruments") : {
+				ItemInstrument gauge = PackParserSystem.getItem(BenchmarkPack.PACK_ID, "gauge");
+				return new PacketVehicleInstruments(vehicle, 0, gauge);
+			}
+			case("PacketVehicleInteract") : return new PacketVehicleInteract(vehicle, vehicle.position.copy().add(0.5, 1.0, 1.5), true);
+			case("PacketVehicleLightToggle") : return new PacketVehicleLightToggle(vehicle, LightType.HEADLIGHT);
+			case("PacketVehiclePartChange") : {
+				APart wheel = getPart(vehicle, PartGroundDevice.class);
+				return new PacketVehiclePartChange(vehicle, wheel.placementOffset, wheel.getItem(), wheel.getData(), null);
+			}
+			case("PacketVehiclePartEngine") : return new PacketVehiclePartEngine(getPart(vehicle, PartEngine.class), Signal.MAGNETO_ON);
+			case("PacketVehiclePartGroundDevice") : return new PacketVehiclePartGroundDevice(getPart(vehicle, PartGroundDevice.class), true);
+			case("PacketVehiclePartGun") : return new PacketVehiclePartGun(getPart(vehicle, PartGun.class), true);
+			case("PacketVehiclePartInteractable") : {
+				PartInteractable barrel = getPart(vehicle, PartInteractable.class);
+				barrel.linkedVehicle = vehicle;
+				return new PacketVehiclePartInteractable(barrel);
+			}
+			case("PacketVehiclePartSeat") : return new PacketVehiclePartSeat(getPart(vehicle, PartSeat.class));
+			case("PacketVehicleServerMovement") : return new PacketVehicleServerMovement(vehicle, new Point3d(0.01, -0.002, 0.35), new Point3d(0.0, 0.15, 0.0));
+			case("PacketVehicleTextChange") : return new PacketVehicleTextChange(vehicle, Arrays.asList("BENCH"));
+			case("PacketVehicleTrailerChange") : return new PacketVehicleTrailerChange(vehicle, 0, 0);
+			default : throw new IllegalArgumentException("ERROR: No benchmark packet set up for: " + packetName + ".  Add it to the benchmark when adding new packets.");
+		}
+	}
+
+	private static IWrapperNBT createTileData(String systemName){
+		IWrapperNBT data = MasterLoader.coreInterface.createNewTag();
+		data.setString("packID", BenchmarkPack.PACK_ID);
+		data.setString("systemName", systemName);
+		data.setString("currentSubName", "");
+		return data;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <PartClass extends APart> PartClass getPart(EntityVehicleF_Physics vehicle, Class<PartClass> partClass){
+		for(APart part : vehicle.parts){
+			if(part.getClass().equals(partClass)){
+				return (PartClass) part;
+			}
+		}
+		throw new IllegalStateException("ERROR: Benchmark vehicle doesn't have a part of type: " + partClass.getSimpleName());
+	}
+}
@@ -0,0 +1,47 @@
+package minecrafttransportsimulator.packloading;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import mcinterfaceheadless.BenchmarkPack;
+import minecrafttransportsimulator.jsondefs.JSONPart;
+import minecrafttransportsimulator.jsondefs.JSONVehicle;
+import minecrafttransportsimulator.systems.PackParserSystem;
+
+/**Benchmarks for parsing pack JSONs with the {@link PackParserSystem#packParser}.  This is the
+ * parser with all the {@link JSONTypeAdapters}, so it includes the cost of the custom adapters.
+ * Packs with hundreds of vehicles spend most of their load time here.  The JSON text is read
+ * in setup, so only the parsing is timed.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JSONParsingBenchmark{
+	private String vehicleJSON;
+	private String engineJSON;
+	
+	@Setup
+	public void setup(){
+		vehicleJSON = BenchmarkPack.getJSON("vehicles/car.json");
+		engineJSON = BenchmarkPack.getJSON("parts/engine.json");
+	}
+	
+	@Benchmark
+	public JSONVehicle parseVehicle(){
+		return PackParserSystem.packParser.fromJson(vehicleJSON, JSONVehicle.class);
+	}
+	
+	@Benchmark
+	public JSONPart parsePart(){
+		return PackParserSystem.packParser.fromJson(engineJSON, JSONPart.class);
+	}
+}
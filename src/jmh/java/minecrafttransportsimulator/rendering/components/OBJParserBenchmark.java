@@ -0,0 +1,32 @@
+package minecrafttransportsimulator.rendering.components;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**Benchmarks for {@link OBJParser#parseOBJModel(String)}.  Models are parsed the first time
+ * something with them is rendered, so slow parsing shows up as a hitch when new vehicles come
+ * into view.  The models benchmarked here are the ones in the core mod, as those are always
+ * available and cover small and large models.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OBJParserBenchmark{
+	@Param({"fuelpump", "enginebench", "wheelbench", "decorbench"})
+	public String modelName;
+	
+	@Benchmark
+	public Map<String, Float[][]> parseOBJModel(){
+		return OBJParser.parseOBJModel("/assets/mts/objmodels/decors/" + modelName + ".obj");
+	}
+}
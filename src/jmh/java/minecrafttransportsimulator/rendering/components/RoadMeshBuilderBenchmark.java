@@ -0,0 +1,55 @@
+package minecrafttransportsimulator.rendering.components;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import minecrafttransportsimulator.baseclasses.BezierCurve;
+import minecrafttransportsimulator.baseclasses.Point3d;
+
+/**Benchmarks for {@link RoadMeshBuilder#buildMesh(Float[][], Point3d, List, List, float[])}.
+ * The road is a full-length two-lane segment with a bend, and the model is the fuel pump from
+ * the core mod, which has a lot more triangles than any real road section would.  This makes
+ * the benchmark a worst case for how long a road takes on the mesh thread.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoadMeshBuilderBenchmark{
+	private Float[][] model;
+	private final Point3d origin = new Point3d(100.5, 64, -7.5);
+	private final List<Point3d> laneStarts = new ArrayList<Point3d>();
+	private final List<BezierCurve> laneCurves = new ArrayList<BezierCurve>();
+	private final float[] laneOffsets = new float[]{-2, 2};
+
+	@Setup
+	public void setup(){
+		List<Float[]> modelVertices = new ArrayList<Float[]>();
+		for(Float[][] objectVertices : OBJParser.parseOBJModel("/assets/mts/objmodels/decors/fuelpump.obj").values()){
+			for(Float[] vertex : objectVertices){
+				modelVertices.add(vertex);
+			}
+		}
+		model = modelVertices.toArray(new Float[modelVertices.size()][]);
+		laneStarts.add(new Point3d(-2, 0, 0));
+		laneStarts.add(new Point3d(2, 0, 0));
+		laneCurves.add(new BezierCurve(new Point3d(10, 2, 28), 0, 270));
+		laneCurves.add(new BezierCurve(new Point3d(6, 2, 24), 0, 270));
+	}
+
+	@Benchmark
+	public Map<Long, float[]> buildMesh(){
+		return RoadMeshBuilder.buildMesh(model, origin, laneStarts, laneCurves, laneOffsets);
+	}
+}
@@ -0,0 +1,50 @@
+package minecrafttransportsimulator.rendering.components;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import mcinterfaceheadless.BenchmarkPack;
+import mcinterfaceheadless.HeadlessSimulation;
+import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
+
+/**Benchmarks for {@link VehicleAnimations#getVariableValue(String, float, EntityVehicleF_Physics, minecrafttransportsimulator.vehicles.parts.APart)}.
+ * This is called for every animated object and instrument every frame, so it adds up fast.
+ * Variables are a mix of vehicle variables, which fall through the vehicle switch, and part
+ * variables, which have to parse the part number and find the part first.  The vehicle is
+ * ticked a few times in setup so the values aren't all 0.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VehicleAnimationsBenchmark{
+	@Param({"yaw", "speed", "throttle", "door", "slip", "engine_rpm_1", "engine_gearshift_1", "ground_rotation_1", "gun_yaw_1"})
+	public String variable;
+	
+	private EntityVehicleF_Physics vehicle;
+	
+	@Setup
+	public void setup(){
+		BenchmarkPack.load();
+		HeadlessSimulation simulation = BenchmarkPack.createSimulation();
+		vehicle = BenchmarkPack.getVehicle(simulation);
+		vehicle.throttle = 50;
+		for(int i=0; i<20; ++i){
+			simulation.tick();
+		}
+	}
+	
+	@Benchmark
+	public double getVariableValue(){
+		return VehicleAnimations.getVariableValue(variable, 0.5F, vehicle, null);
+	}
+}
@@ -0,0 +1,63 @@
+package minecrafttransportsimulator.systems;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import mcinterfaceheadless.BenchmarkPack;
+import mcinterfaceheadless.HeadlessSimulation;
+import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
+
+/**Benchmarks for the overhead of {@link ProfilerSystem}.  A world of driving vehicles is ticked
+ * with the profiler off and on, so the difference between the two is what the profiler costs.
+ * The vehicles are pushed back and forth while turning, so they never go to sleep, always do full
+ * updates, and don't drive away from the player into a lower simulation tier.
+ * The profiler is on by default, so the on time should be within 1% of the off time at the default sample interval.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProfilerSystemBenchmark{
+	private static final int VEHICLES = 32;
+	private static final double VEHICLE_SPACING = 8;
+
+	@Param({"false", "true"})
+	public boolean profiler;
+
+	private HeadlessSimulation simulation;
+	private int ticks;
+
+	@Setup
+	public void setup(){
+		BenchmarkPack.load();
+		ConfigSystem.configObject.general.profiler.value = profiler;
+		simulation = new HeadlessSimulation(0, 4, 0, 0);
+		for(int i=0; i<VEHICLES; ++i){
+			EntityVehicleF_Physics vehicle = simulation.spawnVehicle(BenchmarkPack.PACK_ID, "car", "", (i%8)*VEHICLE_SPACING, (i/8)*VEHICLE_SPACING, 0);
+			vehicle.parkingBrakeOn = false;
+		}
+		simulation.addPlayer(new Point3d(4*VEHICLE_SPACING, 4, 2*VEHICLE_SPACING));
+	}
+
+	@Benchmark
+	public HeadlessSimulation tick(){
+		for(EntityVehicleF_Physics vehicle : simulation.getVehicles()){
+			vehicle.motion.z = 0.3*Math.sin(ticks*0.1);
+			vehicle.rotation.y = 1;
+			vehicle.wakeUp();
+		}
+		simulation.tick();
+		++ticks;
+		return simulation;
+	}
+}
@@ -190,6 +190,13 @@ class BuilderBlock extends Block{
     	super.breakBlock(world, pos, state);
     }
     
+    @Override
+	@SuppressWarnings("deprecation")
+    public void neighborChanged(IBlockState state, World world, BlockPos pos, Block neighborBlock, BlockPos neighborPos){
+    	//Forward this change to the block.  This is how blocks know redstone changed without checking every tick.
+    	block.onNeighborChanged(WrapperWorld.getWrapperFor(world), new Point3i(pos.getX(), pos.getY(), pos.getZ()));
+    }
+    
     @Override
 	@SuppressWarnings("deprecation")
     public void addCollisionBoxToList(IBlockState state, World world, BlockPos pos, AxisAlignedBB entityBox, List<AxisAlignedBB> collidingBoxes, @Nullable Entity entity, boolean p_185477_7_){
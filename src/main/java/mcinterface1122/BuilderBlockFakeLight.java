@@ -2,6 +2,7 @@ package mcinterface1122;
 
 import java.util.Random;
 
+import minecrafttransportsimulator.systems.DynamicLightSystem;
 import net.minecraft.block.BlockAir;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
@@ -9,8 +10,10 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
 /**Builder for a MC block that emits light. In this case, the ONLY use of this builder
- * is to have a fake light be present on the ground.  Used for dynamic lighting for 
- * shader compat where shaders need vehicles to be lit by a block light to light up at night.
+ * is to have a fake light be present on the ground.  Vehicle light on MTS models comes from the
+ * {@link DynamicLightSystem}, but that can't light up the world or vanilla entities.  If vehicle
+ * light blocks are turned on in the config, this is placed under lit-up vehicles to do that.
+ * This is also used for shader compat where shaders need vehicles to be lit by a block light to light up at night.
  * We extend the air block as it's most akin to the block type we need.
  *
  * @author don_bruce
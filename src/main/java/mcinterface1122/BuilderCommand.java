@@ -0,0 +1,38 @@
+package mcinterface1122;
+
+import minecrafttransportsimulator.systems.ProfilerSystem;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+
+/**Builder for the MC profiler command.  All the command logic is in {@link ProfilerSystem#runCommand(String[])},
+ * this class just passes the arguments to it and sends the returned lines to whoever ran the command.
+ * Only OPs can run this command, as exporting writes files on the server.
+ *
+ * @author don_bruce
+ */
+class BuilderCommand extends CommandBase{
+
+	@Override
+	public String getName(){
+		return "mtsprofiler";
+	}
+
+	@Override
+	public String getUsage(ICommandSender sender){
+		return "/mtsprofiler [stages|entities [count]|types [count]|export csv|json|reset] [client]";
+	}
+
+	@Override
+	public int getRequiredPermissionLevel(){
+		return 2;
+	}
+
+	@Override
+	public void execute(MinecraftServer server, ICommandSender sender, String[] args){
+		for(String line : ProfilerSystem.runCommand(args)){
+			sender.sendMessage(new TextComponentString(line));
+		}
+	}
+}
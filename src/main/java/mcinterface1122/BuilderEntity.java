@@ -1,22 +1,38 @@
 package mcinterface1122;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import javax.annotation.Nullable;
 
 import minecrafttransportsimulator.baseclasses.BoundingBox;
 import minecrafttransportsimulator.baseclasses.Damage;
 import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.baseclasses.RoadCollisionManager;
+import minecrafttransportsimulator.baseclasses.RoadLaneGraph;
 import minecrafttransportsimulator.items.components.AItemPack;
 import minecrafttransportsimulator.items.components.IItemEntityProvider;
 import minecrafttransportsimulator.mcinterface.IWrapperEntity;
 import minecrafttransportsimulator.packets.instances.PacketVehicleInteract;
+import minecrafttransportsimulator.rendering.components.RenderTickData;
 import minecrafttransportsimulator.sound.IRadioProvider;
+import minecrafttransportsimulator.systems.ConfigSystem;
+import minecrafttransportsimulator.systems.DynamicLightSystem;
+import minecrafttransportsimulator.systems.LightUpdateSystem;
 import minecrafttransportsimulator.systems.PackParserSystem;
+import minecrafttransportsimulator.systems.PresenceSensorSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem;
+import minecrafttransportsimulator.systems.ScheduledEventSystem;
+import minecrafttransportsimulator.systems.SignalNetworkSystem;
+import minecrafttransportsimulator.systems.VehiclePhysicsSystem;
 import minecrafttransportsimulator.vehicles.main.AEntityBase;
 import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
 import minecrafttransportsimulator.vehicles.parts.APart;
@@ -36,10 +52,13 @@ import net.minecraft.world.World;
 import net.minecraftforge.event.RegistryEvent;
 import net.minecraftforge.event.entity.player.AttackEntityEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
+import net.minecraftforge.event.world.BlockEvent;
 import net.minecraftforge.event.world.ExplosionEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
 import net.minecraftforge.fml.common.registry.EntityEntry;
 import net.minecraftforge.fml.common.registry.EntityEntryBuilder;
 
@@ -57,15 +76,33 @@ import net.minecraftforge.fml.common.registry.EntityEntryBuilder;
 public class BuilderEntity extends Entity{
 	/**Maps Entity class names to instances of the IItemEntityProvider class that creates them.**/
 	static final Map<String, IItemEntityProvider<?>> entityMap = new HashMap<String, IItemEntityProvider<?>>();
+	/**Ticks between MC autosaves.  This is hard-coded in the MinecraftServer class.**/
+	private static final int AUTOSAVE_INTERVAL = 900;
+	/**Pool for preparing entity saves in parallel.  Threads are daemons so they don't hold up the game on exit.**/
+	private static final ExecutorService savePool = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), new ThreadFactory(){
+		@Override
+		public Thread newThread(Runnable runnable){
+			Thread thread = new Thread(runnable, "MTS Save Worker");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	/**List of vehicles to update at the start of the world tick.  Re-used to prevent creating a new list every tick.**/
+	private static final List<EntityVehicleF_Physics> phasedVehicles = new ArrayList<EntityVehicleF_Physics>();
 	
 	/**Current entity we are built around.  This MAY be null if we haven't loaded NBT from the server yet.**/
 	AEntityBase entity;
 	/**This flag is true if we need to get server data for syncing.  Set on construction tick on clients.**/
 	private boolean requestDataFromServer;
+	/**Server tick our entity was last updated on at the start of the world tick.  Kept as a tick so a tick MC skips us on can't skip our next one.  Only used on servers.**/
+	private int phasedUpdateTick = -1;
 	/**Last saved explosion position (used for damage calcs).**/
 	private static Point3d lastExplosionPosition;
-	/**Position where we have spawned a fake light.  Used for shader compatibility.**/
+	/**Position where we have spawned a fake light.  Only used if vehicle light blocks are turned on in the config.**/
 	private BlockPos fakeLightPosition;
+	/**Render data for this entity.  Only present on clients once we've been rendered, and released when we're set dead.**/
+	RenderTickData renderData;
 	/**Collective for interaction boxes.  These are used by this entity to allow players to interact with it.**/
 	private WrapperAABBCollective interactionBoxes;
 	/**Collective for collision boxes.  These are used by this entity to make things collide with it.**/
@@ -82,31 +119,38 @@ public class BuilderEntity extends Entity{
     public void onEntityUpdate(){
     	//If our entity isn't null, update it and our position.
     	if(entity != null){
-    		//First forward the update call.
-    		entity.update();
+    		//First forward the update call, unless we already did it at the start of the world tick.
+    		//Sleeping entities don't change, so we don't need to update them or their AABBs.
+    		boolean alreadyUpdated = !world.isRemote && phasedUpdateTick == world.getMinecraftServer().getTickCounter();
+    		if(alreadyUpdated || !entity.sleeping){
+    			if(!alreadyUpdated){
+    				entity.update();
+    			}
     		
-    		//Update AABBs.
-    		//We need to update a wrapper class here as normal entities only allow a single collision box.
-    		//We also need to know if we need to increase the max world collision bounds to detect this entity.
-    		//Only do this after the first tick of the entity, as we might have some states that need updating
-    		//on that first tick that would cause bad maths.
-    		//We also do this only every second, as it prevents excess checks.
-    		interactionBoxes = new WrapperAABBCollective(this, entity.interactionBoxes);
-    		collisionBoxes = new WrapperAABBCollective(this, entity.collisionBoxes);
-    		if(entity.ticksExisted > 1 && entity.ticksExisted%20 == 0){
-	    		double furthestWidthRadius = 0;
-	    		double furthestHeightRadius = 0;
-	    		for(BoundingBox box : entity.interactionBoxes){
-	    			furthestWidthRadius = (float) Math.max(furthestWidthRadius, Math.abs(box.globalCenter.x - entity.position.x + box.widthRadius));
-	    			furthestHeightRadius = (float) Math.max(furthestHeightRadius, Math.abs(box.globalCenter.y - entity.position.y + box.heightRadius));
-	    			furthestWidthRadius = (float) Math.max(furthestWidthRadius, Math.abs(box.globalCenter.z - entity.position.z + box.depthRadius));
-	    		}
-	    		setSize((float) furthestWidthRadius*2F, (float) furthestHeightRadius*2F);
+	    		//Update AABBs.
+	    		//We need to update a wrapper class here as normal entities only allow a single collision box.
+	    		//The wrappers are kept between ticks and updated in-place, so we only create them once.
+	    		//We also need to know if we need to increase the max world collision bounds to detect this entity.
+	    		//Only do this after the first tick of the entity, as we might have some states that need updating
+	    		//on that first tick that would cause bad maths.
+	    		//We also do this only every second, as it prevents excess checks.
+	    		interactionBoxes = interactionBoxes != null ? interactionBoxes.update(entity.interactionBoxes) : WrapperAABBCollective.create(entity.interactionBoxes);
+	    		collisionBoxes = collisionBoxes != null ? collisionBoxes.update(entity.collisionBoxes) : WrapperAABBCollective.create(entity.collisionBoxes);
+	    		if(entity.ticksExisted > 1 && entity.ticksExisted%20 == 0){
+		    		double furthestWidthRadius = 0;
+		    		double furthestHeightRadius = 0;
+		    		for(BoundingBox box : entity.interactionBoxes){
+		    			furthestWidthRadius = (float) Math.max(furthestWidthRadius, Math.abs(box.globalCenter.x - entity.position.x + box.widthRadius));
+		    			furthestHeightRadius = (float) Math.max(furthestHeightRadius, Math.abs(box.globalCenter.y - entity.position.y + box.heightRadius));
+		    			furthestWidthRadius = (float) Math.max(furthestWidthRadius, Math.abs(box.globalCenter.z - entity.position.z + box.depthRadius));
+		    		}
+		    		setSize((float) furthestWidthRadius*2F, (float) furthestHeightRadius*2F);
 	    		
-	    		//Make sure the collision bounds for MC are big enough to collide with this entity.
-				if(World.MAX_ENTITY_RADIUS < furthestWidthRadius || World.MAX_ENTITY_RADIUS < furthestHeightRadius){
-					World.MAX_ENTITY_RADIUS = Math.max(furthestWidthRadius, furthestHeightRadius);
-				}
+		    		//Make sure the collision bounds for MC are big enough to collide with this entity.
+					if(World.MAX_ENTITY_RADIUS < furthestWidthRadius || World.MAX_ENTITY_RADIUS < furthestHeightRadius){
+						World.MAX_ENTITY_RADIUS = Math.max(furthestWidthRadius, furthestHeightRadius);
+					}
+	    		}
     		}
     		
 			//Set the new position and rotation.
@@ -127,31 +171,12 @@ public class BuilderEntity extends Entity{
 	    		}
     		}
     		
-    		//Update fake block lighting.  This helps with shaders as they sometimes refuse to light things up.
+    		//Update our dynamic light.  This only moves our light source, so there's no world lighting update.
+    		//If light blocks are turned on, also update our fake light block.  This lights up the world around us
+    		//and helps with shaders, as they sometimes refuse to light things up, but re-does the world lighting.
     		if(world.isRemote){
-    			if(entity.isLitUp()){
-					BlockPos newPos = getPosition();
-					//Check to see if we need to place a light.
-					if(!newPos.equals(fakeLightPosition)){
-						//If our prior position is not null, remove that block.
-						if(fakeLightPosition != null){
-							world.setBlockToAir(fakeLightPosition);
-							world.checkLight(fakeLightPosition);
-							fakeLightPosition = null;
-						}
-						//Set block in world and update pos.  Only do this if the block is air.
-						if(world.isAirBlock(newPos)){
-							world.setBlockState(newPos, BuilderBlockFakeLight.instance.getDefaultState());
-							world.checkLight(newPos);
-							fakeLightPosition = newPos;
-						}
-					}
-    			}else if(fakeLightPosition != null){
-    				//Lights are off, turn off fake light.
-    				world.setBlockToAir(fakeLightPosition);
-    				world.checkLight(fakeLightPosition);
-    				fakeLightPosition = null;
-    			}
+    			DynamicLightSystem.updateSource(entity, entity.isLitUp());
+    			updateFakeLight(entity.isLitUp() && ConfigSystem.configObject.clientRendering.vehicleBlklt.value);
     		}
     		
     		//Check if we are still valid, or need to be set dead.
@@ -174,17 +199,49 @@ public class BuilderEntity extends Entity{
     	}
     }
     
+	/**
+	 * Places a fake light block at our position if we are lit, moving it as we move.
+	 * Removes the block if we aren't lit.
+	 */
+	private void updateFakeLight(boolean lit){
+		if(lit){
+			BlockPos newPos = getPosition();
+			//Check to see if we need to place a light.
+			if(!newPos.equals(fakeLightPosition)){
+				//If our prior position is not null, remove that block.
+				if(fakeLightPosition != null){
+					world.setBlockToAir(fakeLightPosition);
+					world.checkLight(fakeLightPosition);
+					fakeLightPosition = null;
+				}
+				//Set block in world and update pos.  Only do this if the block is air.
+				if(world.isAirBlock(newPos)){
+					world.setBlockState(newPos, BuilderBlockFakeLight.instance.getDefaultState());
+					world.checkLight(newPos);
+					fakeLightPosition = newPos;
+				}
+			}
+		}else if(fakeLightPosition != null){
+			//Lights are off, turn off fake light.
+			world.setBlockToAir(fakeLightPosition);
+			world.checkLight(fakeLightPosition);
+			fakeLightPosition = null;
+		}
+	}
+    
 	@Override
 	public void setDead(){
 		super.setDead();
-		//Get rid of the fake light (if we have one) before we kill ourselves.
-		if(fakeLightPosition != null){
-			world.setBlockToAir(fakeLightPosition);
-		}
 		//Mark entity as invalid and remove from maps.
 		if(entity != null){
 			entity.isValid = false;
+			PresenceSensorSystem.removeEntity(entity);
+			ProfilerSystem.removeEntity(entity);
+			entity.remove();
 			if(world.isRemote){
+				DynamicLightSystem.removeSource(entity);
+				updateFakeLight(false);
+				renderData = null;
 				AEntityBase.createdClientEntities.remove(entity);
 			}else{
 				AEntityBase.createdServerEntities.remove(entity);
@@ -198,6 +255,7 @@ public class BuilderEntity extends Entity{
     @Override
     public boolean attackEntityFrom(DamageSource source, float amount){
 		if(!world.isRemote && entity != null){
+			entity.wakeUp();
 			Entity attacker = source.getImmediateSource();
 			Entity trueSource = source.getTrueSource();
 			WrapperPlayer playerSource = trueSource instanceof EntityPlayer ? WrapperWorld.getWrapperFor(trueSource.world).getWrapperFor((EntityPlayer) trueSource) : null;
@@ -229,7 +287,7 @@ public class BuilderEntity extends Entity{
 					//We do raytracing here to catch this movement.
 					RayTraceResult hitRaytrace = interactionBoxes.calculateIntercept(attacker.getPositionVector(), attacker.getPositionVector().add(attacker.motionX, attacker.motionY, attacker.motionZ));
 					if(hitRaytrace != null){
-						damage = new Damage(source.damageType, amount, interactionBoxes.lastBoxRayTraced, playerSource);
+						damage = new Damage(source.damageType, amount, interactionBoxes.getLastBoxRayTraced(), playerSource);
 					}
 				}
 				
@@ -334,6 +392,12 @@ public class BuilderEntity extends Entity{
         //Need to render in pass 1 to render transparent things in the world like light beams.
     	return true;
     }
+    
+    @Override
+    public int getBrightnessForRender(){
+    	//Add light from lit-up vehicles, including ourselves, as they don't place light blocks.
+    	return WrapperWorld.getWrapperFor(world).addDynamicLight(super.getBrightnessForRender(), posX, posY + getEyeHeight(), posZ);
+    }
 			
     @Override
 	public void readFromNBT(NBTTagCompound tag){
@@ -354,7 +418,12 @@ public class BuilderEntity extends Entity{
 	public NBTTagCompound writeToNBT(NBTTagCompound tag){
 		super.writeToNBT(tag);
 		if(entity != null){
-			entity.save(new WrapperNBT(tag));
+			//Copy the entity's saved data into the tag.  Entities re-use their prior data if they haven't changed,
+			//so we share the tags rather than copy them.  This is safe, as saved data is never modified.
+			NBTTagCompound savedTag = ((WrapperNBT) entity.getSaveData()).tag;
+			for(String key : savedTag.getKeySet()){
+				tag.setTag(key, savedTag.getTag(key));
+			}
 			//Also save the class ID so we know what to construct when MC loads this Entity back up.
 			tag.setString("entityid", entity.getClass().getSimpleName());
 		}else if(!world.isRemote){
@@ -365,7 +434,81 @@ public class BuilderEntity extends Entity{
 	}
 	
 	/**
-     * Remove all entities from our maps if we unload the world.  This will cause duplicates if we don't.
+     * Update all awake, un-towed vehicles at the start of the world tick.  This is done with the phases of
+     * {@link VehiclePhysicsSystem} rather than in {@link #onEntityUpdate()}, which lets the physics for all
+     * vehicles be computed in parallel.  We only update vehicles MC would update this tick, so vehicles
+     * near the edge of loaded chunks, or in worlds with no players, stay frozen like they did before.
+     * <br><br>
+     * Prepare the save data of all changed entities at the end of the world tick before an autosave.
+     * No entities tick between this and the save, so the entity states are frozen, and we can save
+     * them on multiple threads.  MC will then call {@link #writeToNBT(NBTTagCompound)} on the main
+     * thread, which will just pick up the prepared data.  Saves outside of autosaves, such as when
+     * chunks unload, still work as normal; they just don't get the parallel preparation.
+     */
+    @SubscribeEvent
+    public static void on(TickEvent.WorldTickEvent event){
+    	//Run scheduled events before vehicles update.  These run even if there are no players,
+    	//as they're for things like signals that need to keep going in loaded chunks.
+    	//Also merge the profiler times from the last tick, as nothing is updating now.
+    	if(event.phase.equals(Phase.START) && !event.world.isRemote){
+    		ProfilerSystem.mergeTimes(false);
+    		ScheduledEventSystem.tick(WrapperWorld.getWrapperFor(event.world));
+    	}
+    	if(event.phase.equals(Phase.START) && !event.world.isRemote && !event.world.playerEntities.isEmpty()){
+    		for(Entity mcEntity : event.world.loadedEntityList){
+    			if(mcEntity instanceof BuilderEntity && !mcEntity.isDead){
+    				BuilderEntity builder = (BuilderEntity) mcEntity;
+    				if(builder.entity instanceof EntityVehicleF_Physics && !builder.entity.sleeping && ((EntityVehicleF_Physics) builder.entity).towedByVehicle == null && event.world.isAreaLoaded(builder.getPosition(), 32)){
+    					phasedVehicles.add((EntityVehicleF_Physics) builder.entity);
+    					builder.phasedUpdateTick = event.world.getMinecraftServer().getTickCounter();
+    				}
+    			}
+    		}
+    		VehiclePhysicsSystem.updateVehicles(phasedVehicles);
+    		phasedVehicles.clear();
+    	}else if(event.phase.equals(Phase.END) && !event.world.isRemote && event.world.getMinecraftServer().getTickCounter()%AUTOSAVE_INTERVAL == 0){
+    		List<Future<?>> saveTasks = new ArrayList<Future<?>>();
+    		for(Entity mcEntity : event.world.loadedEntityList){
+    			if(mcEntity instanceof BuilderEntity){
+    				final AEntityBase entity = ((BuilderEntity) mcEntity).entity;
+    				if(entity != null && entity.isDirty()){
+    					saveTasks.add(savePool.submit(new Runnable(){
+    						@Override
+    						public void run(){
+    							entity.getSaveData();
+    						}
+    					}));
+    				}
+    			}
+    		}
+    		for(Future<?> saveTask : saveTasks){
+    			try{
+    				saveTask.get();
+    			}catch(Exception e){
+    				//Entity is still dirty if this failed, so it will be saved on the main thread instead.
+    				MasterInterface.logger.error("ERROR: Could not prepare save data for entity.  It will be saved normally.");
+    				e.printStackTrace();
+    			}
+    		}
+    	}
+    }
+	
+	/**
+     * Wake up any sleeping entities near blocks that change.  The change may have removed the block they
+     * were resting on, or put something in their way, so they will need to update to handle it.
+     */
+    @SubscribeEvent
+    public static void on(BlockEvent.NeighborNotifyEvent event){
+    	for(BuilderEntity builder : event.getWorld().getEntitiesWithinAABB(BuilderEntity.class, new AxisAlignedBB(event.getPos()).grow(1))){
+    		if(builder.entity != null){
+    			builder.entity.wakeUp();
+    		}
+    	}
+    }
+	
+	/**
+     * Remove all entities and their profiler times from our maps if we unload the world.  This will cause duplicates if we don't.
+     * Also remove any scheduled events, presence zones, signal networks, lights, light updates, road collision blocks, and road lane graphs, as they won't be used again.
      */
     @SubscribeEvent
     public static void on(WorldEvent.Unload event){
@@ -373,9 +516,18 @@ public class BuilderEntity extends Entity{
 		while(entityIterator.hasNext()){
 			AEntityBase entity = entityIterator.next();
 			if(entity.world.getDimensionID() == event.getWorld().provider.getDimension()){
+				ProfilerSystem.removeEntity(entity);
+				entity.remove();
 				entityIterator.remove();
 			}
 		}
+		ScheduledEventSystem.removeWorld(WrapperWorld.getWrapperFor(event.getWorld()));
+		PresenceSensorSystem.removeWorld(WrapperWorld.getWrapperFor(event.getWorld()));
+		SignalNetworkSystem.removeWorld(WrapperWorld.getWrapperFor(event.getWorld()));
+		DynamicLightSystem.removeWorld(WrapperWorld.getWrapperFor(event.getWorld()));
+		LightUpdateSystem.removeWorld(WrapperWorld.getWrapperFor(event.getWorld()));
+		RoadCollisionManager.removeWorld(WrapperWorld.getWrapperFor(event.getWorld()));
+		RoadLaneGraph.removeWorld(WrapperWorld.getWrapperFor(event.getWorld()));
     }
 	
 	/**
@@ -406,7 +558,7 @@ public class BuilderEntity extends Entity{
     	if(event.getTarget() instanceof BuilderEntity && ((BuilderEntity) event.getTarget()).entity instanceof EntityVehicleF_Physics){
     		BuilderEntity builder = (BuilderEntity) event.getTarget();
     		if(event.getEntityPlayer().world.isRemote && event.getHand().equals(EnumHand.MAIN_HAND) && builder.interactionBoxes != null){
-	    		BoundingBox boxClicked = builder.interactionBoxes.lastBoxRayTraced;
+	    		BoundingBox boxClicked = builder.interactionBoxes.getLastBoxRayTraced();
 	    		if(boxClicked != null){
 		    		MasterInterface.networkInterface.sendToServer(new PacketVehicleInteract((EntityVehicleF_Physics) builder.entity, boxClicked.localCenter, true));
 	    		}else{
@@ -431,7 +583,7 @@ public class BuilderEntity extends Entity{
     	if(event.getTarget() instanceof BuilderEntity && ((BuilderEntity) event.getTarget()).entity instanceof EntityVehicleF_Physics){
     		BuilderEntity builder = (BuilderEntity) event.getTarget();
     		if(event.getEntityPlayer().world.isRemote){
-	    		BoundingBox boxClicked = builder.interactionBoxes.lastBoxRayTraced;
+	    		BoundingBox boxClicked = builder.interactionBoxes.getLastBoxRayTraced();
     			if(boxClicked != null){
     				MasterInterface.networkInterface.sendToServer(new PacketVehicleInteract((EntityVehicleF_Physics) builder.entity, boxClicked.localCenter, false));
         		}else{
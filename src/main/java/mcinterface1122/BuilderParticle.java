@@ -56,7 +56,7 @@ class BuilderParticle extends Particle{
 		    int k = i >> 16 & 255;
 		    return 240 | k << 16;
         }else{
-        	return super.getBrightnessForRender(partialTicks);
+        	return ((WrapperWorld) particle.world).addDynamicLight(super.getBrightnessForRender(partialTicks), posX, posY, posZ);
         }
     }
     
@@ -4,6 +4,10 @@ import minecrafttransportsimulator.baseclasses.Point3i;
 import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityBase;
 import minecrafttransportsimulator.blocks.tileentities.components.ITileEntityTickable;
 import minecrafttransportsimulator.jsondefs.AJSONItem;
+import minecrafttransportsimulator.rendering.components.RenderTickData;
+import minecrafttransportsimulator.rendering.instances.ARenderTileEntityBase;
+import minecrafttransportsimulator.systems.ProfilerSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerStage;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.play.server.SPacketUpdateTileEntity;
@@ -30,6 +34,10 @@ import net.minecraft.world.World;
  */
 public class BuilderTileEntity<TileEntityType extends ATileEntityBase<?>> extends TileEntity{
 	protected TileEntityType tileEntity;
+	/**Render for our tile entity.  Only present on clients once we've been rendered.**/
+	ARenderTileEntityBase<ATileEntityBase<?>> render;
+	/**Render data for our tile entity.  Only present on clients once we've been rendered.**/
+	RenderTickData renderData;
 	
 	public BuilderTileEntity(){
 		//Blank constructor for MC.
@@ -48,6 +56,26 @@ public class BuilderTileEntity<TileEntityType extends ATileEntityBase<?>> extend
 		if(tileEntity != null){
 			tileEntity.remove();
 		}
+		if(render != null){
+			render.remove();
+			render = null;
+		}
+		renderData = null;
+	}
+	
+	@Override
+	public void onChunkUnload(){
+		super.onChunkUnload();
+		//MC doesn't invalidate TEs in unloading chunks, so remove ours here.
+		//If we don't, they'll keep any events or zones they have in the world.
+		if(tileEntity != null){
+			tileEntity.remove();
+		}
+		if(render != null){
+			render.remove();
+			render = null;
+		}
+		renderData = null;
 	}
 	
 	@Override
@@ -129,8 +157,12 @@ public class BuilderTileEntity<TileEntityType extends ATileEntityBase<?>> extend
 		
 		@Override
 		public void update(){
-			if(tileEntity != null){
+			//Check the type, as TEs saved when they were tickable may not be tickable anymore.
+			if(tileEntity instanceof ITileEntityTickable){
+				long updateStartTime = ProfilerSystem.getTime(tileEntity.profilerTimes);
 				((ITileEntityTickable) tileEntity).update();
+				ProfilerSystem.addTime(tileEntity.profilerTimes, ProfilerStage.TILE_ENTITIES, updateStartTime);
+				ProfilerSystem.finishUpdate(tileEntity.profilerTimes);
 			}
 		}
 	}
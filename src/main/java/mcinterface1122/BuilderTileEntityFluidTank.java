@@ -6,6 +6,8 @@ import minecrafttransportsimulator.baseclasses.IFluidTankProvider;
 import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityBase;
 import minecrafttransportsimulator.blocks.tileentities.components.ITileEntityTickable;
 import minecrafttransportsimulator.jsondefs.AJSONItem;
+import minecrafttransportsimulator.systems.ProfilerSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerStage;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ITickable;
 import net.minecraftforge.common.capabilities.Capability;
@@ -34,7 +36,10 @@ public class BuilderTileEntityFluidTank<FluidTankTileEntity extends ATileEntityB
 	@Override
 	public void update(){
 		if(tileEntity != null){
+			long updateStartTime = ProfilerSystem.getTime(tileEntity.profilerTimes);
 			((ITileEntityTickable) tileEntity).update();
+			ProfilerSystem.addTime(tileEntity.profilerTimes, ProfilerStage.TILE_ENTITIES, updateStartTime);
+			ProfilerSystem.finishUpdate(tileEntity.profilerTimes);
 		}
 	}
 
@@ -1,8 +1,5 @@
 package mcinterface1122;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.lwjgl.opengl.GL11;
 
 import minecrafttransportsimulator.blocks.components.ABlockBase;
@@ -15,15 +12,13 @@ import net.minecraft.client.renderer.tileentity.TileEntitySpecialRenderer;
  * to create an interface that MC will accept that we can forward calls from to our own code.
  * For actual rendering, create a class {@link ARenderTileEntityBase}, and return an instance of that class when
  * {@link ATileEntityBase#getRenderer()}} is called.  This will be cached and used as needed.
+ * The render and its {@link RenderTickData} are kept on the {@link BuilderTileEntity} itself, so they go
+ * away with it rather than being kept in a map here forever.
  *
  * @author don_bruce
  */
 @SuppressWarnings("rawtypes")
 public class BuilderTileEntityRender extends TileEntitySpecialRenderer<BuilderTileEntity>{
-	/**Map of renders that maps base TEs to the renders that render them.  Cached to prevent the need to create renders each cycle.**/
-	private static final Map<ATileEntityBase<?>, ARenderTileEntityBase<ATileEntityBase<?>>> renders = new HashMap<ATileEntityBase<?>, ARenderTileEntityBase<ATileEntityBase<?>>>();
-	/**Render data map. Keyed by each instance of each Tile Entity loaded.**/
-	private static final Map<ATileEntityBase<?>, RenderTickData> renderData = new HashMap<ATileEntityBase<?>, RenderTickData>();
 	
 	public BuilderTileEntityRender(){}
 	
@@ -31,21 +26,20 @@ public class BuilderTileEntityRender extends TileEntitySpecialRenderer<BuilderTi
 	@Override
 	public void render(BuilderTileEntity wrapper, double x, double y, double z, float partialTicks, int destroyStage, float alpha){
 		if(wrapper.tileEntity != null){
-			if(!renders.containsKey(wrapper.tileEntity)){
-				ARenderTileEntityBase<ATileEntityBase<?>> render = wrapper.tileEntity.getRenderer();
-				if(render == null){
+			if(wrapper.render == null){
+				wrapper.render = wrapper.tileEntity.getRenderer();
+				if(wrapper.render == null){
 					//Don't render, as we don't have a TESR.
 					return;
 				}
-				renders.put(wrapper.tileEntity, render);
 			}
 			
 			//Get the render wrapper.
-			ARenderTileEntityBase<ATileEntityBase<?>> render = renders.get(wrapper.tileEntity);
+			ARenderTileEntityBase<ATileEntityBase<?>> render = wrapper.render;
 			
 			//If we don't have render data yet, create one now.
-			if(!renderData.containsKey(wrapper.tileEntity)){
-				renderData.put(wrapper.tileEntity, new RenderTickData(wrapper.tileEntity.world));
+			if(wrapper.renderData == null){
+				wrapper.renderData = new RenderTickData(wrapper.tileEntity.world);
 			}
 			
 			//Get render pass.  Render data uses 2 for pass -1 as it uses arrays and arrays can't have a -1 index.
@@ -55,7 +49,7 @@ public class BuilderTileEntityRender extends TileEntitySpecialRenderer<BuilderTi
 			}
 			
 			//If we need to render, do so now.
-			if(renderData.get(wrapper.tileEntity).shouldRender(renderPass, partialTicks)){
+			if(wrapper.renderData.shouldRender(renderPass, partialTicks)){
 				//Translate and rotate to the TE location.
 				//Makes for less boilerplate code.
 				//Note that if we're on top of a bottom-part half-slab we translate down 0.5 units to make ourselves flush.
@@ -0,0 +1,330 @@
+package mcinterface1122;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.buffer.ByteBuf;
+import minecrafttransportsimulator.packets.components.CompactDataSchema;
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagByte;
+import net.minecraft.nbt.NBTTagByteArray;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagDouble;
+import net.minecraft.nbt.NBTTagFloat;
+import net.minecraft.nbt.NBTTagInt;
+import net.minecraft.nbt.NBTTagIntArray;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagLong;
+import net.minecraft.nbt.NBTTagShort;
+import net.minecraft.nbt.NBTTagString;
+import net.minecraft.network.PacketBuffer;
+
+/**Codec for sending NBT data over the network in a compact binary form.  Normal NBT packets
+ * send every key as a string, and every number at its full size.  This codec instead sends keys
+ * via the {@link CompactDataSchema}, numbers as variable-length integers, and doubles in the smallest
+ * form that exactly represents them.  Strings are only sent once per call, with repeats sent as
+ * an index to the first.  The decoded data is identical to the encoded data, so it can be used
+ * anywhere normal NBT data is used.  This keeps NBT as the common format for saves and constructors.
+ *
+ * @author don_bruce
+ */
+class CompactNBTCodec{
+	//Key modes.  Stored in the lower two bits of the key header.
+	private static final int KEY_SCHEMA = 0;
+	private static final int KEY_TEMPLATE = 1;
+	private static final int KEY_STRING = 2;
+
+	//Types beyond the normal NBT ones.  Used for compact doubles, and tags we don't handle directly.
+	private static final byte TYPE_DOUBLE_ZERO = 20;
+	private static final byte TYPE_DOUBLE_INT = 21;
+	private static final byte TYPE_DOUBLE_FLOAT = 22;
+	private static final byte TYPE_RAW = 23;
+
+	private final List<String> stringTable = new ArrayList<String>();
+	private final Map<String, Integer> stringIndexes = new HashMap<String, Integer>();
+
+	private CompactNBTCodec(){}
+
+	/**
+	 *  Writes the passed-in tag to the buffer.
+	 */
+	static void write(NBTTagCompound tag, ByteBuf buf){
+		writeVarInt(CompactDataSchema.VERSION, buf);
+		new CompactNBTCodec().writeCompound(tag, buf);
+	}
+
+	/**
+	 *  Reads a tag written by {@link #write(NBTTagCompound, ByteBuf)} from the buffer.
+	 */
+	static NBTTagCompound read(ByteBuf buf) throws IOException{
+		int version = readVarInt(buf);
+		if(version != CompactDataSchema.VERSION){
+			throw new IOException("ERROR: Got data with schema version " + version + ", but we are on version " + CompactDataSchema.VERSION + ".  Are both sides running the same mod version?");
+		}
+		return new CompactNBTCodec().readCompound(buf);
+	}
+
+	private void writeCompound(NBTTagCompound tag, ByteBuf buf){
+		writeVarInt(tag.getKeySet().size(), buf);
+		for(String key : tag.getKeySet()){
+			writeKey(key, buf);
+			writeTag(tag.getTag(key), buf);
+		}
+	}
+
+	private NBTTagCompound readCompound(ByteBuf buf) throws IOException{
+		NBTTagCompound tag = new NBTTagCompound();
+		int count = readVarInt(buf);
+		for(int i=0; i<count; ++i){
+			String key = readKey(buf);
+			tag.setTag(key, readTag(buf.readByte(), buf));
+		}
+		return tag;
+	}
+
+	private void writeKey(String key, ByteBuf buf){
+		int schemaIndex = CompactDataSchema.getKeyIndex(key);
+		if(schemaIndex != -1){
+			writeVarInt(schemaIndex << 2 | KEY_SCHEMA, buf);
+			return;
+		}
+
+		//Not a plain key.  See if it's a key with a number in it.
+		int numberStart = -1;
+		int numberEnd = -1;
+		for(int i=0; i<key.length(); ++i){
+			if(Character.isDigit(key.charAt(i))){
+				if(numberStart == -1){
+					numberStart = i;
+				}
+				numberEnd = i + 1;
+			}else if(numberStart != -1){
+				break;
+			}
+		}
+		if(numberStart != -1 && numberEnd - numberStart < 10){
+			String number = key.substring(numberStart, numberEnd);
+			int templateIndex = CompactDataSchema.getKeyIndex(key.substring(0, numberStart) + CompactDataSchema.NUMBER_PLACEHOLDER + key.substring(numberEnd));
+			//Don't use templates for numbers with leading zeros, as they won't decode to the same key.
+			if(templateIndex != -1 && String.valueOf(Integer.parseInt(number)).equals(number)){
+				writeVarInt(templateIndex << 2 | KEY_TEMPLATE, buf);
+				writeVarInt(Integer.parseInt(number), buf);
+				return;
+			}
+		}
+
+		//Not in the schema.  Send as a string.
+		writeVarInt(KEY_STRING, buf);
+		writeString(key, buf);
+	}
+
+	private String readKey(ByteBuf buf) throws IOException{
+		int header = readVarInt(buf);
+		switch(header & 3){
+			case(KEY_SCHEMA) : return getSchemaKey(header >>> 2);
+			case(KEY_TEMPLATE) : return getSchemaKey(header >>> 2).replace(String.valueOf(CompactDataSchema.NUMBER_PLACEHOLDER), String.valueOf(readVarInt(buf)));
+			case(KEY_STRING) : return readString(buf);
+			default : throw new IOException("ERROR: Invalid key header " + header + " in compact data.");
+		}
+	}
+
+	private static String getSchemaKey(int index) throws IOException{
+		String key = CompactDataSchema.getKey(index);
+		if(key == null){
+			throw new IOException("ERROR: Key index " + index + " isn't in the schema.  Are both sides running the same mod version?");
+		}
+		return key;
+	}
+
+	private void writeTag(NBTBase tag, ByteBuf buf){
+		switch(tag.getId()){
+			case(1) : buf.writeByte(1); buf.writeByte(((NBTTagByte) tag).getByte()); break;
+			case(2) : buf.writeByte(2); writeVarInt(zigZag(((NBTTagShort) tag).getShort()), buf); break;
+			case(3) : buf.writeByte(3); writeVarInt(zigZag(((NBTTagInt) tag).getInt()), buf); break;
+			case(4) : buf.writeByte(4); writeVarLong(zigZag(((NBTTagLong) tag).getLong()), buf); break;
+			case(5) : buf.writeByte(5); buf.writeFloat(((NBTTagFloat) tag).getFloat()); break;
+			case(6) : writeDouble(((NBTTagDouble) tag).getDouble(), buf); break;
+			case(7) : {
+				byte[] bytes = ((NBTTagByteArray) tag).getByteArray();
+				buf.writeByte(7);
+				writeVarInt(bytes.length, buf);
+				buf.writeBytes(bytes);
+				break;
+			}
+			case(8) : buf.writeByte(8); writeString(((NBTTagString) tag).getString(), buf); break;
+			case(9) : {
+				NBTTagList list = (NBTTagList) tag;
+				buf.writeByte(9);
+				writeVarInt(list.tagCount(), buf);
+				for(int i=0; i<list.tagCount(); ++i){
+					writeTag(list.get(i), buf);
+				}
+				break;
+			}
+			case(10) : buf.writeByte(10); writeCompound((NBTTagCompound) tag, buf); break;
+			case(11) : {
+				int[] ints = ((NBTTagIntArray) tag).getIntArray();
+				buf.writeByte(11);
+				writeVarInt(ints.length, buf);
+				for(int value : ints){
+					writeVarInt(zigZag(value), buf);
+				}
+				break;
+			}
+			default : {
+				//Tag we don't handle directly.  Wrap it in a compound and send it as normal NBT.
+				NBTTagCompound wrapper = new NBTTagCompound();
+				wrapper.setTag("v", tag);
+				buf.writeByte(TYPE_RAW);
+				new PacketBuffer(buf).writeCompoundTag(wrapper);
+			}
+		}
+	}
+
+	private NBTBase readTag(byte type, ByteBuf buf) throws IOException{
+		switch(type){
+			case(1) : return new NBTTagByte(buf.readByte());
+			case(2) : return new NBTTagShort((short) unZigZag(readVarInt(buf)));
+			case(3) : return new NBTTagInt(unZigZag(readVarInt(buf)));
+			case(4) : return new NBTTagLong(unZigZag(readVarLong(buf)));
+			case(5) : return new NBTTagFloat(buf.readFloat());
+			case(6) : return new NBTTagDouble(buf.readDouble());
+			case(7) : {
+				byte[] bytes = new byte[readVarInt(buf)];
+				buf.readBytes(bytes);
+				return new NBTTagByteArray(bytes);
+			}
+			case(8) : return new NBTTagString(readString(buf));
+			case(9) : {
+				NBTTagList list = new NBTTagList();
+				int count = readVarInt(buf);
+				for(int i=0; i<count; ++i){
+					list.appendTag(readTag(buf.readByte(), buf));
+				}
+				return list;
+			}
+			case(10) : return readCompound(buf);
+			case(11) : {
+				int[] ints = new int[readVarInt(buf)];
+				for(int i=0; i<ints.length; ++i){
+					ints[i] = unZigZag(readVarInt(buf));
+				}
+				return new NBTTagIntArray(ints);
+			}
+			case(TYPE_DOUBLE_ZERO) : return new NBTTagDouble(0D);
+			case(TYPE_DOUBLE_INT) : return new NBTTagDouble(unZigZag(readVarInt(buf)));
+			case(TYPE_DOUBLE_FLOAT) : return new NBTTagDouble(buf.readFloat());
+			case(TYPE_RAW) : return new PacketBuffer(buf).readCompoundTag().getTag("v");
+			default : throw new IOException("ERROR: Invalid tag type " + type + " in compact data.");
+		}
+	}
+
+	/**
+	 *  Writes a double in the smallest form that exactly represents it.
+	 *  Most saved doubles are zero, whole numbers, or came from floats, so this saves a lot of space.
+	 */
+	private static void writeDouble(double value, ByteBuf buf){
+		if(value == 0 && 1/value > 0){
+			buf.writeByte(TYPE_DOUBLE_ZERO);
+		}else if(value == (int) value && value != 0){
+			buf.writeByte(TYPE_DOUBLE_INT);
+			writeVarInt(zigZag((int) value), buf);
+		}else if(value == (float) value || Double.isNaN(value)){
+			buf.writeByte(TYPE_DOUBLE_FLOAT);
+			buf.writeFloat((float) value);
+		}else{
+			buf.writeByte(6);
+			buf.writeDouble(value);
+		}
+	}
+
+	private void writeString(String value, ByteBuf buf){
+		//Strings we have already sent are sent as an index, offset by 1 to leave 0 for new strings.
+		Integer index = stringIndexes.get(value);
+		if(index != null){
+			writeVarInt(index + 1, buf);
+		}else{
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(0, buf);
+			writeVarInt(bytes.length, buf);
+			buf.writeBytes(bytes);
+			stringIndexes.put(value, stringTable.size());
+			stringTable.add(value);
+		}
+	}
+
+	private String readString(ByteBuf buf) throws IOException{
+		int index = readVarInt(buf);
+		if(index == 0){
+			byte[] bytes = new byte[readVarInt(buf)];
+			buf.readBytes(bytes);
+			String value = new String(bytes, StandardCharsets.UTF_8);
+			stringTable.add(value);
+			return value;
+		}else if(index <= stringTable.size()){
+			return stringTable.get(index - 1);
+		}else{
+			throw new IOException("ERROR: Invalid string index " + index + " in compact data.");
+		}
+	}
+
+	private static int zigZag(int value){
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private static long zigZag(long value){
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static int unZigZag(int value){
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static long unZigZag(long value){
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static void writeVarInt(int value, ByteBuf buf){
+		while((value & ~0x7F) != 0){
+			buf.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf.writeByte(value);
+	}
+
+	private static int readVarInt(ByteBuf buf){
+		int value = 0;
+		int shift = 0;
+		byte currentByte;
+		do{
+			currentByte = buf.readByte();
+			value |= (currentByte & 0x7F) << shift;
+			shift += 7;
+		}while((currentByte & 0x80) != 0 && shift < 35);
+		return value;
+	}
+
+	private static void writeVarLong(long value, ByteBuf buf){
+		while((value & ~0x7FL) != 0){
+			buf.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf.writeByte((int) value);
+	}
+
+	private static long readVarLong(ByteBuf buf){
+		long value = 0;
+		int shift = 0;
+		byte currentByte;
+		do{
+			currentByte = buf.readByte();
+			value |= (long) (currentByte & 0x7F) << shift;
+			shift += 7;
+		}while((currentByte & 0x80) != 0 && shift < 70);
+		return value;
+	}
+}
@@ -21,9 +21,12 @@ import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
 import minecrafttransportsimulator.sound.ISoundProvider;
 import minecrafttransportsimulator.sound.IStreamDecoder;
 import minecrafttransportsimulator.sound.OGGDecoderOutput;
-import minecrafttransportsimulator.sound.Radio;
 import minecrafttransportsimulator.sound.RadioStation;
+import minecrafttransportsimulator.sound.SoundAssetManager;
 import minecrafttransportsimulator.sound.SoundInstance;
+import minecrafttransportsimulator.systems.ProfilerSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerStage;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerTimes;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
@@ -37,7 +40,8 @@ class InterfaceAudio implements IInterfaceAudio{
 	private static boolean isSystemPaused;
 	
 	/**Map of String-based file-names to Integer pointers to buffer locations.  Used for loading sounds into
-	 * memory to prevent the need to load them every time they are played.**/
+	 * memory to prevent the need to load them every time they are played.  Size of the loaded sounds is
+	 * tracked by the {@link SoundAssetManager}, which tells us which ones to unload when we have too many.**/
 	private static final Map<String, Integer> dataSourceBuffers = new HashMap<String, Integer>();
 	
 	/**List of playing {@link SoundInstance} objects.**/
@@ -49,6 +53,9 @@ class InterfaceAudio implements IInterfaceAudio{
 	/**List of sounds to start playing next update.  Split from playing sounds to avoid CMEs and odd states.**/
 	private static volatile List<SoundInstance> queuedSounds = new ArrayList<SoundInstance>();
 	
+	/**List of sounds that are waiting on the {@link SoundAssetManager} to decode their data before they can be played.**/
+	private static final List<SoundInstance> pendingSounds = new ArrayList<SoundInstance>();
+	
 	/**This gets incremented whenever we try to get a source and fail.  If we get to 10, the sound system
 	 * will stop attempting to play sounds.  Used for when mods take all the sources.**/
 	private static byte sourceGetFailures = 0;
@@ -82,11 +89,32 @@ class InterfaceAudio implements IInterfaceAudio{
     		while(iterator.hasNext()){
     			iterator.remove();
     		}
+    		pendingSounds.clear();
     		for(SoundInstance playingSound : playingSounds){
     			playingSound.stop();
     		}
 		}
 		
+		//Check if any sounds waiting on decoding are ready.  If so, get them ready to play.
+		//If they failed to decode, they'll no longer be decoding, so just drop them.
+		if(!pendingSounds.isEmpty()){
+			Iterator<SoundInstance> iterator = pendingSounds.iterator();
+			while(iterator.hasNext()){
+				SoundInstance sound = iterator.next();
+				if(sound.stopSound){
+					iterator.remove();
+				}else{
+					Integer dataBufferPointer = loadOGGJarSound(sound.soundName);
+					if(dataBufferPointer != null){
+						iterator.remove();
+						startQuickSound(sound, dataBufferPointer);
+					}else if(!SoundAssetManager.isSoundDecoding(sound.soundName)){
+						iterator.remove();
+					}
+				}
+			}
+		}
+		
 		//Start playing all queued sounds.
 		if(!queuedSounds.isEmpty()){
 			for(SoundInstance sound : queuedSounds){
@@ -172,9 +200,26 @@ class InterfaceAudio implements IInterfaceAudio{
 			station.update();
 		}
 		
+		//If we have too many sounds loaded, unload the ones we haven't used in a while.
+		//Don't unload any that are playing, as OpenAL won't let us delete bound buffers.
+		if(SoundAssetManager.isOverBudget()){
+			Set<String> soundsInUse = new HashSet<String>();
+			for(SoundInstance sound : playingSounds){
+				soundsInUse.add(sound.soundName);
+			}
+			for(SoundInstance sound : queuedSounds){
+				soundsInUse.add(sound.soundName);
+			}
+			for(String soundName : SoundAssetManager.getSoundsToEvict(soundsInUse)){
+				AL10.alDeleteBuffers(dataSourceBuffers.remove(soundName));
+				SoundAssetManager.markSoundUnloaded(soundName);
+			}
+		}
+		
 		//If the sound system was reset, blow out all saved data points.
 		if(soundSystemReset){
 			dataSourceBuffers.clear();
+			SoundAssetManager.clearLoadedSounds();
 			Set<ISoundProvider> providers = new HashSet<ISoundProvider>();
 			for(SoundInstance sound : playingSounds){
 				providers.add(sound.provider);
@@ -191,31 +236,51 @@ class InterfaceAudio implements IInterfaceAudio{
 	public void playQuickSound(SoundInstance sound){
 		if(AL.isCreated() && sourceGetFailures < 10){
 			//First get the IntBuffer pointer to where this sound data is stored.
+			//If the sound is still being decoded, hold it until it's ready.
 			Integer dataBufferPointer = loadOGGJarSound(sound.soundName);
 			if(dataBufferPointer != null){
-				//Set the sound's source buffer index.
-				IntBuffer sourceBuffer = BufferUtils.createIntBuffer(1);
-				AL10.alGetError();
-				AL10.alGenSources(sourceBuffer);
-				if(AL10.alGetError() != AL10.AL_NO_ERROR){
-					++sourceGetFailures;
-					AL10.alDeleteBuffers(dataBufferPointer);
-					MasterInterface.gameInterface.getClientPlayer().displayChatMessage("IMMERSIVE VEHICLES ERROR: Tried to play a sound, but was told no sound slots were available.  Some mod is taking up all the slots.  Probabaly Immersive Railroading or Dynamic Surroundings.  If you have those installed, complain to the mod author or check the mod configs.  Sound will not play.");
-					return;
-				}
-				sound.sourceIndex = sourceBuffer.get(0);
-				
-				//Set properties and bind data buffer to source.
-				AL10.alGetError();
-				AL10.alSourcei(sound.sourceIndex, AL10.AL_LOOPING, sound.looping ? AL10.AL_TRUE : AL10.AL_FALSE);
-				AL10.alSource(sound.sourceIndex, AL10.AL_POSITION, sound.provider.getProviderPosition());
-	    	    AL10.alSourcei(sound.sourceIndex, AL10.AL_BUFFER, dataBufferPointer);
-	    	    
-				//Done setting up buffer.  Queue sound to start playing.
-				queuedSounds.add(sound);
+				startQuickSound(sound, dataBufferPointer);
+			}else if(SoundAssetManager.isSoundDecoding(sound.soundName)){
+				pendingSounds.add(sound);
 			}
 		}
 	}
+	
+	@Override
+	public void prefetchSound(String soundName){
+		if(AL.isCreated() && !dataSourceBuffers.containsKey(soundName)){
+			SoundAssetManager.prefetchSound(soundName);
+		}
+	}
+	
+	/**
+	 *  Sets up a source for the passed-in sound, and binds the passed-in data buffer to it.
+	 *  The sound is then queued to start playing.
+	 */
+	private static void startQuickSound(SoundInstance sound, int dataBufferPointer){
+		//Set the sound's source buffer index.
+		IntBuffer sourceBuffer = BufferUtils.createIntBuffer(1);
+		AL10.alGetError();
+		AL10.alGenSources(sourceBuffer);
+		if(AL10.alGetError() != AL10.AL_NO_ERROR){
+			++sourceGetFailures;
+			AL10.alDeleteBuffers(dataBufferPointer);
+			dataSourceBuffers.remove(sound.soundName);
+			SoundAssetManager.markSoundUnloaded(sound.soundName);
+			MasterInterface.gameInterface.getClientPlayer().displayChatMessage("IMMERSIVE VEHICLES ERROR: Tried to play a sound, but was told no sound slots were available.  Some mod is taking up all the slots.  Probabaly Immersive Railroading or Dynamic Surroundings.  If you have those installed, complain to the mod author or check the mod configs.  Sound will not play.");
+			return;
+		}
+		sound.sourceIndex = sourceBuffer.get(0);
+		
+		//Set properties and bind data buffer to source.
+		AL10.alGetError();
+		AL10.alSourcei(sound.sourceIndex, AL10.AL_LOOPING, sound.looping ? AL10.AL_TRUE : AL10.AL_FALSE);
+		AL10.alSource(sound.sourceIndex, AL10.AL_POSITION, sound.provider.getProviderPosition());
+	    AL10.alSourcei(sound.sourceIndex, AL10.AL_BUFFER, dataBufferPointer);
+	    
+		//Done setting up buffer.  Queue sound to start playing.
+		queuedSounds.add(sound);
+	}
     
 	@Override
     public void addRadioStation(RadioStation station){
@@ -248,7 +313,7 @@ class InterfaceAudio implements IInterfaceAudio{
 	@Override
 	public int createBuffer(ByteBuffer buffer, IStreamDecoder decoder){
 		if(decoder.isStereo()){
-			buffer = stereoToMono(buffer);
+			buffer = SoundAssetManager.stereoToMono(buffer);
 		}
 		IntBuffer newDataBuffer = BufferUtils.createIntBuffer(1);
 		AL10.alGenBuffers(newDataBuffer);
@@ -267,95 +332,47 @@ class InterfaceAudio implements IInterfaceAudio{
 	}
 	
 	@Override
-	public int getFreeStationBuffer(Set<Radio> playingRadios){
-		boolean freeBuffer = true;
-		Radio badRadio = null;
+	public int unqueueProcessedBuffers(SoundInstance sound){
 		AL10.alGetError();
-		Iterator<Radio> iterator = playingRadios.iterator();
-		while(iterator.hasNext()){
-			Radio radio = iterator.next();
-			SoundInstance sound = radio.getPlayingSound();
-			if(AL10.alGetSourcei(sound.sourceIndex, AL10.AL_BUFFERS_PROCESSED) == 0){
-				freeBuffer = false;
-				break;
-			}
-			if(AL10.alGetError() == AL10.AL_INVALID_NAME){
-				badRadio = radio;
-			}
-		}
-		if(badRadio != null){
-			badRadio.stop();
-			return 0;
-		}else if(freeBuffer){
-			//First get the old buffer index.
-			int freeBufferIndex = 0;
-			IntBuffer oldDataBuffer = BufferUtils.createIntBuffer(1);
-			for(Radio radio : playingRadios){
-				SoundInstance sound = radio.getPlayingSound();
-				AL10.alSourceUnqueueBuffers(sound.sourceIndex, oldDataBuffer);
-				if(freeBufferIndex == 0){
-					freeBufferIndex = oldDataBuffer.get(0);
-				}else if(freeBufferIndex != oldDataBuffer.get(0)){
-					badRadio = radio;
-					break;
-				}
-			}
-			if(badRadio != null){
-				badRadio.stop();
-				return 0;
-			}else{
-				return freeBufferIndex;
-			}
-		}else{
-			return 0;
+		int processedBuffers = AL10.alGetSourcei(sound.sourceIndex, AL10.AL_BUFFERS_PROCESSED);
+		if(AL10.alGetError() == AL10.AL_INVALID_NAME){
+			return -1;
 		}
-	}
-	
-	/**
-	 *  Combines a stereo-sampled ByteBufer into a mono-sampled one.
-	 *  This allows us to use mono-only sounds that support attenuation.
-	 */
-	private static ByteBuffer stereoToMono(ByteBuffer stereoBuffer){
-		ByteBuffer monoBuffer = ByteBuffer.allocateDirect(stereoBuffer.limit()/2);
-		while(stereoBuffer.hasRemaining()){
-			//Combine samples using little-endian ordering.
-			byte[] sampleSet = new byte[4];
-			stereoBuffer.get(sampleSet);
-			int leftSample = (sampleSet[1] << 8) | (sampleSet[0] & 0xFF);
-			int rightSample = (sampleSet[3] << 8) | (sampleSet[2] & 0xFF);
-			int combinedSample = (leftSample + rightSample)/2;
-			monoBuffer.put((byte) (combinedSample & 0xFF));
-			monoBuffer.put((byte) (combinedSample >> 8));
+		if(processedBuffers > 0){
+			IntBuffer buffers = BufferUtils.createIntBuffer(processedBuffers);
+			AL10.alSourceUnqueueBuffers(sound.sourceIndex, buffers);
 		}
-		return (ByteBuffer) monoBuffer.flip();
+		return processedBuffers;
 	}
 	
 	/**
-	 *  Loads an OGG file in its entirety using the {@link InterfaceOGGDecoder}. 
+	 *  Loads an OGG file in its entirety using the {@link SoundAssetManager}. 
 	 *  The sound is then stored in a dataBuffer keyed by soundName located in {@link #dataSourceBuffers}.
 	 *  The pointer to the dataBuffer is returned for convenience as it allows for transparent sound caching.
 	 *  If a sound with the same name is passed-in at a later time, it is assumed to be the same and rather
 	 *  than re-parse the sound the system will simply return the same pointer index to be bound.
+	 *  If the sound is still being decoded, or couldn't be decoded, null is returned.
 	 */
 	private static Integer loadOGGJarSound(String soundName){
 		if(dataSourceBuffers.containsKey(soundName)){
 			//Already parsed the data.  Return the buffer.
+			SoundAssetManager.markSoundUsed(soundName);
 			return dataSourceBuffers.get(soundName);
 		}else{
-			//Need to parse the data.  Do so now.
-			OGGDecoderOutput decoderOutput = MasterInterface.oggDecoderInterface.parseWholeOGGFile(soundName);
+			//Get the data from the manager.  This will already be in mono format.
+			OGGDecoderOutput decoderOutput = SoundAssetManager.getDecodedSound(soundName);
 			if(decoderOutput != null){
 				//Generate an IntBuffer to store a pointer to the data buffer.
 				IntBuffer dataBufferPointers = BufferUtils.createIntBuffer(1);
 		    	AL10.alGenBuffers(dataBufferPointers);
 		    	
 		    	//Bind the decoder output buffer to the data buffer pointer.
-		    	//If we are stereo, convert the data before binding.
-		    	ByteBuffer decoderData = decoderOutput.isStereo ? stereoToMono(decoderOutput.decodedData) : decoderOutput.decodedData;
-		    	AL10.alBufferData(dataBufferPointers.get(0), AL10.AL_FORMAT_MONO16, decoderData, decoderOutput.sampleRate);
+		    	int dataSize = decoderOutput.decodedData.remaining();
+		    	AL10.alBufferData(dataBufferPointers.get(0), AL10.AL_FORMAT_MONO16, decoderOutput.decodedData, decoderOutput.sampleRate);
 				
 		    	//Done parsing.  Map the dataBuffer(s) to the soundName and return the index.
 		    	dataSourceBuffers.put(soundName, dataBufferPointers.get(0));
+		    	SoundAssetManager.markSoundLoaded(soundName, dataSize);
 		    	return dataSourceBuffers.get(soundName);
 			}else{
 				return null;
@@ -372,7 +389,11 @@ class InterfaceAudio implements IInterfaceAudio{
         if(event.phase.equals(Phase.END)){
 			//We put this into a try block as sound system reloads can cause the thread to get stopped mid-execution.
 			try{
+				ProfilerTimes audioTimes = ProfilerSystem.getStageTimes(true);
+				long updateStartTime = ProfilerSystem.getTime(audioTimes);
 				MasterInterface.audioInterface.update();
+				ProfilerSystem.addTime(audioTimes, ProfilerStage.AUDIO, updateStartTime);
+				ProfilerSystem.finishUpdate(audioTimes);
 			}catch(Exception e){
 				e.printStackTrace();
 				//Do nothing.  We only get exceptions here if OpenAL isn't ready.
@@ -392,6 +413,12 @@ class InterfaceAudio implements IInterfaceAudio{
     				iterator.remove();
     			}
     		}
+    		iterator = pendingSounds.iterator();
+    		while(iterator.hasNext()){
+    			if(iterator.next().provider.getProviderWorld().getDimensionID() == event.getWorld().provider.getDimension()){
+    				iterator.remove();
+    			}
+    		}
     		for(SoundInstance playingSound : playingSounds){
     			if(playingSound.provider.getProviderWorld().getDimensionID() == event.getWorld().provider.getDimension()){
     				if(playingSound.radio != null){
@@ -5,6 +5,8 @@ import minecrafttransportsimulator.mcinterface.IWrapperEntity;
 import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
 import minecrafttransportsimulator.mcinterface.IWrapperWorld;
 import minecrafttransportsimulator.systems.ConfigSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem;
+import minecrafttransportsimulator.systems.ScheduledEventSystem;
 import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.Entity;
@@ -79,6 +81,21 @@ class InterfaceGame implements IInterfaceGame{
      * Reduce the chunk-gen distance to 1 when the player is in a vehicle that's above the set height.
      * This prevents excess lag from world-gen of chunks that don't need to be genned.
      */
+    /**
+     * Runs scheduled events for the client world.  Servers run theirs in {@link BuilderEntity},
+     * but clients don't get world tick events, so we do it here at the end of the client tick.
+     * Client profiler times are merged here too, as nothing is updating at the end of the tick.
+     */
+    @SubscribeEvent
+    public static void on(TickEvent.ClientTickEvent event){
+    	if(event.phase.equals(Phase.END) && Minecraft.getMinecraft().world != null && !Minecraft.getMinecraft().isGamePaused()){
+    		ScheduledEventSystem.tick(WrapperWorld.getWrapperFor(Minecraft.getMinecraft().world));
+    	}
+    	if(event.phase.equals(Phase.END)){
+    		ProfilerSystem.mergeTimes(true);
+    	}
+    }
+    
     @SubscribeEvent
     public static void on(TickEvent.PlayerTickEvent event){
     	//Only do updates at the end of a phase to prevent double-updates.
@@ -9,7 +9,11 @@ import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.mcinterface.IInterfaceNetwork;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
 import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
 import minecrafttransportsimulator.packets.components.APacketBase;
+import minecrafttransportsimulator.systems.ProfilerSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerStage;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerTimes;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.network.PacketBuffer;
 import net.minecraftforge.fml.common.FMLCommonHandler;
@@ -53,6 +57,11 @@ class InterfaceNetwork implements IInterfaceNetwork{
 		network.sendToAll(new WrapperPacket(packet));
 	}
 	
+	@Override
+	public void sendToClientsInWorld(APacketBase packet, IWrapperWorld world){
+		network.sendToDimension(new WrapperPacket(packet), world.getDimensionID());
+	}
+	
 	@Override
 	public IWrapperNBT createDataFromBuffer(ByteBuf buf){
 		PacketBuffer pb = new PacketBuffer(buf);
@@ -64,6 +73,15 @@ class InterfaceNetwork implements IInterfaceNetwork{
         }
 	}
 	
+	@Override
+	public IWrapperNBT createDataFromCompactBuffer(ByteBuf buf){
+		try{
+			return new WrapperNBT(CompactNBTCodec.read(buf));
+		}catch(IOException e){
+			throw new RuntimeException(e);
+		}
+	}
+	
 	/**
 	 *  Sends the passed-in packet to the specified player.
 	 *  Note that this may ONLY be called on the server, as
@@ -140,11 +158,15 @@ class InterfaceNetwork implements IInterfaceNetwork{
 					//We need to use side-specific getters here to avoid side-specific classes from trying to be loaded
 					//by the JVM when this method is created.  Failure to do this will result in network faults.
 					//For this, we use abstract methods that are extended in our sub-classes.
+					ProfilerTimes packetTimes = ProfilerSystem.getClassTimes(message.packet.getClass(), !ctx.side.isServer());
+					long handleStartTime = ProfilerSystem.getTime(packetTimes);
 					if(ctx.side.isServer()){
 						message.packet.handle(getServerWorld(ctx), getServerPlayer(ctx));
 					}else{
 						message.packet.handle(MasterInterface.gameInterface.getClientWorld(), MasterInterface.gameInterface.getClientPlayer());
 					}
+					ProfilerSystem.addTime(packetTimes, ProfilerStage.PACKETS, handleStartTime);
+					ProfilerSystem.finishUpdate(packetTimes);
 				}
 			});
 			return null;
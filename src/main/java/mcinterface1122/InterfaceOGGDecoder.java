@@ -90,6 +90,17 @@ class InterfaceOGGDecoder implements IInterfaceOGGDecoder{
 			}
 	    }
 	    
+	    @Override
+	    public ByteBuffer pollBlock(){
+	    	//Reads are already non-blocking as they come from the decoder thread.
+	    	return readBlock();
+	    }
+	    
+	    @Override
+	    public boolean isFinished(){
+	    	return !decoderThread.isAlive() && decoderOutputBuffers.isEmpty();
+	    }
+	    
 	    @Override
 	    public void stop(){
 	    	decoderThread.radioPlaying = false;
@@ -30,8 +30,11 @@ import minecrafttransportsimulator.mcinterface.IWrapperEntity;
 import minecrafttransportsimulator.packloading.PackResourceLoader;
 import minecrafttransportsimulator.packloading.PackResourceLoader.ResourceType;
 import minecrafttransportsimulator.rendering.components.AParticle;
+import minecrafttransportsimulator.rendering.components.LightSampleCache;
+import minecrafttransportsimulator.rendering.components.ModelGeometryCache;
 import minecrafttransportsimulator.rendering.components.RenderEventHandler;
 import minecrafttransportsimulator.rendering.components.RenderTickData;
+import minecrafttransportsimulator.rendering.components.RoadMeshCache;
 import minecrafttransportsimulator.systems.ConfigSystem;
 import minecrafttransportsimulator.systems.PackParserSystem;
 import minecrafttransportsimulator.vehicles.main.AEntityBase;
@@ -48,6 +51,9 @@ import net.minecraft.client.renderer.entity.Render;
 import net.minecraft.client.renderer.entity.RenderManager;
 import net.minecraft.client.renderer.texture.TextureUtil;
 import net.minecraft.client.renderer.tileentity.TileEntityRendererDispatcher;
+import net.minecraft.client.resources.IReloadableResourceManager;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.client.resources.IResourceManagerReloadListener;
 import net.minecraft.client.resources.IResourcePack;
 import net.minecraft.client.resources.data.IMetadataSection;
 import net.minecraft.client.resources.data.MetadataSerializer;
@@ -75,12 +81,13 @@ import net.minecraftforge.fml.client.registry.IRenderFactory;
 import net.minecraftforge.fml.client.registry.RenderingRegistry;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
 import net.minecraftforge.fml.relauncher.Side;
 
 @Mod.EventBusSubscriber(Side.CLIENT)
 class InterfaceRender implements IInterfaceRender{
 	private static final Map<String, Integer> textures = new HashMap<String, Integer>();
-	private static final Map<BuilderEntity, RenderTickData> renderData = new HashMap<BuilderEntity, RenderTickData>();
 	private static String pushedTextureLocation;
 	private static BuilderGUI currentGUI = null;
 	
@@ -172,6 +179,7 @@ class InterfaceRender implements IInterfaceRender{
 	        setLightingState(true);
         }
 		int lightVar = Minecraft.getMinecraft().world.getCombinedLight(new BlockPos(location.x, location.y, location.z), 0);
+		lightVar = WrapperWorld.getWrapperFor(Minecraft.getMinecraft().world).addDynamicLight(lightVar, location.x, location.y, location.z);
         OpenGlHelper.setLightmapTextureCoords(OpenGlHelper.lightmapTexUnit, lightVar%65536, lightVar/65536);
 	}
 	
@@ -453,6 +461,17 @@ class InterfaceRender implements IInterfaceRender{
     	}
     }
 	
+    /**
+     *  Clear the cached light samples at the start of every frame, as light may have changed since the last one.
+     */
+    @SubscribeEvent
+    public static void on(TickEvent.RenderTickEvent event){
+    	if(event.phase.equals(Phase.START)){
+    		LightSampleCache.clear();
+    		RoadMeshCache.startFrame();
+    	}
+    }
+	
     @SubscribeEvent
     public static void on(RenderWorldLastEvent event){
     	Minecraft.getMinecraft().world.profiler.startSection("iv_render_pass_-1");
@@ -500,8 +519,8 @@ class InterfaceRender implements IInterfaceRender{
 				public void doRender(BuilderEntity builder, double x, double y, double z, float entityYaw, float partialTicks){
 					if(builder.entity != null){
 						//If we don't have render data yet, create one now.
-						if(!renderData.containsKey(builder)){
-							renderData.put(builder, new RenderTickData(builder.entity.world));
+						if(builder.renderData == null){
+							builder.renderData = new RenderTickData(builder.entity.world);
 						}
 						
 						//Get render pass.  Render data uses 2 for pass -1 as it uses arrays and arrays can't have a -1 index.
@@ -511,7 +530,7 @@ class InterfaceRender implements IInterfaceRender{
 						}
 						
 						//If we need to render, do so now.
-						if(renderData.get(builder).shouldRender(renderPass, partialTicks)){
+						if(builder.renderData.shouldRender(renderPass, partialTicks)){
 							builder.entity.render(partialTicks);
 						}
 					}
@@ -522,6 +541,14 @@ class InterfaceRender implements IInterfaceRender{
 		//Register the TESR wrapper.
 		ClientRegistry.bindTileEntitySpecialRenderer(BuilderTileEntity.class, new BuilderTileEntityRender());
 		
+		//Invalidate cached model geometry when resources are reloaded, as packs may have changed their models.
+		((IReloadableResourceManager) Minecraft.getMinecraft().getResourceManager()).registerReloadListener(new IResourceManagerReloadListener(){
+			@Override
+			public void onResourceManagerReload(IResourceManager resourceManager){
+				ModelGeometryCache.invalidateAll();
+			}
+		});
+		
 		//Get the list of default resource packs here to inject a custom parser for auto-generating JSONS.
 		//FAR easier than trying to use the bloody bakery system.
 		//Normally we'd add our pack to the current loader, but this gets wiped out during reloads and unless we add our pack to the main list, it won't stick.
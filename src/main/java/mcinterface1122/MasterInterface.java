@@ -12,6 +12,7 @@ import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.Mod.EventHandler;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
 
 @Mod(modid = MasterInterface.MODID, name = MasterInterface.MODNAME, version = MasterInterface.MODVER)
 public class MasterInterface{
@@ -80,6 +81,12 @@ public class MasterInterface{
 		MasterLoader.registerPackets(packetIndex);
 	}
 	
+	@EventHandler
+	public void serverStarting(FMLServerStartingEvent event){
+		//Register the profiler command.  This needs to be done every time a server starts.
+		event.registerServerCommand(new BuilderCommand());
+	}
+	
 	/**
 	 *  Creates a wrapper for the the passed-in Item, saving the wrapper to be registered later.
 	 *  This wrapper instance will interact with all MC code via passthrough of the item's methods.
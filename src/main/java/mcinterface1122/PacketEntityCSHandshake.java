@@ -29,7 +29,7 @@ class PacketEntityCSHandshake extends APacketBase{
 		super(buf);
 		this.builderID = buf.readInt();
 		if(buf.readBoolean()){
-			this.data = MasterInterface.networkInterface.createDataFromBuffer(buf);
+			this.data = MasterInterface.networkInterface.createDataFromCompactBuffer(buf);
 		}else{
 			this.data = null;
 		}
@@ -41,7 +41,7 @@ class PacketEntityCSHandshake extends APacketBase{
 		buf.writeInt(builderID);
 		if(data != null){
 			buf.writeBoolean(true);
-			data.writeToBuffer(buf);
+			data.writeCompactToBuffer(buf);
 		}else{
 			buf.writeBoolean(false);
 		}
@@ -5,52 +5,113 @@ import java.util.List;
 import javax.annotation.Nullable;
 
 import minecrafttransportsimulator.baseclasses.BoundingBox;
-import minecrafttransportsimulator.baseclasses.Point3d;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.RayTraceResult;
 import net.minecraft.util.math.Vec3d;
 
-/**This wrapper is essentially a collective list of BoundingBoxes.  It intercepts all AABB 
+/**This wrapper is essentially a collective list of BoundingBoxes.  It intercepts all AABB
  * calls and does checks for each BoundingBox that's in the passed-in list.
  * Mostly used for entities that need complex collision mapping, because MC don't let you have more
  * than one AABB per entity, but somehow you can have more than one for something as small as a block?
- * 
+ * <br><br>
+ * MC calls the methods in this class for every entity that moves near us, so they need to be fast.
+ * To do this, the bounds of the boxes are copied into arrays in {@link #update(List)}, and the envelope
+ * around all boxes is kept to reject checks that can't hit any box before we loop over them.
+ * The arrays are kept between updates, so there's no allocation unless the number of boxes grows.
+ * <br><br>
+ * As the bounds of an AABB are final, the bounds of this collective are the envelope at the time it was
+ * created, plus some padding.  All methods in this class use the current envelope instead, but MC may
+ * read the bounds directly.  Because of this, {@link #update(List)} returns a new collective with
+ * the same arrays if the boxes have moved out of our bounds.  Otherwise, it returns this collective.
+ *
  * @author don_bruce
  */
 class WrapperAABBCollective extends AxisAlignedBB{
-	private final List<BoundingBox> boxes;
-	BoundingBox lastBoxRayTraced;
-	
-	public WrapperAABBCollective(BuilderEntity entity, List<BoundingBox> boxes){
-		super(	entity.posX - entity.width/2D,
-				entity.posY - entity.height/2D,
-				entity.posZ - entity.width/2D,
-				entity.posX + entity.width/2D,
-				entity.posY + entity.height/2D,
-				entity.posZ + entity.width/2D
+	/**Padding to add to the envelope to get the bounds of a new collective.  Larger values mean we need new
+	 * collectives less often for moving entities, but the bounds MC reads are less accurate.**/
+	private static final double BOUNDS_PADDING = 1.0D;
+
+	private final BoxArrays boxes;
+
+	private WrapperAABBCollective(BoxArrays boxes){
+		super(	boxes.envelopeMinX - BOUNDS_PADDING,
+				boxes.envelopeMinY - BOUNDS_PADDING,
+				boxes.envelopeMinZ - BOUNDS_PADDING,
+				boxes.envelopeMaxX + BOUNDS_PADDING,
+				boxes.envelopeMaxY + BOUNDS_PADDING,
+				boxes.envelopeMaxZ + BOUNDS_PADDING
 			);
 		this.boxes = boxes;
 	}
-	
+
+	/**
+	 *  Creates a new collective for the passed-in boxes.  This should only be done once per entity.
+	 *  After that, call {@link #update(List)} to update the collective when the boxes change.
+	 */
+	static WrapperAABBCollective create(List<BoundingBox> boundingBoxes){
+		BoxArrays boxes = new BoxArrays();
+		boxes.update(boundingBoxes);
+		return new WrapperAABBCollective(boxes);
+	}
+
+	/**
+	 *  Updates this collective with the current positions of the passed-in boxes.  Returns this collective
+	 *  if the boxes are still inside its bounds, or a new collective with the same box arrays if they aren't.
+	 *  In either case, the returned collective should be used from now on.
+	 */
+	WrapperAABBCollective update(List<BoundingBox> boundingBoxes){
+		boxes.update(boundingBoxes);
+		if(boxes.envelopeMinX < minX || boxes.envelopeMinY < minY || boxes.envelopeMinZ < minZ || boxes.envelopeMaxX > maxX || boxes.envelopeMaxY > maxY || boxes.envelopeMaxZ > maxZ){
+			return new WrapperAABBCollective(boxes);
+		}else{
+			return this;
+		}
+	}
+
+	/**
+	 *  Returns the box that was hit by the last call to {@link #calculateIntercept(Vec3d, Vec3d)}, or null if none was hit.
+	 *  This is kept between collectives from {@link #update(List)}, so it's still valid if this collective was replaced.
+	 */
+	BoundingBox getLastBoxRayTraced(){
+		return boxes.lastBoxRayTraced;
+	}
+
 	@Override
 	public WrapperAABBCollective grow(double value){
 		return this;
     }
-	
+
+	@Override
+	public double getAverageEdgeLength(){
+		return boxes.count != 0 ? (boxes.envelopeMaxX - boxes.envelopeMinX + boxes.envelopeMaxY - boxes.envelopeMinY + boxes.envelopeMaxZ - boxes.envelopeMinZ)/3.0D : 0;
+	}
+
+	@Override
+	public Vec3d getCenter(){
+		return new Vec3d((boxes.envelopeMinX + boxes.envelopeMaxX)/2D, (boxes.envelopeMinY + boxes.envelopeMaxY)/2D, (boxes.envelopeMinZ + boxes.envelopeMaxZ)/2D);
+	}
+
 	@Override
 	public double calculateXOffset(AxisAlignedBB box, double offset){
-		for(BoundingBox testBox : boxes){
-			if(box.maxY > testBox.globalCenter.y - testBox.heightRadius && box.minY < testBox.globalCenter.y + testBox.heightRadius && box.maxZ > testBox.globalCenter.z - testBox.depthRadius && box.minZ < testBox.globalCenter.z + testBox.depthRadius){
+		//If the box isn't next to us on the other axis, or is further away than the offset, no box can change the offset.
+		if(box.maxY <= boxes.envelopeMinY || box.minY >= boxes.envelopeMaxY || box.maxZ <= boxes.envelopeMinZ || box.minZ >= boxes.envelopeMaxZ){
+			return offset;
+		}else if(offset > 0.0D ? boxes.envelopeMinX - box.maxX >= offset : (offset < 0.0D ? boxes.envelopeMaxX - box.minX <= offset : true)){
+			return offset;
+		}
+		final double[] minXs = boxes.minX, maxXs = boxes.maxX, minYs = boxes.minY, maxYs = boxes.maxY, minZs = boxes.minZ, maxZs = boxes.maxZ;
+		for(int i=0; i<boxes.count; ++i){
+			if(box.maxY > minYs[i] && box.minY < maxYs[i] && box.maxZ > minZs[i] && box.minZ < maxZs[i]){
 				if(offset > 0.0D){
 					//Positive offset, box.maxX <= this.minX.
-	                double collisionDepth = testBox.globalCenter.x - testBox.widthRadius - box.maxX;
+	                double collisionDepth = minXs[i] - box.maxX;
 	                if(collisionDepth >= 0 && collisionDepth < offset){
 	                    offset = collisionDepth;
 	                }
 	            }else if(offset < 0.0D){
 	            	//Negative offset, box.minX >= this.maxX.
-	                double collisionDepth = testBox.globalCenter.x + testBox.widthRadius - box.minX;
+	                double collisionDepth = maxXs[i] - box.minX;
 	                if(collisionDepth <= 0 && collisionDepth > offset){
 	                    offset = collisionDepth;
 	                }
@@ -59,20 +120,26 @@ class WrapperAABBCollective extends AxisAlignedBB{
 		}
 		return offset;
     }
-	
+
 	@Override
 	public double calculateYOffset(AxisAlignedBB box, double offset){
-		for(BoundingBox testBox : boxes){
-			if(box.maxX > testBox.globalCenter.x - testBox.widthRadius && box.minX < testBox.globalCenter.x + testBox.widthRadius && box.maxZ > testBox.globalCenter.z - testBox.depthRadius && box.minZ < testBox.globalCenter.z + testBox.depthRadius){
+		if(box.maxX <= boxes.envelopeMinX || box.minX >= boxes.envelopeMaxX || box.maxZ <= boxes.envelopeMinZ || box.minZ >= boxes.envelopeMaxZ){
+			return offset;
+		}else if(offset > 0.0D ? boxes.envelopeMinY - box.maxY >= offset : (offset < 0.0D ? boxes.envelopeMaxY - box.minY <= offset : true)){
+			return offset;
+		}
+		final double[] minXs = boxes.minX, maxXs = boxes.maxX, minYs = boxes.minY, maxYs = boxes.maxY, minZs = boxes.minZ, maxZs = boxes.maxZ;
+		for(int i=0; i<boxes.count; ++i){
+			if(box.maxX > minXs[i] && box.minX < maxXs[i] && box.maxZ > minZs[i] && box.minZ < maxZs[i]){
 				if(offset > 0.0D){
-					//Positive offset, box.maxX <= this.minX.
-	                double collisionDepth = testBox.globalCenter.y - testBox.heightRadius - box.maxY;
+					//Positive offset, box.maxY <= this.minY.
+	                double collisionDepth = minYs[i] - box.maxY;
 	                if(collisionDepth >= 0 && collisionDepth < offset){
 	                    offset = collisionDepth;
 	                }
 	            }else if(offset < 0.0D){
-	            	//Negative offset, box.minX >= this.maxX.
-	                double collisionDepth = testBox.globalCenter.y + testBox.heightRadius - box.minY;
+	            	//Negative offset, box.minY >= this.maxY.
+	                double collisionDepth = maxYs[i] - box.minY;
 	                if(collisionDepth <= 0 && collisionDepth > offset){
 	                    offset = collisionDepth;
 	                }
@@ -81,20 +148,26 @@ class WrapperAABBCollective extends AxisAlignedBB{
 		}
 		return offset;
     }
-	
+
 	@Override
 	public double calculateZOffset(AxisAlignedBB box, double offset){
-		for(BoundingBox testBox : boxes){
-			if(box.maxX > testBox.globalCenter.x - testBox.widthRadius && box.minX < testBox.globalCenter.x + testBox.widthRadius && box.maxY > testBox.globalCenter.y - testBox.heightRadius && box.minY < testBox.globalCenter.y + testBox.heightRadius){
+		if(box.maxX <= boxes.envelopeMinX || box.minX >= boxes.envelopeMaxX || box.maxY <= boxes.envelopeMinY || box.minY >= boxes.envelopeMaxY){
+			return offset;
+		}else if(offset > 0.0D ? boxes.envelopeMinZ - box.maxZ >= offset : (offset < 0.0D ? boxes.envelopeMaxZ - box.minZ <= offset : true)){
+			return offset;
+		}
+		final double[] minXs = boxes.minX, maxXs = boxes.maxX, minYs = boxes.minY, maxYs = boxes.maxY, minZs = boxes.minZ, maxZs = boxes.maxZ;
+		for(int i=0; i<boxes.count; ++i){
+			if(box.maxX > minXs[i] && box.minX < maxXs[i] && box.maxY > minYs[i] && box.minY < maxYs[i]){
 				if(offset > 0.0D){
-					//Positive offset, box.maxX <= this.minX.
-	                double collisionDepth = testBox.globalCenter.z - testBox.depthRadius - box.maxZ;
+					//Positive offset, box.maxZ <= this.minZ.
+	                double collisionDepth = minZs[i] - box.maxZ;
 	                if(collisionDepth >= 0 && collisionDepth < offset){
 	                    offset = collisionDepth;
 	                }
 	            }else if(offset < 0.0D){
-	            	//Negative offset, box.minX >= this.maxX.
-	                double collisionDepth = testBox.globalCenter.z + testBox.depthRadius - box.minZ;
+	            	//Negative offset, box.minZ >= this.maxZ.
+	                double collisionDepth = maxZs[i] - box.minZ;
 	                if(collisionDepth <= 0 && collisionDepth > offset){
 	                    offset = collisionDepth;
 	                }
@@ -103,65 +176,186 @@ class WrapperAABBCollective extends AxisAlignedBB{
 		}
 		return offset;
     }
-	
+
 	@Override
     public boolean intersects(double minX, double minY, double minZ, double maxX, double maxY, double maxZ){
-		for(BoundingBox testBox : boxes){
-				if(
-					maxX > testBox.globalCenter.x - testBox.widthRadius && 
-					minX < testBox.globalCenter.x + testBox.widthRadius && 
-					maxY > testBox.globalCenter.y - testBox.heightRadius && 
-					minY < testBox.globalCenter.y + testBox.heightRadius &&
-					maxZ > testBox.globalCenter.z - testBox.depthRadius &&
-					minZ < testBox.globalCenter.z + testBox.depthRadius)
-				{
+		if(maxX <= boxes.envelopeMinX || minX >= boxes.envelopeMaxX || maxY <= boxes.envelopeMinY || minY >= boxes.envelopeMaxY || maxZ <= boxes.envelopeMinZ || minZ >= boxes.envelopeMaxZ){
+			return false;
+		}
+		final double[] minXs = boxes.minX, maxXs = boxes.maxX, minYs = boxes.minY, maxYs = boxes.maxY, minZs = boxes.minZ, maxZs = boxes.maxZ;
+		for(int i=0; i<boxes.count; ++i){
+			if(maxX > minXs[i] && minX < maxXs[i] && maxY > minYs[i] && minY < maxYs[i] && maxZ > minZs[i] && minZ < maxZs[i]){
 				return true;
 			}
 		}
 		return false;
     }
-	
+
 	@Override
 	public boolean contains(Vec3d vec){
 		return this.intersects(vec.x, vec.y, vec.z, vec.x, vec.y, vec.z);
     }
-	
+
 	@Override
 	@Nullable
     public RayTraceResult calculateIntercept(Vec3d vecA, Vec3d vecB){
-		RayTraceResult result = null;
-		lastBoxRayTraced = null;
 		//Check all the bounding boxes for collision to see if we hit one of them.
-		Point3d start = new Point3d(vecA.x, vecA.y, vecA.z);
-		Point3d end = new Point3d(vecB.x, vecB.y, vecB.z);
-		Point3d intersection = null;
+		//Each face is checked by getting how far along the ray it is, and then seeing if the ray
+		//is inside the face at that point.  The closest face of all boxes is the one we hit.
+		//This is done with primitives, so we don't create any objects unless we hit something.
+		boxes.lastBoxRayTraced = null;
+		double deltaX = vecB.x - vecA.x;
+		double deltaY = vecB.y - vecA.y;
+		double deltaZ = vecB.z - vecA.z;
+		boolean checkX = deltaX*deltaX >= 1.0E-7D;
+		boolean checkY = deltaY*deltaY >= 1.0E-7D;
+		boolean checkZ = deltaZ*deltaZ >= 1.0E-7D;
+		double closestFactor = Double.MAX_VALUE;
 		EnumFacing sideHit = null;
-		for(BoundingBox testBox : boxes){
-			Point3d testIntersection = testBox.getIntersectionPoint(start, end);
-			if(testIntersection != null){
-				if(intersection == null || testIntersection.distanceTo(start) < intersection.distanceTo(start)){
-					intersection = testIntersection;
-					if(testIntersection.x == testBox.globalCenter.x - testBox.widthRadius){
-						sideHit = EnumFacing.WEST;
-					}else if(testIntersection.x == testBox.globalCenter.x + testBox.widthRadius){
-						sideHit = EnumFacing.EAST;
-					}else if(testIntersection.y == testBox.globalCenter.y - testBox.heightRadius){
-						sideHit = EnumFacing.UP;
-					}else if(testIntersection.y == testBox.globalCenter.y + testBox.heightRadius){
-						sideHit = EnumFacing.DOWN;
-					}else if(testIntersection.z == testBox.globalCenter.z - testBox.depthRadius){
-						sideHit = EnumFacing.NORTH;
-					}else{
-						sideHit = EnumFacing.SOUTH;
-					}
-					lastBoxRayTraced = testBox;
+		final double[] minXs = boxes.minX, maxXs = boxes.maxX, minYs = boxes.minY, maxYs = boxes.maxY, minZs = boxes.minZ, maxZs = boxes.maxZ;
+		for(int i=0; i<boxes.count; ++i){
+			if(checkX){
+				double factor = (minXs[i] - vecA.x)/deltaX;
+				if(factor < closestFactor && isInYZFace(i, factor, vecA, deltaY, deltaZ)){
+					closestFactor = factor;
+					sideHit = EnumFacing.WEST;
+					boxes.lastBoxRayTraced = boxes.boxes[i];
+				}
+				factor = (maxXs[i] - vecA.x)/deltaX;
+				if(factor < closestFactor && isInYZFace(i, factor, vecA, deltaY, deltaZ)){
+					closestFactor = factor;
+					sideHit = EnumFacing.EAST;
+					boxes.lastBoxRayTraced = boxes.boxes[i];
+				}
+			}
+			if(checkY){
+				double factor = (minYs[i] - vecA.y)/deltaY;
+				if(factor < closestFactor && isInXZFace(i, factor, vecA, deltaX, deltaZ)){
+					closestFactor = factor;
+					sideHit = EnumFacing.UP;
+					boxes.lastBoxRayTraced = boxes.boxes[i];
+				}
+				factor = (maxYs[i] - vecA.y)/deltaY;
+				if(factor < closestFactor && isInXZFace(i, factor, vecA, deltaX, deltaZ)){
+					closestFactor = factor;
+					sideHit = EnumFacing.DOWN;
+					boxes.lastBoxRayTraced = boxes.boxes[i];
+				}
+			}
+			if(checkZ){
+				double factor = (minZs[i] - vecA.z)/deltaZ;
+				if(factor < closestFactor && isInXYFace(i, factor, vecA, deltaX, deltaY)){
+					closestFactor = factor;
+					sideHit = EnumFacing.NORTH;
+					boxes.lastBoxRayTraced = boxes.boxes[i];
+				}
+				factor = (maxZs[i] - vecA.z)/deltaZ;
+				if(factor < closestFactor && isInXYFace(i, factor, vecA, deltaX, deltaY)){
+					closestFactor = factor;
+					sideHit = EnumFacing.SOUTH;
+					boxes.lastBoxRayTraced = boxes.boxes[i];
 				}
 			}
 		}
-		if(intersection != null){
-			return new RayTraceResult(new Vec3d(intersection.x, intersection.y, intersection.z), sideHit);
+		if(sideHit != null){
+			return new RayTraceResult(new Vec3d(vecA.x + deltaX*closestFactor, vecA.y + deltaY*closestFactor, vecA.z + deltaZ*closestFactor), sideHit);
 		}else{
-			return result;
+			return null;
+		}
+	}
+
+	private boolean isInYZFace(int index, double factor, Vec3d start, double deltaY, double deltaZ){
+		if(factor >= 0.0D && factor <= 1.0D){
+			double y = start.y + deltaY*factor;
+			double z = start.z + deltaZ*factor;
+			return y >= boxes.minY[index] && y <= boxes.maxY[index] && z >= boxes.minZ[index] && z <= boxes.maxZ[index];
+		}
+		return false;
+	}
+
+	private boolean isInXZFace(int index, double factor, Vec3d start, double deltaX, double deltaZ){
+		if(factor >= 0.0D && factor <= 1.0D){
+			double x = start.x + deltaX*factor;
+			double z = start.z + deltaZ*factor;
+			return x >= boxes.minX[index] && x <= boxes.maxX[index] && z >= boxes.minZ[index] && z <= boxes.maxZ[index];
+		}
+		return false;
+	}
+
+	private boolean isInXYFace(int index, double factor, Vec3d start, double deltaX, double deltaY){
+		if(factor >= 0.0D && factor <= 1.0D){
+			double x = start.x + deltaX*factor;
+			double y = start.y + deltaY*factor;
+			return x >= boxes.minX[index] && x <= boxes.maxX[index] && y >= boxes.minY[index] && y <= boxes.maxY[index];
 		}
-	}   
+		return false;
+	}
+
+	/**
+	 *  Bounds of all boxes in a collective, stored as one array per bound so the checks
+	 *  can loop over them without going through the box objects.  The boxes themselves are
+	 *  only kept to know which box was hit by a ray trace.  This is shared between a collective
+	 *  and any collectives made from it by {@link WrapperAABBCollective#update(List)}.
+	 */
+	private static class BoxArrays{
+		private BoundingBox[] boxes = new BoundingBox[0];
+		private double[] minX = new double[0];
+		private double[] minY = new double[0];
+		private double[] minZ = new double[0];
+		private double[] maxX = new double[0];
+		private double[] maxY = new double[0];
+		private double[] maxZ = new double[0];
+		private int count;
+		private double envelopeMinX;
+		private double envelopeMinY;
+		private double envelopeMinZ;
+		private double envelopeMaxX;
+		private double envelopeMaxY;
+		private double envelopeMaxZ;
+		private BoundingBox lastBoxRayTraced;
+
+		private void update(List<BoundingBox> boundingBoxes){
+			count = boundingBoxes.size();
+			if(boxes.length < count){
+				boxes = new BoundingBox[count];
+				minX = new double[count];
+				minY = new double[count];
+				minZ = new double[count];
+				maxX = new double[count];
+				maxY = new double[count];
+				maxZ = new double[count];
+			}
+
+			//If we don't have any boxes, make the envelope an empty box at 0.  The checks won't find any
+			//boxes to hit in this case, but we still need the envelope to make valid bounds.
+			if(count == 0){
+				envelopeMinX = envelopeMinY = envelopeMinZ = 0;
+				envelopeMaxX = envelopeMaxY = envelopeMaxZ = 0;
+			}else{
+				envelopeMinX = envelopeMinY = envelopeMinZ = Double.MAX_VALUE;
+				envelopeMaxX = envelopeMaxY = envelopeMaxZ = -Double.MAX_VALUE;
+				for(int i=0; i<count; ++i){
+					BoundingBox box = boundingBoxes.get(i);
+					boxes[i] = box;
+					minX[i] = box.globalCenter.x - box.widthRadius;
+					maxX[i] = box.globalCenter.x + box.widthRadius;
+					minY[i] = box.globalCenter.y - box.heightRadius;
+					maxY[i] = box.globalCenter.y + box.heightRadius;
+					minZ[i] = box.globalCenter.z - box.depthRadius;
+					maxZ[i] = box.globalCenter.z + box.depthRadius;
+					envelopeMinX = Math.min(envelopeMinX, minX[i]);
+					envelopeMaxX = Math.max(envelopeMaxX, maxX[i]);
+					envelopeMinY = Math.min(envelopeMinY, minY[i]);
+					envelopeMaxY = Math.max(envelopeMaxY, maxY[i]);
+					envelopeMinZ = Math.min(envelopeMinZ, minZ[i]);
+					envelopeMaxZ = Math.max(envelopeMaxZ, maxZ[i]);
+				}
+			}
+
+			//Clear any boxes past the end so we don't hold onto removed boxes.
+			for(int i=count; i<boxes.length && boxes[i] != null; ++i){
+				boxes[i] = null;
+			}
+		}
+	}
 }
@@ -141,4 +141,9 @@ class WrapperNBT implements IWrapperNBT{
         PacketBuffer pb = new PacketBuffer(to);
         pb.writeCompoundTag(tag);
     }
+	
+	@Override
+	public void writeCompactToBuffer(ByteBuf to){
+		CompactNBTCodec.write(tag, to);
+	}
 }
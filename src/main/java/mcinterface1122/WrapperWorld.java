@@ -23,6 +23,7 @@ import minecrafttransportsimulator.mcinterface.IWrapperItemStack;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
 import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
 import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.systems.DynamicLightSystem;
 import minecrafttransportsimulator.vehicles.main.AEntityBase;
 import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
 import net.minecraft.block.Block;
@@ -184,7 +185,44 @@ class WrapperWorld implements IWrapperWorld{
 		}
 	}
 	
+	@Override
+	public IWrapperNBT getServerData(String name){
+		if(!world.isRemote){
+			return new WrapperNBT(getServerDataAccessor(name).internalData);
+		}else{
+			return null;
+		}
+	}
+	
+	@Override
+	public void setServerData(String name, IWrapperNBT data){
+		if(!world.isRemote){
+			InterfaceWorldSavedData serverDataAccessor = getServerDataAccessor(name);
+			serverDataAccessor.internalData = ((WrapperNBT) data).tag;
+			serverDataAccessor.markDirty();
+		}
+	}
+	
+	/**
+	 *  Helper method to get the accessor for the server-only data with the passed-in name.
+	 *  Each is saved as its own MC data, so it isn't part of the data we send to clients.
+	 */
+	private InterfaceWorldSavedData getServerDataAccessor(String name){
+		InterfaceWorldSavedData serverDataAccessor = serverDataAccessors.get(name);
+		if(serverDataAccessor == null){
+			String serverDataID = dataID + "_" + name;
+			serverDataAccessor = (InterfaceWorldSavedData) world.getPerWorldStorage().getOrLoadData(InterfaceWorldSavedData.class, serverDataID);
+			if(serverDataAccessor == null){
+				serverDataAccessor = new InterfaceWorldSavedData(serverDataID);
+				world.getPerWorldStorage().setData(serverDataID, serverDataAccessor);
+			}
+			serverDataAccessors.put(name, serverDataAccessor);
+		}
+		return serverDataAccessor;
+	}
+	
 	InterfaceWorldSavedData savedDataAccessor;
+	private final Map<String, InterfaceWorldSavedData> serverDataAccessors = new HashMap<String, InterfaceWorldSavedData>();
 	static final String dataID = MasterInterface.MODID + "_WORLD_DATA";
 	
 	/**
@@ -242,6 +280,18 @@ class WrapperWorld implements IWrapperWorld{
 		return foundEntity != null ? this.getWrapperFor(foundEntity) : null;
 	}
 	
+	@Override
+	public double getNearestPlayerDistance(Point3d point){
+		double smallestDistance = Double.MAX_VALUE;
+		for(EntityPlayer player : world.playerEntities){
+			double distance = player.getDistanceSq(point.x, point.y, point.z);
+			if(distance < smallestDistance){
+				smallestDistance = distance;
+			}
+		}
+		return smallestDistance != Double.MAX_VALUE ? Math.sqrt(smallestDistance) : smallestDistance;
+	}
+	
 	/*
 	 *  Finds the closest entity that the looker's line of sight intersects,
 	 *  within the passed-in searchRadius.
@@ -377,8 +427,13 @@ class WrapperWorld implements IWrapperWorld{
 			//We expand the passed-in box by 0.25 in the Y direction to "grab" any entities that might be above us.
 			for(Entity entity : world.getEntitiesWithinAABB(Entity.class, convertBox(box).expand(0, 0.25, 0))){
 				//Don't move riding entities or our own builders, or entities we've already moved.
+				//If we hit another builder, wake it up in case it's sleeping, as we may be pushing into it.
 				if(!movedEntities.contains(entity)){
-					if(!(entity instanceof BuilderEntity) && entity.getRidingEntity() == null){
+					if(entity instanceof BuilderEntity){
+						if(((BuilderEntity) entity).entity != null){
+							((BuilderEntity) entity).entity.wakeUp();
+						}
+					}else if(entity.getRidingEntity() == null){
 						AxisAlignedBB entityBox = entity.getEntityBoundingBox();
 						//If the entity is within 0.5 units of the top of the box, we can move them.
 						//If not, they are just colliding and not riding the vehicle and we should leave them be.
@@ -629,10 +684,20 @@ class WrapperWorld implements IWrapperWorld{
 	public float getLightBrightness(Point3i point, boolean calculateBlock){
 		BlockPos pos = new BlockPos(point.x, point.y, point.z);
 		float sunLight = world.getSunBrightness(0)*(world.getLightFor(EnumSkyBlock.SKY, pos) - world.getSkylightSubtracted())/15F;
-		float blockLight = calculateBlock ? world.getLightFromNeighborsFor(EnumSkyBlock.BLOCK, pos)/15F : 0.0F;
+		float blockLight = calculateBlock ? Math.max(world.getLightFromNeighborsFor(EnumSkyBlock.BLOCK, pos), DynamicLightSystem.getLightAt(this, point.x, point.y, point.z))/15F : 0.0F;
 		return Math.max(sunLight, blockLight);
 	}
 	
+	/**
+	 *  Adds the light from the {@link DynamicLightSystem} at the passed-in position to the passed-in
+	 *  packed light value.  The packed value is in the same format MC uses for rendering, with the
+	 *  block light in the lower 16 bits, and sky light in the upper 16 bits.
+	 */
+	int addDynamicLight(int lightVar, double x, double y, double z){
+		int dynamicLight = DynamicLightSystem.getLightAt(this, x, y, z) << 4;
+		return (lightVar & 0xFFFF) < dynamicLight ? (lightVar & 0xFFFF0000) | dynamicLight : lightVar;
+	}
+	
 	@Override
 	public void updateLightBrightness(Point3i point){
 		ATileEntityBase<?> tile = getTileEntity(point);
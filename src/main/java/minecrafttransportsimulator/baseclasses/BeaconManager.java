@@ -78,11 +78,12 @@ public final class BeaconManager{
 	
 	/**
 	 *  Helper method to save beacon data to the world.
-	 *  Call this ONLY on the server.
+	 *  Call this ONLY on the server.  Beacons are saved to the
+	 *  existing world data, as other managers also save to it.
 	 */
 	private static void saveBeacons(IWrapperWorld world){
 		if(worldBeacons.containsKey(world.getDimensionID())){
-			IWrapperNBT worldData = MasterLoader.coreInterface.createNewTag();
+			IWrapperNBT worldData = world.getData();
 			int beaconIndex=0;
 			for(RadioBeacon beacon : worldBeacons.get(world.getDimensionID()).values()){
 				IWrapperNBT beaconData = MasterLoader.coreInterface.createNewTag();
@@ -4,11 +4,15 @@ package minecrafttransportsimulator.baseclasses;
  * Start point is at 0,0,0.  Offset as needed in whatever class encloses this curve.
  * Needs an end point, a start angle, and an end angle to calculate the curve.
  * For all calls, segmentPoint should be a value between 0 and the pathLength of this curve.
- * Additionally, returned Point3d objects are not linked to the curve, so they may be modified without affecting
- * the curve's properties.  However, they are also re-used for future return calls, so they should not be saved
- * as reference in code calling the functions.  If the value needs to be saved, it should be copied to a different
- * Point3d instance.
- * 
+ * This is the distance along the curve, not the curve parameter, so segment points that are
+ * the same distance apart are the same distance apart on the curve, even in tight bends.
+ * <br><br>
+ * When created, the curve is sampled into a table of points, along with the distance along the
+ * curve to each point and the yaw and pitch of the curve at that point.  All calls do a binary search
+ * of this table for the passed-in distance, and then interpolate between the two closest samples.
+ * Calls that return points set them in the passed-in point and return it, so callers own their points.
+ * Curves never change once created, so they may be used from any thread.
+ *
  * @author don_bruce
  */
 public class BezierCurve{
@@ -16,118 +20,233 @@ public class BezierCurve{
 	public final float startAngle;
 	public final float endAngle;
 	public final float pathLength;
-	
-	//Internal curve parameter arrays.
-	private final float[] startPoint;
-	private final float[] endPoint;
-	private final float[] startCurvePoint;
-	private final float[] endCurvePoint;
-	
-	//Cached point
-	private final float[][] cachedPathPoints;
-	
-	/**Steps between curve calculations.  This is how many intermediate calculations we do between 1-block steps.**/
+
+	//Internal curve parameters.  These are the four control points.
+	private final double startX;
+	private final double startY;
+	private final double startZ;
+	private final double startCurveX;
+	private final double startCurveY;
+	private final double startCurveZ;
+	private final double endCurveX;
+	private final double endCurveY;
+	private final double endCurveZ;
+	private final double endX;
+	private final double endY;
+	private final double endZ;
+
+	//Sample tables.  All these have one entry per sample.
+	private final float[] sampleLengths;
+	private final float[] sampleParameters;
+	private final float[] sampleX;
+	private final float[] sampleY;
+	private final float[] sampleZ;
+	private final float[] sampleYaws;
+	private final float[] samplePitches;
+
+	/**Samples per block of curve.  This is how many intermediate calculations we do between 1-block steps.**/
 	private static final int CURVE_STEP = 16;
-	/**Mutable point used for return calls.**/
-	private static final Point3d MUTABLE_POINT = new Point3d(0, 0, 0);
-	
+
 	public BezierCurve(Point3d endPos, float startAngle, float endAngle){
 		this.endPos = endPos;
 		this.startAngle = startAngle;
 		this.endAngle = endAngle;
-		this.startPoint = new float[]{0, 0, 0};
-		this.endPoint = new float[]{(float)endPos.x, (float)endPos.y, (float)endPos.z};
-		float midPointDistance = (float) Math.sqrt(Math.pow(endPoint[0] - startPoint[0], 2) + Math.pow(endPoint[1] - startPoint[1], 2) + Math.pow(endPoint[2] - startPoint[2], 2))/3F;
-		this.startCurvePoint = new float[]{(float) (startPoint[0] + Math.sin(Math.toRadians(startAngle))*midPointDistance), startPoint[1], (float) (startPoint[2] + Math.cos(Math.toRadians(startAngle))*midPointDistance)};
-		this.endCurvePoint = new float[]{(float) (endPoint[0] + Math.sin(Math.toRadians(endAngle))*midPointDistance), endPoint[1], (float) (endPoint[2] + Math.cos(Math.toRadians(endAngle))*midPointDistance)};
-
-		this.pathLength = getPathLength(startPoint, endPoint, startCurvePoint, endCurvePoint, midPointDistance);
-		float[] pathPointsX = getCachedPathPoints(startPoint[0], endPoint[0], startCurvePoint[0], endCurvePoint[0], pathLength);
-		float[] pathPointsY = getCachedPathPoints(startPoint[1], endPoint[1], startCurvePoint[1], endCurvePoint[1], pathLength);
-		float[] pathPointsZ = getCachedPathPoints(startPoint[2], endPoint[2], startCurvePoint[2], endCurvePoint[2], pathLength);
-		
-		this.cachedPathPoints = new float[Math.round(pathLength*CURVE_STEP) + 1][3];
-		for(int i=0; i<cachedPathPoints.length; ++i){
-			cachedPathPoints[i][0] = pathPointsX[i];
-			cachedPathPoints[i][1] = pathPointsY[i];
-			cachedPathPoints[i][2] = pathPointsZ[i];
+		this.startX = 0;
+		this.startY = 0;
+		this.startZ = 0;
+		this.endX = (float) endPos.x;
+		this.endY = (float) endPos.y;
+		this.endZ = (float) endPos.z;
+		float midPointDistance = (float) Math.sqrt((endX - startX)*(endX - startX) + (endY - startY)*(endY - startY) + (endZ - startZ)*(endZ - startZ))/3F;
+		this.startCurveX = (float) (startX + Math.sin(Math.toRadians(startAngle))*midPointDistance);
+		this.startCurveY = startY;
+		this.startCurveZ = (float) (startZ + Math.cos(Math.toRadians(startAngle))*midPointDistance);
+		this.endCurveX = (float) (endX + Math.sin(Math.toRadians(endAngle))*midPointDistance);
+		this.endCurveY = endY;
+		this.endCurveZ = (float) (endZ + Math.cos(Math.toRadians(endAngle))*midPointDistance);
+
+		//The curve is never longer than the lines between its control points, so use that to get the sample count.
+		double controlLength = getDistance(startX, startY, startZ, startCurveX, startCurveY, startCurveZ) + getDistance(startCurveX, startCurveY, startCurveZ, endCurveX, endCurveY, endCurveZ) + getDistance(endCurveX, endCurveY, endCurveZ, endX, endY, endZ);
+		int sampleCount = Math.max(2, (int) Math.ceil(controlLength*CURVE_STEP) + 1);
+		this.sampleLengths = new float[sampleCount];
+		this.sampleParameters = new float[sampleCount];
+		this.sampleX = new float[sampleCount];
+		this.sampleY = new float[sampleCount];
+		this.sampleZ = new float[sampleCount];
+		this.sampleYaws = new float[sampleCount];
+		this.samplePitches = new float[sampleCount];
+
+		//Sample the curve at even parameter steps, and sum up the distances between samples to get the length table.
+		double length = 0;
+		for(int i=0; i<sampleCount; ++i){
+			double t = i/(double) (sampleCount - 1);
+			double u = 1 - t;
+			double b0 = u*u*u;
+			double b1 = 3*u*u*t;
+			double b2 = 3*u*t*t;
+			double b3 = t*t*t;
+			double x = b0*startX + b1*startCurveX + b2*endCurveX + b3*endX;
+			double y = b0*startY + b1*startCurveY + b2*endCurveY + b3*endY;
+			double z = b0*startZ + b1*startCurveZ + b2*endCurveZ + b3*endZ;
+			if(i > 0){
+				length += getDistance(sampleX[i - 1], sampleY[i - 1], sampleZ[i - 1], x, y, z);
+			}
+			sampleLengths[i] = (float) length;
+			sampleParameters[i] = (float) t;
+			sampleX[i] = (float) x;
+			sampleY[i] = (float) y;
+			sampleZ[i] = (float) z;
+
+			//Tangent is the derivative of the curve at this point.
+			double d0 = 3*u*u;
+			double d1 = 6*u*t;
+			double d2 = 3*t*t;
+			double tangentX = d0*(startCurveX - startX) + d1*(endCurveX - startCurveX) + d2*(endX - endCurveX);
+			double tangentY = d0*(startCurveY - startY) + d1*(endCurveY - startCurveY) + d2*(endY - endCurveY);
+			double tangentZ = d0*(startCurveZ - startZ) + d1*(endCurveZ - startCurveZ) + d2*(endZ - endCurveZ);
+			double horizontalLength = Math.sqrt(tangentX*tangentX + tangentZ*tangentZ);
+			sampleYaws[i] = (float) ((360 + Math.toDegrees(Math.atan2(-tangentX, tangentZ)))%360);
+			samplePitches[i] = horizontalLength != 0 ? (float) -Math.toDegrees(Math.atan(tangentY/horizontalLength)) : 0;
 		}
+		this.pathLength = (float) length;
 	}
-	
+
 	/**
-	 * Returns the actual point at the passed-in segment location.
-	 * This calculates the exact point position on the curve, so only use this if you
-	 * need exact data.  If you can, use {@link #getPointAt(float)} for efficiency.
+	 * Sets the passed-in point to the exact point at the passed-in segment location, and returns it.
+	 * This calculates the curve at the parameter for the segment, so only use this if you
+	 * need exact data.  If you can, use {@link #getPointAt(float, Point3d)} for efficiency.
 	 */
-	public Point3d getActualPointAt(float segmentPoint){
-		float segmentPercentage = segmentPoint/pathLength;
-		MUTABLE_POINT.set(
-			Math.pow(1-segmentPercentage, 3)*startPoint[0] + 3*Math.pow(1-segmentPercentage, 2)*segmentPercentage*startCurvePoint[0] + 3*(1-segmentPercentage)*Math.pow(segmentPercentage, 2)*endCurvePoint[0] + Math.pow(segmentPercentage, 3)*endPoint[0],
-			Math.pow(1-segmentPercentage, 3)*startPoint[1] + 3*Math.pow(1-segmentPercentage, 2)*segmentPercentage*startCurvePoint[1] + 3*(1-segmentPercentage)*Math.pow(segmentPercentage, 2)*endCurvePoint[1] + Math.pow(segmentPercentage, 3)*endPoint[1],
-			Math.pow(1-segmentPercentage, 3)*startPoint[2] + 3*Math.pow(1-segmentPercentage, 2)*segmentPercentage*startCurvePoint[2] + 3*(1-segmentPercentage)*Math.pow(segmentPercentage, 2)*endCurvePoint[2] + Math.pow(segmentPercentage, 3)*endPoint[2]
+	public Point3d getActualPointAt(float segmentPoint, Point3d result){
+		int index = getSampleIndex(segmentPoint);
+		float factor = getSampleFactor(index, segmentPoint);
+		double t = sampleParameters[index] + (sampleParameters[index + 1] - sampleParameters[index])*factor;
+		double u = 1 - t;
+		double b0 = u*u*u;
+		double b1 = 3*u*u*t;
+		double b2 = 3*u*t*t;
+		double b3 = t*t*t;
+		return result.set(
+			b0*startX + b1*startCurveX + b2*endCurveX + b3*endX,
+			b0*startY + b1*startCurveY + b2*endCurveY + b3*endY,
+			b0*startZ + b1*startCurveZ + b2*endCurveZ + b3*endZ
 		);
-		return MUTABLE_POINT;
 	}
-	
+
 	/**
-	 * Returns the cached value of the point at the passed-in segment location.
-	 * Used to find where along the curve a point is.
+	 * Sets the passed-in point to the cached point at the passed-in segment location, and returns it.
 	 */
-	public Point3d getPointAt(float segmentPoint){
-		float[] cachedPoint = cachedPathPoints[Math.round(segmentPoint*CURVE_STEP)];
-		MUTABLE_POINT.set(cachedPoint[0], cachedPoint[1], cachedPoint[2]);
-		return MUTABLE_POINT;
+	public Point3d getPointAt(float segmentPoint, Point3d result){
+		int index = getSampleIndex(segmentPoint);
+		float factor = getSampleFactor(index, segmentPoint);
+		return result.set(
+			sampleX[index] + (sampleX[index + 1] - sampleX[index])*factor,
+			sampleY[index] + (sampleY[index + 1] - sampleY[index])*factor,
+			sampleZ[index] + (sampleZ[index + 1] - sampleZ[index])*factor
+		);
 	}
-	
+
 	/**
 	 * Returns the cached yaw angle of the point at the passed-in segment location.
 	 */
 	public double getYawAt(float segmentPoint){
-		int pointIndex = Math.round(segmentPoint*CURVE_STEP);
-		if(pointIndex + 1 == cachedPathPoints.length){
-			pointIndex = cachedPathPoints.length - 2;
+		int index = getSampleIndex(segmentPoint);
+		float factor = getSampleFactor(index, segmentPoint);
+		//Go the short way around if the yaw crosses 0.
+		double delta = sampleYaws[index + 1] - sampleYaws[index];
+		if(delta > 180){
+			delta -= 360;
+		}else if(delta < -180){
+			delta += 360;
 		}
-		return (360 + Math.toDegrees(Math.atan2(cachedPathPoints[pointIndex][0] - cachedPathPoints[pointIndex + 1][0], cachedPathPoints[pointIndex + 1][2] - cachedPathPoints[pointIndex][2])))%360;
+		return (360 + sampleYaws[index] + delta*factor)%360;
 	}
-	
+
 	/**
 	 * Returns the cached pitch angle of the point at the passed-in segment location.
 	 */
 	public double getPitchAt(float segmentPoint){
-		int pointIndex =  Math.round(segmentPoint*CURVE_STEP);
-		if(pointIndex + 1 == cachedPathPoints.length){
-			pointIndex = cachedPathPoints.length - 2;
-		}
-		return -Math.toDegrees(Math.atan((cachedPathPoints[pointIndex + 1][1] - cachedPathPoints[pointIndex][1])/Math.hypot(cachedPathPoints[pointIndex + 1][0] - cachedPathPoints[pointIndex][0], cachedPathPoints[pointIndex + 1][2] - cachedPathPoints[pointIndex][2])));
+		int index = getSampleIndex(segmentPoint);
+		float factor = getSampleFactor(index, segmentPoint);
+		return samplePitches[index] + (samplePitches[index + 1] - samplePitches[index])*factor;
 	}
-	
+
 	/**
-	 * Helper function to calculate the total path length for the passed-in parameters.
+	 * Returns the segment location of the point on the curve closest to the passed-in point.
+	 * The passed-in point must be relative to the start of this curve.
+	 * This finds the closest sample, and then the closest point on the lines to the samples next to it.
 	 */
-	private static float getPathLength(float[] startPoint, float[] endPoint, float[] startCurvePoint, float[] endCurvePoint, float curvePointDistance){
-		float dist1 = curvePointDistance*2;
-		float dist2 = (float) Math.sqrt(Math.pow(startCurvePoint[0] - startPoint[0], 2) + Math.pow(startCurvePoint[1] - startPoint[1], 2) + Math.pow(startCurvePoint[2] - startPoint[2], 2));
-		float dist3 = (float) Math.sqrt(Math.pow(endCurvePoint[0] - startCurvePoint[0], 2) + Math.pow(endCurvePoint[1] - startCurvePoint[1], 2) + Math.pow(endCurvePoint[2] - startCurvePoint[2], 2))/2F;
-		float dist4 = (float) Math.sqrt(Math.pow(endPoint[0] - endCurvePoint[0], 2) + Math.pow(endPoint[1] - endCurvePoint[1], 2) + Math.pow(endPoint[2] - endCurvePoint[2], 2))/2F;
-		return (dist1 + dist2 + dist3 + dist4)/2;
+	public float getClosestSegmentTo(Point3d point){
+		int closestIndex = 0;
+		double closestDistance = Double.MAX_VALUE;
+		for(int i=0; i<sampleLengths.length; ++i){
+			double deltaX = sampleX[i] - point.x;
+			double deltaY = sampleY[i] - point.y;
+			double deltaZ = sampleZ[i] - point.z;
+			double distance = deltaX*deltaX + deltaY*deltaY + deltaZ*deltaZ;
+			if(distance < closestDistance){
+				closestDistance = distance;
+				closestIndex = i;
+			}
+		}
+
+		float closestSegment = sampleLengths[closestIndex];
+		for(int i=Math.max(closestIndex - 1, 0); i<Math.min(closestIndex + 1, sampleLengths.length - 1); ++i){
+			double lineX = sampleX[i + 1] - sampleX[i];
+			double lineY = sampleY[i + 1] - sampleY[i];
+			double lineZ = sampleZ[i + 1] - sampleZ[i];
+			double lineLengthSquared = lineX*lineX + lineY*lineY + lineZ*lineZ;
+			if(lineLengthSquared > 0){
+				double factor = ((point.x - sampleX[i])*lineX + (point.y - sampleY[i])*lineY + (point.z - sampleZ[i])*lineZ)/lineLengthSquared;
+				factor = Math.max(0, Math.min(1, factor));
+				double deltaX = sampleX[i] + lineX*factor - point.x;
+				double deltaY = sampleY[i] + lineY*factor - point.y;
+				double deltaZ = sampleZ[i] + lineZ*factor - point.z;
+				double distance = deltaX*deltaX + deltaY*deltaY + deltaZ*deltaZ;
+				if(distance < closestDistance){
+					closestDistance = distance;
+					closestSegment = (float) (sampleLengths[i] + (sampleLengths[i + 1] - sampleLengths[i])*factor);
+				}
+			}
+		}
+		return closestSegment;
 	}
-	
+
 	/**
-	 * Helper function to calculate the cached path points for the passed-in parameters.
+	 * Helper function to get the index of the sample at or before the passed-in segment location.
+	 * This is a binary search of the length table, and will never return the last sample,
+	 * so there is always a sample after the returned index to interpolate to.
 	 */
-	private static float[] getCachedPathPoints(float startPoint, float endPoint, float startCurvePoint, float endCurvePoint, float pathLength){
-		float[] points = new float[Math.round(pathLength*CURVE_STEP) + 1];
-		if(startPoint == endPoint){
-			for(int i=0; i<points.length; ++i){
-				points[i] = startPoint;
+	private int getSampleIndex(float segmentPoint){
+		int low = 0;
+		int high = sampleLengths.length - 2;
+		while(low < high){
+			int middle = (low + high + 1) >>> 1;
+			if(sampleLengths[middle] <= segmentPoint){
+				low = middle;
+			}else{
+				high = middle - 1;
 			}
+		}
+		return low;
+	}
+
+	/**
+	 * Helper function to get how far between the sample at the passed-in index and the
+	 * next sample the passed-in segment location is.  Clamped to be between 0 and 1.
+	 */
+	private float getSampleFactor(int index, float segmentPoint){
+		float sampleLength = sampleLengths[index + 1] - sampleLengths[index];
+		if(sampleLength > 0){
+			return Math.max(0, Math.min(1, (segmentPoint - sampleLengths[index])/sampleLength));
 		}else{
-			float segmentPercentage;
-			for(int i=0; i<points.length; ++i){
-				segmentPercentage = i/(points.length*1F);
-				points[i] = (float) (Math.pow(1-segmentPercentage, 3)*startPoint + 3*Math.pow(1-segmentPercentage, 2)*segmentPercentage*startCurvePoint + 3*(1-segmentPercentage)*Math.pow(segmentPercentage, 2)*endCurvePoint + Math.pow(segmentPercentage, 3)*endPoint);
-			}
+			return 0;
 		}
-		return points;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Helper function to get the distance between two points.
+	 */
+	private static double getDistance(double x1, double y1, double z1, double x2, double y2, double z2){
+		return Math.sqrt((x2 - x1)*(x2 - x1) + (y2 - y1)*(y2 - y1) + (z2 - z1)*(z2 - z1));
+	}
+}
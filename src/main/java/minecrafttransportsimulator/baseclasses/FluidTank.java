@@ -11,6 +11,12 @@ import minecrafttransportsimulator.systems.ConfigSystem;
 /**Basic fluid tanks class.  Class contains methods for filling and draining, as well as automatic
  * syncing of fluid levels across clients and servers.  This allows the tank to be put on any object
  * without the need to worry about packets getting out of whack.
+ * <br><br>
+ * Syncing is not done on every fill or drain, as engines and pumps do this every tick.  Instead, changes
+ * are marked and sent as a single state packet at the rate set in the config.  Changes that are important
+ * to clients, such as the fluid changing or the tank becoming empty or full, are sent right away.
+ * As such, {@link #update()} MUST be called every tick by whatever owns this tank, on both servers and clients.
+ * Clients move their displayed level towards the synced level over the sync period for smooth gauges.
  *
  * @author don_bruce
  */
@@ -27,6 +33,15 @@ public class FluidTank{
 	private double fluidLevel;
 	private double fluidDispensed;
 	
+	//Server syncing variables.
+	private boolean changedSinceSync;
+	private int ticksSinceSync = Integer.MAX_VALUE;
+	
+	//Client interpolation variables.
+	private double displayedLevel;
+	private double prevDisplayedLevel;
+	private double displayedLevelStep;
+	
 	public FluidTank(IWrapperNBT data, int maxLevel, boolean onClient){
 		this.tankID = onClient ? data.getInteger("tankID") : idCounter++;
 		this.maxLevel = maxLevel;
@@ -34,6 +49,8 @@ public class FluidTank{
 		this.currentFluid = data.getString("currentFluid");
 		this.fluidLevel = data.getDouble("fluidLevel");
 		this.fluidDispensed = data.getDouble("fluidDispensed");
+		this.displayedLevel = fluidLevel;
+		this.prevDisplayedLevel = fluidLevel;
 		if(onClient){
 			createdClientTanks.put(tankID, this);
 		}else{
@@ -41,6 +58,64 @@ public class FluidTank{
 		}
 	}
 	
+	/**
+	 *  Removes this tank from the created tank maps.  Call this when whatever owns this tank
+	 *  is removed from the world, as the maps would keep it and its owner in memory otherwise.
+	 */
+	public void remove(){
+		Map<Integer, FluidTank> createdTanks = onClient ? createdClientTanks : createdServerTanks;
+		if(createdTanks.get(tankID) == this){
+			createdTanks.remove(tankID);
+		}
+	}
+	
+	/**
+	 *  Updates this tank.  On servers, this sends any changes to clients if it's time to sync.
+	 *  On clients, this moves the displayed level towards the actual level.
+	 */
+	public void update(){
+		if(onClient){
+			prevDisplayedLevel = displayedLevel;
+			if(displayedLevel < fluidLevel){
+				displayedLevel = Math.min(displayedLevel + displayedLevelStep, fluidLevel);
+			}else if(displayedLevel > fluidLevel){
+				displayedLevel = Math.max(displayedLevel - displayedLevelStep, fluidLevel);
+			}
+		}else{
+			if(ticksSinceSync < Integer.MAX_VALUE){
+				++ticksSinceSync;
+			}
+			if(changedSinceSync && ticksSinceSync >= ConfigSystem.configObject.general.fluidTankSyncInterval.value){
+				sync();
+			}
+		}
+	}
+	
+	/**
+	 *  Sends the current state of this tank to all clients.
+	 */
+	private void sync(){
+		MasterLoader.networkInterface.sendToAllClients(new PacketFluidTankChange(this));
+		changedSinceSync = false;
+		ticksSinceSync = 0;
+	}
+	
+	/**
+	 *  Sets the state of this tank to the state from the server.  Only call this on clients
+	 *  when getting tank packets.  If the fluid is the same, the displayed level will move
+	 *  to the new level over the sync period rather than jumping to it.
+	 */
+	public void setFromServer(String fluidName, double fluidLevel, double fluidDispensed){
+		if(!currentFluid.equals(fluidName)){
+			displayedLevel = fluidLevel;
+			prevDisplayedLevel = fluidLevel;
+		}
+		this.currentFluid = fluidName;
+		this.fluidLevel = fluidLevel;
+		this.fluidDispensed = fluidDispensed;
+		this.displayedLevelStep = Math.abs(fluidLevel - displayedLevel)/Math.max(ConfigSystem.configObject.general.fluidTankSyncInterval.value, 1);
+	}
+	
 	/**
 	 *  Gets the current fluid level.
 	 */
@@ -48,6 +123,14 @@ public class FluidTank{
 		return fluidLevel;
 	}
 	
+	/**
+	 *  Gets the fluid level to display on gauges.  On clients, this is interpolated between
+	 *  syncs from the server.  On servers, this is simply the fluid level.
+	 */
+	public double getDisplayedLevel(float partialTicks){
+		return onClient ? prevDisplayedLevel + (displayedLevel - prevDisplayedLevel)*partialTicks : fluidLevel;
+	}
+	
 	/**
 	 *  Gets the max fluid level.
 	 */
@@ -67,6 +150,7 @@ public class FluidTank{
 	 */
 	public void resetAmountDispensed(){
 		fluidDispensed = 0;
+		changedSinceSync = true;
 	}
 	
 	/**
@@ -84,6 +168,8 @@ public class FluidTank{
 	public void manuallySet(String fluidName, double fluidLevel){
 		this.currentFluid = fluidName;
 		this.fluidLevel = fluidLevel;
+		this.displayedLevel = fluidLevel;
+		this.prevDisplayedLevel = fluidLevel;
 	}
 	
 	/**
@@ -98,14 +184,15 @@ public class FluidTank{
 			if(maxAmount >= getMaxLevel() - fluidLevel){
 				maxAmount = getMaxLevel() - fluidLevel;
 			}
-			if(doFill){
+			if(doFill && maxAmount > 0){
 				fluidLevel += maxAmount;
-				if(currentFluid.isEmpty()){
+				changedSinceSync = true;
+				//Sync right away if we changed fluids or are now full.
+				if(currentFluid.isEmpty() || fluidLevel == getMaxLevel()){
 					currentFluid = fluid;
-				}
-				//Send off packet now that we know what fluid we will have on this tank.
-				if(!onClient){
-					MasterLoader.networkInterface.sendToAllClients(new PacketFluidTankChange(this, maxAmount));
+					if(!onClient){
+						sync();
+					}
 				}
 			}
 			return maxAmount;
@@ -126,15 +213,16 @@ public class FluidTank{
 			if(maxAmount >= fluidLevel){
 				maxAmount = fluidLevel;
 			}
-			if(doDrain){
-				//Need to send off packet before we remove fluid due to empty tank.
-				if(!onClient){
-					MasterLoader.networkInterface.sendToAllClients(new PacketFluidTankChange(this, -maxAmount));
-				}
+			if(doDrain && maxAmount > 0){
 				fluidLevel -= maxAmount;
 				fluidDispensed += maxAmount;
+				changedSinceSync = true;
+				//Sync right away if we are now empty.
 				if(fluidLevel == 0){
 					currentFluid = "";
+					if(!onClient){
+						sync();
+					}
 				}
 			}
 			return maxAmount;
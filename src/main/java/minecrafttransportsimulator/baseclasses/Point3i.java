@@ -38,6 +38,11 @@ public class Point3i{
 		}
 	}
 	
+	@Override
+	public int hashCode(){
+		return (x*31 + y)*31 + z;
+	}
+	
 	@Override
 	public String toString(){
 		return "[" + x + ", " + y + ", " + z + "]";
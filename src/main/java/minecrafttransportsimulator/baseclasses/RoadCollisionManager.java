@@ -0,0 +1,181 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityBase;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityRoad;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.systems.ScheduledEventSystem;
+import minecrafttransportsimulator.systems.ScheduledEventSystem.ScheduledEvent;
+
+/**Class responsible for managing road collision blocks in the world.  Keeps a map
+ * of every collision block position to the position of the road that owns it.
+ * This lets collision blocks find their road with a single lookup rather than
+ * checking every position a road could be at.  Roads register their collision
+ * blocks when they are created or loaded, and remove them when they are broken.
+ * The map is saved to the world's server-only data, so roads in unloaded chunks can still be found.
+ * It isn't saved with the rest of our world data, as that is sent to every client that joins.
+ * <br><br>
+ * Only servers keep the map, as roads are only looked up for blocks on servers.  Changes
+ * are saved on the next tick, so a chunk full of roads loading only saves the map once.
+ * Maps are removed when their world unloads, so they don't carry over to the next world.
+ *
+ * @author don_bruce
+ */
+public final class RoadCollisionManager{
+	private static final String DATA_NAME = "roadCollisions";
+	private static final Map<IWrapperWorld, WorldCollisionBlocks> worldCollisionBlocks = new HashMap<IWrapperWorld, WorldCollisionBlocks>();
+
+	/**
+	 *  Returns the road that owns the collision block at the passed-in location, or null if
+	 *  there is no road for that block.  If the saved road is no longer there, or no longer
+	 *  has a collision block at the location, the entry is removed.  Always returns null on clients.
+	 */
+	public static TileEntityRoad getRoadForBlock(IWrapperWorld world, Point3i location){
+		if(world.isClient()){
+			return null;
+		}
+		WorldCollisionBlocks collisionBlocks = getCollisionBlocks(world);
+		Point3i roadPosition = collisionBlocks.blocks.get(location);
+		if(roadPosition != null){
+			ATileEntityBase<?> tile = world.getTileEntity(roadPosition);
+			if(tile instanceof TileEntityRoad && ((TileEntityRoad) tile).collisionBlockOffsets.contains(location.copy().subtract(roadPosition))){
+				return (TileEntityRoad) tile;
+			}else{
+				collisionBlocks.blocks.remove(location);
+				collisionBlocks.markDirty();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 *  Adds all collision blocks of the passed-in road.  Call this whenever the road
+	 *  is created or loaded, or when its collision blocks change.  Blocks that are
+	 *  already registered to the road are left alone, so this may be called multiple times.
+	 *  Does nothing on clients.
+	 */
+	public static void addRoad(IWrapperWorld world, TileEntityRoad road){
+		if(!world.isClient()){
+			WorldCollisionBlocks collisionBlocks = getCollisionBlocks(world);
+			for(Point3i blockOffset : road.collisionBlockOffsets){
+				Point3i blockLocation = road.position.copy().add(blockOffset);
+				if(!road.position.equals(collisionBlocks.blocks.get(blockLocation))){
+					collisionBlocks.blocks.put(blockLocation, road.position.copy());
+					collisionBlocks.markDirty();
+				}
+			}
+		}
+	}
+
+	/**
+	 *  Removes all collision blocks of the passed-in road.  Call this when the road is broken.
+	 *  Does nothing on clients.
+	 */
+	public static void removeRoad(IWrapperWorld world, TileEntityRoad road){
+		if(!world.isClient()){
+			WorldCollisionBlocks collisionBlocks = getCollisionBlocks(world);
+			Iterator<Point3i> iterator = collisionBlocks.blocks.values().iterator();
+			while(iterator.hasNext()){
+				if(road.position.equals(iterator.next())){
+					iterator.remove();
+					collisionBlocks.markDirty();
+				}
+			}
+		}
+	}
+
+	/**
+	 *  Removes the collision block map for the passed-in world.  Call this when the world is unloaded.
+	 *  The world saves before it unloads, so anything changed on the last tick won't be saved.  This is
+	 *  fine, as roads add their blocks again when they load.
+	 */
+	public static void removeWorld(IWrapperWorld world){
+		WorldCollisionBlocks collisionBlocks = worldCollisionBlocks.remove(world);
+		if(collisionBlocks != null){
+			collisionBlocks.cancel();
+		}
+	}
+
+	/**
+	 *  Helper method to get the collision block map for the world.
+	 *  If we haven't loaded it yet, we load it from the world's server-only data.
+	 */
+	private static WorldCollisionBlocks getCollisionBlocks(IWrapperWorld world){
+		WorldCollisionBlocks collisionBlocks = worldCollisionBlocks.get(world);
+		if(collisionBlocks == null){
+			collisionBlocks = new WorldCollisionBlocks(world);
+			IWrapperNBT data = world.getServerData(DATA_NAME);
+			List<Point3i> blockLocations = data.getPoints("blocks");
+			List<Point3i> roadPositions = data.getPoints("roads");
+			for(int i=0; i<blockLocations.size() && i<roadPositions.size(); ++i){
+				collisionBlocks.blocks.put(blockLocations.get(i), roadPositions.get(i));
+			}
+			
+			//Older versions saved the map to the world data that's sent to clients.  Take it out of there.
+			//Roads add their blocks again when they load, so we don't need to move it over.
+			IWrapperNBT worldData = world.getData();
+			int oldBlockCount = worldData.getInteger("roadCollisionBlockscount");
+			if(oldBlockCount != 0){
+				for(String oldName : new String[]{"roadCollisionBlocks", "roadCollisionRoads"}){
+					worldData.deleteData(oldName + "count");
+					for(int i=0; i<oldBlockCount; ++i){
+						worldData.deleteData(oldName + i + "x");
+						worldData.deleteData(oldName + i + "y");
+						worldData.deleteData(oldName + i + "z");
+					}
+				}
+				world.setData(worldData);
+			}
+			worldCollisionBlocks.put(world, collisionBlocks);
+		}
+		return collisionBlocks;
+	}
+
+	/**Collision block map for a single world.  This is also the event that saves it.
+	 *
+	 * @author don_bruce
+	 */
+	private static class WorldCollisionBlocks extends ScheduledEvent{
+		private final IWrapperWorld world;
+		private final Map<Point3i, Point3i> blocks = new HashMap<Point3i, Point3i>();
+
+		private WorldCollisionBlocks(IWrapperWorld world){
+			this.world = world;
+		}
+
+		/**
+		 *  Schedules this map to be saved on the next tick, if it isn't already.
+		 */
+		private void markDirty(){
+			if(!isScheduled()){
+				ScheduledEventSystem.scheduleEvent(world, this, 1);
+			}
+		}
+
+		/**
+		 *  Saves the map to the world's server-only data.  The data is made new each time,
+		 *  as nothing else saves to it, and points from a larger map would otherwise be left in it.
+		 */
+		@Override
+		protected void execute(){
+			List<Point3i> blockLocations = new ArrayList<Point3i>(blocks.size());
+			List<Point3i> roadPositions = new ArrayList<Point3i>(blocks.size());
+			for(Entry<Point3i, Point3i> collisionEntry : blocks.entrySet()){
+				blockLocations.add(collisionEntry.getKey());
+				roadPositions.add(collisionEntry.getValue());
+			}
+			IWrapperNBT data = MasterLoader.coreInterface.createNewTag();
+			data.setPoints("blocks", blockLocations);
+			data.setPoints("roads", roadPositions);
+			world.setServerData(DATA_NAME, data);
+		}
+	}
+}
@@ -0,0 +1,387 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityRoad;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityRoad.RoadLane;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+
+/**Graph of all road lanes in a world.  Each lane in a {@link TileEntityRoad} is copied into
+ * a {@link GraphLane}, which holds the world-space start and end of the lane, as well as the
+ * lanes it connects to.  This lets lane connections be followed without loading the tile
+ * entities they belong to.  Lanes are also added to a grid of {@link #CELL_SIZE} block cells,
+ * so the closest lane to a point can be found without checking every lane in the world.
+ * <br><br>
+ * Roads add themselves to the graph when they are created or loaded, and any time their
+ * lane connections change.  They remove themselves when they are broken.  Lanes stay in
+ * the graph when their chunks unload, so routes can go through roads that aren't loaded.
+ * Graphs are only kept for server worlds, as only servers link signals along lanes, and are
+ * removed when their world unloads.
+ *
+ * @author don_bruce
+ */
+public class RoadLaneGraph{
+	private static final Map<IWrapperWorld, RoadLaneGraph> worldGraphs = new HashMap<IWrapperWorld, RoadLaneGraph>();
+
+	/**Size of the grid cells lanes are sorted into.  Half a road segment, so each lane is only in a few cells.**/
+	private static final int CELL_SIZE = TileEntityRoad.MAX_SEGMENT_LENGTH/2;
+	/**Distance between the points checked along each lane when calculating its bounds.**/
+	private static final float BOUNDS_STEP = 0.25F;
+
+	private final Map<Point3i, GraphLane[]> roadLanes = new HashMap<Point3i, GraphLane[]>();
+	private final Map<Long, List<GraphLane>> cells = new HashMap<Long, List<GraphLane>>();
+	private int nextLaneID;
+
+	/**
+	 *  Returns the lane graph for the passed-in world.  If the world doesn't have a graph, one is created.
+	 *  Only call this on servers.
+	 */
+	public static RoadLaneGraph getGraph(IWrapperWorld world){
+		RoadLaneGraph graph = worldGraphs.get(world);
+		if(graph == null){
+			graph = new RoadLaneGraph();
+			worldGraphs.put(world, graph);
+		}
+		return graph;
+	}
+
+	/**
+	 *  Removes the lane graph for the passed-in world.  Call this when the world is unloaded.
+	 */
+	public static void removeWorld(IWrapperWorld world){
+		worldGraphs.remove(world);
+	}
+
+	/**
+	 *  Adds all lanes of the passed-in road to the graph.  If the road is already
+	 *  in the graph, its old lanes are replaced with the current ones.
+	 */
+	public void addRoad(TileEntityRoad road){
+		removeRoad(road.position);
+		GraphLane[] lanes = new GraphLane[road.lanes.size()];
+		for(int laneNumber=0; laneNumber<lanes.length; ++laneNumber){
+			GraphLane lane = new GraphLane(nextLaneID++, road.position.copy(), laneNumber, road.lanes.get(laneNumber));
+			lanes[laneNumber] = lane;
+			for(int i=getCell(lane.minX); i<=getCell(lane.maxX); ++i){
+				for(int k=getCell(lane.minZ); k<=getCell(lane.maxZ); ++k){
+					Long cellKey = getCellKey(i, k);
+					List<GraphLane> cellLanes = cells.get(cellKey);
+					if(cellLanes == null){
+						cellLanes = new ArrayList<GraphLane>();
+						cells.put(cellKey, cellLanes);
+					}
+					cellLanes.add(lane);
+				}
+			}
+		}
+		roadLanes.put(road.position.copy(), lanes);
+	}
+
+	/**
+	 *  Removes all lanes of the road at the passed-in position from the graph.
+	 */
+	public void removeRoad(Point3i roadPosition){
+		GraphLane[] lanes = roadLanes.remove(roadPosition);
+		if(lanes != null){
+			for(GraphLane lane : lanes){
+				for(int i=getCell(lane.minX); i<=getCell(lane.maxX); ++i){
+					for(int k=getCell(lane.minZ); k<=getCell(lane.maxZ); ++k){
+						Long cellKey = getCellKey(i, k);
+						List<GraphLane> cellLanes = cells.get(cellKey);
+						if(cellLanes != null){
+							cellLanes.remove(lane);
+							if(cellLanes.isEmpty()){
+								cells.remove(cellKey);
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 *  Returns the lane with the passed-in number of the road at the passed-in position,
+	 *  or null if there is no such lane in the graph.
+	 */
+	public GraphLane getLane(Point3i roadPosition, int laneNumber){
+		GraphLane[] lanes = roadLanes.get(roadPosition);
+		return lanes != null && laneNumber >= 0 && laneNumber < lanes.length ? lanes[laneNumber] : null;
+	}
+
+	/**
+	 *  Returns the number of lanes in the graph.
+	 */
+	public int getLaneCount(){
+		int laneCount = 0;
+		for(GraphLane[] lanes : roadLanes.values()){
+			laneCount += lanes.length;
+		}
+		return laneCount;
+	}
+
+	/**
+	 *  Returns the position on the lane closest to the passed-in point, or null if there isn't
+	 *  a lane within the passed-in distance.  Only the lanes in the grid cells around the point
+	 *  are checked, and of those only the ones whose bounds are closer than the closest lane found so far.
+	 */
+	public LanePosition getClosestLane(Point3d point, double maxDistance){
+		Set<GraphLane> checkedLanes = new HashSet<GraphLane>();
+		Point3d relativePoint = new Point3d(0, 0, 0);
+		Point3d curvePoint = new Point3d(0, 0, 0);
+		GraphLane closestLane = null;
+		float closestSegment = 0;
+		double closestDistance = maxDistance;
+		for(int i=getCell(point.x - maxDistance); i<=getCell(point.x + maxDistance); ++i){
+			for(int k=getCell(point.z - maxDistance); k<=getCell(point.z + maxDistance); ++k){
+				List<GraphLane> cellLanes = cells.get(getCellKey(i, k));
+				if(cellLanes != null){
+					for(GraphLane lane : cellLanes){
+						if(lane.isWithinBounds(point, closestDistance) && checkedLanes.add(lane)){
+							relativePoint.setTo(point).subtract(lane.startPoint);
+							float segment = lane.curve.getClosestSegmentTo(relativePoint);
+							double distance = lane.curve.getPointAt(segment, curvePoint).distanceTo(relativePoint);
+							if(distance <= closestDistance){
+								closestLane = lane;
+								closestSegment = segment;
+								closestDistance = distance;
+							}
+						}
+					}
+				}
+			}
+		}
+		return closestLane != null ? new LanePosition(closestLane, closestSegment, closestDistance) : null;
+	}
+
+	/**
+	 *  Finds the shortest route from the starting lane to the ending lane using A*.
+	 *  Lanes may be driven in either direction, so the direction of the starting lane
+	 *  needs to be given.  The returned list starts with the starting lane and ends with the
+	 *  ending lane.  If there is no route, null is returned.  Costs are the path lengths of the
+	 *  lanes, and the estimate is the straight distance to the closest end of the ending lane.
+	 *  As a lane can't be shorter than the straight distance between its ends, this finds the shortest route.
+	 */
+	public List<RouteSegment> findRoute(GraphLane startLane, boolean startReversed, GraphLane endLane){
+		Map<Integer, RouteNode> nodes = new HashMap<Integer, RouteNode>();
+		PriorityQueue<RouteNode> openNodes = new PriorityQueue<RouteNode>();
+		RouteNode startNode = new RouteNode(new RouteSegment(startLane, startReversed), null, 0, endLane);
+		nodes.put(startNode.getKey(), startNode);
+		openNodes.add(startNode);
+
+		while(!openNodes.isEmpty()){
+			RouteNode node = openNodes.poll();
+			if(node.closed){
+				continue;
+			}else if(node.segment.lane == endLane){
+				List<RouteSegment> route = new ArrayList<RouteSegment>();
+				for(RouteNode routeNode = node; routeNode != null; routeNode = routeNode.parent){
+					route.add(routeNode.segment);
+				}
+				Collections.reverse(route);
+				return route;
+			}
+			node.closed = true;
+
+			//Get the lane we connect to from the end we drive off of.
+			GraphLane lane = node.segment.lane;
+			RouteSegment nextSegment = node.segment.reversed ? lane.getPriorSegment(this) : lane.getNextSegment(this);
+			if(nextSegment != null){
+				double cost = node.cost + lane.curve.pathLength;
+				RouteNode nextNode = nodes.get(RouteNode.getKey(nextSegment));
+				if(nextNode == null){
+					nextNode = new RouteNode(nextSegment, node, cost, endLane);
+					nodes.put(nextNode.getKey(), nextNode);
+					openNodes.add(nextNode);
+				}else if(!nextNode.closed && cost < nextNode.cost){
+					//Found a shorter way to this node.  Mark the old one as closed so it is skipped,
+					//and queue a new one, as the queue can't re-sort existing entries.
+					nextNode.closed = true;
+					nextNode = new RouteNode(nextSegment, node, cost, endLane);
+					nodes.put(nextNode.getKey(), nextNode);
+					openNodes.add(nextNode);
+				}
+			}
+		}
+		return null;
+	}
+
+	private static int getCell(double coord){
+		return Math.floorDiv((int) Math.floor(coord), CELL_SIZE);
+	}
+
+	private static Long getCellKey(int cellX, int cellZ){
+		return (((long) cellX) << 32) | (cellZ & 0xFFFFFFFFL);
+	}
+
+
+	/**
+	 *  A lane in the graph.  All positions are in world coordinates.  Connections are saved
+	 *  as the road position and lane number they connect to, and are looked up in the graph when needed.
+	 */
+	public static class GraphLane{
+		public final int laneID;
+		public final Point3i roadPosition;
+		public final int laneNumber;
+		public final BezierCurve curve;
+		public final Point3d startPoint;
+		public final Point3d endPoint;
+
+		private final double minX;
+		private final double minY;
+		private final double minZ;
+		private final double maxX;
+		private final double maxY;
+		private final double maxZ;
+		private final Point3i priorRoad;
+		private final int priorLane;
+		private final boolean priorToStart;
+		private final Point3i nextRoad;
+		private final int nextLane;
+		private final boolean nextToStart;
+
+		private GraphLane(int laneID, Point3i roadPosition, int laneNumber, RoadLane lane){
+			this.laneID = laneID;
+			this.roadPosition = roadPosition;
+			this.laneNumber = laneNumber;
+			this.curve = lane.curve;
+			this.startPoint = new Point3d(roadPosition).add(lane.startingOffset);
+			this.endPoint = startPoint.copy().add(curve.endPos);
+
+			//Get the bounds from points along the curve.
+			double minX = startPoint.x;
+			double minY = startPoint.y;
+			double minZ = startPoint.z;
+			double maxX = startPoint.x;
+			double maxY = startPoint.y;
+			double maxZ = startPoint.z;
+			Point3d point = new Point3d(0, 0, 0);
+			for(float segment=0; segment<=curve.pathLength; segment+=BOUNDS_STEP){
+				curve.getPointAt(segment, point);
+				minX = Math.min(minX, startPoint.x + point.x);
+				minY = Math.min(minY, startPoint.y + point.y);
+				minZ = Math.min(minZ, startPoint.z + point.z);
+				maxX = Math.max(maxX, startPoint.x + point.x);
+				maxY = Math.max(maxY, startPoint.y + point.y);
+				maxZ = Math.max(maxZ, startPoint.z + point.z);
+			}
+			this.minX = Math.min(minX, endPoint.x);
+			this.minY = Math.min(minY, endPoint.y);
+			this.minZ = Math.min(minZ, endPoint.z);
+			this.maxX = Math.max(maxX, endPoint.x);
+			this.maxY = Math.max(maxY, endPoint.y);
+			this.maxZ = Math.max(maxZ, endPoint.z);
+
+			if(lane.priorConnection != null){
+				this.priorRoad = lane.priorConnection.tileLocation.copy();
+				this.priorLane = lane.priorConnection.laneNumber;
+				this.priorToStart = lane.priorConnection.connectedToStart;
+			}else{
+				this.priorRoad = null;
+				this.priorLane = 0;
+				this.priorToStart = false;
+			}
+			if(lane.nextConnection != null){
+				this.nextRoad = lane.nextConnection.tileLocation.copy();
+				this.nextLane = lane.nextConnection.laneNumber;
+				this.nextToStart = lane.nextConnection.connectedToStart;
+			}else{
+				this.nextRoad = null;
+				this.nextLane = 0;
+				this.nextToStart = false;
+			}
+		}
+
+		/**
+		 *  Returns the segment driven after driving off the start of this lane, or null if
+		 *  this lane doesn't connect to anything at its start.  If the prior lane connects
+		 *  with its start, it is driven forwards, otherwise it is driven in reverse.
+		 */
+		public RouteSegment getPriorSegment(RoadLaneGraph graph){
+			GraphLane lane = priorRoad != null ? graph.getLane(priorRoad, priorLane) : null;
+			return lane != null ? new RouteSegment(lane, !priorToStart) : null;
+		}
+
+		/**
+		 *  Returns the segment driven after driving off the end of this lane, or null if
+		 *  this lane doesn't connect to anything at its end.  If the next lane connects
+		 *  with its start, it is driven forwards, otherwise it is driven in reverse.
+		 */
+		public RouteSegment getNextSegment(RoadLaneGraph graph){
+			GraphLane lane = nextRoad != null ? graph.getLane(nextRoad, nextLane) : null;
+			return lane != null ? new RouteSegment(lane, !nextToStart) : null;
+		}
+
+		private boolean isWithinBounds(Point3d point, double distance){
+			return point.x >= minX - distance && point.x <= maxX + distance && point.y >= minY - distance && point.y <= maxY + distance && point.z >= minZ - distance && point.z <= maxZ + distance;
+		}
+	}
+
+	/**
+	 *  A position on a lane, as returned by {@link RoadLaneGraph#getClosestLane(Point3d, double)}.
+	 *  The segment is the distance along the lane's curve, and the distance is how far the queried point is from it.
+	 */
+	public static class LanePosition{
+		public final GraphLane lane;
+		public final float segment;
+		public final double distance;
+
+		private LanePosition(GraphLane lane, float segment, double distance){
+			this.lane = lane;
+			this.segment = segment;
+			this.distance = distance;
+		}
+	}
+
+	/**
+	 *  A lane in a route, and the direction it is driven.
+	 */
+	public static class RouteSegment{
+		public final GraphLane lane;
+		public final boolean reversed;
+
+		public RouteSegment(GraphLane lane, boolean reversed){
+			this.lane = lane;
+			this.reversed = reversed;
+		}
+	}
+
+	/**
+	 *  Node used in the A* search.  Each lane has two nodes, one for each direction it can be driven.
+	 */
+	private static class RouteNode implements Comparable<RouteNode>{
+		private final RouteSegment segment;
+		private final RouteNode parent;
+		private final double cost;
+		private final double estimate;
+		private boolean closed;
+
+		private RouteNode(RouteSegment segment, RouteNode parent, double cost, GraphLane endLane){
+			this.segment = segment;
+			this.parent = parent;
+			this.cost = cost;
+			Point3d entryPoint = segment.reversed ? segment.lane.endPoint : segment.lane.startPoint;
+			this.estimate = cost + Math.min(entryPoint.distanceTo(endLane.startPoint), entryPoint.distanceTo(endLane.endPoint));
+		}
+
+		private int getKey(){
+			return getKey(segment);
+		}
+
+		private static int getKey(RouteSegment segment){
+			return segment.lane.laneID*2 + (segment.reversed ? 1 : 0);
+		}
+
+		@Override
+		public int compareTo(RouteNode otherNode){
+			return Double.compare(estimate, otherNode.estimate);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package minecrafttransportsimulator.baseclasses;
+
+/**Schedule for a network of signal controllers.  All controllers in a network run the same
+ * cycle length, so their states stay in step with each other.  Controllers with shorter cycles
+ * have the extra time added to the first (main green) state of their cycle.  Each controller
+ * is offset from the start of the network by the time it takes to drive to it along the road.
+ * This makes a green wave: a vehicle going down the main road at the wave speed gets to each
+ * controller just as it turns green.
+ * <br><br>
+ * Schedules are made from plain numbers, and give states for any world time without needing
+ * any state from the last call.  They never change once created, so the same schedule gives
+ * the same states every time, and may be checked without a world.
+ *
+ * @author don_bruce
+ */
+public class SignalNetworkSchedule{
+	/**Length of the cycle of all members, in ticks.**/
+	public final int cycleTime;
+
+	/**For each member, the time in the member's cycle that each state ends.**/
+	private final int[][] stateEndTimes;
+	/**For each member, the offset of the member's cycle from the network's cycle.**/
+	private final int[] offsets;
+
+	/**
+	 *  Creates a schedule.  The state times are how long each state in the cycle is, in ticks,
+	 *  for each member.  The distances are how far each member is along the road from the start
+	 *  of the network, in blocks, and the wave speed is how fast the green wave moves, in blocks per tick.
+	 */
+	public SignalNetworkSchedule(int[][] stateTimes, double[] distances, double waveSpeed){
+		int longestCycle = 1;
+		for(int[] memberTimes : stateTimes){
+			int memberCycle = 0;
+			for(int stateTime : memberTimes){
+				memberCycle += Math.max(stateTime, 0);
+			}
+			longestCycle = Math.max(longestCycle, memberCycle);
+		}
+		this.cycleTime = longestCycle;
+
+		this.stateEndTimes = new int[stateTimes.length][];
+		this.offsets = new int[stateTimes.length];
+		for(int member=0; member<stateTimes.length; ++member){
+			int[] memberTimes = stateTimes[member];
+			int memberCycle = 0;
+			for(int stateTime : memberTimes){
+				memberCycle += Math.max(stateTime, 0);
+			}
+			stateEndTimes[member] = new int[memberTimes.length];
+			int stateEndTime = cycleTime - memberCycle;
+			for(int state=0; state<memberTimes.length; ++state){
+				stateEndTime += Math.max(memberTimes[state], 0);
+				stateEndTimes[member][state] = stateEndTime;
+			}
+			offsets[member] = getOffset(distances[member], waveSpeed, cycleTime);
+		}
+	}
+
+	/**
+	 *  Returns the offset, in ticks, of a member the passed-in distance from the start of the network.
+	 *  This is how long the green wave takes to get there, wrapped to be less than the cycle time.
+	 */
+	public static int getOffset(double distance, double waveSpeed, int cycleTime){
+		if(waveSpeed <= 0 || cycleTime <= 0){
+			return 0;
+		}
+		return (int) Math.floorMod(Math.round(distance/waveSpeed), (long) cycleTime);
+	}
+
+	/**
+	 *  Returns the number of members in this schedule.
+	 */
+	public int getMemberCount(){
+		return offsets.length;
+	}
+
+	/**
+	 *  Returns the offset of the passed-in member, in ticks.
+	 */
+	public int getOffset(int member){
+		return offsets[member];
+	}
+
+	/**
+	 *  Returns the index of the state the passed-in member is in at the passed-in time.
+	 */
+	public int getState(int member, long time){
+		int cycleTick = getCycleTick(member, time);
+		int[] memberEndTimes = stateEndTimes[member];
+		for(int state=0; state<memberEndTimes.length; ++state){
+			if(cycleTick < memberEndTimes[state]){
+				return state;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 *  Returns the first time after the passed-in time that the passed-in member changes state.
+	 */
+	public long getNextChangeTime(int member, long time){
+		int cycleTick = getCycleTick(member, time);
+		for(int stateEndTime : stateEndTimes[member]){
+			if(cycleTick < stateEndTime){
+				return time + stateEndTime - cycleTick;
+			}
+		}
+		return time + cycleTime - cycleTick;
+	}
+
+	/**
+	 *  Returns the first time after the passed-in time that any member changes state.
+	 */
+	public long getNextChangeTime(long time){
+		long nextChangeTime = time + cycleTime;
+		for(int member=0; member<offsets.length; ++member){
+			nextChangeTime = Math.min(nextChangeTime, getNextChangeTime(member, time));
+		}
+		return nextChangeTime;
+	}
+
+	private int getCycleTick(int member, long time){
+		return (int) Math.floorMod(time - offsets[member], (long) cycleTime);
+	}
+}
@@ -47,6 +47,12 @@ public abstract class ABlockBase{
 	 *  removed, as logic may be needed to be performed that requires the data from the TE.
 	 */
 	public void onBroken(IWrapperWorld world, Point3i location){}
+	
+	/**
+	 *  Called when a block next to this block changes, including changes in the redstone
+	 *  power going into this block.  This is only called on the server.
+	 */
+	public void onNeighborChanged(IWrapperWorld world, Point3i location){}
 
 	/**
 	 *  Gets the current rotation of the block at the passed-in point.
@@ -4,6 +4,8 @@ import java.util.List;
 
 import minecrafttransportsimulator.baseclasses.BoundingBox;
 import minecrafttransportsimulator.baseclasses.Point3i;
+import minecrafttransportsimulator.baseclasses.RoadCollisionManager;
+import minecrafttransportsimulator.baseclasses.RoadLaneGraph;
 import minecrafttransportsimulator.blocks.components.ABlockBase;
 import minecrafttransportsimulator.blocks.components.IBlockTileEntity;
 import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityRoad;
@@ -38,6 +40,10 @@ public class BlockRoad extends ABlockBase implements IBlockTileEntity<TileEntity
 		TileEntityRoad road = (TileEntityRoad) world.getTileEntity(location);
 		if(road != null && !road.isHolographic){
 			road.isHolographic = true;
+			RoadCollisionManager.removeRoad(world, road);
+			if(!world.isClient()){
+				RoadLaneGraph.getGraph(world).removeRoad(location);
+			}
 			for(Point3i blockOffset : road.collidingBlockOffsets){
 				Point3i blockLocation = location.copy().add(blockOffset);
 				//Check to make sure we don't destroy non-road blocks.
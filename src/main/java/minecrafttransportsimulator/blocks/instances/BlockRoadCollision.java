@@ -6,8 +6,8 @@ import java.util.List;
 import minecrafttransportsimulator.baseclasses.BoundingBox;
 import minecrafttransportsimulator.baseclasses.Point3d;
 import minecrafttransportsimulator.baseclasses.Point3i;
+import minecrafttransportsimulator.baseclasses.RoadCollisionManager;
 import minecrafttransportsimulator.blocks.components.ABlockBase;
-import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityBase;
 import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityRoad;
 import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
 import minecrafttransportsimulator.mcinterface.IWrapperWorld;
@@ -44,24 +44,12 @@ public class BlockRoadCollision extends ABlockBase{
 		collidingBoxes.add(blockBounds);
 	}
     
+    /**
+     *  Returns the road that this collision block belongs to, or null if it doesn't belong to any road.
+     *  Roads register their collision blocks with the {@link RoadCollisionManager}, so this is just a lookup.
+     */
     public TileEntityRoad getRoadForBlock(IWrapperWorld world, Point3i location){
-    	Point3i blockOffset = new Point3i(0, 0, 0);
-    	Point3i testPoint = new Point3i(0, 0, 0);
-    	for(int i=-TileEntityRoad.MAX_SEGMENT_LENGTH; i<2*TileEntityRoad.MAX_SEGMENT_LENGTH; ++i){
-    		for(int j=-TileEntityRoad.MAX_SEGMENT_LENGTH; j<2*TileEntityRoad.MAX_SEGMENT_LENGTH; ++j){
-    			for(int k=-TileEntityRoad.MAX_SEGMENT_LENGTH; k<2*TileEntityRoad.MAX_SEGMENT_LENGTH; ++k){
-    				blockOffset.set(i, j, k);
-    				testPoint.setTo(location).subtract(blockOffset);
-            		ATileEntityBase testTile = world.getTileEntity(testPoint);
-            		if(testTile instanceof TileEntityRoad){
-            			if(((TileEntityRoad) testTile).collisionBlockOffsets.contains(blockOffset)){
-            				return (TileEntityRoad) testTile;
-            			}
-            		}
-            	}
-        	}
-    	}
-    	return null;
+    	return RoadCollisionManager.getRoadForBlock(world, location);
     }
     
     private static final List<BlockRoadCollision> createCollisionBlocks(){
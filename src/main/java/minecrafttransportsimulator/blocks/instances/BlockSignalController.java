@@ -23,6 +23,14 @@ public class BlockSignalController extends ABlockBaseDecor<TileEntitySignalContr
 		return true;
 	}
 
+	@Override
+	public void onNeighborChanged(IWrapperWorld world, Point3i location){
+		TileEntitySignalController controller = (TileEntitySignalController) world.getTileEntity(location);
+		if(controller != null){
+			controller.onRedstoneChanged();
+		}
+	}
+
 	@Override
 	public TileEntitySignalController createTileEntity(IWrapperWorld world, Point3i position, IWrapperNBT data){
 		return new TileEntitySignalController(world, position, data);
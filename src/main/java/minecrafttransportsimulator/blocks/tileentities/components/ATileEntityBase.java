@@ -11,6 +11,7 @@ import minecrafttransportsimulator.mcinterface.IWrapperNBT;
 import minecrafttransportsimulator.mcinterface.IWrapperWorld;
 import minecrafttransportsimulator.rendering.instances.ARenderTileEntityBase;
 import minecrafttransportsimulator.systems.PackParserSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerTimes;
 
 /**Base Tile Entity class.  In essence, this class holds the data and state of a Tile Entity in the world.
  * All TileEntities are used for making pack-based blocks, so they have JSON parameters
@@ -37,6 +38,8 @@ public abstract class ATileEntityBase<JSONDefinition extends AJSONItem<?>>{
 	public final JSONDefinition definition;
 	/**Current light level of the block for this TileEntity.  Defaults to 0, or no light.**/
 	public float lightLevel;
+	/**Times for this TileEntity's updates, if it is tickable.**/
+	public final ProfilerTimes profilerTimes;
 	
 	public ATileEntityBase(IWrapperWorld world, Point3i position, IWrapperNBT data){
 		this.world = world;
@@ -46,6 +49,7 @@ public abstract class ATileEntityBase<JSONDefinition extends AJSONItem<?>>{
 		this.item = PackParserSystem.getItem(data.getString("packID"), data.getString("systemName"), currentSubName);
 		this.definition = item.definition;
 		this.lightLevel = (float) data.getDouble("lightLevel");
+		this.profilerTimes = new ProfilerTimes(definition, world.isClient(), true);
 	}
 	
 	/**
@@ -67,7 +71,8 @@ public abstract class ATileEntityBase<JSONDefinition extends AJSONItem<?>>{
 	}
 	
 	/**
-	 *  Called when this TileEntity is removed from the world.
+	 *  Called when this TileEntity is removed from the world.  This is also called
+	 *  when the chunk this TileEntity is in unloads, so this may be called more than once.
 	 */
 	public void remove(){}
 	
@@ -28,6 +28,8 @@ public class TileEntityFluidLoader extends TileEntityDecor implements ITileEntit
 	
 	@Override
 	public void update(){
+		tank.update();
+		
 		//Do load/unload checks.  Checks only occur on servers.  Clients get packets for state changes.
 		if(!world.isClient()){
 			if(connectedPart == null){
@@ -44,7 +46,9 @@ public class TileEntityFluidLoader extends TileEntityDecor implements ITileEntit
 			}
 
 			//If we have a connected part, try to load or unload from it depending on our state.
+			//Make sure the vehicle is awake, as it needs to update to sync the part's tank.
 			if(connectedPart != null){
+				connectedPart.vehicle.wakeUp();
 				if(unloadMode){
 					String fluidToUnload = connectedPart.tank.getFluid();
 					double amountToUnload = connectedPart.tank.drain(fluidToUnload, 100, false);
@@ -26,6 +26,8 @@ public class TileEntityFuelPump extends TileEntityDecor implements ITileEntityTi
 	
 	@Override
 	public void update(){
+		tank.update();
+		
 		//Update text lines to the current tank status if required.
 		//Only do this on clients, as servers don't render any text.
 		if(world.isClient() && definition.general.textObjects != null){
@@ -64,6 +66,8 @@ public class TileEntityFuelPump extends TileEntityDecor implements ITileEntityTi
 				return;
 			}
 			//If we have room for fuel, try to add it to the vehicle.
+			//Make sure the vehicle is awake, as it needs to update to sync its tank.
+			connectedVehicle.wakeUp();
 			if(tank.getFluidLevel() > 0){
 				double amountToFill = connectedVehicle.fuelTank.fill(tank.getFluid(), 10, false);
 				if(amountToFill > 0){
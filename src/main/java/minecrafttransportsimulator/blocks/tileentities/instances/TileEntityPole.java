@@ -16,11 +16,12 @@ import minecrafttransportsimulator.jsondefs.JSONPoleComponent;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
 import minecrafttransportsimulator.mcinterface.IWrapperWorld;
 import minecrafttransportsimulator.rendering.instances.RenderPole;
+import minecrafttransportsimulator.systems.LightUpdateSystem;
 import minecrafttransportsimulator.systems.PackParserSystem;
 
 /**Pole tile entity.  Remembers what components we have attached and the state of the components.
  * This tile entity does not tick, as states can be determined without ticks or are controlled
- * from other tickable TEs.
+ * by {@link TileEntitySignalController}s.
 *
 * @author don_bruce
 */
@@ -41,10 +42,18 @@ public class TileEntityPole extends ATileEntityBase<JSONPoleComponent>{
 				}
 			}
 		}
+		
+		//If a signal controller controls us, get our component states from it.
+		//We may have missed state changes while we were unloaded.
+		TileEntitySignalController controller = TileEntitySignalController.getControllerFor(world, position);
+		if(controller != null){
+			controller.updateComponents(this, false);
+		}
 	}
 	
 	/**
 	 * Helper method to update light state and re-do world lighting if required.
+	 * World lighting is queued in the {@link LightUpdateSystem}, as many poles often change at once.
 	 */
 	public void updateLightState(){
 		float calculatedLevel = 0;
@@ -53,7 +62,7 @@ public class TileEntityPole extends ATileEntityBase<JSONPoleComponent>{
 		}
 		if(lightLevel != calculatedLevel){
 			lightLevel = calculatedLevel;
-			world.updateLightBrightness(position);
+			LightUpdateSystem.queueUpdate(world, position);
 		}
 	}
 	
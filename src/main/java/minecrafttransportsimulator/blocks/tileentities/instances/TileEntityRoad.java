@@ -10,6 +10,8 @@ import minecrafttransportsimulator.baseclasses.BezierCurve;
 import minecrafttransportsimulator.baseclasses.BoundingBox;
 import minecrafttransportsimulator.baseclasses.Point3d;
 import minecrafttransportsimulator.baseclasses.Point3i;
+import minecrafttransportsimulator.baseclasses.RoadCollisionManager;
+import minecrafttransportsimulator.baseclasses.RoadLaneGraph;
 import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityBase;
 import minecrafttransportsimulator.items.components.AItemPack;
 import minecrafttransportsimulator.items.instances.ItemRoadComponent;
@@ -17,6 +19,7 @@ import minecrafttransportsimulator.jsondefs.JSONRoadComponent;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
 import minecrafttransportsimulator.mcinterface.IWrapperWorld;
 import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.rendering.components.RoadMeshCache;
 import minecrafttransportsimulator.rendering.instances.RenderRoad;
 import minecrafttransportsimulator.systems.PackParserSystem;
 
@@ -82,6 +85,13 @@ public class TileEntityRoad extends ATileEntityBase<JSONRoadComponent>{
 		
 		//Get the holographic state.
 		this.isHolographic = data.getBoolean("isHolographic");
+		
+		//Add our collision blocks to the manager so they can find us, and our lanes to the lane graph.
+		//Both of these are only kept on servers.
+		RoadCollisionManager.addRoad(world, this);
+		if(!world.isClient()){
+			RoadLaneGraph.getGraph(world).addRoad(this);
+		}
 	}
 	
 	@Override
@@ -95,6 +105,15 @@ public class TileEntityRoad extends ATileEntityBase<JSONRoadComponent>{
 		return drops;
 	}
 	
+	@Override
+	public void remove(){
+		super.remove();
+		//Remove our mesh from the cache so it stops rendering.
+		if(world.isClient()){
+			RoadMeshCache.removeRoad(world, position);
+		}
+	}
+	
 	@Override
 	public RenderRoad getRenderer(){
 		return new RenderRoad();
@@ -156,10 +175,16 @@ public class TileEntityRoad extends ATileEntityBase<JSONRoadComponent>{
 		
 		public void connectToPrior(TileEntityRoad road, int laneNumber, boolean connectedToStart){
 			priorConnection = new RoadLaneConnection(road.position, laneNumber, connectedToStart);
+			if(!world.isClient()){
+				RoadLaneGraph.getGraph(world).addRoad(TileEntityRoad.this);
+			}
 		}
 		
 		public void connectToNext(TileEntityRoad road, int laneNumber, boolean connectedToStart){
 			nextConnection = new RoadLaneConnection(road.position, laneNumber, connectedToStart);
+			if(!world.isClient()){
+				RoadLaneGraph.getGraph(world).addRoad(TileEntityRoad.this);
+			}
 		}
 		
 		public void save(IWrapperNBT data){
@@ -181,7 +206,7 @@ public class TileEntityRoad extends ATileEntityBase<JSONRoadComponent>{
 		/**
 		 *  Helper class for containing connecton data..
 		 */
-		private class RoadLaneConnection{
+		public class RoadLaneConnection{
 			public final Point3i tileLocation;
 			public final int laneNumber;
 			public final boolean connectedToStart;
@@ -1,25 +1,40 @@
 package minecrafttransportsimulator.blocks.tileentities.instances;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import minecrafttransportsimulator.baseclasses.Point3i;
 import minecrafttransportsimulator.blocks.components.ABlockBase.Axis;
+import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityBase;
 import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityPole_Component;
-import minecrafttransportsimulator.blocks.tileentities.components.ITileEntityTickable;
 import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityPole_StreetLight.LightState;
 import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityPole_TrafficSignal.SignalState;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
 import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.packets.instances.PacketTileEntitySignalControllerState;
+import minecrafttransportsimulator.systems.PresenceSensorSystem;
+import minecrafttransportsimulator.systems.PresenceSensorSystem.PresenceZone;
+import minecrafttransportsimulator.systems.ScheduledEventSystem;
+import minecrafttransportsimulator.systems.ScheduledEventSystem.ScheduledEvent;
+import minecrafttransportsimulator.systems.SignalNetworkSystem;
+import minecrafttransportsimulator.systems.SignalNetworkSystem.SignalNetwork;
 import minecrafttransportsimulator.vehicles.main.AEntityBase;
 
 /**Traffic signal controller tile entity.  Responsible for keeping the state of traffic
- * intersections.
+ * intersections.  This tile entity does not tick.  Instead, state changes are scheduled
+ * with the {@link ScheduledEventSystem}, vehicles are detected with a zone in the
+ * {@link PresenceSensorSystem}, and redstone is checked when the block next to us changes.
+ * State is only changed on servers, which send it to clients when it changes.  Timed controllers
+ * on the same road may also be put into a network by the {@link SignalNetworkSystem}, which then
+ * changes their states rather than them doing it themselves.
 *
 * @author don_bruce
 */
-public class TileEntitySignalController extends TileEntityDecor implements ITileEntityTickable{	
+public class TileEntitySignalController extends TileEntityDecor{	
 	//Mode state.
 	public OpMode currentOpMode = OpMode.TIMED_CYCLE;
 	
@@ -37,6 +52,20 @@ public class TileEntitySignalController extends TileEntityDecor implements ITile
 	//Locations of blocks.
 	public final List<Point3i> componentLocations = new ArrayList<Point3i>();
 	
+	//Event state.  The detection zone and phase events are only used on servers.
+	private PresenceZone detectionZone;
+	private ScheduledEvent phaseEvent;
+	private int redstoneSignal;
+	private boolean isRemoved;
+	private SignalNetwork network;
+	
+	/**Controllers for all signal components in all worlds, keyed by the location of the component.**/
+	private static final Map<IWrapperWorld, Map<Point3i, TileEntitySignalController>> componentControllers = new HashMap<IWrapperWorld, Map<Point3i, TileEntitySignalController>>();
+	/**How long vehicle-triggered signals wait before changing after seeing a vehicle, in seconds.**/
+	private static final int VEHICLE_TRIGGER_TIME = 2;
+	/**How far the vehicle detection zone goes out past the components along the cross axis, in blocks.**/
+	private static final int DETECTION_DISTANCE = 16;
+	
 	public TileEntitySignalController(IWrapperWorld world, Point3i position, IWrapperNBT data){
 		super(world, position, data);
 		//Load state data.
@@ -44,6 +73,7 @@ public class TileEntitySignalController extends TileEntityDecor implements ITile
 		currentOpState = OpState.values()[data.getInteger("currentOpState")];
 		timeOperationStarted = data.getInteger("timeOperationStarted");
 		mainDirectionXAxis = data.getBoolean("mainDirectionXAxis");
+		lightsOn = !data.getBoolean("lightsOff");
 		if(data.getBoolean("hasCustomTimes")){
 			greenMainTime = data.getInteger("greenMainTime");
 	        greenCrossTime = data.getInteger("greenCrossTime");
@@ -53,110 +83,107 @@ public class TileEntitySignalController extends TileEntityDecor implements ITile
 		}
         componentLocations.clear();
         componentLocations.addAll(data.getPoints("componentLocations"));
+        componentsChanged();
+        
+        //Wait a tick before checking redstone and setting our components.  They may not be loaded yet,
+        //and the world may not let us check redstone while it's loading us.
+        ScheduledEventSystem.scheduleEvent(world, new ScheduledEvent(){
+        	@Override
+        	protected void execute(){
+        		if(!isRemoved){
+        			if(!TileEntitySignalController.this.world.isClient()){
+        				onRedstoneChanged();
+        			}
+        			updateState(currentOpState, false);
+        		}
+        	}
+        }, 1);
 	}
 	
-	@Override
-	public void update(){
-		//Check every 1 seconds to make sure controlled components are in their correct states.
-		//This could have changed due to chunkloading.  We also check light redstone state here.
-		if(world.getTime()%20 == 0){
-			updateState(currentOpState, false);
+	/**
+	 * Call this whenever the component locations or main axis of this controller change.
+	 * This updates which components this controller controls, and re-makes the vehicle
+	 * detection zone for the new locations.
+	 */
+	public void componentsChanged(){
+		Map<Point3i, TileEntitySignalController> controllers = componentControllers.get(world);
+		if(controllers == null){
+			controllers = new HashMap<Point3i, TileEntitySignalController>();
+			componentControllers.put(world, controllers);
+		}
+		controllers.values().removeAll(Collections.singleton(this));
+		if(!isRemoved){
+			for(Point3i location : componentLocations){
+				controllers.put(location, this);
+			}
 		}
 		
-		int currentTime = (int) ((world.getTime()/20)%Integer.MAX_VALUE);
-		int redstoneSignal = world.getRedstonePower(position.copy().add(0, -1, 0));
-		//If we aren't in remote control mode, do checks for state changes.
-		if(!currentOpMode.equals(OpMode.REMOTE_CONTROL)){
-			if(!currentOpMode.equals(OpMode.REDSTONE_TRIGGER)){
-				//If we aren't in redstone signal mode, check lights.
-				if(lightsOn ^ redstoneSignal == 0){
-					lightsOn = !lightsOn;
-					updateState(currentOpState, false);
-				}
+		//Get a bounding box for all lights in the controller system.
+		if(detectionZone != null){
+			PresenceSensorSystem.removeZone(world, detectionZone);
+			detectionZone = null;
+		}
+		if(!world.isClient() && !isRemoved && !componentLocations.isEmpty()){
+			int minX = Integer.MAX_VALUE;
+			int maxX = Integer.MIN_VALUE;
+			int minZ = Integer.MAX_VALUE;
+			int maxZ = Integer.MIN_VALUE;
+			for(Point3i controllerSignalPos : componentLocations){
+				minX = Math.min(minX, controllerSignalPos.x);
+				maxX = Math.max(maxX, controllerSignalPos.x);
+				minZ = Math.min(minZ, controllerSignalPos.z);
+				maxZ = Math.max(maxZ, controllerSignalPos.z);
 			}
 			
-			//If we are in the idle op sate, check if we need to start a cycle.
-			if(currentOpState.equals(OpState.GREEN_MAIN_RED_CROSS)){
-				if(currentOpMode.equals(OpMode.VEHICLE_TRIGGER)){
-					//We're a triggered signal, check for vehicles.
-					//Check only once every two seconds to prevent lag.
-					if(currentTime%2 == 0){
-						//Get a bounding box for all lights in the controller system.
-						int minX = Integer.MAX_VALUE;
-						int maxX = Integer.MIN_VALUE;
-						int minZ = Integer.MAX_VALUE;
-						int maxZ = Integer.MIN_VALUE;
-						for(Point3i controllerSignalPos : componentLocations){
-							minX = Math.min(minX, controllerSignalPos.x);
-							maxX = Math.max(maxX, controllerSignalPos.x);
-							minZ = Math.min(minZ, controllerSignalPos.z);
-							maxZ = Math.max(maxZ, controllerSignalPos.z);
-						}
-						
-						//Take 16 off to expand the detection boxes for the axis.
-						if(mainDirectionXAxis){
-							minZ -= 16;
-							maxZ += 16;
-						}else{
-							minX -= 16;
-							maxX += 16;
-						}
-						
-						//Now we have min-max, check for any vehicles in the area.
-						//We need to check along the non-primary axis, but we don't care about Y.
-						for(AEntityBase entity : (world.isClient() ? AEntityBase.createdClientEntities : AEntityBase.createdServerEntities)){
-							if(entity.position.x > minX && entity.position.x < maxX && entity.position.z > minZ && entity.position.z < maxZ){
-								updateState(OpState.YELLOW_MAIN_RED_CROSS, true);
-								break;
-							}
-						}
-					}
-				}else if(currentOpMode.equals(OpMode.REDSTONE_TRIGGER)){
-					//If redstone is active, start sequence.
-					if(redstoneSignal > 0){
-						updateState(OpState.YELLOW_MAIN_RED_CROSS, true);
-					}
-				}else{
-					//Not a triggered signal, we must be timed.
-					if(timeOperationStarted + greenMainTime <= currentTime){
-						updateState(OpState.YELLOW_MAIN_RED_CROSS, true);
-					}
-				}
+			//Expand the detection zone along the cross axis, as that's where vehicles will be waiting.
+			if(mainDirectionXAxis){
+				minZ -= DETECTION_DISTANCE;
+				maxZ += DETECTION_DISTANCE;
 			}else{
-				//In the middle of a cycle.  Do logic.
-				switch(currentOpState){
-					case GREEN_MAIN_RED_CROSS : break; //Not gonna happen, we tested for this.
-					case YELLOW_MAIN_RED_CROSS : {
-						if(timeOperationStarted + yellowMainTime <= currentTime){
-							updateState(OpState.RED_MAIN_RED_CROSS, true);
-						}
-						break;
-					}
-					case RED_MAIN_RED_CROSS : {
-						if(timeOperationStarted + allRedTime <= currentTime){
-							updateState(OpState.RED_MAIN_GREEN_CROSS, true);
-						}
-						break;
-					}
-					case RED_MAIN_GREEN_CROSS : {
-						if(timeOperationStarted + greenCrossTime <= currentTime){
-							updateState(OpState.RED_MAIN_YELLOW_CROSS, true);
-						}
-						break;
-					}
-					case RED_MAIN_YELLOW_CROSS : {
-						if(timeOperationStarted + yellowCrossTime <= currentTime){
-							updateState(OpState.RED_MAIN2_RED_CROSS2, true);
-						}
-						break;
-					}
-					case RED_MAIN2_RED_CROSS2 : {
-						if(timeOperationStarted + allRedTime <= currentTime){
-							updateState(OpState.GREEN_MAIN_RED_CROSS, true);
-						}
-						break;
+				minX -= DETECTION_DISTANCE;
+				maxX += DETECTION_DISTANCE;
+			}
+			
+			//Vehicles entering the zone start the cycle if we are waiting for them.
+			detectionZone = new PresenceZone(minX, minZ, maxX, maxZ){
+				@Override
+				protected void onEntityEntered(AEntityBase entity){
+					if(currentOpMode.equals(OpMode.VEHICLE_TRIGGER) && currentOpState.equals(OpState.GREEN_MAIN_RED_CROSS) && phaseEvent == null){
+						schedulePhaseChange();
 					}
 				}
+				
+				@Override
+				protected void onEntityExited(AEntityBase entity){}
+			};
+			PresenceSensorSystem.addZone(world, detectionZone);
+		}
+		
+		//Our mode or components may have changed, so let the networks know.
+		if(!world.isClient()){
+			SignalNetworkSystem.controllerChanged(this, isRemoved);
+		}
+	}
+	
+	/**
+	 * Call this when the redstone signal to this controller may have changed.  Checks the
+	 * signal, and changes the lights or state as required.  Only call this on servers,
+	 * as clients get their state from the server.
+	 */
+	public void onRedstoneChanged(){
+		redstoneSignal = world.getRedstonePower(position.copy().add(0, -1, 0));
+		boolean stateChanged = false;
+		if(!currentOpMode.equals(OpMode.REMOTE_CONTROL)){
+			//If we aren't in redstone signal mode, check lights.
+			if(!currentOpMode.equals(OpMode.REDSTONE_TRIGGER) && lightsOn ^ redstoneSignal == 0){
+				lightsOn = !lightsOn;
+				updateState(currentOpState, false);
+				stateChanged = true;
+			}
+			
+			//If we are in redstone signal mode, and are waiting on redstone, start the cycle.
+			if(currentOpMode.equals(OpMode.REDSTONE_TRIGGER) && currentOpState.equals(OpState.GREEN_MAIN_RED_CROSS) && redstoneSignal > 0 && phaseEvent == null){
+				schedulePhaseChange();
 			}
 		}else{
 			//We are remotely-controlled.  Adjust state to redstone.
@@ -166,40 +193,163 @@ public class TileEntitySignalController extends TileEntityDecor implements ITile
 			if(lightsOn ^ lightOnSignal){
 				lightsOn = !lightsOn;
 				updateState(currentOpState, false);
+				stateChanged = true;
 			}
 			if(currentOpState.ordinal() != stateOpCode && stateOpCode < OpState.values().length){
 				updateState(OpState.values()[stateOpCode], false);
+				stateChanged = true;
 			}
 		}
+		if(stateChanged){
+			MasterLoader.networkInterface.sendToClientsInWorld(new PacketTileEntitySignalControllerState(this), world);
+		}
 	}
 	
 	/**
 	 * Method to change signal state.  Can be internally called or externally called.
 	 * If cycleUpdate is true, then this is assumed to be a cycle increment, so the
-	 * timeOperationStarted value is set to the current time.
+	 * timeOperationStarted value is set to the current time.  On servers, this also
+	 * schedules the next state change, if there is one.
 	 */
 	public void updateState(OpState state, boolean cycleUpdate){
 		currentOpState = state;
 		if(cycleUpdate){
 			timeOperationStarted = (int) ((world.getTime()/20)%Integer.MAX_VALUE);
 		}
-		Iterator<Point3i> iterator = componentLocations.iterator();
-		while(iterator.hasNext()){
-			TileEntityPole signal = (TileEntityPole) world.getTileEntity(iterator.next());
-			if(signal != null){
-				for(Axis axis : signal.components.keySet()){
-					ATileEntityPole_Component component = signal.components.get(axis);
-					if(component instanceof TileEntityPole_TrafficSignal){
-						((TileEntityPole_TrafficSignal) component).state = (axis.equals(Axis.NORTH) || axis.equals(Axis.SOUTH)) ^ mainDirectionXAxis ? state.mainSignalState : state.crossSignalState;
-					}else if(component instanceof TileEntityPole_StreetLight){
-						if(((TileEntityPole_StreetLight) component).state.equals(LightState.ON) ^ lightsOn){
-							((TileEntityPole_StreetLight) component).state = lightsOn ? LightState.ON : LightState.OFF;
-							signal.updateLightState();
-						}
+		for(Point3i location : componentLocations){
+			ATileEntityBase<?> tile = world.getTileEntity(location);
+			if(tile instanceof TileEntityPole){
+				updateComponents((TileEntityPole) tile, true);
+			}
+		}
+		if(!world.isClient()){
+			schedulePhaseChange();
+		}
+	}
+	
+	/**
+	 * Sets the state of all components on the passed-in pole to the state of this controller.
+	 * Poles call this when they load or get new components, as they may have missed state changes.
+	 * If updateLighting is true, the pole's light level is updated if any street lights changed.
+	 */
+	public void updateComponents(TileEntityPole pole, boolean updateLighting){
+		boolean lightsChanged = false;
+		for(Axis axis : pole.components.keySet()){
+			ATileEntityPole_Component component = pole.components.get(axis);
+			if(component instanceof TileEntityPole_TrafficSignal){
+				((TileEntityPole_TrafficSignal) component).state = (axis.equals(Axis.NORTH) || axis.equals(Axis.SOUTH)) ^ mainDirectionXAxis ? currentOpState.mainSignalState : currentOpState.crossSignalState;
+			}else if(component instanceof TileEntityPole_StreetLight){
+				if(((TileEntityPole_StreetLight) component).state.equals(LightState.ON) ^ lightsOn){
+					((TileEntityPole_StreetLight) component).state = lightsOn ? LightState.ON : LightState.OFF;
+					lightsChanged = true;
+				}
+			}
+		}
+		if(lightsChanged && updateLighting){
+			pole.updateLightState();
+		}
+	}
+	
+	/**
+	 * Schedules the change to the next state in the cycle, replacing any change that was already scheduled.
+	 * The time of the change is based on when the current state started, so this may be called
+	 * as many times as needed without delaying the change.  If the current state doesn't end on
+	 * its own, such as when waiting for vehicles or redstone, nothing is scheduled.  Nothing is
+	 * scheduled for controllers in a network either, as the network changes their states.
+	 * Controllers still joining a network run their own cycle until they get to an all-red state,
+	 * and then wait there for the network to switch them to its schedule.
+	 */
+	private void schedulePhaseChange(){
+		if(phaseEvent != null){
+			phaseEvent.cancel();
+			phaseEvent = null;
+		}
+		if(isRemoved || currentOpMode.equals(OpMode.REMOTE_CONTROL)){
+			return;
+		}
+		if(network != null){
+			if(!network.isJoining(this)){
+				return;
+			}else if(SignalNetwork.isAllRed(currentOpState)){
+				network.onJoiningAllRed(this);
+				return;
+			}
+		}
+		
+		final OpState nextState;
+		int stateTime;
+		switch(currentOpState){
+			case GREEN_MAIN_RED_CROSS : {
+				//Idle state.  Only leave it if we are timed, or if we have a trigger.
+				nextState = OpState.YELLOW_MAIN_RED_CROSS;
+				if(currentOpMode.equals(OpMode.VEHICLE_TRIGGER)){
+					if(detectionZone == null || detectionZone.getEntityCount() == 0){
+						return;
+					}
+					stateTime = VEHICLE_TRIGGER_TIME;
+				}else if(currentOpMode.equals(OpMode.REDSTONE_TRIGGER)){
+					if(redstoneSignal == 0){
+						return;
 					}
+					stateTime = 0;
+				}else{
+					stateTime = greenMainTime;
 				}
+				break;
 			}
+			case YELLOW_MAIN_RED_CROSS : nextState = OpState.RED_MAIN_RED_CROSS; stateTime = yellowMainTime; break;
+			case RED_MAIN_RED_CROSS : nextState = OpState.RED_MAIN_GREEN_CROSS; stateTime = allRedTime; break;
+			case RED_MAIN_GREEN_CROSS : nextState = OpState.RED_MAIN_YELLOW_CROSS; stateTime = greenCrossTime; break;
+			case RED_MAIN_YELLOW_CROSS : nextState = OpState.RED_MAIN2_RED_CROSS2; stateTime = yellowCrossTime; break;
+			case RED_MAIN2_RED_CROSS2 : nextState = OpState.GREEN_MAIN_RED_CROSS; stateTime = allRedTime; break;
+			default : return;
 		}
+		
+		phaseEvent = new ScheduledEvent(){
+			@Override
+			protected void execute(){
+				phaseEvent = null;
+				updateState(nextState, true);
+				MasterLoader.networkInterface.sendToClientsInWorld(new PacketTileEntitySignalControllerState(TileEntitySignalController.this), world);
+			}
+		};
+		ScheduledEventSystem.scheduleEvent(world, phaseEvent, (timeOperationStarted + stateTime)*20L - world.getTime());
+	}
+	
+	/**
+	 * Returns the network this controller is in, or null if it runs on its own.
+	 */
+	public SignalNetwork getNetwork(){
+		return network;
+	}
+	
+	/**
+	 * Sets the network this controller is in.  Only {@link SignalNetworkSystem} should call this.
+	 * Setting this to null makes the controller go back to scheduling its own state changes.
+	 */
+	public void setNetwork(SignalNetwork network){
+		this.network = network;
+		schedulePhaseChange();
+	}
+	
+	@Override
+	public void remove(){
+		super.remove();
+		isRemoved = true;
+		if(phaseEvent != null){
+			phaseEvent.cancel();
+			phaseEvent = null;
+		}
+		componentsChanged();
+	}
+	
+	/**
+	 * Returns the controller that controls the component at the passed-in location, or null if no
+	 * loaded controller controls it.
+	 */
+	public static TileEntitySignalController getControllerFor(IWrapperWorld world, Point3i location){
+		Map<Point3i, TileEntitySignalController> controllers = componentControllers.get(world);
+		return controllers != null ? controllers.get(location) : null;
 	}
     
 	@Override
@@ -209,6 +359,7 @@ public class TileEntitySignalController extends TileEntityDecor implements ITile
 		data.setInteger("currentOpState", currentOpState.ordinal());
 		data.setInteger("timeOperationStarted", timeOperationStarted);
 		data.setBoolean("mainDirectionXAxis", mainDirectionXAxis);
+		data.setBoolean("lightsOff", !lightsOn);
 		data.setBoolean("hasCustomTimes", true);
         data.setInteger("greenMainTime", greenMainTime);
         data.setInteger("greenCrossTime", greenCrossTime);
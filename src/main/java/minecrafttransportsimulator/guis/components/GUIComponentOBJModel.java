@@ -6,7 +6,7 @@ import java.util.Map.Entry;
 
 import org.lwjgl.opengl.GL11;
 
-import minecrafttransportsimulator.rendering.components.OBJParser;
+import minecrafttransportsimulator.rendering.components.ModelGeometryCache;
 
 /**Custom OBJ render class.  This allows for rendering an OBJ model into a GUI.
  * Mainly used to render vehicles, though can be used for any OBJ model.
@@ -90,7 +90,7 @@ public class GUIComponentOBJModel{
 		float maxY = -999;
 		float minZ = 999;
 		float maxZ = -999;
-		Map<String, Float[][]> parsedModel = OBJParser.parseOBJModel(modelLocation);
+		Map<String, Float[][]> parsedModel = ModelGeometryCache.getObjects(modelLocation);
 		int displayListIndex = GL11.glGenLists(1);
 		GL11.glNewList(displayListIndex, GL11.GL_COMPILE);
 		GL11.glBegin(GL11.GL_TRIANGLES);
@@ -68,94 +68,11 @@ public class ItemVehicle extends AItemSubTyped<JSONVehicle> implements IItemEnti
 			
 			//If we are a new vehicle, set default properties, if required.
 			if(!wasSaved){
-				//Set initial electrical power.
-				newVehicle.electricPower = 12;
-				
-				//Add default parts via the vehicle's recursion.
-				EntityVehicleF_Physics.addDefaultParts(newVehicle.definition.parts, newVehicle, null, false);
-
-				//Set default vehicle text.
-				if(newVehicle.definition.rendering.textObjects != null){
-					for(byte i=0; i<newVehicle.definition.rendering.textObjects.size(); ++i){
-						newVehicle.textLines.set(i, newVehicle.definition.rendering.textObjects.get(i).defaultText);
-					}
-				}
-				
-				//Add default instruments.
-				for(PackInstrument packInstrument : newVehicle.definition.motorized.instruments){
-					if(packInstrument.defaultInstrument != null){
-						try{
-							String instrumentPackID = packInstrument.defaultInstrument.substring(0, packInstrument.defaultInstrument.indexOf(':'));
-							String instrumentSystemName = packInstrument.defaultInstrument.substring(packInstrument.defaultInstrument.indexOf(':') + 1);
-							try{
-								ItemInstrument instrument = PackParserSystem.getItem(instrumentPackID, instrumentSystemName);
-								if(instrument != null){
-									newVehicle.instruments.put(newVehicle.definition.motorized.instruments.indexOf(packInstrument), instrument);
-									continue;
-								}
-							}catch(NullPointerException e){}
-							throw new IllegalArgumentException("ERROR: Attempted to add defaultInstrument: " + instrumentPackID + ":" + instrumentSystemName + " to: " + newVehicle.definition.packID + ":" + newVehicle.definition.systemName + " but that instrument doesn't exist in the pack item registry.");
-						}catch(IndexOutOfBoundsException e){
-							throw new IllegalArgumentException("ERROR: Could not parse defaultInstrument definition: " + packInstrument.defaultInstrument + ".  Format should be \"packId:instrumentName\"");
-						}
-					}
-				}
-				
-				//If we have a default fuel, add it now as we SHOULD have an engine to tell
-				//us what fuel type we will need to add.
-				if(newVehicle.definition.motorized.defaultFuelQty > 0){
-					for(APart part : newVehicle.parts){
-						if(part instanceof PartEngine){
-							//Get the most potent fuel for the vehicle from the fuel configs.
-							String mostPotentFluid = "";
-							for(String fluidName : ConfigSystem.configObject.fuel.fuels.get(part.definition.engine.fuelType).keySet()){
-								if(mostPotentFluid.isEmpty() || ConfigSystem.configObject.fuel.fuels.get(part.definition.engine.fuelType).get(mostPotentFluid) < ConfigSystem.configObject.fuel.fuels.get(part.definition.engine.fuelType).get(fluidName)){
-									mostPotentFluid = fluidName;
-								}
-							}
-							newVehicle.fuelTank.manuallySet(mostPotentFluid, newVehicle.definition.motorized.defaultFuelQty);
-							break;
-						}
-					}
-					if(newVehicle.fuelTank.getFluid().isEmpty()){
-						throw new IllegalArgumentException("ERROR: A defaultFuelQty was specified for: " + newVehicle.definition.packID + ":" + newVehicle.definition.systemName + ", but no engine was noted as a defaultPart, so we don't know what fuel to put in the vehicle.");
-					}
-				}
-				
-				//Open all doors.  This lets players know we can close them and put things in slots.
-				if(definition.doors != null){
-					for(VehicleDoor door : definition.doors){
-						if(!door.closedByDefault){
-							newVehicle.doorsOpen.add(door.name);
-						}
-					}
-				}
-				for(APart part : newVehicle.parts){
-					if(part.definition.doors != null){
-						for(VehicleDoor door : part.definition.doors){
-							if(!door.closedByDefault){
-								newVehicle.doorsOpen.add(door.name);
-							}
-						}
-					}
-				}
+				setDefaultProperties(newVehicle);
 			}
 			
 			//Get how far above the ground the vehicle needs to be, and move it to that position.
-			//First boost Y based on collision boxes.
-			double furthestDownPoint = 0;
-			for(VehicleCollisionBox collisionBox : newVehicle.definition.collision){
-				furthestDownPoint = Math.min(collisionBox.pos.y - collisionBox.height/2F, furthestDownPoint);
-			}
-			
-			//Next, boost based on parts.
-			for(APart part : newVehicle.parts){
-				furthestDownPoint = Math.min(part.placementOffset.y - part.getHeight()/2F, furthestDownPoint);
-			}
-			
-			//Add on -0.1 blocks for the default collision clamping.
-			//This prevents the clamping of the collision boxes from hitting the ground if they were clamped.
-			furthestDownPoint += -0.1;
+			double furthestDownPoint = getGroundOffset(newVehicle);
 			
 			//Apply the boost, and check collisions.
 			//If the core collisions are colliding, set the vehicle as dead and abort.
@@ -180,6 +97,106 @@ public class ItemVehicle extends AItemSubTyped<JSONVehicle> implements IItemEnti
 		}
 		return true;
 	}
+	
+	/**
+	 *  Sets the default properties for a brand-new vehicle.  This includes default parts, text,
+	 *  instruments, fuel, and doors.  Vehicles loaded from saved data should not have this called,
+	 *  as they already have their properties.
+	 */
+	public void setDefaultProperties(EntityVehicleF_Physics newVehicle){
+		//Set initial electrical power.
+		newVehicle.electricPower = 12;
+		
+		//Add default parts via the vehicle's recursion.
+		EntityVehicleF_Physics.addDefaultParts(newVehicle.definition.parts, newVehicle, null, false);
+
+		//Set default vehicle text.
+		if(newVehicle.definition.rendering.textObjects != null){
+			for(byte i=0; i<newVehicle.definition.rendering.textObjects.size(); ++i){
+				newVehicle.textLines.set(i, newVehicle.definition.rendering.textObjects.get(i).defaultText);
+			}
+		}
+		
+		//Add default instruments.
+		for(PackInstrument packInstrument : newVehicle.definition.motorized.instruments){
+			if(packInstrument.defaultInstrument != null){
+				try{
+					String instrumentPackID = packInstrument.defaultInstrument.substring(0, packInstrument.defaultInstrument.indexOf(':'));
+					String instrumentSystemName = packInstrument.defaultInstrument.substring(packInstrument.defaultInstrument.indexOf(':') + 1);
+					try{
+						ItemInstrument instrument = PackParserSystem.getItem(instrumentPackID, instrumentSystemName);
+						if(instrument != null){
+							newVehicle.instruments.put(newVehicle.definition.motorized.instruments.indexOf(packInstrument), instrument);
+							continue;
+						}
+					}catch(NullPointerException e){}
+					throw new IllegalArgumentException("ERROR: Attempted to add defaultInstrument: " + instrumentPackID + ":" + instrumentSystemName + " to: " + newVehicle.definition.packID + ":" + newVehicle.definition.systemName + " but that instrument doesn't exist in the pack item registry.");
+				}catch(IndexOutOfBoundsException e){
+					throw new IllegalArgumentException("ERROR: Could not parse defaultInstrument definition: " + packInstrument.defaultInstrument + ".  Format should be \"packId:instrumentName\"");
+				}
+			}
+		}
+		
+		//If we have a default fuel, add it now as we SHOULD have an engine to tell
+		//us what fuel type we will need to add.
+		if(newVehicle.definition.motorized.defaultFuelQty > 0){
+			for(APart part : newVehicle.parts){
+				if(part instanceof PartEngine){
+					//Get the most potent fuel for the vehicle from the fuel configs.
+					String mostPotentFluid = "";
+					for(String fluidName : ConfigSystem.configObject.fuel.fuels.get(part.definition.engine.fuelType).keySet()){
+						if(mostPotentFluid.isEmpty() || ConfigSystem.configObject.fuel.fuels.get(part.definition.engine.fuelType).get(mostPotentFluid) < ConfigSystem.configObject.fuel.fuels.get(part.definition.engine.fuelType).get(fluidName)){
+							mostPotentFluid = fluidName;
+						}
+					}
+					newVehicle.fuelTank.manuallySet(mostPotentFluid, newVehicle.definition.motorized.defaultFuelQty);
+					break;
+				}
+			}
+			if(newVehicle.fuelTank.getFluid().isEmpty()){
+				throw new IllegalArgumentException("ERROR: A defaultFuelQty was specified for: " + newVehicle.definition.packID + ":" + newVehicle.definition.systemName + ", but no engine was noted as a defaultPart, so we don't know what fuel to put in the vehicle.");
+			}
+		}
+		
+		//Open all doors.  This lets players know we can close them and put things in slots.
+		if(definition.doors != null){
+			for(VehicleDoor door : definition.doors){
+				if(!door.closedByDefault){
+					newVehicle.doorsOpen.add(door.name);
+				}
+			}
+		}
+		for(APart part : newVehicle.parts){
+			if(part.definition.doors != null){
+				for(VehicleDoor door : part.definition.doors){
+					if(!door.closedByDefault){
+						newVehicle.doorsOpen.add(door.name);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 *  Returns how far the lowest collision box or part of the passed-in vehicle is below
+	 *  the vehicle's origin.  This is the offset to apply to a vehicle to get it to sit on the ground.
+	 */
+	public static double getGroundOffset(EntityVehicleF_Physics newVehicle){
+		//First boost Y based on collision boxes.
+		double furthestDownPoint = 0;
+		for(VehicleCollisionBox collisionBox : newVehicle.definition.collision){
+			furthestDownPoint = Math.min(collisionBox.pos.y - collisionBox.height/2F, furthestDownPoint);
+		}
+		
+		//Next, boost based on parts.
+		for(APart part : newVehicle.parts){
+			furthestDownPoint = Math.min(part.placementOffset.y - part.getHeight()/2F, furthestDownPoint);
+		}
+		
+		//Add on -0.1 blocks for the default collision clamping.
+		//This prevents the clamping of the collision boxes from hitting the ground if they were clamped.
+		return furthestDownPoint - 0.1;
+	}
 
 	@Override
 	public EntityVehicleF_Physics createEntity(IWrapperWorld world, IWrapperEntity wrapper, IWrapperNBT data){
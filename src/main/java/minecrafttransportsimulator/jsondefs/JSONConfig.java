@@ -23,6 +23,7 @@ public class JSONConfig{
 	public ConfigFuel fuel = new ConfigFuel();
 	public ConfigClientRendering clientRendering = new ConfigClientRendering();
 	public ConfigClientControls clientControls = new ConfigClientControls();
+	public ConfigClientAudio clientAudio = new ConfigClientAudio();
 	public ConfigControls controls = new ConfigControls();
 	
 	public static class ConfigGeneral{
@@ -35,6 +36,13 @@ public class JSONConfig{
 		public ConfigBoolean creativeDamage = new ConfigBoolean(false, "If true, damage from vehicles and guns will be applied to creative players.");
 		public ConfigDouble speedFactor = new ConfigDouble(0.35D, "Factor to apply to vehicle movement.  1 is the realistic value, but this makes vehicles move too fast for Minecraft. Adjust with caution.");
 		public ConfigDouble hitboxClamp = new ConfigDouble(0.1D, "This value defines the minimum delta for hitboxes.  This prevents hitboxes from moving if too little movement of the vehicle has been performed.  Clamping helps to reduce Floating-Point errors and The Shakes when on vehicles.  Lower values offer more accurate hitbox detection, at an increased cost of getting stuck in vehicles.");
+		public ConfigInteger simulationFullDistance = new ConfigInteger(64, "Vehicles closer than this many blocks to a player get full physics every tick.");
+		public ConfigInteger simulationReducedDistance = new ConfigInteger(160, "Vehicles closer than this many blocks to a player, but further than the full distance, only do full physics every few ticks, and skip some ground calculations.  Vehicles further than this only move along their current path, with an occasional physics update.  Set both distances very high to always use full physics.");
+		public ConfigInteger simulationReducedInterval = new ConfigInteger(4, "How often (in ticks) vehicles in the reduced simulation distance do full physics.");
+		public ConfigInteger physicsThreads = new ConfigInteger(1, "How many threads servers use for vehicle physics calculations.  1 does everything on the main server thread.  Higher values split the calculations across that many threads, which helps servers with lots of vehicles and CPU cores.  Vehicles move exactly the same no matter how many threads are used.");
+		public ConfigInteger fluidTankSyncInterval = new ConfigInteger(20, "How often (in ticks) fluid tanks send their levels to clients while they are being filled or drained.  Lower values make gauges more accurate, at the cost of more network traffic.  Tanks always send changes right away when they become empty, full, or change fluid.");
+		public ConfigBoolean profiler = new ConfigBoolean(true, "If true, the time spent on each part of vehicle updates, tile entity updates, packets, sounds, and rendering is recorded.  Use the /mtsprofiler command to see which vehicles and pack items are slowing down the world, or to export the times to a file.");
+		public ConfigInteger profilerSampleInterval = new ConfigInteger(64, "The profiler times one in this many updates of each vehicle, part, tile entity, and packet type, and estimates totals from them.  This keeps the profiler's cost under 1% of the update time.  Lower values give more samples at a higher cost.  1 times every update.");
 		public ConfigDouble fuelUsageFactor = new ConfigDouble(1.0D, "Factor times which engines use fuel.  Change this if you think engines use fuel too fast or slow.");
 		public ConfigDouble engineHoursFactor = new ConfigDouble(1.0D, "Factor times which engines hours accumulate.  Change this if you want to adjust how fast engines wear out.");
 		public ConfigDouble climbSpeed = new ConfigDouble(0.125D, "How far a vehicle will 'climb' blocks every tick when the wheels go into the ground.  Higher values make vehicles climb blocks quicker at the cost of smooth movement.");
@@ -162,7 +170,7 @@ public class JSONConfig{
 		public ConfigBoolean instBlending = new ConfigBoolean(true, "If false, instruments will not get a lighted overlay on them that blends to make them light up in the dark.  They will still have bright textures.  Useful if you have shaders and this is turning lit instruments black on vehicles.");
 		public ConfigBoolean lightsPass0 = new ConfigBoolean(false, "If true, light rendering (and possibly blending) will happen on the first (solid) render pass.  For performance and compatibility, this should normally be false, but may be set to true to get proper light blending with shaders.");
 		
-		public ConfigBoolean vehicleBlklt = new ConfigBoolean(false, "If true, vehicles will spawn invisible light blocks to force shaders to render them brighter.  Use this only if the other light options fail to work.");
+		public ConfigBoolean vehicleBlklt = new ConfigBoolean(false, "If true, lit-up vehicles will spawn invisible light blocks.  These light up the ground and vanilla entities around vehicles, and force shaders to render vehicles brighter.  Vehicles make the world re-calculate its lighting every time they move a block with this on, so use this only if you want the ground lit or the other light options fail to work with your shaders.");
 		
 		
 		
@@ -188,6 +196,10 @@ public class JSONConfig{
 		public ConfigDouble joystickDeadZone = new ConfigDouble(0.03D, "Dead zone for joystick axis.  This is NOT joystick specific.");
 	}
 	
+	public static class ConfigClientAudio{
+		public ConfigInteger soundCacheSize = new ConfigInteger(64, "How much memory (in MB) loaded vehicle sounds may use.  Once this is exceeded, the least-recently played sounds will be unloaded.  Sounds that are playing are never unloaded, so this may be exceeded on vehicles with lots of sounds.");
+	}
+	
 	public static class ConfigControls{
 		public Map<String, ConfigKeyboard> keyboard = new HashMap<String, ConfigKeyboard>();
 		public Map<String, ConfigJoystick>  joystick = new HashMap<String, ConfigJoystick>();
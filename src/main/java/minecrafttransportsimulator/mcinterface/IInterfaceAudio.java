@@ -2,10 +2,8 @@ package minecrafttransportsimulator.mcinterface;
 
 import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.Set;
 
 import minecrafttransportsimulator.sound.IStreamDecoder;
-import minecrafttransportsimulator.sound.Radio;
 import minecrafttransportsimulator.sound.RadioStation;
 import minecrafttransportsimulator.sound.SoundInstance;
 
@@ -28,6 +26,13 @@ public interface IInterfaceAudio{
 	 *  Useful for quick sounds like gunshots or button presses.
 	 */
 	public void playQuickSound(SoundInstance sound);
+	
+	/**
+	 *  Starts loading the passed-in sound in the background.  Use this for sounds that
+	 *  will likely be played soon, such as sounds for parts on a vehicle that was just loaded.
+	 *  This keeps the first play of the sound from being delayed while it is decoded.
+	 */
+	public void prefetchSound(String soundName);
     
     /**
 	 *  Adds a station to be queued for updates.  This should only be done once upon station construction.
@@ -60,10 +65,9 @@ public interface IInterfaceAudio{
 	public void bindBuffer(SoundInstance sound, int bufferIndex);
 	
 	/**
-	 *  Checks if the passed-in radios all have a free buffer.  If so,
-	 *  then the free buffer index is returned, and the buffer is-unbound
-	 *  from all the sounds for all the radios.  If the radios are invalid
-	 *  or not synced, then they are turned off for safety.
+	 *  Un-binds all buffers the passed-in sound has finished playing, and returns how many there were.
+	 *  Buffers are un-bound in the order they were bound, so the caller can track which buffers
+	 *  the sound has played by offset.  If the sound's source is invalid, -1 is returned.
 	 */
-	public int getFreeStationBuffer(Set<Radio> playingRadios);
+	public int unqueueProcessedBuffers(SoundInstance sound);
 }
\ No newline at end of file
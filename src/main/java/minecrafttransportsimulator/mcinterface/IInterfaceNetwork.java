@@ -33,8 +33,19 @@ public interface IInterfaceNetwork{
 	 */
 	public void sendToAllClients(APacketBase packet);
 	
+	/**
+	 *  Sends the passed-in packet to all clients in the passed-in world.
+	 */
+	public void sendToClientsInWorld(APacketBase packet, IWrapperWorld world);
+	
 	/**
 	 *  Creates an NBT tag from a data buffer.
 	 */
 	public IWrapperNBT createDataFromBuffer(ByteBuf buf);
+	
+	/**
+	 *  Creates an NBT tag from a data buffer written with {@link IWrapperNBT#writeCompactToBuffer(ByteBuf)}.
+	 *  This should be used for entity and part data, as it is far smaller than normal NBT data.
+	 */
+	public IWrapperNBT createDataFromCompactBuffer(ByteBuf buf);
 }
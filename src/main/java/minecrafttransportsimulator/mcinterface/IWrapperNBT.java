@@ -63,4 +63,6 @@ public interface IWrapperNBT{
 
 	//Packet handling.
 	public void writeToBuffer(ByteBuf buf);
+	
+	public void writeCompactToBuffer(ByteBuf buf);
 }
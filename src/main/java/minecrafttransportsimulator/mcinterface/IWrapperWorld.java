@@ -68,6 +68,18 @@ public interface IWrapperWorld{
 	 */
 	public void setData(IWrapperNBT data);
 	
+	/**
+	 *  Returns the server-only saved data with the passed-in name for this world, or null on clients.
+	 *  Unlike {@link #getData()}, this data is saved on its own and is never sent to clients,
+	 *  so use it for data only servers need.  The returned data is empty if nothing has been saved yet.
+	 */
+	public IWrapperNBT getServerData(String name);
+	
+	/**
+	 *  Saves the passed-in data as the server-only saved data with the passed-in name.  Does nothing on clients.
+	 */
+	public void setServerData(String name, IWrapperNBT data);
+	
 	/**
 	 *  Returns the entity that has the passed-in ID.
 	 *  If the entity is a player, an instance of {@link IWrapperPlayer}
@@ -85,6 +97,12 @@ public interface IWrapperWorld{
 	 */
 	public IWrapperEntity getNearestHostile(IWrapperEntity entityLooking, int searchRadius);
 	
+	/**
+	 *  Returns the distance from the passed-in point to the closest player in this world.
+	 *  If there are no players, Double.MAX_VALUE is returned.
+	 */
+	public double getNearestPlayerDistance(Point3d point);
+	
 	/**
 	 *  Returns the closest entity whose collision boxes are intercepted by the
 	 *  passed-in entity's line of sight.
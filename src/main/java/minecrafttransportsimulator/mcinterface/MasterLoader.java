@@ -23,6 +23,7 @@ import minecrafttransportsimulator.packets.instances.PacketFluidTankChange;
 import minecrafttransportsimulator.packets.instances.PacketPlayerChatMessage;
 import minecrafttransportsimulator.packets.instances.PacketPlayerCraftItem;
 import minecrafttransportsimulator.packets.instances.PacketRadioStateChange;
+import minecrafttransportsimulator.packets.instances.PacketSignalNetworkState;
 import minecrafttransportsimulator.packets.instances.PacketTileEntityDecorColorChange;
 import minecrafttransportsimulator.packets.instances.PacketTileEntityDecorTextChange;
 import minecrafttransportsimulator.packets.instances.PacketTileEntityFluidLoaderConnection;
@@ -30,10 +31,12 @@ import minecrafttransportsimulator.packets.instances.PacketTileEntityFuelPumpCon
 import minecrafttransportsimulator.packets.instances.PacketTileEntityPoleChange;
 import minecrafttransportsimulator.packets.instances.PacketTileEntityRoadChange;
 import minecrafttransportsimulator.packets.instances.PacketTileEntitySignalControllerChange;
+import minecrafttransportsimulator.packets.instances.PacketTileEntitySignalControllerState;
 import minecrafttransportsimulator.packets.instances.PacketVehicleBeaconChange;
 import minecrafttransportsimulator.packets.instances.PacketVehicleColorChange;
 import minecrafttransportsimulator.packets.instances.PacketVehicleControlAnalog;
 import minecrafttransportsimulator.packets.instances.PacketVehicleControlDigital;
+import minecrafttransportsimulator.packets.instances.PacketVehicleControlSync;
 import minecrafttransportsimulator.packets.instances.PacketVehicleCustomToggle;
 import minecrafttransportsimulator.packets.instances.PacketVehicleInstruments;
 import minecrafttransportsimulator.packets.instances.PacketVehicleInteract;
@@ -169,6 +172,7 @@ public class MasterLoader{
 		networkInterface.registerPacket(packetIndex++, PacketPlayerChatMessage.class);
 		networkInterface.registerPacket(packetIndex++, PacketPlayerCraftItem.class);
 		networkInterface.registerPacket(packetIndex++, PacketRadioStateChange.class);
+		networkInterface.registerPacket(packetIndex++, PacketSignalNetworkState.class);
 		networkInterface.registerPacket(packetIndex++, PacketTileEntityDecorColorChange.class);
 		networkInterface.registerPacket(packetIndex++, PacketTileEntityDecorTextChange.class);
 		networkInterface.registerPacket(packetIndex++, PacketTileEntityFluidLoaderConnection.class);
@@ -176,10 +180,12 @@ public class MasterLoader{
 		networkInterface.registerPacket(packetIndex++, PacketTileEntityPoleChange.class);
 		networkInterface.registerPacket(packetIndex++, PacketTileEntityRoadChange.class);
 		networkInterface.registerPacket(packetIndex++, PacketTileEntitySignalControllerChange.class);
+		networkInterface.registerPacket(packetIndex++, PacketTileEntitySignalControllerState.class);
 		networkInterface.registerPacket(packetIndex++, PacketVehicleBeaconChange.class);
 		networkInterface.registerPacket(packetIndex++, PacketVehicleColorChange.class);
 		networkInterface.registerPacket(packetIndex++, PacketVehicleControlAnalog.class);
 		networkInterface.registerPacket(packetIndex++, PacketVehicleControlDigital.class);
+		networkInterface.registerPacket(packetIndex++, PacketVehicleControlSync.class);
 		networkInterface.registerPacket(packetIndex++, PacketVehicleCustomToggle.class);
 		networkInterface.registerPacket(packetIndex++, PacketVehicleInstruments.class);
 		networkInterface.registerPacket(packetIndex++, PacketVehicleInteract.class);
@@ -35,7 +35,11 @@ public abstract class APacketEntity extends APacketBase{
 		boolean sendReturnPacket = false;
 		for(AEntityBase entity : (world.isClient() ? AEntityBase.createdClientEntities : AEntityBase.createdServerEntities)){
 			if(entity.lookupID == entityID){
+				//Packets may change the entity's state, so wake it up to handle that.
+				entity.wakeUp();
 				if(handle(world, player, entity) && !world.isClient()){
+					//Packets that are handled on the server change state, so the entity will need to be re-saved.
+					entity.markDirty();
 					sendReturnPacket = true;
 				}
 			}
@@ -0,0 +1,162 @@
+package minecrafttransportsimulator.packets.components;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**Schema for sending entity and part data over the network in a compact format.  Saved data uses
+ * string keys, which is fine on disk, but wasteful when sending every vehicle to every client.
+ * This class lists all keys we know of, so they can be sent as a small index rather than a string.
+ * Keys that have a number in them, such as "part_3" or "savedRiderLocation0x", are stored as a
+ * template with a # in place of the number.  These are sent as the template index and the number.
+ * Keys that aren't in the schema are still sent, just as strings.
+ * <br><br>
+ * The key list is versioned.  Only ever add keys to the END of the list, and bump the version
+ * when you do, as both sides of the network need to have the same list to decode the data.
+ *
+ * @author don_bruce
+ */
+public final class CompactDataSchema{
+	/**Current version of the schema.  Sent with all compact data.**/
+	public static final int VERSION = 1;
+	/**Character used in templates in place of a number.**/
+	public static final char NUMBER_PLACEHOLDER = '#';
+
+	private static final List<String> keys = new ArrayList<String>();
+	private static final Map<String, Integer> keyIndexes = new HashMap<String, Integer>();
+
+	static{
+		//AEntityBase.
+		addKey("lookupID");
+		addKey("uniqueUUID");
+		addPointKeys("position");
+		addPointKeys("motion");
+		addPointKeys("angles");
+		addPointKeys("rotation");
+		addPointKeys("savedRiderLocation#");
+		addKey("totalSavedRiderLocations");
+		addKey("entityid");
+
+		//Vehicles.
+		addKey("packID");
+		addKey("systemName");
+		addKey("subName");
+		addKey("part_#");
+		addKey("totalParts");
+		addKey("locked");
+		addKey("parkingBrakeOn");
+		addKey("brake");
+		addKey("towedVehicleID");
+		addKey("activeHitchConnectionSavedIndex");
+		addKey("towedByVehicleID");
+		addKey("activeHookupConnectionSavedIndex");
+		addKey("ownerUUID");
+		addPointKeys("serverDeltaM");
+		addPointKeys("serverDeltaR");
+		addKey("hornOn");
+		addKey("sirenOn");
+		addKey("reverseThrust");
+		addKey("gearUpCommand");
+		addKey("throttle");
+		addKey("electricPower");
+		addKey("selectedBeaconName");
+		addKey("lightsOn");
+		addKey("customsOn");
+		addKey("textLine#");
+		addKey("instrument#_packID");
+		addKey("instrument#_systemName");
+		addKey("aileronAngle");
+		addKey("elevatorAngle");
+		addKey("rudderAngle");
+		addKey("flapDesiredAngle");
+		addKey("flapCurrentAngle");
+		addKey("aileronTrim");
+		addKey("elevatorTrim");
+		addKey("rudderTrim");
+		addKey("autopilot");
+		addKey("cruiseControl");
+		addKey("altitudeSetting");
+		addKey("cruiseControlSpeed");
+
+		//Tanks and radios.
+		addKey("tankID");
+		addKey("currentFluid");
+		addKey("fluidLevel");
+		addKey("fluidDispensed");
+		addKey("radioID");
+		addKey("currentSource");
+		addKey("savedRadio");
+		addKey("preset");
+		addKey("volume");
+
+		//Parts.
+		addPointKeys("offset");
+		addKey("isCreative");
+		addKey("oilLeak");
+		addKey("fuelLeak");
+		addKey("brokenStarter");
+		addKey("currentGear");
+		addKey("hours");
+		addKey("rpm");
+		addKey("temp");
+		addKey("pressure");
+		addKey("state");
+		addKey("damage");
+		addKey("isFlat");
+		addKey("activeGunPackID");
+		addKey("activeGunSystemName");
+		addKey("shotsFired");
+		addKey("bulletsLeft");
+		addPointKeys("currentOrientation");
+		addKey("loadedBulletPack");
+		addKey("loadedBulletName");
+
+		//Base entity and inventory keys.  These aren't ours, but they come along with our data.
+		addKey("Pos");
+		addKey("Motion");
+		addKey("Rotation");
+		addKey("FallDistance");
+		addKey("Fire");
+		addKey("Air");
+		addKey("OnGround");
+		addKey("Dimension");
+		addKey("Invulnerable");
+		addKey("PortalCooldown");
+		addKey("UUIDMost");
+		addKey("UUIDLeast");
+		addKey("Items");
+		addKey("Slot");
+		addKey("id");
+		addKey("Count");
+		addKey("Damage");
+		addKey("tag");
+	}
+
+	private static void addKey(String key){
+		keyIndexes.put(key, keys.size());
+		keys.add(key);
+	}
+
+	private static void addPointKeys(String key){
+		addKey(key + "x");
+		addKey(key + "y");
+		addKey(key + "z");
+	}
+
+	/**
+	 *  Returns the index of the passed-in key or template, or -1 if it isn't in the schema.
+	 */
+	public static int getKeyIndex(String key){
+		Integer index = keyIndexes.get(key);
+		return index != null ? index : -1;
+	}
+
+	/**
+	 *  Returns the key or template at the passed-in index, or null if there isn't one.
+	 *  Null here means the other side of the network has a newer schema than we do.
+	 */
+	public static String getKey(int index){
+		return index >= 0 && index < keys.size() ? keys.get(index) : null;
+	}
+}
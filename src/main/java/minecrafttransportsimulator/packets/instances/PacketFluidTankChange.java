@@ -7,27 +7,32 @@ import minecrafttransportsimulator.mcinterface.IWrapperWorld;
 import minecrafttransportsimulator.packets.components.APacketBase;
 
 /**Packet sent to fluid tanks on clients to update the fluid they have in their tank.
- * Uses the tank's ID for syncing operations.
+ * Uses the tank's ID for syncing operations.  This contains the full state of the tank
+ * rather than the change, as tanks batch up their changes between syncs.  This also means
+ * clients that missed a sync will be correct again on the next one.
  * 
  * @author don_bruce
  */
 public class PacketFluidTankChange extends APacketBase{
 	private final int tankID;
 	private final String fluidName;
-	private final double fluidDelta;
+	private final double fluidLevel;
+	private final double fluidDispensed;
 	
-	public PacketFluidTankChange(FluidTank tank, double fluidDelta){
+	public PacketFluidTankChange(FluidTank tank){
 		super(null);
 		this.tankID = tank.tankID;
 		this.fluidName = tank.getFluid();
-		this.fluidDelta = fluidDelta;
+		this.fluidLevel = tank.getFluidLevel();
+		this.fluidDispensed = tank.getAmountDispensed();
 	}
 	
 	public PacketFluidTankChange(ByteBuf buf){
 		super(buf);
 		this.tankID = buf.readInt();
 		this.fluidName = readStringFromBuffer(buf);
-		this.fluidDelta = buf.readDouble();
+		this.fluidLevel = buf.readDouble();
+		this.fluidDispensed = buf.readDouble();
 	}
 	
 	@Override
@@ -35,7 +40,8 @@ public class PacketFluidTankChange extends APacketBase{
 		super.writeToBuffer(buf);
 		buf.writeInt(tankID);
 		writeStringToBuffer(fluidName, buf);
-		buf.writeDouble(fluidDelta);
+		buf.writeDouble(fluidLevel);
+		buf.writeDouble(fluidDispensed);
 	}
 	
 	@Override
@@ -43,11 +49,7 @@ public class PacketFluidTankChange extends APacketBase{
 		FluidTank tank = FluidTank.createdClientTanks.get(tankID);
 		//Tank may be null if the client hasn't loaded this tank yet. 
 		if(tank != null){
-			if(fluidDelta < 0){
-				tank.drain(fluidName, -fluidDelta, true);
-			}else{
-				tank.fill(fluidName, fluidDelta, true);
-			}
+			tank.setFromServer(fluidName, fluidLevel, fluidDispensed);
 		}
 	}
 }
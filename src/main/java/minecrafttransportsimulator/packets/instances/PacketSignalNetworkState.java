@@ -0,0 +1,102 @@
+package minecrafttransportsimulator.packets.instances;
+
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import minecrafttransportsimulator.baseclasses.Point3i;
+import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityBase;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntitySignalController;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntitySignalController.OpState;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.packets.components.APacketBase;
+import minecrafttransportsimulator.systems.SignalNetworkSystem;
+
+/**This packet is sent from the server to all clients when controllers in a signal network
+ * change state.  All controllers in the network that changed in a tick are sent in one packet,
+ * rather than one packet per controller.  Positions after the first are sent relative to the
+ * one before them, as controllers in a network are normally close together.  If they aren't,
+ * all positions are sent in full.
+ * See {@link SignalNetworkSystem} for how networks work.
+ *
+ * @author don_bruce
+ */
+public class PacketSignalNetworkState extends APacketBase{
+	private final Point3i[] positions;
+	private final OpState[] states;
+	private final int timeOperationStarted;
+
+	public PacketSignalNetworkState(List<TileEntitySignalController> controllers){
+		super(null);
+		this.positions = new Point3i[controllers.size()];
+		this.states = new OpState[controllers.size()];
+		for(int i=0; i<controllers.size(); ++i){
+			positions[i] = controllers.get(i).position;
+			states[i] = controllers.get(i).currentOpState;
+		}
+		//All controllers in a packet changed at the same time, so they share the time their state started.
+		this.timeOperationStarted = controllers.get(0).timeOperationStarted;
+	}
+
+	public PacketSignalNetworkState(ByteBuf buf){
+		super(buf);
+		int count = buf.readShort();
+		this.positions = new Point3i[count];
+		this.states = new OpState[count];
+		boolean relativePositions = buf.readBoolean();
+		this.timeOperationStarted = buf.readInt();
+		Point3i position = null;
+		for(int i=0; i<count; ++i){
+			if(i > 0 && relativePositions){
+				position = position.copy().add(buf.readShort(), buf.readShort(), buf.readShort());
+			}else{
+				position = new Point3i(buf.readInt(), buf.readInt(), buf.readInt());
+			}
+			positions[i] = position;
+			states[i] = OpState.values()[buf.readByte()];
+		}
+	}
+
+	@Override
+	public void writeToBuffer(ByteBuf buf){
+		super.writeToBuffer(buf);
+		boolean relativePositions = true;
+		for(int i=1; i<positions.length; ++i){
+			if(!isShort(positions[i].x - positions[i - 1].x) || !isShort(positions[i].y - positions[i - 1].y) || !isShort(positions[i].z - positions[i - 1].z)){
+				relativePositions = false;
+				break;
+			}
+		}
+		buf.writeShort(positions.length);
+		buf.writeBoolean(relativePositions);
+		buf.writeInt(timeOperationStarted);
+		for(int i=0; i<positions.length; ++i){
+			if(i > 0 && relativePositions){
+				buf.writeShort(positions[i].x - positions[i - 1].x);
+				buf.writeShort(positions[i].y - positions[i - 1].y);
+				buf.writeShort(positions[i].z - positions[i - 1].z);
+			}else{
+				buf.writeInt(positions[i].x);
+				buf.writeInt(positions[i].y);
+				buf.writeInt(positions[i].z);
+			}
+			buf.writeByte(states[i].ordinal());
+		}
+	}
+
+	private static boolean isShort(int value){
+		return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+	}
+
+	@Override
+	public void handle(IWrapperWorld world, IWrapperPlayer player){
+		for(int i=0; i<positions.length; ++i){
+			ATileEntityBase<?> tile = world.getTileEntity(positions[i]);
+			if(tile instanceof TileEntitySignalController){
+				TileEntitySignalController controller = (TileEntitySignalController) tile;
+				controller.timeOperationStarted = timeOperationStarted;
+				controller.updateState(states[i], false);
+			}
+		}
+	}
+}
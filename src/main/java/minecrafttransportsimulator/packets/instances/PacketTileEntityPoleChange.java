@@ -7,6 +7,7 @@ import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.blocks.components.ABlockBase.Axis;
 import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityPole_Component;
 import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityPole;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntitySignalController;
 import minecrafttransportsimulator.guis.instances.GUITextEditor;
 import minecrafttransportsimulator.items.instances.ItemPoleComponent;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
@@ -128,6 +129,11 @@ public class PacketTileEntityPoleChange extends APacketTileEntity<TileEntityPole
 				if(textLines != null && newComponent.getTextLines() != null){
 					newComponent.setTextLines(textLines);
 				}
+				//If a signal controller controls this pole, get the new component's state from it.
+				TileEntitySignalController controller = TileEntitySignalController.getControllerFor(world, pole.position);
+				if(controller != null){
+					controller.updateComponents(pole, false);
+				}
 				pole.updateLightState();
 				if(!player.isCreative()){
 					player.getInventory().removeStack(player.getHeldStack(), 1);
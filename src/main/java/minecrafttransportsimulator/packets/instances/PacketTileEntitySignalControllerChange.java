@@ -81,6 +81,7 @@ public class PacketTileEntitySignalControllerChange extends APacketTileEntity<Ti
 		controller.allRedTime = allRedTime;
 		controller.componentLocations.clear();
 		controller.componentLocations.addAll(componentLocations);
+		controller.componentsChanged();
 		
 		//Reset controller opstate.
 		controller.updateState(OpState.GREEN_MAIN_RED_CROSS, true);
@@ -0,0 +1,50 @@
+package minecrafttransportsimulator.packets.instances;
+
+import io.netty.buffer.ByteBuf;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntitySignalController;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntitySignalController.OpState;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.packets.components.APacketTileEntity;
+
+/**Packet sent to signal controllers on clients to update their state.  This gets sent from
+ * the server whenever the state or lights of a controller change, as only servers run
+ * signal cycles.
+ *
+ * @author don_bruce
+ */
+public class PacketTileEntitySignalControllerState extends APacketTileEntity<TileEntitySignalController>{
+	private final OpState currentOpState;
+	private final boolean lightsOn;
+	private final int timeOperationStarted;
+
+	public PacketTileEntitySignalControllerState(TileEntitySignalController controller){
+		super(controller);
+		this.currentOpState = controller.currentOpState;
+		this.lightsOn = controller.lightsOn;
+		this.timeOperationStarted = controller.timeOperationStarted;
+	}
+
+	public PacketTileEntitySignalControllerState(ByteBuf buf){
+		super(buf);
+		this.currentOpState = OpState.values()[buf.readByte()];
+		this.lightsOn = buf.readBoolean();
+		this.timeOperationStarted = buf.readInt();
+	}
+
+	@Override
+	public void writeToBuffer(ByteBuf buf){
+		super.writeToBuffer(buf);
+		buf.writeByte(currentOpState.ordinal());
+		buf.writeBoolean(lightsOn);
+		buf.writeInt(timeOperationStarted);
+	}
+
+	@Override
+	protected boolean handle(IWrapperWorld world, IWrapperPlayer player, TileEntitySignalController controller){
+		controller.lightsOn = lightsOn;
+		controller.timeOperationStarted = timeOperationStarted;
+		controller.updateState(currentOpState, false);
+		return false;
+	}
+}
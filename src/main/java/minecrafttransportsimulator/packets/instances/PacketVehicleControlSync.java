@@ -0,0 +1,156 @@
+package minecrafttransportsimulator.packets.instances;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import io.netty.buffer.ByteBuf;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.packets.components.APacketVehicle;
+import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
+import minecrafttransportsimulator.vehicles.parts.PartEngine;
+
+/**Packet used to keep simulated vehicle controls in sync.  Control surface dampening, autopilot,
+ * cruise control, and automatic transmissions are run on both servers and clients, so they don't
+ * send packets every tick.  Instead, the server periodically sends a checksum of its control state
+ * to all clients.  If a client's checksum doesn't match, it requests the full control state from
+ * the server, which is then sent only to that client.
+ * 
+ * @author don_bruce
+ */
+public class PacketVehicleControlSync extends APacketVehicle{
+	private final SyncType syncType;
+	private final int checksum;
+	
+	//Full control state.  Only present for STATE packets.
+	private byte throttle;
+	private short aileronAngle;
+	private short elevatorAngle;
+	private short rudderAngle;
+	private short aileronTrim;
+	private short elevatorTrim;
+	private short rudderTrim;
+	private byte aileronCooldown;
+	private byte elevatorCooldown;
+	private byte rudderCooldown;
+	private final Map<Byte, Byte> engineGears = new HashMap<Byte, Byte>();
+	private final Map<Byte, Integer> engineShiftCooldowns = new HashMap<Byte, Integer>();
+	
+	public PacketVehicleControlSync(EntityVehicleF_Physics vehicle, SyncType syncType){
+		super(vehicle);
+		this.syncType = syncType;
+		this.checksum = vehicle.getControlChecksum();
+		if(syncType.equals(SyncType.STATE)){
+			this.throttle = vehicle.throttle;
+			this.aileronAngle = vehicle.aileronAngle;
+			this.elevatorAngle = vehicle.elevatorAngle;
+			this.rudderAngle = vehicle.rudderAngle;
+			this.aileronTrim = vehicle.aileronTrim;
+			this.elevatorTrim = vehicle.elevatorTrim;
+			this.rudderTrim = vehicle.rudderTrim;
+			this.aileronCooldown = vehicle.aileronCooldown;
+			this.elevatorCooldown = vehicle.elevatorCooldown;
+			this.rudderCooldown = vehicle.rudderCooldown;
+			for(Entry<Byte, PartEngine> engineEntry : vehicle.engines.entrySet()){
+				engineGears.put(engineEntry.getKey(), engineEntry.getValue().currentGear);
+				engineShiftCooldowns.put(engineEntry.getKey(), engineEntry.getValue().shiftCooldown);
+			}
+		}
+	}
+	
+	public PacketVehicleControlSync(ByteBuf buf){
+		super(buf);
+		this.syncType = SyncType.values()[buf.readByte()];
+		this.checksum = buf.readInt();
+		if(syncType.equals(SyncType.STATE)){
+			this.throttle = buf.readByte();
+			this.aileronAngle = buf.readShort();
+			this.elevatorAngle = buf.readShort();
+			this.rudderAngle = buf.readShort();
+			this.aileronTrim = buf.readShort();
+			this.elevatorTrim = buf.readShort();
+			this.rudderTrim = buf.readShort();
+			this.aileronCooldown = buf.readByte();
+			this.elevatorCooldown = buf.readByte();
+			this.rudderCooldown = buf.readByte();
+			byte engineCount = buf.readByte();
+			for(byte i=0; i<engineCount; ++i){
+				byte engineNumber = buf.readByte();
+				engineGears.put(engineNumber, buf.readByte());
+				engineShiftCooldowns.put(engineNumber, buf.readInt());
+			}
+		}
+	}
+	
+	@Override
+	public void writeToBuffer(ByteBuf buf){
+		super.writeToBuffer(buf);
+		buf.writeByte(syncType.ordinal());
+		buf.writeInt(checksum);
+		if(syncType.equals(SyncType.STATE)){
+			buf.writeByte(throttle);
+			buf.writeShort(aileronAngle);
+			buf.writeShort(elevatorAngle);
+			buf.writeShort(rudderAngle);
+			buf.writeShort(aileronTrim);
+			buf.writeShort(elevatorTrim);
+			buf.writeShort(rudderTrim);
+			buf.writeByte(aileronCooldown);
+			buf.writeByte(elevatorCooldown);
+			buf.writeByte(rudderCooldown);
+			buf.writeByte(engineGears.size());
+			for(Entry<Byte, Byte> gearEntry : engineGears.entrySet()){
+				buf.writeByte(gearEntry.getKey());
+				buf.writeByte(gearEntry.getValue());
+				buf.writeInt(engineShiftCooldowns.get(gearEntry.getKey()));
+			}
+		}
+	}
+	
+	@Override
+	protected boolean handle(IWrapperWorld world, IWrapperPlayer player, EntityVehicleF_Physics vehicle){
+		switch(syncType){
+			case CHECKSUM : {
+				//Server sent us its checksum.  If ours doesn't match, ask for the full state.
+				if(vehicle.getControlChecksum() != checksum){
+					MasterLoader.networkInterface.sendToServer(new PacketVehicleControlSync(vehicle, SyncType.REQUEST));
+				}
+				break;
+			}
+			case REQUEST : {
+				//Client is out of sync.  Send the state back to only them.
+				player.sendPacket(new PacketVehicleControlSync(vehicle, SyncType.STATE));
+				break;
+			}
+			case STATE : {
+				vehicle.throttle = throttle;
+				vehicle.aileronAngle = aileronAngle;
+				vehicle.elevatorAngle = elevatorAngle;
+				vehicle.rudderAngle = rudderAngle;
+				vehicle.aileronTrim = aileronTrim;
+				vehicle.elevatorTrim = elevatorTrim;
+				vehicle.rudderTrim = rudderTrim;
+				vehicle.aileronCooldown = aileronCooldown;
+				vehicle.elevatorCooldown = elevatorCooldown;
+				vehicle.rudderCooldown = rudderCooldown;
+				for(Entry<Byte, Byte> gearEntry : engineGears.entrySet()){
+					PartEngine engine = vehicle.engines.get(gearEntry.getKey());
+					if(engine != null){
+						engine.currentGear = gearEntry.getValue();
+						engine.shiftCooldown = engineShiftCooldowns.get(gearEntry.getKey());
+					}
+				}
+				break;
+			}
+		}
+		return false;
+	}
+	
+	public enum SyncType{
+		CHECKSUM,
+		REQUEST,
+		STATE;
+	}
+}
@@ -56,6 +56,8 @@ public class PacketVehicleInteract extends APacketVehicle{
 
 	@Override
 	public boolean handle(IWrapperWorld world, IWrapperPlayer player, EntityVehicleF_Physics vehicle){
+		//Interactions can change state without sending this packet back to clients, so always re-save after one.
+		vehicle.markDirty();
 		boolean canPlayerEditVehicle = player.isOP() || vehicle.ownerUUID.isEmpty() || player.getUUID().equals(vehicle.ownerUUID);
 		PlayerOwnerState ownerState = player.isOP() ? PlayerOwnerState.ADMIN : (canPlayerEditVehicle ? PlayerOwnerState.OWNER : PlayerOwnerState.USER);
 		IWrapperItemStack heldStack = player.getHeldStack();
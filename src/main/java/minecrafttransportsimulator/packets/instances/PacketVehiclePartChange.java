@@ -43,7 +43,7 @@ public class PacketVehiclePartChange extends APacketVehiclePart{
 		super(buf);
 		if(buf.readBoolean()){
 			this.partItem = PackParserSystem.getItem(readStringFromBuffer(buf), readStringFromBuffer(buf), readStringFromBuffer(buf));
-			this.partData = MasterLoader.networkInterface.createDataFromBuffer(buf);
+			this.partData = MasterLoader.networkInterface.createDataFromCompactBuffer(buf);
 			this.clickedPart = buf.readBoolean();
 			if(clickedPart){
 				this.partClickedOffset = readPoint3dFromBuffer(buf);
@@ -65,7 +65,7 @@ public class PacketVehiclePartChange extends APacketVehiclePart{
 			writeStringToBuffer(partItem.definition.packID, buf);
 			writeStringToBuffer(partItem.definition.systemName, buf);
 			writeStringToBuffer(partItem.subName, buf);
-			partData.writeToBuffer(buf);
+			partData.writeCompactToBuffer(buf);
 			buf.writeBoolean(clickedPart);
 			if(clickedPart){
 				writePoint3dToBuffer(partClickedOffset, buf);
@@ -1,7 +1,9 @@
 package minecrafttransportsimulator.rendering.components;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import minecrafttransportsimulator.jsondefs.JSONVehicle.VehicleAnimationDefinition;
 import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
@@ -16,8 +18,12 @@ import minecrafttransportsimulator.vehicles.parts.APart;
  * @author don_bruce
  */
 public abstract class ATransform{
+	/**Transforms that have made clocks.  Weak, so this doesn't keep transforms of models that are gone.  Only used to count clocks.**/
+	private static final Set<ATransform> clockedTransforms = Collections.newSetFromMap(new WeakHashMap<ATransform, Boolean>());
+	
 	public final VehicleAnimationDefinition definition; 
-	private final Map<EntityVehicleF_Physics, DurationDelayClock> clocks = new HashMap<EntityVehicleF_Physics, DurationDelayClock>();
+	/**Animation clocks for each vehicle.  Weak-keyed, as transforms are kept for as long as their model is.**/
+	private final Map<EntityVehicleF_Physics, DurationDelayClock> clocks = new WeakHashMap<EntityVehicleF_Physics, DurationDelayClock>();
 	
 	public ATransform(VehicleAnimationDefinition definition){
 		this.definition = definition;
@@ -69,7 +75,20 @@ public abstract class ATransform{
 	public DurationDelayClock getClock(EntityVehicleF_Physics vehicle){
 		if(!clocks.containsKey(vehicle)){
 			clocks.put(vehicle, new DurationDelayClock(definition));
+			clockedTransforms.add(this);
 		}
 		return clocks.get(vehicle);
 	}
+	
+	/**
+	 *  Returns the number of animation clocks in all transforms.  Each vehicle has one clock
+	 *  for every transform it has rendered, so this should go down as vehicles are removed.
+	 */
+	public static int getClockCount(){
+		int clockCount = 0;
+		for(ATransform transform : clockedTransforms){
+			clockCount += transform.clocks.size();
+		}
+		return clockCount;
+	}
 }
@@ -0,0 +1,76 @@
+package minecrafttransportsimulator.rendering.components;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import minecrafttransportsimulator.baseclasses.Point3i;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+
+/**Cache of the world light at block positions, for use in rendering.  Lights ask for the sun light
+ * at their vehicle or pole every time they render, and vehicles and poles have lots of lights, so
+ * without this the same block would be checked many times a frame.  Instead, the first light
+ * to ask for a block gets the light from the world and all others get the cached value.
+ * <br><br>
+ * The cache is cleared once a frame by {@link #clear()}, as light changes over time.
+ * It's also cleared if a different world asks for light, as only one world is rendered at a time.
+ *
+ * @author don_bruce
+ */
+public final class LightSampleCache{
+	private static final Map<Long, Float> sunLightSamples = new HashMap<Long, Float>();
+	private static IWrapperWorld cachedWorld;
+	private static int samplesTaken;
+	private static int samplesRequested;
+
+	/**
+	 *  Returns the sun light at the passed-in position, as a value between 0.0-1.0.
+	 *  This is the same as {@link IWrapperWorld#getLightBrightness(Point3i, boolean)} without
+	 *  block light, but only checks the world the first time a position is asked for in a frame.
+	 */
+	public static float getSunLight(IWrapperWorld world, Point3i position){
+		if(world != cachedWorld){
+			sunLightSamples.clear();
+			cachedWorld = world;
+		}
+		++samplesRequested;
+		long key = getKey(position);
+		Float sunLight = sunLightSamples.get(key);
+		if(sunLight == null){
+			sunLight = world.getLightBrightness(position, false);
+			sunLightSamples.put(key, sunLight);
+			++samplesTaken;
+		}
+		return sunLight;
+	}
+
+	/**
+	 *  Clears all cached light.  Call this once at the start of every frame.
+	 */
+	public static void clear(){
+		sunLightSamples.clear();
+		samplesTaken = 0;
+		samplesRequested = 0;
+	}
+
+	/**
+	 *  Returns the number of times light was taken from the world since the last clear.
+	 */
+	public static int getSamplesTaken(){
+		return samplesTaken;
+	}
+
+	/**
+	 *  Returns the number of times light was asked for since the last clear, cached or not.
+	 */
+	public static int getSamplesRequested(){
+		return samplesRequested;
+	}
+
+	/**
+	 *  Packs a block position into a single key.  This is the same packing MC uses for block positions,
+	 *  so it's unique for any block in the world.
+	 */
+	private static long getKey(Point3i position){
+		return ((position.x & 0x3FFFFFFL) << 38) | ((position.y & 0xFFFL) << 26) | (position.z & 0x3FFFFFFL);
+	}
+}
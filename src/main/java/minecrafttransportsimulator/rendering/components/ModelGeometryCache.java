@@ -0,0 +1,353 @@
+package minecrafttransportsimulator.rendering.components;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.lwjgl.opengl.GL11;
+
+/**Class that caches the geometry of OBJ models for all renders.  Models are keyed by their model location,
+ * and are only parsed the first time they are asked for, no matter how many renders use them.  Display lists
+ * made from a model are kept with it, both for single objects and for lists made by renders from many objects.
+ * <br><br>
+ * Renders that keep using a model should {@link #acquire(String)} it, and {@link #release(String)} it once done.
+ * Models that aren't acquired by anything may be removed to keep the cache under {@link #MEMORY_BUDGET}, oldest
+ * first.  Models that are acquired only have their parsed vertices removed, as their display lists are in use.
+ * <br><br>
+ * {@link #invalidate(String)} and {@link #invalidateAll()} are the only way models are cleared for re-loading,
+ * and are used by both the dev editor and pack reloads.  Renders that keep their own data made from a model
+ * should check {@link #getGeneration()}, or check for a missing display list, to know when to re-make it.
+ * <br><br>
+ * Parsing may be done from any thread, but display lists must only be made on the render thread.
+ * Models are only removed to save memory when display lists are made, so this is always on the render thread.
+ * Models are parsed outside the cache's lock, so a large model being parsed doesn't hold up other threads
+ * using the cache.  Each model has one parse task, so threads asking for a model that's being parsed wait
+ * for that parse rather than parsing it again.
+ *
+ * @author don_bruce
+ */
+public final class ModelGeometryCache{
+	/**Memory, in bytes, models in the cache may use before un-used models are removed.**/
+	public static final long MEMORY_BUDGET = 64L*1024L*1024L;
+	/**Approximate memory, in bytes, of a parsed vertex.  This is an array of 8 boxed floats.**/
+	private static final int PARSED_VERTEX_BYTES = 176;
+	/**Approximate memory, in bytes, of a vertex in a display list.  This is 8 floats.**/
+	private static final int COMPILED_VERTEX_BYTES = 32;
+
+	/**Cached models, keyed by model location.  In access order, so the first model is the oldest.**/
+	private static final Map<String, CachedModel> models = new LinkedHashMap<String, CachedModel>(16, 0.75F, true);
+	private static long estimatedBytes;
+	private static int parseCount;
+	private static volatile int generation;
+
+	/**
+	 *  Marks the passed-in model as used by a render.  Used models are never removed to save memory.
+	 */
+	public static synchronized void acquire(String modelLocation){
+		++getModel(modelLocation).references;
+	}
+
+	/**
+	 *  Marks the passed-in model as no longer used by a render that had acquired it.
+	 */
+	public static synchronized void release(String modelLocation){
+		CachedModel model = models.get(modelLocation);
+		if(model != null && model.references > 0){
+			--model.references;
+		}
+	}
+
+	/**
+	 *  Returns the objects of the passed-in model, keyed by object name.  The model is parsed if
+	 *  it isn't already.  The returned map is a copy, so it may be changed, but the vertices are
+	 *  shared by all callers, so they must not be changed.
+	 */
+	public static Map<String, Float[][]> getObjects(String modelLocation){
+		return new HashMap<String, Float[][]>(getParsedObjects(modelLocation));
+	}
+
+	/**
+	 *  Returns the display list for the passed-in object in the passed-in model, making it if
+	 *  it isn't already made.  Returns -1 if the model doesn't have the object.
+	 */
+	public static int getObjectList(String modelLocation, String objectName){
+		synchronized(ModelGeometryCache.class){
+			Integer displayListIndex = getModel(modelLocation).objectLists.get(objectName);
+			if(displayListIndex != null){
+				return displayListIndex;
+			}
+		}
+		Float[][] vertices = getParsedObjects(modelLocation).get(objectName);
+		if(vertices == null){
+			return -1;
+		}
+		synchronized(ModelGeometryCache.class){
+			CachedModel model = getModel(modelLocation);
+			Integer displayListIndex = model.objectLists.get(objectName);
+			if(displayListIndex == null){
+				displayListIndex = compileList(model, vertices);
+				model.objectLists.put(objectName, displayListIndex);
+				trimToBudget(model);
+			}
+			return displayListIndex;
+		}
+	}
+
+	/**
+	 *  Returns the display list with the passed-in name for the passed-in model, or -1 if it hasn't
+	 *  been made with {@link #createDisplayList(String, String, Collection)}.
+	 */
+	public static synchronized int getDisplayList(String modelLocation, String listName){
+		CachedModel model = models.get(modelLocation);
+		if(model != null){
+			Integer displayListIndex = model.namedLists.get(listName);
+			if(displayListIndex != null){
+				return displayListIndex;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 *  Makes a display list with the passed-in name for the passed-in model out of the passed-in objects.
+	 *  Used for lists made of many objects, such as all the objects in a model that aren't animated.
+	 *  Any list already made with the name is replaced.  Returns the new list.
+	 */
+	public static synchronized int createDisplayList(String modelLocation, String listName, Collection<Float[][]> objects){
+		CachedModel model = getModel(modelLocation);
+		Integer oldDisplayListIndex = model.namedLists.remove(listName);
+		if(oldDisplayListIndex != null){
+			deleteList(model, oldDisplayListIndex);
+		}
+		int displayListIndex = compileList(model, objects.toArray(new Float[objects.size()][][]));
+		model.namedLists.put(listName, displayListIndex);
+		trimToBudget(model);
+		return displayListIndex;
+	}
+
+	/**
+	 *  Clears the parsed vertices and display lists for the passed-in model, so it's re-parsed from
+	 *  its file the next time it's used.  Renders that acquired it keep their references.
+	 */
+	public static synchronized void invalidate(String modelLocation){
+		CachedModel model = models.get(modelLocation);
+		if(model != null){
+			clearModel(model);
+			++generation;
+		}
+	}
+
+	/**
+	 *  Clears the parsed vertices and display lists for all models.  Call this when packs are reloaded.
+	 */
+	public static synchronized void invalidateAll(){
+		for(CachedModel model : models.values()){
+			clearModel(model);
+		}
+		++generation;
+	}
+
+	/**
+	 *  Returns the number of times models have been invalidated.  Renders that keep data made
+	 *  from models can save this, and re-make their data if it changes.
+	 */
+	public static int getGeneration(){
+		return generation;
+	}
+
+	/**
+	 *  Returns the number of models in the cache.
+	 */
+	public static synchronized int getModelCount(){
+		return models.size();
+	}
+
+	/**
+	 *  Returns the approximate memory used by the cache, in bytes.
+	 */
+	public static synchronized long getEstimatedBytes(){
+		return estimatedBytes;
+	}
+
+	/**
+	 *  Returns the number of times a model file has been parsed.
+	 */
+	public static synchronized int getParseCount(){
+		return parseCount;
+	}
+
+	private static CachedModel getModel(String modelLocation){
+		CachedModel model = models.get(modelLocation);
+		if(model == null){
+			model = new CachedModel(modelLocation);
+			models.put(modelLocation, model);
+		}
+		return model;
+	}
+
+	/**
+	 *  Returns the parsed objects of the passed-in model, parsing it if it isn't already.  Must not be called
+	 *  while holding the cache's lock.  The first thread to ask for a model parses it outside the lock, and any
+	 *  other threads wait for that parse.  The result is only put in the cache if the model wasn't invalidated
+	 *  or removed while it was being parsed, but it's still returned to the threads that asked for it.
+	 */
+	private static Map<String, Float[][]> getParsedObjects(final String modelLocation){
+		CachedModel model;
+		FutureTask<Map<String, Float[][]>> parseTask;
+		boolean parseHere = false;
+		synchronized(ModelGeometryCache.class){
+			model = getModel(modelLocation);
+			if(model.objects != null){
+				return model.objects;
+			}
+			if(model.parseTask == null){
+				model.parseTask = new FutureTask<Map<String, Float[][]>>(new Callable<Map<String, Float[][]>>(){
+					@Override
+					public Map<String, Float[][]> call(){
+						return OBJParser.parseOBJModel(modelLocation);
+					}
+				});
+				parseHere = true;
+			}
+			parseTask = model.parseTask;
+		}
+		
+		if(parseHere){
+			parseTask.run();
+		}
+		Map<String, Float[][]> objects;
+		try{
+			objects = parseTask.get();
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("ERROR: Interrupted while waiting for the OBJ model at: " + modelLocation + " to parse.", e);
+		}catch(ExecutionException e){
+			//Let the next call try again, as the file may be fixed by then.
+			synchronized(ModelGeometryCache.class){
+				if(model.parseTask == parseTask){
+					model.parseTask = null;
+				}
+			}
+			if(e.getCause() instanceof RuntimeException){
+				throw (RuntimeException) e.getCause();
+			}else{
+				throw new IllegalStateException("ERROR: Could not parse the OBJ model at: " + modelLocation + ".", e.getCause());
+			}
+		}
+		
+		synchronized(ModelGeometryCache.class){
+			if(parseHere){
+				++parseCount;
+			}
+			if(model.objects == null && model.parseTask == parseTask && models.get(modelLocation) == model){
+				model.objects = objects;
+				model.parsedBytes = 0;
+				for(Float[][] vertices : objects.values()){
+					model.parsedBytes += (long) vertices.length*PARSED_VERTEX_BYTES;
+				}
+				estimatedBytes += model.parsedBytes;
+			}
+			return model.objects != null ? model.objects : objects;
+		}
+	}
+
+	private static int compileList(CachedModel model, Float[][]... objects){
+		int displayListIndex = GL11.glGenLists(1);
+		GL11.glNewList(displayListIndex, GL11.GL_COMPILE);
+		GL11.glBegin(GL11.GL_TRIANGLES);
+		long listBytes = 0;
+		for(Float[][] vertices : objects){
+			for(Float[] vertex : vertices){
+				GL11.glTexCoord2f(vertex[3], vertex[4]);
+				GL11.glNormal3f(vertex[5], vertex[6], vertex[7]);
+				GL11.glVertex3f(vertex[0], vertex[1], vertex[2]);
+			}
+			listBytes += (long) vertices.length*COMPILED_VERTEX_BYTES;
+		}
+		GL11.glEnd();
+		GL11.glEndList();
+		model.listBytes.put(displayListIndex, listBytes);
+		estimatedBytes += listBytes;
+		return displayListIndex;
+	}
+
+	private static void deleteList(CachedModel model, int displayListIndex){
+		GL11.glDeleteLists(displayListIndex, 1);
+		Long listBytes = model.listBytes.remove(displayListIndex);
+		if(listBytes != null){
+			estimatedBytes -= listBytes;
+		}
+	}
+
+	private static void clearParsedObjects(CachedModel model){
+		//Parses that are running aren't stopped, but their results won't go in the cache.
+		model.parseTask = null;
+		if(model.objects != null){
+			model.objects = null;
+			estimatedBytes -= model.parsedBytes;
+			model.parsedBytes = 0;
+		}
+	}
+
+	private static void clearModel(CachedModel model){
+		clearParsedObjects(model);
+		for(int displayListIndex : model.objectLists.values()){
+			deleteList(model, displayListIndex);
+		}
+		model.objectLists.clear();
+		for(int displayListIndex : model.namedLists.values()){
+			deleteList(model, displayListIndex);
+		}
+		model.namedLists.clear();
+	}
+
+	/**
+	 *  Removes models until the cache is under budget, oldest first.  Models no render has acquired are
+	 *  removed fully.  If that's not enough, parsed vertices are removed from acquired models, as their
+	 *  display lists will already be made.  The passed-in model is the one being used, so it's left alone.
+	 */
+	private static void trimToBudget(CachedModel currentModel){
+		if(estimatedBytes > MEMORY_BUDGET){
+			Iterator<CachedModel> iterator = models.values().iterator();
+			while(estimatedBytes > MEMORY_BUDGET && iterator.hasNext()){
+				CachedModel model = iterator.next();
+				if(model != currentModel && model.references == 0){
+					clearModel(model);
+					iterator.remove();
+				}
+			}
+			iterator = models.values().iterator();
+			while(estimatedBytes > MEMORY_BUDGET && iterator.hasNext()){
+				CachedModel model = iterator.next();
+				if(model != currentModel){
+					clearParsedObjects(model);
+				}
+			}
+		}
+	}
+
+	/**A single model in the cache.
+	 *
+	 * @author don_bruce
+	 */
+	private static class CachedModel{
+		private final String modelLocation;
+		private final Map<String, Integer> objectLists = new HashMap<String, Integer>();
+		private final Map<String, Integer> namedLists = new HashMap<String, Integer>();
+		private final Map<Integer, Long> listBytes = new HashMap<Integer, Long>();
+		private Map<String, Float[][]> objects;
+		/**Task parsing the objects, or that parsed the objects we have.  Null if they haven't been asked for since they were last cleared.**/
+		private FutureTask<Map<String, Float[][]>> parseTask;
+		private long parsedBytes;
+		private int references;
+
+		private CachedModel(String modelLocation){
+			this.modelLocation = modelLocation;
+		}
+	}
+}
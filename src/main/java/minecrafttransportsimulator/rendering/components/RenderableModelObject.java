@@ -1,9 +1,7 @@
 package minecrafttransportsimulator.rendering.components;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.lwjgl.opengl.GL11;
 
@@ -22,18 +20,14 @@ import minecrafttransportsimulator.vehicles.parts.APart;
  * @author don_bruce
  */
 public class RenderableModelObject extends RenderableTransform{
-	private final String modelName;
+	private final String modelLocation;
 	public final String objectName;
-	private final Float[][] vertices;
 	public final String applyAfter;
 	
-	private static final Map<String, Map<String, Integer>> displayLists = new HashMap<String, Map<String, Integer>>();
-	
-	public RenderableModelObject(String modelName, String objectName, VehicleAnimatedObject definition, Float[][] vertices, EntityVehicleF_Physics vehicle, APart optionalPart){
+	public RenderableModelObject(String modelLocation, String objectName, VehicleAnimatedObject definition, Float[][] vertices, EntityVehicleF_Physics vehicle, APart optionalPart){
 		super(definition != null ? definition.animations : new ArrayList<VehicleAnimationDefinition>());
-		this.modelName = modelName;
+		this.modelLocation = modelLocation;
 		this.objectName = objectName;
-		this.vertices = vertices;
 		
 		if(definition != null){
 			this.applyAfter = definition.applyAfter;
@@ -56,7 +50,7 @@ public class RenderableModelObject extends RenderableTransform{
 			}	
 		}
 		if(objectName.contains("&")){
-			transforms.add(new TransformLight(modelName, objectName, vertices));
+			transforms.add(new TransformLight(modelLocation, objectName, vertices));
 		}
 		if(objectName.toLowerCase().contains("window")){
 			transforms.add(new TransformWindow(vertices));
@@ -70,26 +64,13 @@ public class RenderableModelObject extends RenderableTransform{
 	public void render(EntityVehicleF_Physics vehicle, APart optionalPart, float partialTicks, List<RenderableModelObject> allObjects){
 		GL11.glPushMatrix();
 		if(doPreRenderTransforms(vehicle, optionalPart, partialTicks)){
-			//Render, caching the displayList if needed.
+			//Render, getting the displayList from the model cache.  It's made there if needed.
 			//Don't render on pass 1, as that's for transparency.
 			if(MasterLoader.renderInterface.getRenderPass() != 1){
-				if(!displayLists.containsKey(modelName) || !displayLists.get(modelName).containsKey(objectName)){
-					int displayListIndex = GL11.glGenLists(1);
-					GL11.glNewList(displayListIndex, GL11.GL_COMPILE);
-					GL11.glBegin(GL11.GL_TRIANGLES);
-					for(Float[] vertex : vertices){
-						GL11.glTexCoord2f(vertex[3], vertex[4]);
-						GL11.glNormal3f(vertex[5], vertex[6], vertex[7]);
-						GL11.glVertex3f(vertex[0], vertex[1], vertex[2]);
-					}
-					GL11.glEnd();
-					GL11.glEndList();
-					if(!displayLists.containsKey(modelName)){
-						displayLists.put(modelName, new HashMap<String, Integer>());
-					}
-					displayLists.get(modelName).put(objectName, displayListIndex);
+				int displayListIndex = ModelGeometryCache.getObjectList(modelLocation, objectName);
+				if(displayListIndex != -1){
+					GL11.glCallList(displayListIndex);
 				}
-				GL11.glCallList(displayLists.get(modelName).get(objectName));
 			}
 			
 			//Do post-render logic.
@@ -117,13 +98,4 @@ public class RenderableModelObject extends RenderableTransform{
 		//Pop state.
 		GL11.glPopMatrix();
 	}
-	
-	/**
-	 *  Used to reset the display list in dev mode to allow the re-loading of models.
-	 */
-	public void resetDisplayList(){
-		if(displayLists.containsKey(modelName) && displayLists.get(modelName).containsKey(objectName)){
-			GL11.glDeleteLists(displayLists.get(modelName).remove(objectName), 1);
-		}
-	}
 }
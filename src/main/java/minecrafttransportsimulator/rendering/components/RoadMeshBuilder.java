@@ -0,0 +1,182 @@
+package minecrafttransportsimulator.rendering.components;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import minecrafttransportsimulator.baseclasses.BezierCurve;
+import minecrafttransportsimulator.baseclasses.Point3d;
+
+/**Class responsible for building road meshes.  Road component models are a short, straight
+ * section of road going down the +Z axis.  This section is repeated along the curve of each lane,
+ * bending it to follow the curve, so the road surface follows the lanes rather than being a
+ * straight model.  Each triangle of the model goes with the lane whose offset is closest to it,
+ * so roads with lanes that split apart still have their surface follow each lane.
+ * <br><br>
+ * Output is packed vertex arrays in the same order as {@link OBJParser}: position, texture, then normal.
+ * Arrays are split up by the {@link #CHUNK_SIZE} block render chunk each triangle is in, and positions are
+ * relative to the origin of that chunk.  This lets the meshes of all roads in a chunk be put into one batch.
+ * This class does no OpenGL calls, so it may be used on any thread.
+ *
+ * @author don_bruce
+ */
+public final class RoadMeshBuilder{
+	/**Floats per vertex in the packed arrays.**/
+	public static final int VERTEX_SIZE = 8;
+	/**Size of the render chunks meshes are split into.**/
+	public static final int CHUNK_SIZE = 16;
+	/**Shortest section the model will be considered to be.  Prevents divide-by-zero on flat models.**/
+	private static final float MIN_MODEL_LENGTH = 0.001F;
+
+	/**
+	 *  Builds the mesh for the passed-in model along the passed-in lanes.  The origin is the world position
+	 *  the lane starts are relative to, and the lane offsets are the offsets of the lanes in the model.
+	 *  The returned map is keyed by the chunk key from {@link #getChunkKey(int, int, int)}.
+	 */
+	public static Map<Long, float[]> buildMesh(Float[][] model, Point3d origin, List<Point3d> laneStarts, List<BezierCurve> laneCurves, float[] laneOffsets){
+		Map<Long, VertexBuffer> buffers = new HashMap<Long, VertexBuffer>();
+		int laneCount = Math.min(Math.min(laneStarts.size(), laneCurves.size()), laneOffsets.length);
+		if(laneCount > 0 && model.length >= 3){
+			//Get the length of the model section.
+			float minZ = Float.MAX_VALUE;
+			float maxZ = -Float.MAX_VALUE;
+			for(Float[] vertex : model){
+				minZ = Math.min(minZ, vertex[2]);
+				maxZ = Math.max(maxZ, vertex[2]);
+			}
+			float modelLength = Math.max(maxZ - minZ, MIN_MODEL_LENGTH);
+
+			Point3d curvePoint = new Point3d(0, 0, 0);
+			float[] triangle = new float[3*VERTEX_SIZE];
+			for(int laneNumber=0; laneNumber<laneCount; ++laneNumber){
+				BezierCurve curve = laneCurves.get(laneNumber);
+				Point3d laneStart = laneStarts.get(laneNumber);
+				float laneOffset = laneOffsets[laneNumber];
+
+				//Repeat the model enough times to cover the curve, and stretch the sections so they fit it exactly.
+				int sectionCount = Math.max(1, Math.round(curve.pathLength/modelLength));
+				float sectionLength = curve.pathLength/sectionCount;
+				for(int section=0; section<sectionCount; ++section){
+					for(int i=0; i+2<model.length; i+=3){
+						//Only use triangles that are closest to this lane.
+						float centerX = (model[i][0] + model[i + 1][0] + model[i + 2][0])/3F;
+						if(getClosestLane(centerX, laneOffsets, laneCount) != laneNumber){
+							continue;
+						}
+
+						//Bend the triangle along the curve.
+						for(int j=0; j<3; ++j){
+							Float[] vertex = model[i + j];
+							float segment = Math.min(section*sectionLength + (vertex[2] - minZ)/modelLength*sectionLength, curve.pathLength);
+							curve.getPointAt(segment, curvePoint);
+							double yaw = Math.toRadians(curve.getYawAt(segment));
+							double headingX = -Math.sin(yaw);
+							double headingZ = Math.cos(yaw);
+							double sideOffset = vertex[0] - laneOffset;
+							int index = j*VERTEX_SIZE;
+							triangle[index] = (float) (origin.x + laneStart.x + curvePoint.x + headingZ*sideOffset);
+							triangle[index + 1] = (float) (origin.y + laneStart.y + curvePoint.y + vertex[1]);
+							triangle[index + 2] = (float) (origin.z + laneStart.z + curvePoint.z - headingX*sideOffset);
+							triangle[index + 3] = vertex[3];
+							triangle[index + 4] = vertex[4];
+							triangle[index + 5] = (float) (headingZ*vertex[5] + headingX*vertex[7]);
+							triangle[index + 6] = vertex[6];
+							triangle[index + 7] = (float) (-headingX*vertex[5] + headingZ*vertex[7]);
+						}
+
+						//Add the triangle to the chunk its center is in, relative to the chunk.
+						int chunkX = getChunkCoord((triangle[0] + triangle[VERTEX_SIZE] + triangle[2*VERTEX_SIZE])/3F);
+						int chunkY = getChunkCoord((triangle[1] + triangle[VERTEX_SIZE + 1] + triangle[2*VERTEX_SIZE + 1])/3F);
+						int chunkZ = getChunkCoord((triangle[2] + triangle[VERTEX_SIZE + 2] + triangle[2*VERTEX_SIZE + 2])/3F);
+						Long chunkKey = getChunkKey(chunkX, chunkY, chunkZ);
+						VertexBuffer buffer = buffers.get(chunkKey);
+						if(buffer == null){
+							buffer = new VertexBuffer();
+							buffers.put(chunkKey, buffer);
+						}
+						for(int j=0; j<3; ++j){
+							int index = j*VERTEX_SIZE;
+							triangle[index] -= chunkX*CHUNK_SIZE;
+							triangle[index + 1] -= chunkY*CHUNK_SIZE;
+							triangle[index + 2] -= chunkZ*CHUNK_SIZE;
+						}
+						buffer.add(triangle);
+					}
+				}
+			}
+		}
+
+		Map<Long, float[]> mesh = new HashMap<Long, float[]>();
+		for(Entry<Long, VertexBuffer> bufferEntry : buffers.entrySet()){
+			mesh.put(bufferEntry.getKey(), bufferEntry.getValue().toArray());
+		}
+		return mesh;
+	}
+
+	/**
+	 *  Returns the key for the chunk at the passed-in chunk coordinates.  Each coordinate gets 21 bits.
+	 */
+	public static long getChunkKey(int chunkX, int chunkY, int chunkZ){
+		return ((chunkX & 0x1FFFFFL) << 42) | ((chunkY & 0x1FFFFFL) << 21) | (chunkZ & 0x1FFFFFL);
+	}
+
+	/**
+	 *  Returns the X coordinate of the origin of the chunk with the passed-in key.
+	 */
+	public static int getChunkOriginX(long chunkKey){
+		return ((int) ((chunkKey << 1) >> 43))*CHUNK_SIZE;
+	}
+
+	/**
+	 *  Returns the Y coordinate of the origin of the chunk with the passed-in key.
+	 */
+	public static int getChunkOriginY(long chunkKey){
+		return ((int) ((chunkKey << 22) >> 43))*CHUNK_SIZE;
+	}
+
+	/**
+	 *  Returns the Z coordinate of the origin of the chunk with the passed-in key.
+	 */
+	public static int getChunkOriginZ(long chunkKey){
+		return ((int) ((chunkKey << 43) >> 43))*CHUNK_SIZE;
+	}
+
+	private static int getChunkCoord(double coord){
+		return Math.floorDiv((int) Math.floor(coord), CHUNK_SIZE);
+	}
+
+	private static int getClosestLane(float x, float[] laneOffsets, int laneCount){
+		int closestLane = 0;
+		for(int laneNumber=1; laneNumber<laneCount; ++laneNumber){
+			if(Math.abs(laneOffsets[laneNumber] - x) < Math.abs(laneOffsets[closestLane] - x)){
+				closestLane = laneNumber;
+			}
+		}
+		return closestLane;
+	}
+
+	/**
+	 *  Growable float array used to collect vertices for a chunk.
+	 */
+	private static class VertexBuffer{
+		private float[] data = new float[64*VERTEX_SIZE];
+		private int size;
+
+		private void add(float[] values){
+			if(size + values.length > data.length){
+				float[] newData = new float[Math.max(data.length*2, size + values.length)];
+				System.arraycopy(data, 0, newData, 0, size);
+				data = newData;
+			}
+			System.arraycopy(values, 0, data, size, values.length);
+			size += values.length;
+		}
+
+		private float[] toArray(){
+			float[] array = new float[size];
+			System.arraycopy(data, 0, array, 0, size);
+			return array;
+		}
+	}
+}
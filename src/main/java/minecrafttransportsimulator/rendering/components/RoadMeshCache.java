@@ -0,0 +1,340 @@
+package minecrafttransportsimulator.rendering.components;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.lwjgl.opengl.GL11;
+
+import minecrafttransportsimulator.baseclasses.BezierCurve;
+import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.baseclasses.Point3i;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityRoad;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityRoad.RoadComponent;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityRoad.RoadLane;
+import minecrafttransportsimulator.items.instances.ItemRoadComponent;
+import minecrafttransportsimulator.jsondefs.JSONRoadComponent;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+
+/**Class that caches the meshes of all roads on the client.  Meshes are made by the {@link RoadMeshBuilder}
+ * on a background thread the first time a road renders, and again any time the road changes.
+ * Once done, the meshes of all roads are merged into one display list per render chunk and texture.
+ * This way, a city full of roads only needs a few display lists to render, no matter how many
+ * road segments it has.  Each chunk batch is rendered by the first road in it that renders in a frame,
+ * so it renders once a frame as long as any of its roads are visible, and stops rendering if all
+ * the roads in it unload.  Roads and batches are kept per-world, so roads in other dimensions
+ * at the same position don't replace each other.
+ * <br><br>
+ * Component models come from the {@link ModelGeometryCache}, and roads are re-meshed if it's invalidated,
+ * or if any of their component definitions change.  Roads are removed from the cache when they are removed
+ * from the world, which includes their chunk unloading.
+ *
+ * @author don_bruce
+ */
+public final class RoadMeshCache{
+	/**Thread for building meshes.  Only one, as roads are built rarely and shouldn't take time from the game.**/
+	private static final ExecutorService meshPool = Executors.newSingleThreadExecutor(new ThreadFactory(){
+		@Override
+		public Thread newThread(Runnable runnable){
+			Thread thread = new Thread(runnable, "MTS Road Mesher");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	/**Roads and chunk batches in the cache, keyed by world.**/
+	private static final Map<IWrapperWorld, WorldRoads> worlds = new HashMap<IWrapperWorld, WorldRoads>();
+	/**Current frame number.  Batches are only rendered by the first road to render them in a frame.**/
+	private static int frame;
+
+	/**
+	 *  Starts a new frame.  Call this once at the start of every frame, before any roads render.
+	 */
+	public static void startFrame(){
+		++frame;
+	}
+
+	/**
+	 *  Renders all chunk batches the passed-in road is in that haven't been rendered yet this frame.
+	 *  If the road isn't in the cache, or has changed since it was meshed, its mesh is (re)built.
+	 *  The current GL position should be the center of the bottom of the road's block.
+	 */
+	public static void render(TileEntityRoad road){
+		WorldRoads worldRoads = worlds.get(road.world);
+		if(worldRoads == null){
+			worldRoads = new WorldRoads();
+			worlds.put(road.world, worldRoads);
+		}
+		CachedRoad cachedRoad = worldRoads.roads.get(road.position);
+		if(cachedRoad == null || !cachedRoad.isCurrent(road)){
+			worldRoads.removeRoad(road.position);
+			cachedRoad = new CachedRoad(road);
+			worldRoads.roads.put(road.position.copy(), cachedRoad);
+		}
+
+		//If this road already rendered this frame, we're in another pass of the same frame.
+		//This happens with shaders, which render the world again for shadows.  Start a new frame
+		//so the batches render again in this pass.
+		if(cachedRoad.lastRenderFrame == frame){
+			startFrame();
+		}
+		cachedRoad.lastRenderFrame = frame;
+
+		//Add any finished meshes.
+		if(cachedRoad.meshFuture != null && cachedRoad.meshFuture.isDone()){
+			try{
+				worldRoads.addMesh(cachedRoad, cachedRoad.meshFuture.get());
+			}catch(Exception e){
+				MasterLoader.coreInterface.logError("ERROR: Could not build road mesh for road at " + road.position + ".");
+				e.printStackTrace();
+			}
+			cachedRoad.meshFuture = null;
+		}
+
+		//Render the batches that haven't rendered this frame, rebuilding any that have changed.
+		for(Long chunkKey : cachedRoad.chunks){
+			ChunkBatch batch = worldRoads.batches.get(chunkKey);
+			if(batch != null && batch.lastRenderFrame != frame){
+				batch.lastRenderFrame = frame;
+				if(batch.changed){
+					batch.compile();
+				}
+				GL11.glPushMatrix();
+				GL11.glTranslated(RoadMeshBuilder.getChunkOriginX(chunkKey) - road.position.x - 0.5, RoadMeshBuilder.getChunkOriginY(chunkKey) - road.position.y, RoadMeshBuilder.getChunkOriginZ(chunkKey) - road.position.z - 0.5);
+				for(Entry<String, Integer> displayListEntry : batch.displayLists.entrySet()){
+					MasterLoader.renderInterface.bindTexture(displayListEntry.getKey());
+					GL11.glCallList(displayListEntry.getValue());
+				}
+				GL11.glPopMatrix();
+			}
+		}
+	}
+
+	/**
+	 *  Removes the road at the passed-in position in the passed-in world from the cache.  Any batches it was
+	 *  in are rebuilt without it the next time they render, or deleted if it was the only road in them.
+	 *  The world's roads are removed once its last road is, so worlds that unload don't stay in the cache.
+	 */
+	public static void removeRoad(IWrapperWorld world, Point3i roadPosition){
+		WorldRoads worldRoads = worlds.get(world);
+		if(worldRoads != null){
+			worldRoads.removeRoad(roadPosition);
+			if(worldRoads.roads.isEmpty()){
+				worlds.remove(world);
+			}
+		}
+	}
+
+	/**
+	 *  Returns the number of chunk batches in the cache.
+	 */
+	public static int getBatchCount(){
+		int batchCount = 0;
+		for(WorldRoads worldRoads : worlds.values()){
+			batchCount += worldRoads.batches.size();
+		}
+		return batchCount;
+	}
+
+	/**
+	 *  Builds the mesh for all components of the passed-in road.  Called on the mesh thread.
+	 *  Merged component models are only kept while meshing, as the vertices are in the {@link ModelGeometryCache}.
+	 */
+	private static Map<Long, Map<String, float[]>> buildMesh(Point3d origin, List<Point3d> laneStarts, List<BezierCurve> laneCurves, float[] laneOffsets, List<JSONRoadComponent> components){
+		Map<Long, Map<String, float[]>> mesh = new HashMap<Long, Map<String, float[]>>();
+		Map<String, Float[][]> parsedModels = new HashMap<String, Float[][]>();
+		for(JSONRoadComponent component : components){
+			String modelLocation = component.getModelLocation();
+			Float[][] model = parsedModels.get(modelLocation);
+			if(model == null){
+				//Put all objects in the model into one array, as the whole model gets bent along the lanes.
+				List<Float[]> modelVertices = new ArrayList<Float[]>();
+				for(Float[][] objectVertices : ModelGeometryCache.getObjects(modelLocation).values()){
+					for(Float[] vertex : objectVertices){
+						modelVertices.add(vertex);
+					}
+				}
+				model = modelVertices.toArray(new Float[modelVertices.size()][]);
+				parsedModels.put(modelLocation, model);
+			}
+
+			String textureLocation = component.getTextureLocation();
+			for(Entry<Long, float[]> chunkEntry : RoadMeshBuilder.buildMesh(model, origin, laneStarts, laneCurves, laneOffsets).entrySet()){
+				Map<String, float[]> chunkMesh = mesh.get(chunkEntry.getKey());
+				if(chunkMesh == null){
+					chunkMesh = new HashMap<String, float[]>();
+					mesh.put(chunkEntry.getKey(), chunkMesh);
+				}
+				float[] existingVertices = chunkMesh.get(textureLocation);
+				if(existingVertices != null){
+					float[] combinedVertices = new float[existingVertices.length + chunkEntry.getValue().length];
+					System.arraycopy(existingVertices, 0, combinedVertices, 0, existingVertices.length);
+					System.arraycopy(chunkEntry.getValue(), 0, combinedVertices, existingVertices.length, chunkEntry.getValue().length);
+					chunkMesh.put(textureLocation, combinedVertices);
+				}else{
+					chunkMesh.put(textureLocation, chunkEntry.getValue());
+				}
+			}
+		}
+		return mesh;
+	}
+
+	/**
+	 *  Roads and chunk batches for a single world.  Roads are keyed by position, and batches by chunk key.
+	 */
+	private static class WorldRoads{
+		private final Map<Point3i, CachedRoad> roads = new HashMap<Point3i, CachedRoad>();
+		private final Map<Long, ChunkBatch> batches = new HashMap<Long, ChunkBatch>();
+
+		private void removeRoad(Point3i roadPosition){
+			CachedRoad cachedRoad = roads.remove(roadPosition);
+			if(cachedRoad != null){
+				if(cachedRoad.meshFuture != null){
+					cachedRoad.meshFuture.cancel(false);
+				}
+				for(Long chunkKey : cachedRoad.chunks){
+					ChunkBatch batch = batches.get(chunkKey);
+					if(batch != null){
+						batch.removeRoad(roadPosition);
+						if(batch.roadMeshes.isEmpty()){
+							batch.delete();
+							batches.remove(chunkKey);
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 *  Adds the passed-in mesh of the passed-in road to the chunk batches.
+		 *  The mesh is keyed by chunk key, then by texture.
+		 */
+		private void addMesh(CachedRoad cachedRoad, Map<Long, Map<String, float[]>> mesh){
+			for(Entry<Long, Map<String, float[]>> chunkEntry : mesh.entrySet()){
+				ChunkBatch batch = batches.get(chunkEntry.getKey());
+				if(batch == null){
+					batch = new ChunkBatch();
+					batches.put(chunkEntry.getKey(), batch);
+				}
+				batch.roadMeshes.put(cachedRoad.road.position, chunkEntry.getValue());
+				batch.changed = true;
+				cachedRoad.chunks.add(chunkEntry.getKey());
+			}
+		}
+	}
+
+	/**
+	 *  A road in the cache.  The road's lanes and components are copied when it's added,
+	 *  so the mesh thread doesn't access the road itself.  Lanes are made with the road
+	 *  and never change, so only the component definitions are kept to check for changes.
+	 */
+	private static class CachedRoad{
+		private final TileEntityRoad road;
+		private final Map<RoadComponent, JSONRoadComponent> componentDefinitions = new HashMap<RoadComponent, JSONRoadComponent>();
+		private final int modelGeneration;
+		private final List<Long> chunks = new ArrayList<Long>();
+		private Future<Map<Long, Map<String, float[]>>> meshFuture;
+		private int lastRenderFrame = -1;
+
+		private CachedRoad(TileEntityRoad road){
+			this.road = road;
+			for(Entry<RoadComponent, ItemRoadComponent> componentEntry : road.components.entrySet()){
+				componentDefinitions.put(componentEntry.getKey(), componentEntry.getValue().definition);
+			}
+			this.modelGeneration = ModelGeometryCache.getGeneration();
+
+			final Point3d origin = new Point3d(road.position).add(0.5, 0, 0.5);
+			final List<Point3d> laneStarts = new ArrayList<Point3d>();
+			final List<BezierCurve> laneCurves = new ArrayList<BezierCurve>();
+			for(RoadLane lane : road.lanes){
+				laneStarts.add(lane.startingOffset.copy());
+				laneCurves.add(lane.curve);
+			}
+			final float[] laneOffsets = road.definition.general.laneOffsets;
+			final List<JSONRoadComponent> components = new ArrayList<JSONRoadComponent>(componentDefinitions.values());
+			this.meshFuture = meshPool.submit(new Callable<Map<Long, Map<String, float[]>>>(){
+				@Override
+				public Map<Long, Map<String, float[]>> call(){
+					return buildMesh(origin, laneStarts, laneCurves, laneOffsets, components);
+				}
+			});
+		}
+
+		/**
+		 *  Returns true if this is the mesh of the passed-in road as it is now.  Components are checked by
+		 *  definition, so swapping one component for another still re-meshes the road.
+		 */
+		private boolean isCurrent(TileEntityRoad road){
+			if(this.road != road || modelGeneration != ModelGeometryCache.getGeneration() || componentDefinitions.size() != road.components.size()){
+				return false;
+			}
+			for(Entry<RoadComponent, ItemRoadComponent> componentEntry : road.components.entrySet()){
+				if(componentDefinitions.get(componentEntry.getKey()) != componentEntry.getValue().definition){
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 *  Batch of all road meshes in a chunk.  Has one display list per texture, which are
+	 *  re-compiled whenever a road is added or removed from the batch.
+	 */
+	private static class ChunkBatch{
+		private final Map<Point3i, Map<String, float[]>> roadMeshes = new HashMap<Point3i, Map<String, float[]>>();
+		private final Map<String, Integer> displayLists = new HashMap<String, Integer>();
+		private int lastRenderFrame = -1;
+		private boolean changed;
+
+		private void removeRoad(Point3i roadPosition){
+			roadMeshes.remove(roadPosition);
+			changed = true;
+		}
+
+		private void compile(){
+			delete();
+			Map<String, List<float[]>> textureMeshes = new HashMap<String, List<float[]>>();
+			for(Map<String, float[]> roadMesh : roadMeshes.values()){
+				for(Entry<String, float[]> meshEntry : roadMesh.entrySet()){
+					List<float[]> meshes = textureMeshes.get(meshEntry.getKey());
+					if(meshes == null){
+						meshes = new ArrayList<float[]>();
+						textureMeshes.put(meshEntry.getKey(), meshes);
+					}
+					meshes.add(meshEntry.getValue());
+				}
+			}
+			for(Entry<String, List<float[]>> textureEntry : textureMeshes.entrySet()){
+				int displayListIndex = GL11.glGenLists(1);
+				GL11.glNewList(displayListIndex, GL11.GL_COMPILE);
+				GL11.glBegin(GL11.GL_TRIANGLES);
+				for(float[] vertices : textureEntry.getValue()){
+					for(int i=0; i<vertices.length; i+=RoadMeshBuilder.VERTEX_SIZE){
+						GL11.glTexCoord2f(vertices[i + 3], vertices[i + 4]);
+						GL11.glNormal3f(vertices[i + 5], vertices[i + 6], vertices[i + 7]);
+						GL11.glVertex3f(vertices[i], vertices[i + 1], vertices[i + 2]);
+					}
+				}
+				GL11.glEnd();
+				GL11.glEndList();
+				displayLists.put(textureEntry.getKey(), displayListIndex);
+			}
+			changed = false;
+		}
+
+		private void delete(){
+			for(int displayListIndex : displayLists.values()){
+				GL11.glDeleteLists(displayListIndex, 1);
+			}
+			displayLists.clear();
+		}
+	}
+}
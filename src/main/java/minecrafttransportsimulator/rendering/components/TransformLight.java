@@ -32,6 +32,9 @@ public class TransformLight extends ATransform{
 	private final Point3d[] centerPoints;
 	private final Float[] size;
 	
+	/**Position used to sample the light at vehicles.  Kept here to save making a new one for every light.**/
+	private static final Point3i samplePosition = new Point3i(0, 0, 0);
+	
 	public TransformLight(String modelName, String objectName, Float[][] masterVertices){
 		super(null);
 		this.type = getTypeFromName(objectName);
@@ -127,7 +130,8 @@ public class TransformLight extends ATransform{
 		//we'll have rendered the object so we can safely change textures.
 		//We won't have to worry about the light-up textures, as those lighting changes will be overidden here.
 		boolean lightActuallyOn = vehicle.lightsOn.contains(type) && isFlashingLightOn();
-		float sunLight = vehicle.world.getLightBrightness(new Point3i(vehicle.position), false);
+		//All lights on a vehicle sample the same block, so this only hits the world once a frame.
+		float sunLight = LightSampleCache.getSunLight(vehicle.world, samplePosition.set((int) vehicle.position.x, (int) vehicle.position.y, (int) vehicle.position.z));
 		//Lights start dimming due to low power at 8V.
 		float electricFactor = (float) Math.min(vehicle.electricPower > 2 ? (vehicle.electricPower-2)/6F : 0, 1);
 		//Max brightness occurs when ambient light is 0 and we have at least 8V power.
@@ -140,7 +144,7 @@ public class TransformLight extends ATransform{
 	 *  Renders this light at a specific block-based position.  Full power and brightness is assumed.
 	 */
 	public void renderOnBlock(IWrapperWorld world, Point3i location, boolean lightActive){
-		render(lightActive && isFlashingLightOn(), 12.0F, 1.0F, 1 - world.getLightBrightness(location, false), ConfigSystem.configObject.clientRendering.blockBeams.value);
+		render(lightActive && isFlashingLightOn(), 12.0F, 1.0F, 1 - LightSampleCache.getSunLight(world, location), ConfigSystem.configObject.clientRendering.blockBeams.value);
 	}
 	
 	/**
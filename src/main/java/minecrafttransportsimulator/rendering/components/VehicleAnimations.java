@@ -168,7 +168,7 @@ public final class VehicleAnimations{
 				PartInteractable interactable = (PartInteractable) optionalPart;
 				switch(variable){
 					case("interactable_count"): return interactable.getInventoryCount();
-					case("interactable_percent"): return interactable.getInventoryPercent();
+					case("interactable_percent"): return interactable.getInventoryPercent(partialTicks);
 					case("interactable_capacity"): return interactable.getInventoryCapacity();
 				}
 			}else if(optionalPart instanceof PartPropeller){
@@ -246,7 +246,7 @@ public final class VehicleAnimations{
 			//Vehicle state cases.
 			case("throttle"): return vehicle.throttle/(double)EntityVehicleF_Physics.MAX_THROTTLE;
 			case("brake"): return vehicle.brake/(double)EntityVehicleF_Physics.MAX_BRAKE;
-			case("fuel"): return vehicle.fuelTank.getFluidLevel()/vehicle.fuelTank.getMaxLevel();
+			case("fuel"): return vehicle.fuelTank.getDisplayedLevel(partialTicks)/vehicle.fuelTank.getMaxLevel();
 			case("electric_power"): return vehicle.electricPower;
 			case("electric_usage"): return vehicle.electricFlow*20D;
 			case("p_brake"): return vehicle.parkingBrakeOn ? 1 : 0;
@@ -1,6 +1,10 @@
 package minecrafttransportsimulator.rendering.instances;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityBase;
+import minecrafttransportsimulator.rendering.components.ModelGeometryCache;
 
 /**Base Tile Entity rendering class (TESR).  
  * This should be used with all blocks that need fancy rendering that can't be done with JSON.
@@ -8,6 +12,8 @@ import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityBas
  * @author don_bruce
  */
 public abstract class ARenderTileEntityBase<RenderedTileEntity extends ATileEntityBase<?>>{
+	/**Models this render has acquired from the {@link ModelGeometryCache}.**/
+	private final Set<String> usedModels = new HashSet<String>();
 	
 	/**
 	 *  Called to render this tile entity.  The currently-bound texture is undefined, so you will need
@@ -28,4 +34,25 @@ public abstract class ARenderTileEntityBase<RenderedTileEntity extends ATileEnti
 	public boolean translateToSlabs(){
 		return true;
 	}
+	
+	/**
+	 *  Called when the tile entity this render is for is removed or unloaded.
+	 *  Releases all models this render used.
+	 */
+	public void remove(){
+		for(String modelLocation : usedModels){
+			ModelGeometryCache.release(modelLocation);
+		}
+		usedModels.clear();
+	}
+	
+	/**
+	 *  Marks the passed-in model as used by this render, acquiring it from the {@link ModelGeometryCache}
+	 *  the first time this is called for it.  Call this for every model the render uses.
+	 */
+	protected void useModel(String modelLocation){
+		if(usedModels.add(modelLocation)){
+			ModelGeometryCache.acquire(modelLocation);
+		}
+	}
 }
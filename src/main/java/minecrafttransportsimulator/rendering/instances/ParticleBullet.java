@@ -1,8 +1,8 @@
 package minecrafttransportsimulator.rendering.instances;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import org.lwjgl.opengl.GL11;
 
@@ -16,7 +16,7 @@ import minecrafttransportsimulator.mcinterface.IWrapperEntity;
 import minecrafttransportsimulator.mcinterface.MasterLoader;
 import minecrafttransportsimulator.packets.instances.PacketBulletHit;
 import minecrafttransportsimulator.rendering.components.AParticle;
-import minecrafttransportsimulator.rendering.components.OBJParser;
+import minecrafttransportsimulator.rendering.components.ModelGeometryCache;
 import minecrafttransportsimulator.systems.ConfigSystem;
 import minecrafttransportsimulator.vehicles.parts.PartGun;
 
@@ -41,7 +41,8 @@ public class ParticleBullet extends AParticle{
 	private final double deltaVelocity;
 	private final IWrapperEntity gunController;
 	
-	private final Map<ItemPart, Integer> bulletDisplayLists = new HashMap<ItemPart, Integer>();
+	/**Name of the display list in the {@link ModelGeometryCache} for bullets.  Bullets are mirrored on X, so they need their own list.**/
+	private static final String BULLET_LIST_NAME = "bullet";
 	
 	private double armorPenetrated;
 	private int burnTimeLeft;
@@ -260,22 +261,21 @@ public class ParticleBullet extends AParticle{
 		if(bullet.definition.bullet.types.contains("smoke")) {
 			return;
 		}
-        //Parse the model if we haven't already.
-        if(!bulletDisplayLists.containsKey(bullet)){
-        	Map<String, Float[][]> parsedModel = OBJParser.parseOBJModel(bullet.definition.getModelLocation());
-        	int displayListIndex = GL11.glGenLists(1);
-    		GL11.glNewList(displayListIndex, GL11.GL_COMPILE);
-    		GL11.glBegin(GL11.GL_TRIANGLES);
-    		for(Entry<String, Float[][]> entry : parsedModel.entrySet()){
-				for(Float[] vertex : entry.getValue()){
-					GL11.glTexCoord2f(vertex[3], vertex[4]);
-					GL11.glNormal3f(vertex[5], vertex[6], vertex[7]);
-					GL11.glVertex3f(-vertex[0], vertex[1], vertex[2]);
-				}
-    		}
-    		GL11.glEnd();
-    		GL11.glEndList();
-        	bulletDisplayLists.put(bullet, displayListIndex);
+        //Get the model's display list from the cache, making it if it isn't there.
+        //This is shared by all bullets with the model, so we don't make one for every bullet fired.
+        String modelLocation = bullet.definition.getModelLocation();
+        int displayListIndex = ModelGeometryCache.getDisplayList(modelLocation, BULLET_LIST_NAME);
+        if(displayListIndex == -1){
+        	List<Float[][]> mirroredObjects = new ArrayList<Float[][]>();
+        	for(Float[][] vertices : ModelGeometryCache.getObjects(modelLocation).values()){
+        		Float[][] mirroredVertices = new Float[vertices.length][];
+        		for(int i=0; i<vertices.length; ++i){
+        			mirroredVertices[i] = vertices[i].clone();
+        			mirroredVertices[i][0] = -vertices[i][0];
+        		}
+        		mirroredObjects.add(mirroredVertices);
+        	}
+        	displayListIndex = ModelGeometryCache.createDisplayList(modelLocation, BULLET_LIST_NAME, mirroredObjects);
         }
         
         //Bind the texture for this bullet.
@@ -287,6 +287,6 @@ public class ParticleBullet extends AParticle{
         double pitch = -Math.toDegrees(Math.asin(motion.y/Math.sqrt(motion.x*motion.x+motion.y*motion.y+motion.z*motion.z)));
         GL11.glRotated(yaw, 0, 1, 0);
         GL11.glRotated(pitch, 1, 0, 0);
-        GL11.glCallList(bulletDisplayLists.get(bullet));
+        GL11.glCallList(displayListIndex);
 	}
 }
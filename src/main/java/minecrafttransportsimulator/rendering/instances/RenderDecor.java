@@ -1,45 +1,30 @@
 package minecrafttransportsimulator.rendering.instances;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
-
 import org.lwjgl.opengl.GL11;
 
 import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityDecor;
-import minecrafttransportsimulator.jsondefs.JSONDecor;
 import minecrafttransportsimulator.mcinterface.MasterLoader;
-import minecrafttransportsimulator.rendering.components.OBJParser;
+import minecrafttransportsimulator.rendering.components.ModelGeometryCache;
 
 public class RenderDecor extends ARenderTileEntityBase<TileEntityDecor>{
-	private static final Map<JSONDecor, Integer> displayListMap = new HashMap<JSONDecor, Integer>();
-		
+	/**Name of the display list in the {@link ModelGeometryCache} with all objects of the model.**/
+	private static final String DISPLAY_LIST_NAME = "decor";
+
 	@Override
 	public void render(TileEntityDecor decor, float partialTicks){
-		//If we don't have the displaylist and texture cached, do it now.
-		if(!displayListMap.containsKey(decor.definition)){
-			Map<String, Float[][]> parsedModel = OBJParser.parseOBJModel(decor.definition.getModelLocation());
-			int displayListIndex = GL11.glGenLists(1);
-			
-			GL11.glNewList(displayListIndex, GL11.GL_COMPILE);
-			GL11.glBegin(GL11.GL_TRIANGLES);
-			for(Entry<String, Float[][]> entry : parsedModel.entrySet()){
-				for(Float[] vertex : entry.getValue()){
-					GL11.glTexCoord2f(vertex[3], vertex[4]);
-					GL11.glNormal3f(vertex[5], vertex[6], vertex[7]);
-					GL11.glVertex3f(vertex[0], vertex[1], vertex[2]);
-				}
-			}
-			GL11.glEnd();
-			GL11.glEndList();
-			displayListMap.put(decor.definition, displayListIndex);
+		//If we don't have the displaylist cached, do it now.
+		String modelLocation = decor.definition.getModelLocation();
+		useModel(modelLocation);
+		int displayListIndex = ModelGeometryCache.getDisplayList(modelLocation, DISPLAY_LIST_NAME);
+		if(displayListIndex == -1){
+			displayListIndex = ModelGeometryCache.createDisplayList(modelLocation, DISPLAY_LIST_NAME, ModelGeometryCache.getObjects(modelLocation).values());
 		}
-		
+
 		//Don't do solid model rendering on the blend pass.
 		if(MasterLoader.renderInterface.getRenderPass() != 1){
 			//Bind the texture and render.
 			MasterLoader.renderInterface.bindTexture(decor.definition.getTextureLocation(decor.currentSubName));
-			GL11.glCallList(displayListMap.get(decor.definition));
+			GL11.glCallList(displayListIndex);
 			//If we have text objects, render them now.
 			if(decor.definition.general.textObjects != null){
 				MasterLoader.renderInterface.setLightingState(false);
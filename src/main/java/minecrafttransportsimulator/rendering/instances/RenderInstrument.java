@@ -3,6 +3,7 @@ package minecrafttransportsimulator.rendering.instances;
 import java.awt.Color;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.lwjgl.opengl.GL11;
 
@@ -24,7 +25,8 @@ import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
  * @author don_bruce
  */
 public final class RenderInstrument{
-	private static final Map<EntityVehicleF_Physics, Map<ItemInstrument, Map<Integer, DurationDelayClock>>> clocks = new HashMap<EntityVehicleF_Physics, Map<ItemInstrument, Map<Integer, DurationDelayClock>>>();
+	/**Animation clocks for each vehicle.  Weak-keyed, so vehicles that are gone don't keep their clocks here forever.**/
+	private static final Map<EntityVehicleF_Physics, Map<ItemInstrument, Map<Integer, DurationDelayClock>>> clocks = new WeakHashMap<EntityVehicleF_Physics, Map<ItemInstrument, Map<Integer, DurationDelayClock>>>();
 	private static final Point3d p1 = new Point3d(0, 0, 0);
 	private static final Point3d p2 = new Point3d(0, 0, 0);
 	private static final Point3d p3 = new Point3d(0, 0, 0);
@@ -240,6 +242,13 @@ public final class RenderInstrument{
 		}
 	}
 	
+	/**
+	 *  Returns the number of vehicles that have instrument clocks.
+	 */
+	public static int getClockedVehicleCount(){
+		return clocks.size();
+	}
+	
 	/**
 	 *  Returns the current animation clock for the passed-in vehicle/instrument/part/animation set.
 	 *  Clocks are not shared between these three components to allow each to have their own clock.
@@ -1,7 +1,9 @@
 package minecrafttransportsimulator.rendering.instances;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -21,14 +23,20 @@ import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityPole_
 import minecrafttransportsimulator.jsondefs.JSONPoleComponent;
 import minecrafttransportsimulator.mcinterface.MasterLoader;
 import minecrafttransportsimulator.rendering.components.LightType;
-import minecrafttransportsimulator.rendering.components.OBJParser;
+import minecrafttransportsimulator.rendering.components.ModelGeometryCache;
 import minecrafttransportsimulator.rendering.components.TransformLight;
 
 public class RenderPole extends ARenderTileEntityBase<TileEntityPole>{
-	private static final Map<JSONPoleComponent, Map<Axis, Integer>> connectorDisplayListMap = new HashMap<JSONPoleComponent, Map<Axis, Integer>>();
-	private static final Map<JSONPoleComponent, Map<Axis, Integer>> solidConnectorDisplayListMap = new HashMap<JSONPoleComponent, Map<Axis, Integer>>();
-	private static final Map<JSONPoleComponent, Integer> componentDisplayListMap = new HashMap<JSONPoleComponent, Integer>();
+	/**Name of the display list in the {@link ModelGeometryCache} with the non-light objects of component models.**/
+	private static final String COMPONENT_LIST_NAME = "component";
 	private static final Map<JSONPoleComponent, List<TransformLight>> componentLightMap = new HashMap<JSONPoleComponent, List<TransformLight>>();
+	private static int componentLightGeneration;
+	
+	/**Connector display lists for this pole.  Kept here as they're used every frame.  Re-made if models are invalidated.**/
+	private final Map<Axis, Integer> connectorDisplayLists = new EnumMap<Axis, Integer>(Axis.class);
+	private final Map<Axis, Integer> solidConnectorDisplayLists = new EnumMap<Axis, Integer>(Axis.class);
+	private String connectorModelLocation;
+	private int connectorGeneration;
 	
 	@Override
 	public void render(TileEntityPole tile, float partialTicks){
@@ -36,22 +44,24 @@ public class RenderPole extends ARenderTileEntityBase<TileEntityPole>{
 		//These are based on the pole itself, so we first need to get the pole.
 		TileEntityPole_Core coreComponent = (TileEntityPole_Core) tile.components.get(Axis.NONE);
 		if(coreComponent != null){
-			//If we don't have the model parsed, do so now.
-			if(!connectorDisplayListMap.containsKey(tile.definition)){
-				Map<String, Float[][]> parsedModel = OBJParser.parseOBJModel(tile.definition.getModelLocation());
-				
-				Map<Axis, Integer> connectorDisplayLists = new HashMap<Axis, Integer>();
-				Map<Axis, Integer> solidConncectorDisplayLists = new HashMap<Axis, Integer>();
+			//Get the connector display lists.  Each connector is its own object in the model, so the cache makes their lists.
+			String modelLocation = tile.definition.getModelLocation();
+			if(!modelLocation.equals(connectorModelLocation) || connectorGeneration != ModelGeometryCache.getGeneration()){
+				useModel(modelLocation);
+				connectorDisplayLists.clear();
+				solidConnectorDisplayLists.clear();
 				for(Axis axis : Axis.values()){
-					if(parsedModel.containsKey(axis.name().toLowerCase())){
-						connectorDisplayLists.put(axis, cacheAxisVertices(parsedModel.get(axis.name().toLowerCase())));
+					int displayListIndex = ModelGeometryCache.getObjectList(modelLocation, axis.name().toLowerCase());
+					if(displayListIndex != -1){
+						connectorDisplayLists.put(axis, displayListIndex);
 					}
-					if(parsedModel.containsKey(axis.name().toLowerCase() + "_solid")){
-						solidConncectorDisplayLists.put(axis, cacheAxisVertices(parsedModel.get(axis.name().toLowerCase() + "_solid")));
+					displayListIndex = ModelGeometryCache.getObjectList(modelLocation, axis.name().toLowerCase() + "_solid");
+					if(displayListIndex != -1){
+						solidConnectorDisplayLists.put(axis, displayListIndex);
 					}
 				}
-				connectorDisplayListMap.put(tile.definition, connectorDisplayLists);
-				solidConnectorDisplayListMap.put(tile.definition, solidConncectorDisplayLists);
+				connectorModelLocation = modelLocation;
+				connectorGeneration = ModelGeometryCache.getGeneration();
 			}
 			
 			//Render the connectors.  Don't do this on the blending pass 1.
@@ -59,40 +69,40 @@ public class RenderPole extends ARenderTileEntityBase<TileEntityPole>{
 				MasterLoader.renderInterface.bindTexture(tile.definition.getTextureLocation());
 				for(Axis axis : Axis.values()){
 					if(axis.equals(Axis.NONE)){
-						GL11.glCallList(connectorDisplayListMap.get(tile.definition).get(axis));
+						GL11.glCallList(connectorDisplayLists.get(axis));
 					}else{
 						Point3i offset = axis.getOffsetPoint(tile.position);
 						boolean adjacentPole = tile.world.getBlock(offset) instanceof BlockPole;
 						boolean solidBlock = tile.world.isBlockSolid(offset);
 						boolean slabBlock = (axis.equals(Axis.DOWN) && tile.world.isBlockBottomSlab(offset)) || (axis.equals(Axis.UP) && tile.world.isBlockTopSlab(offset));
 						if(adjacentPole || solidBlock){
-							if(connectorDisplayListMap.get(tile.definition).containsKey(axis)){
-								GL11.glCallList(connectorDisplayListMap.get(tile.definition).get(axis));
+							if(connectorDisplayLists.containsKey(axis)){
+								GL11.glCallList(connectorDisplayLists.get(axis));
 							}
 						}
 						if(solidBlock){
-							if(solidConnectorDisplayListMap.get(tile.definition).containsKey(axis)){
-								GL11.glCallList(solidConnectorDisplayListMap.get(tile.definition).get(axis));
+							if(solidConnectorDisplayLists.containsKey(axis)){
+								GL11.glCallList(solidConnectorDisplayLists.get(axis));
 							}
 						}else if(slabBlock){
 							//Slab.  Render the center and proper portion and center again to render at slab height.
 							//Also render solid portion as it's a solid block.
 							Axis oppositeAxis = axis.getOpposite();
-							if(connectorDisplayListMap.get(tile.definition).containsKey(axis)){
-								GL11.glCallList(connectorDisplayListMap.get(tile.definition).get(axis));
+							if(connectorDisplayLists.containsKey(axis)){
+								GL11.glCallList(connectorDisplayLists.get(axis));
 								//Offset to slab block.
 								GL11.glTranslatef(0.0F, axis.yOffset, 0.0F);
 								
 								//Render upper and center section.  Upper joins lower above slab.
-								if(connectorDisplayListMap.get(tile.definition).containsKey(oppositeAxis)){
-									GL11.glCallList(connectorDisplayListMap.get(tile.definition).get(oppositeAxis));
+								if(connectorDisplayLists.containsKey(oppositeAxis)){
+									GL11.glCallList(connectorDisplayLists.get(oppositeAxis));
 								}
-								GL11.glCallList(connectorDisplayListMap.get(tile.definition).get(Axis.NONE));
+								GL11.glCallList(connectorDisplayLists.get(Axis.NONE));
 								
 								//Offset to top of slab and render solid lower connector, if we have one.
 								GL11.glTranslatef(0.0F, -axis.yOffset/2F, 0.0F);
-								if(solidConnectorDisplayListMap.get(tile.definition).containsKey(axis)){
-									GL11.glCallList(solidConnectorDisplayListMap.get(tile.definition).get(axis));
+								if(solidConnectorDisplayLists.containsKey(axis)){
+									GL11.glCallList(solidConnectorDisplayLists.get(axis));
 								}
 								
 								//Translate back to the normal position.
@@ -109,33 +119,34 @@ public class RenderPole extends ARenderTileEntityBase<TileEntityPole>{
 			if(!axis.equals(Axis.NONE)){
 				if(tile.components.containsKey(axis)){
 					//Cache the displaylists and lights if we haven't already.
+					//Lights are re-made if models have been invalidated, as they may have changed.
 					ATileEntityPole_Component component = tile.components.get(axis);
-					if(!componentDisplayListMap.containsKey(component.definition)){
-						Map<String, Float[][]> parsedModel = OBJParser.parseOBJModel(component.definition.getModelLocation());
+					String modelLocation = component.definition.getModelLocation();
+					useModel(modelLocation);
+					if(componentLightGeneration != ModelGeometryCache.getGeneration()){
+						componentLightMap.clear();
+						componentLightGeneration = ModelGeometryCache.getGeneration();
+					}
+					int displayListIndex = ModelGeometryCache.getDisplayList(modelLocation, COMPONENT_LIST_NAME);
+					if(displayListIndex == -1 || !componentLightMap.containsKey(component.definition)){
+						Map<String, Float[][]> parsedModel = ModelGeometryCache.getObjects(modelLocation);
 						List<TransformLight> lightParts = new ArrayList<TransformLight>();
-						int displayListIndex = GL11.glGenLists(1);
-						GL11.glNewList(displayListIndex, GL11.GL_COMPILE);
-						GL11.glBegin(GL11.GL_TRIANGLES);
-						for(Entry<String, Float[][]> entry : parsedModel.entrySet()){
+						Iterator<Entry<String, Float[][]>> iterator = parsedModel.entrySet().iterator();
+						while(iterator.hasNext()){
+							Entry<String, Float[][]> entry = iterator.next();
 							if(entry.getKey().startsWith("&")){
 								//Save light for special rendering.
 								lightParts.add(new TransformLight(component.definition.general.modelName, entry.getKey(), entry.getValue()));
 								if(lightParts.get(lightParts.size() - 1).isLightupTexture){
-									continue;
+									iterator.remove();
 								}
 							}
-							//Add vertices
-							for(Float[] vertex : entry.getValue()){
-								GL11.glTexCoord2f(vertex[3], vertex[4]);
-								GL11.glNormal3f(vertex[5], vertex[6], vertex[7]);
-								GL11.glVertex3f(vertex[0], vertex[1], vertex[2]);
-							}
 						}
-						GL11.glEnd();
-						GL11.glEndList();
 						
-						//Put parsed model into the maps.
-						componentDisplayListMap.put(component.definition, displayListIndex);
+						//Put parsed model into the cache and the light map.
+						if(displayListIndex == -1){
+							displayListIndex = ModelGeometryCache.createDisplayList(modelLocation, COMPONENT_LIST_NAME, parsedModel.values());
+						}
 						componentLightMap.put(component.definition, lightParts);
 					}
 					
@@ -147,7 +158,7 @@ public class RenderPole extends ARenderTileEntityBase<TileEntityPole>{
 					//Don't do solid model rendering on the blend pass.
 					if(MasterLoader.renderInterface.getRenderPass() != 1){
 						MasterLoader.renderInterface.bindTexture(component.definition.getTextureLocation());
-						GL11.glCallList(componentDisplayListMap.get(component.definition));
+						GL11.glCallList(displayListIndex);
 					}
 					
 					if(component instanceof TileEntityPole_TrafficSignal){
@@ -192,18 +203,4 @@ public class RenderPole extends ARenderTileEntityBase<TileEntityPole>{
 	public boolean translateToSlabs(){
 		return false;
 	}
-	
-	private static int cacheAxisVertices(Float[][] vertices){
-		int displayListIndex = GL11.glGenLists(1);
-		GL11.glNewList(displayListIndex, GL11.GL_COMPILE);
-		GL11.glBegin(GL11.GL_TRIANGLES);
-		for(Float[] vertex : vertices){
-			GL11.glTexCoord2f(vertex[3], vertex[4]);
-			GL11.glNormal3f(vertex[5], vertex[6], vertex[7]);
-			GL11.glVertex3f(vertex[0], vertex[1], vertex[2]);
-		}
-		GL11.glEnd();
-		GL11.glEndList();
-		return displayListIndex;
-	}
 }
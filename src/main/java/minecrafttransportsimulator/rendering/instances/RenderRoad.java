@@ -5,14 +5,22 @@ import org.lwjgl.opengl.GL11;
 import minecrafttransportsimulator.baseclasses.Point3d;
 import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityRoad;
 import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityRoad.RoadLane;
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.rendering.components.RoadMeshCache;
 
 public class RenderRoad extends ARenderTileEntityBase<TileEntityRoad>{
 	//private static final Map<JSONRoadComponent, Integer> componentDisplayListMap = new HashMap<JSONRoadComponent, Integer>();
 	
 	@Override
 	public void render(TileEntityRoad road, float partialTicks){
-		//Render road components.
-		
+		//Render road components.  These are meshed and batched by the cache, so we just tell it to render.
+		//Holographic roads don't render their components, so remove them from the cache if they were in it.
+		//Don't do solid model rendering on the blend pass.
+		if(road.isHolographic){
+			RoadMeshCache.removeRoad(road.world, road.position);
+		}else if(MasterLoader.renderInterface.getRenderPass() != 1){
+			RoadMeshCache.render(road);
+		}
 		
 		//If we are holographic, render road bounds and colliding boxes.
 		if(road.isHolographic){
@@ -35,7 +43,7 @@ public class RenderRoad extends ARenderTileEntityBase<TileEntityRoad>{
 			Point3d point = new Point3d(0, 0, 0);
 			for(RoadLane lane : road.lanes){
 				for(float f=0; f<lane.curve.pathLength; f+=0.1){
-					point.setTo(lane.curve.getPointAt(f)).add(lane.startingOffset);
+					lane.curve.getPointAt(f, point).add(lane.startingOffset);
 					GL11.glVertex3d(point.x, point.y, point.z);
 					GL11.glVertex3d(point.x, point.y + 1, point.z);
 				}
@@ -27,7 +27,7 @@ import minecrafttransportsimulator.mcinterface.MasterLoader;
 import minecrafttransportsimulator.rendering.components.ATransform;
 import minecrafttransportsimulator.rendering.components.IVehiclePartFXProvider;
 import minecrafttransportsimulator.rendering.components.LightType;
-import minecrafttransportsimulator.rendering.components.OBJParser;
+import minecrafttransportsimulator.rendering.components.ModelGeometryCache;
 import minecrafttransportsimulator.rendering.components.RenderableModelObject;
 import minecrafttransportsimulator.rendering.components.RenderableTransform;
 import minecrafttransportsimulator.rendering.components.TransformLight;
@@ -48,46 +48,60 @@ import minecrafttransportsimulator.vehicles.parts.PartGroundDevice;
  * @author don_bruce
  */
 public final class RenderVehicle{	
-	//VEHICLE MAPS.  Maps are keyed by system name.
-	private static final Map<String, Integer> vehicleDisplayLists = new HashMap<String, Integer>();
+	//VEHICLE MAPS.  Maps are keyed by system name.  Display lists are in the ModelGeometryCache, also keyed by system name.
 	private static final Map<String, List<RenderableModelObject>> vehicleObjectLists = new HashMap<String, List<RenderableModelObject>>();
 	private static final Map<String, Map<Integer, RenderableTransform>> vehicleInstrumentTransforms = new HashMap<String, Map<Integer, RenderableTransform>>();
 	@Deprecated
 	private static final Map<String, List<Float[]>> treadDeltas = new HashMap<String, List<Float[]>>();
 	private static final Map<String, List<Double[]>> treadPoints = new HashMap<String, List<Double[]>>();
 	
-	//PART MAPS.  Maps are keyed by the part model name.
-	private static final Map<String, Integer> partDisplayLists = new HashMap<String, Integer>();
+	//PART MAPS.  Maps are keyed by the part model name.  Display lists are in the ModelGeometryCache.
+	private static final String PART_LIST_NAME = "part";
 	private static final Map<String, List<RenderableModelObject>> partObjectLists = new HashMap<String, List<RenderableModelObject>>();
 	
 	
 	/**Used to clear out the rendering caches of any vehicles with the passed-in definition.
 	 * Used in dev mode to allow the re-loading of models.**/
 	public static void clearVehicleCaches(JSONVehicle definition){
-		if(vehicleDisplayLists.containsKey(definition.systemName)){
-			GL11.glDeleteLists(vehicleDisplayLists.remove(definition.systemName), 1);
-			for(RenderableModelObject modelObject : vehicleObjectLists.get(definition.systemName)){
-				modelObject.resetDisplayList();
-			}
-			vehicleObjectLists.remove(definition.systemName);
+		String modelLocation = definition.getModelLocation();
+		if(vehicleObjectLists.remove(definition.systemName) != null){
 			treadDeltas.remove(definition.systemName);
 			treadPoints.remove(definition.systemName);
 			vehicleInstrumentTransforms.remove(definition.systemName);
 		}
+		ModelGeometryCache.invalidate(modelLocation);
 	}
 	
 	/**Used to clear out the rendering caches of any parts with the passed-in definition.
 	 * Used in dev mode to allow the re-loading of models.**/
 	public static void clearPartCaches(JSONPart definition){
-		String modelName = definition.getModelLocation();
-		if(partDisplayLists.containsKey(modelName)){
-			GL11.glDeleteLists(partDisplayLists.remove(modelName), 1);
+		String modelLocation = definition.getModelLocation();
+		partObjectLists.remove(modelLocation);
+		ModelGeometryCache.invalidate(modelLocation);
+	}
+	
+	/**
+	 *  Called when the passed-in vehicle is removed or unloaded.  Releases the models it and
+	 *  its parts acquired from the {@link ModelGeometryCache} when they started rendering.
+	 */
+	public static void removeVehicle(EntityVehicleF_Physics vehicle){
+		if(vehicle.renderedModelLocation != null){
+			ModelGeometryCache.release(vehicle.renderedModelLocation);
+			vehicle.renderedModelLocation = null;
 		}
-		if(partObjectLists.containsKey(modelName)){
-			for(RenderableModelObject modelObject : partObjectLists.get(modelName)){
-				modelObject.resetDisplayList();
-			}
-			partObjectLists.remove(definition.systemName);
+		for(APart part : vehicle.parts){
+			removePart(part);
+		}
+	}
+	
+	/**
+	 *  Called when the passed-in part is removed from its vehicle.  Releases the model it
+	 *  acquired from the {@link ModelGeometryCache} when it started rendering.
+	 */
+	public static void removePart(APart part){
+		if(part.renderedModelLocation != null){
+			ModelGeometryCache.release(part.renderedModelLocation);
+			part.renderedModelLocation = null;
 		}
 	}
 	
@@ -222,9 +236,16 @@ public final class RenderVehicle{
 	private static void renderMainModel(EntityVehicleF_Physics vehicle, float partialTicks){
 		//Normally we use the pack name, but since all displaylists
 		//are the same for all models, this is more appropriate.
-		if(!vehicleDisplayLists.containsKey(vehicle.definition.systemName)){
-			//No distplay list for this model.  Parse and create it now.
-			Map<String, Float[][]> parsedModel = OBJParser.parseOBJModel(vehicle.definition.getModelLocation());
+		//If the model cache was invalidated, our display list will be gone, so re-create everything.
+		String modelLocation = vehicle.definition.getModelLocation();
+		if(vehicle.renderedModelLocation == null){
+			ModelGeometryCache.acquire(modelLocation);
+			vehicle.renderedModelLocation = modelLocation;
+		}
+		int displayListIndex = ModelGeometryCache.getDisplayList(modelLocation, vehicle.definition.systemName);
+		if(displayListIndex == -1 || !vehicleObjectLists.containsKey(vehicle.definition.systemName)){
+			//No distplay list for this model.  Get the parsed model from the cache and create it now.
+			Map<String, Float[][]> parsedModel = ModelGeometryCache.getObjects(modelLocation);
 			
 			//For anything that has a definition as an animation, add it to an animated list.
 			//If we find a definition, we remove the object so it doesn't get packed into the main DisplayList.
@@ -232,7 +253,7 @@ public final class RenderVehicle{
 			if(vehicle.definition.rendering.animatedObjects != null){
 				for(VehicleAnimatedObject definition : vehicle.definition.rendering.animatedObjects){
 					if(parsedModel.containsKey(definition.objectName)){
-						modelObjects.add(new RenderableModelObject(vehicle.definition.systemName, definition.objectName, definition, parsedModel.get(definition.objectName), vehicle, null));
+						modelObjects.add(new RenderableModelObject(modelLocation, definition.objectName, definition, parsedModel.get(definition.objectName), vehicle, null));
 						parsedModel.remove(definition.objectName);
 					}
 				}
@@ -242,7 +263,7 @@ public final class RenderVehicle{
 			Iterator<Entry<String, Float[][]>> iterator = parsedModel.entrySet().iterator();
 			while(iterator.hasNext()){
 				Entry<String, Float[][]> entry = iterator.next();
-				RenderableModelObject modelObject = new RenderableModelObject(vehicle.definition.systemName, entry.getKey(), null, entry.getValue(), vehicle, null);
+				RenderableModelObject modelObject = new RenderableModelObject(modelLocation, entry.getKey(), null, entry.getValue(), vehicle, null);
 				if(!modelObject.transforms.isEmpty()){
 					modelObjects.add(modelObject);
 					iterator.remove();
@@ -259,7 +280,7 @@ public final class RenderVehicle{
 			}
 			
 			//Now finalize the maps.
-			vehicleDisplayLists.put(vehicle.definition.systemName, OBJParser.generateDisplayList(parsedModel));
+			displayListIndex = ModelGeometryCache.createDisplayList(modelLocation, vehicle.definition.systemName, parsedModel.values());
 			vehicleObjectLists.put(vehicle.definition.systemName, modelObjects);
 			vehicleInstrumentTransforms.put(vehicle.definition.systemName, instrumentTransforms);
 		}
@@ -268,7 +289,7 @@ public final class RenderVehicle{
 		//Don't render on the transparent pass.
 		MasterLoader.renderInterface.setTexture(vehicle.definition.getTextureLocation(vehicle.currentSubName));
 		if(MasterLoader.renderInterface.getRenderPass() != 1){
-			GL11.glCallList(vehicleDisplayLists.get(vehicle.definition.systemName));
+			GL11.glCallList(displayListIndex);
 		}
 		
 		//Render any static text.
@@ -295,8 +316,14 @@ public final class RenderVehicle{
 	 */
 	private static void renderPart(APart part, float partialTicks){
 		String partModelLocation = part.definition.getModelLocation();
-		if(!partDisplayLists.containsKey(partModelLocation)){
-			Map<String, Float[][]> parsedModel = OBJParser.parseOBJModel(partModelLocation);
+		if(part.renderedModelLocation == null){
+			ModelGeometryCache.acquire(partModelLocation);
+			part.renderedModelLocation = partModelLocation;
+		}
+		//If the model cache was invalidated, our display list will be gone, so re-create everything.
+		int displayListIndex = ModelGeometryCache.getDisplayList(partModelLocation, PART_LIST_NAME);
+		if(displayListIndex == -1 || !partObjectLists.containsKey(partModelLocation)){
+			Map<String, Float[][]> parsedModel = ModelGeometryCache.getObjects(partModelLocation);
 			
 			//For anything that has a definition as an animation, add it to an animated list.
 			//If we find a definition, we remove the object so it doesn't get packed into the main DisplayList.
@@ -322,7 +349,7 @@ public final class RenderVehicle{
 			}
 			
 			//Now finalize the maps.
-			partDisplayLists.put(partModelLocation, OBJParser.generateDisplayList(parsedModel));
+			displayListIndex = ModelGeometryCache.createDisplayList(partModelLocation, PART_LIST_NAME, parsedModel.values());
 			partObjectLists.put(partModelLocation, modelObjects);
 		}
 		
@@ -351,14 +378,14 @@ public final class RenderVehicle{
 		//Don't do this for pass 1 though as treads don't have transparency.
 		if(part.definition.ground != null && part.definition.ground.isTread && MasterLoader.renderInterface.getRenderPass() != 1){
 			if(part.vehicleDefinition.treadZPoints != null){
-				doManualTreadRender((PartGroundDevice) part, partialTicks, partDisplayLists.get(partModelLocation));	
+				doManualTreadRender((PartGroundDevice) part, partialTicks, displayListIndex);	
 			}else{
-				doAutomaticTreadRender((PartGroundDevice) part, partialTicks, partDisplayLists.get(partModelLocation));
+				doAutomaticTreadRender((PartGroundDevice) part, partialTicks, displayListIndex);
 			}
 		}else{
     		//Render the part DisplayList, but only if we aren't in the transparent pass.
 			if(MasterLoader.renderInterface.getRenderPass() != 1){
-				GL11.glCallList(partDisplayLists.get(partModelLocation));
+				GL11.glCallList(displayListIndex);
 			}
 			
 			//Render any static text.
@@ -17,6 +17,20 @@ public interface IStreamDecoder{
 	 */
     public ByteBuffer readBlock();
     
+    /**
+	 *  Non-blocking version of {@link #readBlock()}.  Returns a block
+	 *  if one is ready to go, or null if the decoder doesn't have one
+	 *  ready yet.  Unlike {@link #readBlock()}, a null return does NOT
+	 *  mean the stream is done.  Use {@link #isFinished()} for that.
+	 *  The same buffer re-use rules as {@link #readBlock()} apply.
+	 */
+    public ByteBuffer pollBlock();
+    
+    /**
+	 *  Returns true if this decoder has no more blocks to give out.
+	 */
+    public boolean isFinished();
+    
     /**
 	 *  Stops the decoding process.  This ensures all I/O
 	 *  references like streams are safely closed, allowing for
@@ -108,6 +108,17 @@ public class MP3Decoder implements IStreamDecoder{
         return decodedDataBuffer;
     }
     
+    @Override
+    public ByteBuffer pollBlock(){
+    	//MP3 decoding is done on the calling thread, so we never have to wait on anything but the stream.
+    	return readBlock();
+    }
+    
+    @Override
+    public boolean isFinished(){
+    	return currentFrameHeader == null;
+    }
+    
     @Override
     public void stop(){
     	try{
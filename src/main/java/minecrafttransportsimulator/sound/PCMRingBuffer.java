@@ -0,0 +1,86 @@
+package minecrafttransportsimulator.sound;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**Lock-free single-producer/single-consumer ring buffer for PCM data.  One thread (the decoder)
+ * writes into this buffer, and one thread (the audio update) reads out of it.  No locks are
+ * used, as each index is only ever written by one side.  Indexes are never wrapped, only the
+ * array position they point to is, so the difference between them is always the byte count.
+ * Do NOT use this buffer with more than one reader or writer, as it will corrupt the data.
+ *
+ * @author don_bruce
+ */
+public class PCMRingBuffer{
+	private final byte[] data;
+	private final int mask;
+	/**Total bytes written.  Only modified by the producer.**/
+	private final AtomicLong writeIndex = new AtomicLong();
+	/**Total bytes read.  Only modified by the consumer.**/
+	private final AtomicLong readIndex = new AtomicLong();
+
+	/**
+	 *  Creates a new ring buffer.  Capacity must be a power of 2 to allow
+	 *  for masking rather than modulo operations.
+	 */
+	public PCMRingBuffer(int capacity){
+		if(Integer.bitCount(capacity) != 1){
+			throw new IllegalArgumentException("ERROR: PCM ring buffer capacity must be a power of 2, but got: " + capacity);
+		}
+		this.data = new byte[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 *  Returns the number of bytes that can be read.  Safe to call from either thread.
+	 */
+	public int available(){
+		return (int) (writeIndex.get() - readIndex.get());
+	}
+
+	/**
+	 *  Returns the number of bytes that can be written.  Safe to call from either thread.
+	 */
+	public int free(){
+		return data.length - available();
+	}
+
+	/**
+	 *  Writes as many bytes as possible from the passed-in buffer into this ring.
+	 *  The buffer's position is advanced by the number of bytes written, so any
+	 *  remaining bytes may be written in a later call.  Returns the number of bytes written.
+	 *  Producer thread only!
+	 */
+	public int write(ByteBuffer source){
+		long currentWriteIndex = writeIndex.get();
+		int bytesToWrite = Math.min(data.length - (int) (currentWriteIndex - readIndex.get()), source.remaining());
+		if(bytesToWrite > 0){
+			int offset = (int) (currentWriteIndex & mask);
+			int firstSegment = Math.min(bytesToWrite, data.length - offset);
+			source.get(data, offset, firstSegment);
+			source.get(data, 0, bytesToWrite - firstSegment);
+			//Lazy set here is safe as the consumer will see the data prior to the index.
+			writeIndex.lazySet(currentWriteIndex + bytesToWrite);
+		}
+		return bytesToWrite;
+	}
+
+	/**
+	 *  Reads up to the passed-in number of bytes into the passed-in buffer.
+	 *  Returns the number of bytes read, which may be less than requested if
+	 *  the ring doesn't have enough data or the buffer doesn't have enough space.
+	 *  Consumer thread only!
+	 */
+	public int read(ByteBuffer destination, int maxBytes){
+		long currentReadIndex = readIndex.get();
+		int bytesToRead = Math.min(Math.min((int) (writeIndex.get() - currentReadIndex), maxBytes), destination.remaining());
+		if(bytesToRead > 0){
+			int offset = (int) (currentReadIndex & mask);
+			int firstSegment = Math.min(bytesToRead, data.length - offset);
+			destination.put(data, offset, firstSegment);
+			destination.put(data, 0, bytesToRead - firstSegment);
+			readIndex.lazySet(currentReadIndex + bytesToRead);
+		}
+		return bytesToRead;
+	}
+}
@@ -57,10 +57,25 @@ public class Radio{
 	 * it has connected and is ready to play sound.
 	 */
 	public void start(){
+		//Stop the old sound, if we had one, so the audio system can release it.
+		if(currentSound != null){
+			currentSound.stop();
+		}
 		currentSound = new SoundInstance(provider, "Radio_" + radioID, false, this);
 		currentSound.volume = volume/10F;
 	}
 	
+	/**
+	 * Removes this radio from the created radio maps.  Call this when the provider of this radio
+	 * is removed from the world, as the maps would keep it and its provider in memory otherwise.
+	 */
+	public void remove(){
+		Map<Integer, Radio> createdRadios = provider.getProviderWorld().isClient() ? createdClientRadios : createdServerRadios;
+		if(createdRadios.get(radioID) == this){
+			createdRadios.remove(radioID);
+		}
+	}
+	
 	/**
 	 * Stops radio playback, disconnecting it from its source.
 	 * This command comes from the stop button or the audio system if the
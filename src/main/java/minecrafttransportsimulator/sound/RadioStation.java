@@ -1,14 +1,17 @@
 package minecrafttransportsimulator.sound;
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.IOException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import javazoom.jl.decoder.Equalizer;
@@ -17,11 +20,19 @@ import minecrafttransportsimulator.sound.RadioManager.RadioSources;
 
 /**Radio stations are sources that radios can hook into to provide sound.  All radios share the
  * same common set of stations, which means that should two radios start playing the same station, they
- * will both play in-sync with one another.
+ * will both play in-sync with one another.  Each station has a single reader and decoder for its source,
+ * no matter how many radios are listening.  Decoded data is kept in a shared list of buffers, which every
+ * radio queues.  Rather than have all radios step through these buffers in lock-step, each radio tracks
+ * the offset of the next buffer it needs to play.  Buffers are deleted once all radios have played them.
 *
 * @author don_bruce
 */
 public class RadioStation{
+	/**Number of buffers to keep queued in OpenAL.  Radios won't start until we have this many.**/
+	private static final int MAX_BUFFERS = 5;
+	/**String used to show buffer counts.  Substringed rather than re-built on each buffer change.**/
+	private static final String BUFFER_DISPLAY = "XXXXX";
+	
 	//Public variables for checking and modifying state.
 	public String displayText = "";
 	public final Equalizer equalizer;
@@ -31,10 +42,14 @@ public class RadioStation{
 	private final int index;
 	private final List<File> musicFiles;
 	private final Set<Radio> queuedRadios = new HashSet<Radio>();
-	private final Set<Radio> playingRadios = new HashSet<Radio>();
-	private volatile List<Integer> activeBuffers = new ArrayList<Integer>();
-	private volatile IStreamDecoder decoder;
-	private volatile DecoderThread decoderThread;
+	/**Maps playing radios to the offset of the next buffer they will finish playing.**/
+	private final Map<Radio, Long> playingRadios = new HashMap<Radio, Long>();
+	private final List<Integer> activeBuffers = new ArrayList<Integer>();
+	/**Offset of the first buffer in {@link #activeBuffers}.  Offsets count up from 0 for each decoder.**/
+	private long firstBufferOffset;
+	/**Header for the display text.  Internet streams set this on the decoder thread once they connect.**/
+	private volatile String displayHeader = "";
+	private StreamDecoderPipeline decoder;
 	
 	public RadioStation(RadioSources source, int index){
 		this.source = source;
@@ -56,31 +71,33 @@ public class RadioStation{
 	 * Generates a new buffer for this station from the current decoder and 
 	 * stores it in the list of active buffers.  Also updates the displayText
 	 * to reflect the buffer count.  Returns the index of the newly-created
-	 * buffer, or 0 if the buffer wasn't able to be created.
+	 * buffer, or 0 if the buffer wasn't able to be created.  This never blocks,
+	 * as the decoder pipeline does all decoding on its own thread.
 	 */
 	private int generateBufferIndex(){
-		ByteBuffer buffer = decoder.readBlock();
+		ByteBuffer buffer = decoder.pollBlock();
 		if(buffer != null){
 			//Get new buffer index from the audio system and add it to our radios.
 			int bufferIndex = MasterLoader.audioInterface.createBuffer(buffer, decoder);
 			activeBuffers.add(bufferIndex);
-			
-			//Update station buffer counts and return buffer index.
-			displayText = displayText.substring(0, displayText.indexOf("Buffers:") + "Buffers:".length());
-			for(byte i=0; i<activeBuffers.size(); ++i){
-				displayText += "X";
-			}
-			
+			updateBufferDisplay();
 			return bufferIndex;
 		}
 		return 0;
 	}
 	
+	/**
+	 * Updates the displayText to reflect the current buffer count.
+	 */
+	private void updateBufferDisplay(){
+		displayText = displayHeader + BUFFER_DISPLAY.substring(0, Math.min(activeBuffers.size(), BUFFER_DISPLAY.length()));
+	}
+	
 	/**
 	 * Adds a radio to this station for playback.  If the station isn't playing to any radios, then
 	 * the station is started and the radio will start playing as soon as its ready.  If the station
-	 * is playing, then the radio is queued to start on the next buffer call.  This allows for syncing
-	 * of radios in the world.
+	 * is playing, then the radio is queued to start when the playing radios finish their current buffer.
+	 * This allows for syncing of radios in the world.
 	 */
 	public void addRadio(Radio radio){
 		queuedRadios.add(radio);
@@ -94,6 +111,27 @@ public class RadioStation{
 		queuedRadios.remove(radio);
 	}
 	
+	/**
+	 * Returns the number of radios listening to this station.
+	 */
+	public int getListenerCount(){
+		return playingRadios.size() + queuedRadios.size();
+	}
+	
+	/**
+	 * Returns the number of times the decoder couldn't keep up with playback.
+	 */
+	public int getUnderrunCount(){
+		return decoder != null ? decoder.getUnderrunCount() : 0;
+	}
+	
+	/**
+	 * Returns the number of times the decoder had to wait for playback to catch up.
+	 */
+	public int getOverrunCount(){
+		return decoder != null ? decoder.getOverrunCount() : 0;
+	}
+	
 	/**
 	 * Updates the station.  Responsible for managing buffers, encoder calls,
 	 * starting new queued radios, and the like.  This will be called from
@@ -101,53 +139,95 @@ public class RadioStation{
 	 */
 	public void update(){
 		if(!playingRadios.isEmpty() || !queuedRadios.isEmpty()){
-			if(decoderThread == null && decoder == null){
-				//Need to start the first decoder thread.
+			if(decoder == null){
+				//Need to start the first decoder.
 				startPlayback();
-			}else if(decoderThread == null){
-				int freeBufferIndex = 0;
+			}else if(decoder.hasFailed() && activeBuffers.isEmpty()){
+				//Decoder couldn't read the source.  Show an error and wait for the radios to be turned off.
+				//We don't re-try here, as doing so would re-open the source every tick.
+				String failureMessage = decoder.getFailureMessage();
+				displayText = failureMessage != null && failureMessage.startsWith("ERROR") ? failureMessage : displayHeader + "\nERROR: Unable to decode stream.";
+			}else{
+				//Advance the offsets of all playing radios by the buffers they have finished.
+				//Track the furthest offset a radio advanced to, as that's where new radios sync up.
+				long syncOffset = -1;
+				List<Radio> badRadios = null;
+				for(Entry<Radio, Long> radioEntry : playingRadios.entrySet()){
+					int processedBuffers = MasterLoader.audioInterface.unqueueProcessedBuffers(radioEntry.getKey().getPlayingSound());
+					if(processedBuffers < 0){
+						if(badRadios == null){
+							badRadios = new ArrayList<Radio>();
+						}
+						badRadios.add(radioEntry.getKey());
+					}else if(processedBuffers > 0){
+						radioEntry.setValue(radioEntry.getValue() + processedBuffers);
+						syncOffset = Math.max(syncOffset, radioEntry.getValue());
+					}
+				}
+				if(badRadios != null){
+					for(Radio radio : badRadios){
+						radio.stop();
+					}
+				}
 				
-				//If we have any playing radios, do buffer logic.
+				//Delete buffers that all radios have played.
 				if(!playingRadios.isEmpty()){
-					//First check if we have any buffers that are done playing that we can re-claim.
-					freeBufferIndex = MasterLoader.audioInterface.getFreeStationBuffer(playingRadios);
-					if(freeBufferIndex != 0){
-						activeBuffers.remove(activeBuffers.indexOf(freeBufferIndex));
-						MasterLoader.audioInterface.deleteBuffer(freeBufferIndex);
+					long minimumOffset = Collections.min(playingRadios.values());
+					if(minimumOffset > firstBufferOffset){
+						while(firstBufferOffset < minimumOffset && !activeBuffers.isEmpty()){
+							MasterLoader.audioInterface.deleteBuffer(activeBuffers.remove(0));
+							++firstBufferOffset;
+						}
+						updateBufferDisplay();
 					}
 				}
 				
-				//If we removed a buffer, or if we don't have any playing radios, start our radios.
-				//This syncs new radios if we are playing one, and starts new radios if we aren't.
-				if((freeBufferIndex != 0 || playingRadios.isEmpty()) && !queuedRadios.isEmpty()){
-					for(Radio radio : queuedRadios){
-						radio.start();
-						MasterLoader.audioInterface.addRadioSound(radio.getPlayingSound(), activeBuffers);
-						playingRadios.add(radio);
+				//If a radio just finished a buffer, start queued radios at that radio's offset.
+				//This syncs new radios if we are playing one.  If we aren't playing any, start
+				//new radios at the first buffer.  Don't start radios until we have primed the buffers,
+				//as starting too quickly will cause the buffers to run out.  Done decoders don't need priming though.
+				if(!queuedRadios.isEmpty()){
+					long startOffset = -1;
+					if(playingRadios.isEmpty()){
+						if(activeBuffers.size() >= MAX_BUFFERS || (decoder.isFinished() && !activeBuffers.isEmpty())){
+							startOffset = firstBufferOffset;
+						}
+					}else if(syncOffset >= firstBufferOffset && syncOffset < firstBufferOffset + activeBuffers.size()){
+						startOffset = syncOffset;
+					}
+					if(startOffset >= 0){
+						List<Integer> buffersToPlay = activeBuffers.subList((int) (startOffset - firstBufferOffset), activeBuffers.size());
+						for(Radio radio : queuedRadios){
+							radio.start();
+							MasterLoader.audioInterface.addRadioSound(radio.getPlayingSound(), buffersToPlay);
+							playingRadios.put(radio, startOffset);
+						}
+						queuedRadios.clear();
 					}
-					queuedRadios.clear();
 				}
 				
-				//If we have less than 5 buffers, try to get another one.
-				if(activeBuffers.size() < 5){
+				//If we have less than the max buffers, try to get another one.
+				//New buffers go to every playing radio, as they are all at or behind the end of the list.
+				if(activeBuffers.size() < MAX_BUFFERS){
 					int newIndex = generateBufferIndex();
 					if(newIndex != 0){
-						for(Radio radio : playingRadios){
+						for(Radio radio : playingRadios.keySet()){
 							MasterLoader.audioInterface.bindBuffer(radio.getPlayingSound(), newIndex);
 						}
 					}
 				}
 				
-				//If we have 0 buffers, clear out the decoder and start the station again.
+				//If we have 0 buffers, and the decoder is done, start the station again.
 				//This happens if we reach an EOF, or the stream cuts out.
-				if(activeBuffers.isEmpty()){
+				if(activeBuffers.isEmpty() && decoder.isFinished()){
 					startPlayback();
 				}
 			}
 		}else{
 			//If we are an internet stream, and we aren't hooked to anything, abort us.
 			//This is because internet streams are constant feeds and can't be cached.
-			if(!source.equals(RadioSources.LOCAL) && decoder != null){
+			//Also abort failed decoders, so they can be re-tried the next time a radio is turned on.
+			if(decoder != null && (!source.equals(RadioSources.LOCAL) || decoder.hasFailed())){
 				decoder.stop();
 				decoder = null;
 			}
@@ -156,9 +236,9 @@ public class RadioStation{
 	
 	/**
 	 * Starts playback of this station.  This is called when we first add a radio,
-	 * or when the radio stops playing.  This creates a new encoder for parsing data
-	 * and populates the buffers via a thread.  Radios will be started in the update
-	 * method when the buffer is full.
+	 * or when the radio stops playing.  This creates a new decoder pipeline for parsing
+	 * data, which populates the buffers via its own thread.  Radios will be started in
+	 * the update method when enough buffers are available.
 	 */
 	private void startPlayback(){
 		//Delete any buffers we might still have.
@@ -166,9 +246,16 @@ public class RadioStation{
 			MasterLoader.audioInterface.deleteBuffer(buffer);
 		}
 		activeBuffers.clear();
+		firstBufferOffset = 0;
+		
+		//Stop the old decoder, if we have one.
+		if(decoder != null){
+			decoder.stop();
+			decoder = null;
+		}
 		
 		//Move any playing radios back into the queue.
-		queuedRadios.addAll(playingRadios);
+		queuedRadios.addAll(playingRadios.keySet());
 		playingRadios.clear();
 		
 		//Start decoder creation routines.
@@ -191,15 +278,19 @@ public class RadioStation{
 		Iterator<File> iterator = musicFiles.iterator();
 		while(iterator.hasNext()){
 			try{
-				File musicFile = iterator.next();
+				final File musicFile = iterator.next();
 				if(!musicFile.getName().toLowerCase().endsWith(".mp3")){
 					iterator.remove();
 				}else{
-					displayText = "Station: " + musicFiles.get(0).getParentFile().getName() + "\nNow Playing: " + musicFiles.get(0).getName();
-					displayText += "\nBuffers:";
-					decoder = null;
-					decoderThread = new DecoderThread(this, musicFiles.get(0));
-					decoderThread.start();
+					displayHeader = "Station: " + musicFile.getParentFile().getName() + "\nNow Playing: " + musicFile.getName();
+					displayHeader += "\nBuffers:";
+					displayText = displayHeader;
+					decoder = new StreamDecoderPipeline(new StreamDecoderPipeline.DecoderFactory(){
+						@Override
+						public IStreamDecoder createDecoder() throws Exception{
+							return new MP3Decoder(new RadioStreamReader(musicFile), equalizer);
+						}
+					});
 					iterator.remove();
 					return;
 				}
@@ -211,109 +302,72 @@ public class RadioStation{
 	}
 	
 	/**
-	 * Starts playing the Internet stream for this station.
+	 * Starts playing the Internet stream for this station.  The connection is opened
+	 * on the decoder thread, as slow hosts would otherwise stall the game while we wait.
+	 * Errors are reported via the decoder's failure message, which we display on update.
 	 */
 	private void playFromInternet(){
-		String station = RadioManager.getLocalStationURL(index);
+		final String station = RadioManager.getLocalStationURL(index);
 		if(station.isEmpty()){
 			displayText =  "Press SET to teach a station.";
 			playingRadios.clear();
 			queuedRadios.clear();
 			return;
 		}else{
-			try{
-				//Create a URL and open a connection.
-				URL url = new URL(station);
-				URLConnection connection = url.openConnection();
-				
-				//Verify stream is actually an HTTP stream.
-				String contentType = connection.getHeaderField("Content-Type");
-				if(contentType == null){
-					displayText = "ERROR: No Content-Type header found.  Contact the mod author for more information.";
-					return;
-				}
-				
-				//Check to make sure stream isn't an invalid type.
-				switch(contentType){
-					case("audio/mpeg") : break;
-					case("application/ogg") : break;
-					case("audio/x-wav") : displayText = "ERROR: WAV file format not supported...yet.  Contact the mod author."; return;
-					case("audio/flac") : displayText = "ERROR: Who the heck streams in FLAC?  Contact the mod author."; return;
-					default : {
-						if(contentType.startsWith("audio")){
-							displayText = "ERROR: Unsupported audio format of " + contentType + ".  Contact the mod author.";
-						}else{
-							displayText = "ERROR: Format " + contentType + " is NOT an audio format.  Is this really a music URL?";
-						}
-						return;
+			displayHeader = "Connecting...";
+			displayText = displayHeader;
+			decoder = new StreamDecoderPipeline(new StreamDecoderPipeline.DecoderFactory(){
+				@Override
+				public IStreamDecoder createDecoder() throws Exception{
+					//Create a URL and open a connection.
+					URL url = new URL(station);
+					RadioStreamReader reader;
+					try{
+						reader = new RadioStreamReader(url);
+					}catch(IOException e){
+						throw new IOException("ERROR: Unable to open URL.  Have you tried playing it in another application first?", e);
 					}
-				}
-				
-				//Parse out information from header.
-				displayText = "Name: " + (connection.getHeaderField("icy-name") != null ? connection.getHeaderField("icy-name") : "");
-				displayText += "\nDesc: " + (connection.getHeaderField("icy-description") != null ? connection.getHeaderField("icy-description") : "");
-				displayText += "\nGenre: " + (connection.getHeaderField("icy-genre") != null ? connection.getHeaderField("icy-genre") : "");
-				displayText += "\nBuffers:";
-				
-				//Create a thread to start up the sound once the parsing is done.
-				//This keeps us from blocking the main thread.
-				decoder = null;
-				decoderThread = new DecoderThread(this, contentType, url);
-				decoderThread.start();
-			}catch(Exception e){
-				e.printStackTrace();
-				displayText = "ERROR: Unable to open URL.  Have you tried playing it in another application first?";
-			}
-		}
-	}
-	
-	/**Custom thread class to prevent blocking of the main thread when playing audio.
-	 * This thread parses out the audio from the source, and keeps the decoder inside of it.
-	 *
-	 * @author don_bruce
-	 */
-	public static class DecoderThread extends Thread{
-		private final RadioStation station;
-		private final String contentType;
-		private final URL contentURL;
-		private final File contentFile;
-		
-		public DecoderThread(RadioStation station, String contentType, URL contentURL){
-			this.station = station;
-			this.contentType = contentType;
-			this.contentURL = contentURL;
-			this.contentFile = null;
-		}
-		
-		public DecoderThread(RadioStation station, File contentFile){
-			this.station = station;
-			this.contentType = null;
-			this.contentURL = null;
-			this.contentFile = contentFile;
-		}
-		
-		@Override
-		public void run(){
-			//Act based on our stream type.
-			try{
-				if(contentURL != null){
+					
+					//Verify stream is actually an HTTP stream.
+					String contentType = reader.getHeaderField("Content-Type");
+					if(contentType == null){
+						reader.close();
+						throw new IOException("ERROR: No Content-Type header found.  Contact the mod author for more information.");
+					}
+					
+					//Check to make sure stream isn't an invalid type.
 					switch(contentType){
-						case("audio/mpeg") : station.decoder = new MP3Decoder(contentURL.openStream(), station.equalizer); break;
-						case("application/ogg") : station.decoder = MasterLoader.oggDecoderInterface.createFrom(contentURL); break;
+						case("audio/mpeg") : break;
+						case("application/ogg") : break;
+						case("audio/x-wav") : reader.close(); throw new IOException("ERROR: WAV file format not supported...yet.  Contact the mod author.");
+						case("audio/flac") : reader.close(); throw new IOException("ERROR: Who the heck streams in FLAC?  Contact the mod author.");
+						default : {
+							reader.close();
+							if(contentType.startsWith("audio")){
+								throw new IOException("ERROR: Unsupported audio format of " + contentType + ".  Contact the mod author.");
+							}else{
+								throw new IOException("ERROR: Format " + contentType + " is NOT an audio format.  Is this really a music URL?");
+							}
+						}
+					}
+					
+					//Parse out information from header.
+					String newHeader = "Name: " + (reader.getHeaderField("icy-name") != null ? reader.getHeaderField("icy-name") : "");
+					newHeader += "\nDesc: " + (reader.getHeaderField("icy-description") != null ? reader.getHeaderField("icy-description") : "");
+					newHeader += "\nGenre: " + (reader.getHeaderField("icy-genre") != null ? reader.getHeaderField("icy-genre") : "");
+					newHeader += "\nBuffers:";
+					displayHeader = newHeader;
+					
+					//Create the decoder.  MP3 streams use our reader, so they get buffering and reconnects.
+					//OGG streams are opened by the OGG decoder itself, so we don't need our connection for them.
+					if(contentType.equals("audio/mpeg")){
+						return new MP3Decoder(reader, equalizer);
+					}else{
+						reader.close();
+						return MasterLoader.oggDecoderInterface.createFrom(url);
 					}
-				}else{
-					station.decoder = new MP3Decoder(new FileInputStream(contentFile), station.equalizer);
-				}
-				//Prime the buffers before setting the thread to null.
-				//This prevents the buffers from running out from starting too quickly.
-				//Because this is in a thread, it also saves on processing power.
-				for(byte i=0; i<5; ++i){
-					station.generateBufferIndex();
 				}
-				station.decoderThread = null;
-			}catch(Exception e){
-				e.printStackTrace();
-			}
+			});
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,157 @@
+package minecrafttransportsimulator.sound;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+
+/**Buffered reader for radio sources.  One of these is created for each source a {@link RadioStation}
+ * plays, and is shared by all radios on that station via the station's decoder.  For local files, this
+ * is simply a buffered file stream.  For Internet streams, this class also handles reconnecting if the
+ * stream drops.  Reconnects are done with exponential backoff to avoid hammering the host, and are only
+ * done for live streams, as finite files that end should just end.
+ * <br><br>
+ * Note that this class blocks while connecting and reconnecting, so it should only be used on decoder threads.
+ *
+ * @author don_bruce
+ */
+public class RadioStreamReader extends InputStream{
+	private static final int BUFFER_SIZE = 64*1024;
+	private static final int CONNECT_TIMEOUT = 10000;
+	private static final int READ_TIMEOUT = 10000;
+	private static final int MAX_RECONNECT_ATTEMPTS = 5;
+	private static final long INITIAL_RECONNECT_DELAY = 1000;
+	private static final long MAX_RECONNECT_DELAY = 16000;
+
+	private final URL url;
+	private URLConnection connection;
+	private InputStream stream;
+	private volatile boolean closed;
+	private int reconnects;
+
+	/**
+	 *  Creates a reader for the passed-in URL.  This opens the connection, so it may block.
+	 */
+	public RadioStreamReader(URL url) throws IOException{
+		this.url = url;
+		connect();
+	}
+
+	/**
+	 *  Creates a reader for the passed-in local file.
+	 */
+	public RadioStreamReader(File file) throws IOException{
+		this.url = null;
+		this.stream = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+	}
+
+	/**
+	 *  Opens the connection to the URL and buffers it.
+	 */
+	private void connect() throws IOException{
+		connection = url.openConnection();
+		connection.setConnectTimeout(CONNECT_TIMEOUT);
+		connection.setReadTimeout(READ_TIMEOUT);
+		stream = new BufferedInputStream(connection.getInputStream(), BUFFER_SIZE);
+	}
+
+	/**
+	 *  Tries to reconnect to the URL, waiting longer between each attempt.
+	 *  Returns true if we reconnected, false if we gave up or were closed.
+	 */
+	private boolean reconnect(){
+		if(url == null || closed){
+			return false;
+		}
+		try{
+			stream.close();
+		}catch(IOException e){
+			//Don't care, we're replacing the stream.
+		}
+		long reconnectDelay = INITIAL_RECONNECT_DELAY;
+		for(int attempt=0; attempt<MAX_RECONNECT_ATTEMPTS && !closed; ++attempt){
+			try{
+				Thread.sleep(reconnectDelay);
+				if(!closed){
+					connect();
+					++reconnects;
+					return true;
+				}
+			}catch(InterruptedException e){
+				return false;
+			}catch(IOException e){
+				reconnectDelay = Math.min(reconnectDelay*2, MAX_RECONNECT_DELAY);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 *  Returns true if the stream is live, and should be reconnected if it ends.
+	 *  Live streams don't send a length, as they don't have one.
+	 */
+	private boolean isLiveStream(){
+		return connection != null && connection.getContentLength() < 0;
+	}
+
+	/**
+	 *  Returns the header field for the connection, or null if we don't have one.
+	 *  Local files never have headers.
+	 */
+	public String getHeaderField(String name){
+		return connection != null ? connection.getHeaderField(name) : null;
+	}
+
+	/**
+	 *  Returns the number of times this reader has had to reconnect.
+	 */
+	public int getReconnectCount(){
+		return reconnects;
+	}
+
+	@Override
+	public int read() throws IOException{
+		while(true){
+			try{
+				int data = stream.read();
+				if(data != -1 || !isLiveStream() || !reconnect()){
+					return data;
+				}
+			}catch(IOException e){
+				if(!reconnect()){
+					throw e;
+				}
+			}
+		}
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException{
+		while(true){
+			try{
+				int bytesRead = stream.read(buffer, offset, length);
+				if(bytesRead != -1 || !isLiveStream() || !reconnect()){
+					return bytesRead;
+				}
+			}catch(IOException e){
+				if(!reconnect()){
+					throw e;
+				}
+			}
+		}
+	}
+
+	@Override
+	public int available() throws IOException{
+		return stream.available();
+	}
+
+	@Override
+	public void close() throws IOException{
+		closed = true;
+		stream.close();
+	}
+}
@@ -0,0 +1,208 @@
+package minecrafttransportsimulator.sound;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.systems.ConfigSystem;
+
+/**Class that manages all sound assets that are loaded in their entirety, such as engine and gun sounds.
+ * Sounds are decoded on a background pool the first time they are requested (or prefetched), and are
+ * converted to mono on that pool to keep the main thread free.  Once the audio system loads a decoded
+ * sound into memory, it tells this class how big it is.  This lets us keep all loaded sounds under the
+ * budget set in the config by evicting the least-recently used sounds first.  Note that this class
+ * does not handle the actual audio buffers, as those are specific to the audio system being used.
+ * That is the job of the audio system, which should call the mark methods here as appropriate.
+ *
+ * @author don_bruce
+ */
+public class SoundAssetManager{
+	/**Number of samples to convert at a time when going from stereo to mono.**/
+	private static final int CONVERSION_BLOCK_SIZE = 4096;
+
+	/**Pool for decoding sounds.  Threads are daemons so they don't hold up the game on exit.**/
+	private static final ExecutorService decoderPool = Executors.newFixedThreadPool(2, new ThreadFactory(){
+		@Override
+		public Thread newThread(Runnable runnable){
+			Thread thread = new Thread(runnable, "MTS Sound Decoder");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	/**Sounds currently being decoded, keyed by sound name.**/
+	private static final Map<String, Future<OGGDecoderOutput>> decodingSounds = new HashMap<String, Future<OGGDecoderOutput>>();
+	/**Sounds that couldn't be decoded.  Kept to prevent us from trying to decode them every request.**/
+	private static final Set<String> failedSounds = new HashSet<String>();
+	/**Sizes of sounds loaded into the audio system.  Access-ordered to allow for LRU eviction.**/
+	private static final LinkedHashMap<String, Integer> loadedSounds = new LinkedHashMap<String, Integer>(16, 0.75F, true);
+	/**Total bytes of all sounds in {@link #loadedSounds}.**/
+	private static long loadedBytes;
+
+	/**
+	 * Starts decoding the passed-in sound if it hasn't been decoded or loaded.
+	 * This should be called for sounds that are likely to be played soon.
+	 */
+	public static void prefetchSound(final String soundName){
+		if(soundName != null && !loadedSounds.containsKey(soundName) && !decodingSounds.containsKey(soundName) && !failedSounds.contains(soundName)){
+			decodingSounds.put(soundName, decoderPool.submit(new Callable<OGGDecoderOutput>(){
+				@Override
+				public OGGDecoderOutput call(){
+					OGGDecoderOutput decoderOutput = MasterLoader.oggDecoderInterface.parseWholeOGGFile(soundName);
+					if(decoderOutput != null && decoderOutput.isStereo){
+						return new OGGDecoderOutput(false, decoderOutput.sampleRate, stereoToMono(decoderOutput.decodedData));
+					}else{
+						return decoderOutput;
+					}
+				}
+			}));
+		}
+	}
+
+	/**
+	 * Returns the decoded mono data for the passed-in sound, or null if the sound isn't decoded yet.
+	 * If the sound hasn't been requested before, decoding is started.  Once data is returned, it's
+	 * no longer held here, so the caller should load it and call {@link #markSoundLoaded(String, int)}.
+	 * Use {@link #isSoundDecoding(String)} to tell if a null return means the sound is still decoding.
+	 */
+	public static OGGDecoderOutput getDecodedSound(String soundName){
+		prefetchSound(soundName);
+		Future<OGGDecoderOutput> decodingSound = decodingSounds.get(soundName);
+		if(decodingSound != null && decodingSound.isDone()){
+			decodingSounds.remove(soundName);
+			OGGDecoderOutput decoderOutput = null;
+			try{
+				decoderOutput = decodingSound.get();
+			}catch(Exception e){
+				e.printStackTrace();
+			}
+			if(decoderOutput == null){
+				failedSounds.add(soundName);
+			}
+			return decoderOutput;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns true if the passed-in sound is being decoded and isn't done yet.
+	 */
+	public static boolean isSoundDecoding(String soundName){
+		return decodingSounds.containsKey(soundName);
+	}
+
+	/**
+	 * Marks the passed-in sound as loaded into the audio system with the passed-in size.
+	 */
+	public static void markSoundLoaded(String soundName, int bytes){
+		Integer oldBytes = loadedSounds.put(soundName, bytes);
+		loadedBytes += bytes - (oldBytes != null ? oldBytes : 0);
+	}
+
+	/**
+	 * Marks the passed-in sound as used.  This moves it to the end of the eviction order.
+	 */
+	public static void markSoundUsed(String soundName){
+		loadedSounds.get(soundName);
+	}
+
+	/**
+	 * Marks the passed-in sound as no longer loaded in the audio system.
+	 */
+	public static void markSoundUnloaded(String soundName){
+		Integer oldBytes = loadedSounds.remove(soundName);
+		if(oldBytes != null){
+			loadedBytes -= oldBytes;
+		}
+	}
+
+	/**
+	 * Returns a list of sounds that should be unloaded to bring us under the memory budget.
+	 * Least-recently used sounds are returned first.  Sounds in the passed-in set are in use,
+	 * and will not be returned.  The caller should unload the returned sounds, and call
+	 * {@link #markSoundUnloaded(String)} for each of them.
+	 */
+	public static List<String> getSoundsToEvict(Set<String> soundsInUse){
+		List<String> soundsToEvict = new ArrayList<String>();
+		long bytesOverBudget = loadedBytes - ConfigSystem.configObject.clientAudio.soundCacheSize.value*1024L*1024L;
+		if(bytesOverBudget > 0){
+			for(Map.Entry<String, Integer> loadedSound : loadedSounds.entrySet()){
+				if(!soundsInUse.contains(loadedSound.getKey())){
+					soundsToEvict.add(loadedSound.getKey());
+					bytesOverBudget -= loadedSound.getValue();
+					if(bytesOverBudget <= 0){
+						break;
+					}
+				}
+			}
+		}
+		return soundsToEvict;
+	}
+
+	/**
+	 * Returns true if we are over the memory budget.  Cheaper than {@link #getSoundsToEvict(Set)},
+	 * so this should be checked prior to calling that method.
+	 */
+	public static boolean isOverBudget(){
+		return loadedBytes > ConfigSystem.configObject.clientAudio.soundCacheSize.value*1024L*1024L;
+	}
+
+	/**
+	 * Returns the total number of bytes of all loaded sounds.
+	 */
+	public static long getLoadedBytes(){
+		return loadedBytes;
+	}
+
+	/**
+	 * Returns the number of loaded sounds.
+	 */
+	public static int getLoadedSoundCount(){
+		return loadedSounds.size();
+	}
+
+	/**
+	 * Clears all loaded and failed sounds.  Called when the audio system is reset, as that
+	 * blows out all loaded sounds.  Sounds being decoded are left alone, as they'll still be valid.
+	 */
+	public static void clearLoadedSounds(){
+		loadedSounds.clear();
+		failedSounds.clear();
+		loadedBytes = 0;
+	}
+
+	/**
+	 *  Combines a stereo-sampled ByteBuffer into a mono-sampled one.
+	 *  This allows us to use mono-only sounds that support attenuation.
+	 *  Samples are converted in blocks to avoid per-sample buffer calls.
+	 */
+	public static ByteBuffer stereoToMono(ByteBuffer stereoBuffer){
+		ShortBuffer stereoSamples = stereoBuffer.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+		ByteBuffer monoBuffer = ByteBuffer.allocateDirect(stereoBuffer.remaining()/2).order(ByteOrder.LITTLE_ENDIAN);
+		ShortBuffer monoSamples = monoBuffer.asShortBuffer();
+		short[] sampleBlock = new short[CONVERSION_BLOCK_SIZE];
+		int samplesToConvert;
+		while((samplesToConvert = Math.min(sampleBlock.length, stereoSamples.remaining()) & ~1) > 0){
+			stereoSamples.get(sampleBlock, 0, samplesToConvert);
+			for(int i=0; i<samplesToConvert; i+=2){
+				sampleBlock[i/2] = (short) ((sampleBlock[i] + sampleBlock[i + 1])/2);
+			}
+			monoSamples.put(sampleBlock, 0, samplesToConvert/2);
+		}
+		stereoBuffer.position(stereoBuffer.limit());
+		monoBuffer.limit(monoSamples.position()*2);
+		return monoBuffer;
+	}
+}
@@ -0,0 +1,208 @@
+package minecrafttransportsimulator.sound;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.locks.LockSupport;
+
+/**Decode-ahead pipeline for streaming decoders.  This wraps a decoder and runs it on its own
+ * producer thread, which feeds decoded PCM data into a {@link PCMRingBuffer}.  The consumer
+ * (normally the audio update on the client tick) then calls {@link #pollBlock()} to get blocks
+ * of data that are ready to go to OpenAL without ever having to wait on decoding or I/O.
+ * <br><br>
+ * The decoder is created on the producer thread via a {@link DecoderFactory}, as opening
+ * streams and reading the first frame headers can take quite some time on slow connections.
+ * Because of this, {@link #isStereo()} and {@link #getSampleRate()} are only valid once
+ * {@link #pollBlock()} has returned a block.
+ *
+ * @author don_bruce
+ */
+public class StreamDecoderPipeline implements IStreamDecoder{
+	/**Size of blocks given out to the consumer.  Must be a multiple of 4 to keep stereo samples intact.**/
+	private static final int BLOCK_SIZE = 96*1024;
+	/**Size of the ring buffer.  Gives us about 3 seconds of stereo data before the producer has to wait.**/
+	private static final int RING_SIZE = 512*1024;
+	/**Time to wait when the producer can't do anything.  Either because the ring is full, or the source is slow.**/
+	private static final long PRODUCER_WAIT_TIME = 10*1000*1000;
+
+	private final PCMRingBuffer ringBuffer = new PCMRingBuffer(RING_SIZE);
+	private final ByteBuffer outputBuffer = ByteBuffer.allocateDirect(BLOCK_SIZE).order(ByteOrder.nativeOrder());
+	private final ProducerThread producerThread;
+
+	private volatile IStreamDecoder source;
+	private volatile boolean running = true;
+	private volatile boolean producerDone;
+	private volatile boolean producerFailed;
+	private volatile String failureMessage;
+	/**Number of times the consumer fell so far behind that the producer was held up on a full ring.**/
+	private volatile int overruns;
+	/**Time, from {@link System#nanoTime()}, the consumer was last given a block.  0 until the first block.**/
+	private volatile long lastBlockTime;
+	/**Number of times the consumer asked for a block after playback started and none was ready.**/
+	private int underruns;
+	/**Set once the first block is given out.  Prevents counting the initial fill as underruns.**/
+	private boolean primed;
+
+	public StreamDecoderPipeline(DecoderFactory factory){
+		this.producerThread = new ProducerThread(factory);
+		producerThread.start();
+	}
+
+	@Override
+	public ByteBuffer readBlock(){
+		//Blocking read.  Wait for the producer to give us data.
+		ByteBuffer block = pollBlock();
+		while(block == null && !isFinished()){
+			LockSupport.parkNanos(PRODUCER_WAIT_TIME);
+			block = pollBlock();
+		}
+		return block;
+	}
+
+	@Override
+	public ByteBuffer pollBlock(){
+		//Only hand out full blocks, unless the producer is done and we have some left-over data.
+		int available = ringBuffer.available();
+		if(available >= BLOCK_SIZE || (producerDone && available > 0)){
+			outputBuffer.clear();
+			ringBuffer.read(outputBuffer, BLOCK_SIZE);
+			outputBuffer.flip();
+			primed = true;
+			lastBlockTime = System.nanoTime();
+			return outputBuffer;
+		}else{
+			if(primed && !producerDone){
+				++underruns;
+			}
+			return null;
+		}
+	}
+
+	@Override
+	public boolean isFinished(){
+		return producerDone && ringBuffer.available() == 0;
+	}
+
+	@Override
+	public void stop(){
+		//Producer thread handles source cleanup to prevent the source being closed mid-decode.
+		running = false;
+		LockSupport.unpark(producerThread);
+	}
+
+	@Override
+	public boolean isStereo(){
+		return source.isStereo();
+	}
+
+	@Override
+	public int getSampleRate(){
+		return source.getSampleRate();
+	}
+
+	/**
+	 *  Returns true if the producer couldn't create or read from its source.
+	 */
+	public boolean hasFailed(){
+		return producerFailed;
+	}
+
+	/**
+	 *  Returns the message of the exception that caused the producer to fail, or null if there wasn't one.
+	 */
+	public String getFailureMessage(){
+		return failureMessage;
+	}
+
+	/**
+	 *  Returns the number of times the consumer stopped taking blocks for longer than it takes to play
+	 *  them while the ring was full.  A full ring on its own isn't counted, as that's normal when
+	 *  decoding ahead.  Each stall is only counted once, no matter how long it lasts.
+	 */
+	public int getOverrunCount(){
+		return overruns;
+	}
+
+	/**
+	 *  Returns the number of times the consumer wanted data that the producer hadn't decoded yet.
+	 */
+	public int getUnderrunCount(){
+		return underruns;
+	}
+
+	/**Factory interface for creating decoders.  Called on the producer thread, so it may block.
+	 *
+	 * @author don_bruce
+	 */
+	public static interface DecoderFactory{
+		public IStreamDecoder createDecoder() throws Exception;
+	}
+
+	/**Producer thread.  Creates the decoder and keeps the ring buffer filled until
+	 * the decoder runs out of data or the pipeline is stopped.
+	 *
+	 * @author don_bruce
+	 */
+	private class ProducerThread extends Thread{
+		private final DecoderFactory factory;
+
+		private ProducerThread(DecoderFactory factory){
+			this.factory = factory;
+			setName("MTS Audio Decoder");
+			setDaemon(true);
+		}
+
+		@Override
+		public void run(){
+			try{
+				source = factory.createDecoder();
+				ByteBuffer pendingBlock = null;
+				boolean overrunning = false;
+				long overrunTime = 0;
+				while(running){
+					//Get a new block if we don't have one that we are still writing.
+					if(pendingBlock == null){
+						pendingBlock = source.pollBlock();
+						if(pendingBlock == null){
+							if(source.isFinished()){
+								break;
+							}else{
+								//Source is slow.  Wait for it to get more data.
+								LockSupport.parkNanos(PRODUCER_WAIT_TIME);
+								continue;
+							}
+						}
+					}
+
+					//Write what we can.  If we can't fit the whole block, wait for the consumer.
+					//The consumer should take a block at least as often as it takes to play one.
+					//If it goes more than twice that long without one, it's fallen behind playback.
+					if(ringBuffer.write(pendingBlock) > 0){
+						overrunning = false;
+					}
+					if(pendingBlock.hasRemaining()){
+						if(overrunTime == 0){
+							overrunTime = 2L*BLOCK_SIZE*1000000000L/(source.getSampleRate()*(source.isStereo() ? 4L : 2L));
+						}
+						if(!overrunning && lastBlockTime != 0 && System.nanoTime() - lastBlockTime > overrunTime){
+							++overruns;
+							overrunning = true;
+						}
+						LockSupport.parkNanos(PRODUCER_WAIT_TIME);
+					}else{
+						pendingBlock = null;
+					}
+				}
+			}catch(Exception e){
+				e.printStackTrace();
+				failureMessage = e.getMessage();
+				producerFailed = true;
+			}
+
+			//Done producing.  Close the source.
+			if(source != null){
+				source.stop();
+			}
+			producerDone = true;
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package minecrafttransportsimulator.systems;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.vehicles.main.AEntityBase;
+
+/**Class that handles light from lit-up entities.  Rather than placing light blocks in the world
+ * and making the world re-calculate its lighting every time an entity moves a block, entities
+ * are kept here as light sources.  The light at a point is then calculated from the sources near
+ * it when it's asked for.  Light drops off by one level for each block away from the source, the same
+ * as block light does, so things look the same as if there was a light block at the entity.
+ * <br><br>
+ * Sources are kept in a grid of {@link #CELL_SIZE} block cells on the X and Z axis.  Moving
+ * a source only changes the grid if it goes into a new cell, and getting the light at a point
+ * only checks the sources in the cells near it.  This is only used on clients, as only
+ * clients render light.
+ * <br><br>
+ * This light only applies to things MTS renders.  Lighting up the ground and vanilla entities still
+ * needs light blocks, which vehicles only place if that's turned on in the config.
+ *
+ * @author don_bruce
+ */
+public final class DynamicLightSystem{
+	/**Light level of entities that are lit up, out of 15.**/
+	public static final int LIGHT_LEVEL = 12;
+	/**Size of the grid cells sources are sorted into.**/
+	public static final int CELL_SIZE = 16;
+
+	private static final Map<IWrapperWorld, LightWorld> lightWorlds = new HashMap<IWrapperWorld, LightWorld>();
+
+	/**
+	 *  Updates the light source for the passed-in entity.  If the entity is lit, its source is
+	 *  added or moved to its current position.  If it isn't, its source is removed.
+	 *  Call this every tick for entities that may be lit.
+	 */
+	public static void updateSource(AEntityBase entity, boolean lit){
+		if(!lit){
+			removeSource(entity);
+			return;
+		}
+		LightWorld lightWorld = lightWorlds.get(entity.world);
+		if(lightWorld == null){
+			lightWorld = new LightWorld();
+			lightWorlds.put(entity.world, lightWorld);
+		}
+		LightSource source = lightWorld.sources.get(entity);
+		if(source == null){
+			source = new LightSource();
+			lightWorld.sources.put(entity, source);
+		}else if(source.cellKey != getCellKey(getCell(entity.position.x), getCell(entity.position.z))){
+			lightWorld.removeFromCell(source);
+		}else{
+			source.setPosition(entity.position.x, entity.position.y, entity.position.z);
+			return;
+		}
+		source.setPosition(entity.position.x, entity.position.y, entity.position.z);
+		source.cellKey = getCellKey(getCell(source.x), getCell(source.z));
+		List<LightSource> cellSources = lightWorld.cells.get(source.cellKey);
+		if(cellSources == null){
+			cellSources = new ArrayList<LightSource>();
+			lightWorld.cells.put(source.cellKey, cellSources);
+		}
+		cellSources.add(source);
+	}
+
+	/**
+	 *  Removes the light source for the passed-in entity, if it has one.
+	 *  Call this when the entity is removed from the world.
+	 */
+	public static void removeSource(AEntityBase entity){
+		LightWorld lightWorld = lightWorlds.get(entity.world);
+		if(lightWorld != null){
+			LightSource source = lightWorld.sources.remove(entity);
+			if(source != null){
+				lightWorld.removeFromCell(source);
+			}
+		}
+	}
+
+	/**
+	 *  Returns the light level from all sources at the passed-in point, out of 15.
+	 *  This is the light from the brightest source, less its distance in blocks from the
+	 *  point along each axis, the same as block light.
+	 */
+	public static int getLightAt(IWrapperWorld world, double x, double y, double z){
+		LightWorld lightWorld = lightWorlds.get(world);
+		int lightLevel = 0;
+		if(lightWorld != null && !lightWorld.cells.isEmpty()){
+			int blockX = (int) Math.floor(x);
+			int blockY = (int) Math.floor(y);
+			int blockZ = (int) Math.floor(z);
+			for(int cellX=getCell(x - LIGHT_LEVEL); cellX<=getCell(x + LIGHT_LEVEL); ++cellX){
+				for(int cellZ=getCell(z - LIGHT_LEVEL); cellZ<=getCell(z + LIGHT_LEVEL); ++cellZ){
+					List<LightSource> cellSources = lightWorld.cells.get(getCellKey(cellX, cellZ));
+					if(cellSources != null){
+						for(LightSource source : cellSources){
+							int distance = Math.abs(source.blockX - blockX) + Math.abs(source.blockY - blockY) + Math.abs(source.blockZ - blockZ);
+							lightLevel = Math.max(lightLevel, LIGHT_LEVEL - distance);
+						}
+					}
+				}
+			}
+		}
+		return lightLevel;
+	}
+
+	/**
+	 *  Returns the number of light sources in the passed-in world.
+	 */
+	public static int getSourceCount(IWrapperWorld world){
+		LightWorld lightWorld = lightWorlds.get(world);
+		return lightWorld != null ? lightWorld.sources.size() : 0;
+	}
+
+	/**
+	 *  Removes all light sources from the passed-in world.  Call this when the world is unloaded.
+	 */
+	public static void removeWorld(IWrapperWorld world){
+		lightWorlds.remove(world);
+	}
+
+	private static int getCell(double coord){
+		return Math.floorDiv((int) Math.floor(coord), CELL_SIZE);
+	}
+
+	private static long getCellKey(int cellX, int cellZ){
+		return (((long) cellX) << 32) | (cellZ & 0xFFFFFFFFL);
+	}
+
+	/**Light sources for a single world.
+	 *
+	 * @author don_bruce
+	 */
+	private static class LightWorld{
+		private final Map<AEntityBase, LightSource> sources = new HashMap<AEntityBase, LightSource>();
+		private final Map<Long, List<LightSource>> cells = new HashMap<Long, List<LightSource>>();
+
+		private void removeFromCell(LightSource source){
+			List<LightSource> cellSources = cells.get(source.cellKey);
+			if(cellSources != null){
+				cellSources.remove(source);
+				if(cellSources.isEmpty()){
+					cells.remove(source.cellKey);
+				}
+			}
+		}
+	}
+
+	/**A single light source.  Positions are kept as both the exact position and the block it's in.
+	 *
+	 * @author don_bruce
+	 */
+	private static class LightSource{
+		private double x;
+		private double y;
+		private double z;
+		private int blockX;
+		private int blockY;
+		private int blockZ;
+		private long cellKey;
+
+		private void setPosition(double x, double y, double z){
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.blockX = (int) Math.floor(x);
+			this.blockY = (int) Math.floor(y);
+			this.blockZ = (int) Math.floor(z);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package minecrafttransportsimulator.systems;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import minecrafttransportsimulator.baseclasses.Point3i;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.systems.ScheduledEventSystem.ScheduledEvent;
+
+/**Class that handles updating the world lighting for blocks that change their light level, such as
+ * poles with street lights.  Each update makes the world re-do the lighting around the block, which
+ * is slow, and a signal controller turning on its lights changes every pole it controls at once.
+ * Rather than update them all right away, updates are queued here and done on later ticks, at most
+ * {@link #MAX_UPDATES_PER_TICK} a tick.  A block that changes more than once before its update
+ * is done is only updated once.
+ *
+ * @author don_bruce
+ */
+public final class LightUpdateSystem{
+	/**Most lighting updates done in a world in one tick.  Any more wait for the next tick.**/
+	public static final int MAX_UPDATES_PER_TICK = 32;
+
+	private static final Map<IWrapperWorld, LightUpdateQueue> updateQueues = new HashMap<IWrapperWorld, LightUpdateQueue>();
+
+	/**
+	 *  Queues a lighting update for the block at the passed-in position.  Does nothing if one is already queued.
+	 */
+	public static void queueUpdate(IWrapperWorld world, Point3i position){
+		LightUpdateQueue queue = updateQueues.get(world);
+		if(queue == null){
+			queue = new LightUpdateQueue(world);
+			updateQueues.put(world, queue);
+		}
+		if(queue.positions.add(position.copy()) && !queue.isScheduled()){
+			ScheduledEventSystem.scheduleEvent(world, queue, 1);
+		}
+	}
+
+	/**
+	 *  Returns the number of lighting updates waiting in the passed-in world.
+	 */
+	public static int getQueuedCount(IWrapperWorld world){
+		LightUpdateQueue queue = updateQueues.get(world);
+		return queue != null ? queue.positions.size() : 0;
+	}
+
+	/**
+	 *  Removes all queued updates from the passed-in world.  Call this when the world is unloaded.
+	 */
+	public static void removeWorld(IWrapperWorld world){
+		LightUpdateQueue queue = updateQueues.remove(world);
+		if(queue != null){
+			queue.cancel();
+		}
+	}
+
+	/**Queue of lighting updates for a single world.  This is also the event that does them.
+	 *
+	 * @author don_bruce
+	 */
+	private static class LightUpdateQueue extends ScheduledEvent{
+		private final IWrapperWorld world;
+		private final Set<Point3i> positions = new LinkedHashSet<Point3i>();
+
+		private LightUpdateQueue(IWrapperWorld world){
+			this.world = world;
+		}
+
+		@Override
+		protected void execute(){
+			Iterator<Point3i> iterator = positions.iterator();
+			for(int i=0; i<MAX_UPDATES_PER_TICK && iterator.hasNext(); ++i){
+				world.updateLightBrightness(iterator.next());
+				iterator.remove();
+			}
+			if(!positions.isEmpty()){
+				ScheduledEventSystem.scheduleEvent(world, this, 1);
+			}
+		}
+	}
+}
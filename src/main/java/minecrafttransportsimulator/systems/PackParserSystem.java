@@ -86,6 +86,20 @@ public final class PackParserSystem{
      * for pack definitions.  After this, they will be created and loaded into the main mod.
      */
     public static void parsePacks(List<File> packDirectories){
+    	//Load all the packs.
+    	loadPacks(packDirectories);
+    	
+    	//Now that all the items and skins are parsed, create them.
+    	createAllItems();
+    }
+    
+    /**
+     * Called to parse all packs in the passed-in directories without creating their items in the game.
+     * This is used by {@link #parsePacks(List)} prior to item creation, and by tools that run outside
+     * the game, where there's nothing to create items in.  Pack items are still available from
+     * {@link #getItem(String, String, String)} and the other lookup methods after this call.
+     */
+    public static void loadPacks(List<File> packDirectories){
     	//First get all pack definitions from the passed-in directories.
     	for(File directory : packDirectories){
     		for(File file : directory.listFiles()){
@@ -100,9 +114,6 @@ public final class PackParserSystem{
     	
     	//Check for custom skins.
     	parseAllSkins();
-    	
-    	//Now that all the items and skins are parsed, create them.
-    	createAllItems();
     } 
 
 	/**
@@ -0,0 +1,234 @@
+package minecrafttransportsimulator.systems;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.vehicles.main.AEntityBase;
+
+/**Class that handles presence sensors.  Sensors are zones in the world that want to know when
+ * entities go in or out of them.  Rather than each zone checking all entities for being inside it,
+ * entities tell this class when they move, and this class tells the zones they went into or out of.
+ * Zones are kept in a grid of {@link #CELL_SIZE} block cells on the X and Z axis, so a moving entity
+ * only checks the zones in the cell it is in.  Zones don't care about the Y axis.
+ * <br><br>
+ * Zones are only known to the side they are added on, and entities are only checked against
+ * zones in their own world.  Worlds without zones cost entities a single map lookup when they move.
+ *
+ * @author don_bruce
+ */
+public final class PresenceSensorSystem{
+	/**Size of the grid cells zones are sorted into.**/
+	public static final int CELL_SIZE = 16;
+
+	private static final Map<IWrapperWorld, SensorWorld> sensorWorlds = new HashMap<IWrapperWorld, SensorWorld>();
+
+	/**
+	 *  Adds the passed-in zone to the passed-in world.  Any entities already in the zone
+	 *  cause the zone's {@link PresenceZone#onEntityEntered(AEntityBase)} to be called.
+	 */
+	public static void addZone(IWrapperWorld world, PresenceZone zone){
+		SensorWorld sensorWorld = sensorWorlds.get(world);
+		if(sensorWorld == null){
+			sensorWorld = new SensorWorld();
+			sensorWorlds.put(world, sensorWorld);
+		}
+		for(int cellX=getCell(zone.minX); cellX<=getCell(zone.maxX); ++cellX){
+			for(int cellZ=getCell(zone.minZ); cellZ<=getCell(zone.maxZ); ++cellZ){
+				long cellKey = getCellKey(cellX, cellZ);
+				List<PresenceZone> cellZones = sensorWorld.cells.get(cellKey);
+				if(cellZones == null){
+					cellZones = new ArrayList<PresenceZone>();
+					sensorWorld.cells.put(cellKey, cellZones);
+				}
+				cellZones.add(zone);
+			}
+		}
+
+		//Check for any entities that are already in the zone.
+		for(AEntityBase entity : (world.isClient() ? AEntityBase.createdClientEntities : AEntityBase.createdServerEntities)){
+			if(entity.world == world && entity.isValid && zone.contains(entity.position)){
+				addToZone(sensorWorld, entity, zone);
+			}
+		}
+	}
+
+	/**
+	 *  Removes the passed-in zone from the passed-in world.  No exit calls are made for
+	 *  entities that were in the zone, as the zone is assumed to not care anymore.
+	 */
+	public static void removeZone(IWrapperWorld world, PresenceZone zone){
+		SensorWorld sensorWorld = sensorWorlds.get(world);
+		if(sensorWorld != null){
+			for(int cellX=getCell(zone.minX); cellX<=getCell(zone.maxX); ++cellX){
+				for(int cellZ=getCell(zone.minZ); cellZ<=getCell(zone.maxZ); ++cellZ){
+					long cellKey = getCellKey(cellX, cellZ);
+					List<PresenceZone> cellZones = sensorWorld.cells.get(cellKey);
+					if(cellZones != null){
+						cellZones.remove(zone);
+						if(cellZones.isEmpty()){
+							sensorWorld.cells.remove(cellKey);
+						}
+					}
+				}
+			}
+			for(AEntityBase entity : zone.entities){
+				List<PresenceZone> entityZones = sensorWorld.entityZones.get(entity);
+				entityZones.remove(zone);
+				if(entityZones.isEmpty()){
+					sensorWorld.entityZones.remove(entity);
+				}
+			}
+			zone.entities.clear();
+			if(sensorWorld.cells.isEmpty()){
+				sensorWorlds.remove(world);
+			}
+		}
+	}
+
+	/**
+	 *  Updates the zones the passed-in entity is in.  Call this whenever the entity moves.
+	 */
+	public static void updateEntity(AEntityBase entity){
+		SensorWorld sensorWorld = sensorWorlds.get(entity.world);
+		if(sensorWorld != null){
+			//Check if we left any of the zones we were in.
+			List<PresenceZone> entityZones = sensorWorld.entityZones.get(entity);
+			if(entityZones != null){
+				List<PresenceZone> exitedZones = null;
+				Iterator<PresenceZone> iterator = entityZones.iterator();
+				while(iterator.hasNext()){
+					PresenceZone zone = iterator.next();
+					if(!zone.contains(entity.position)){
+						iterator.remove();
+						zone.entities.remove(entity);
+						if(exitedZones == null){
+							exitedZones = new ArrayList<PresenceZone>();
+						}
+						exitedZones.add(zone);
+					}
+				}
+				if(entityZones.isEmpty()){
+					sensorWorld.entityZones.remove(entity);
+				}
+				if(exitedZones != null){
+					for(PresenceZone zone : exitedZones){
+						zone.onEntityExited(entity);
+					}
+				}
+			}
+
+			//Check if we entered any zones in our cell.
+			List<PresenceZone> cellZones = sensorWorld.cells.get(getCellKey(getCell(entity.position.x), getCell(entity.position.z)));
+			if(cellZones != null){
+				for(PresenceZone zone : cellZones.toArray(new PresenceZone[cellZones.size()])){
+					if(!zone.entities.contains(entity) && zone.contains(entity.position)){
+						addToZone(sensorWorld, entity, zone);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 *  Removes the passed-in entity from all zones it is in.  Call this when the entity is removed from the world.
+	 */
+	public static void removeEntity(AEntityBase entity){
+		SensorWorld sensorWorld = sensorWorlds.get(entity.world);
+		if(sensorWorld != null){
+			List<PresenceZone> entityZones = sensorWorld.entityZones.remove(entity);
+			if(entityZones != null){
+				for(PresenceZone zone : entityZones){
+					zone.entities.remove(entity);
+					zone.onEntityExited(entity);
+				}
+			}
+		}
+	}
+
+	/**
+	 *  Removes all zones from the passed-in world.  Call this when the world is unloaded.
+	 */
+	public static void removeWorld(IWrapperWorld world){
+		sensorWorlds.remove(world);
+	}
+
+	private static void addToZone(SensorWorld sensorWorld, AEntityBase entity, PresenceZone zone){
+		List<PresenceZone> entityZones = sensorWorld.entityZones.get(entity);
+		if(entityZones == null){
+			entityZones = new ArrayList<PresenceZone>();
+			sensorWorld.entityZones.put(entity, entityZones);
+		}
+		entityZones.add(zone);
+		zone.entities.add(entity);
+		zone.onEntityEntered(entity);
+	}
+
+	private static int getCell(double coord){
+		return Math.floorDiv((int) Math.floor(coord), CELL_SIZE);
+	}
+
+	private static long getCellKey(int cellX, int cellZ){
+		return (((long) cellX) << 32) | (cellZ & 0xFFFFFFFFL);
+	}
+
+	/**Zones and entities for a single world.
+	 *
+	 * @author don_bruce
+	 */
+	private static class SensorWorld{
+		private final Map<Long, List<PresenceZone>> cells = new HashMap<Long, List<PresenceZone>>();
+		private final Map<AEntityBase, List<PresenceZone>> entityZones = new HashMap<AEntityBase, List<PresenceZone>>();
+	}
+
+	/**Zone that wants to know about entities going in and out of it.  Bounds are exclusive,
+	 * so entities right on the edge of the zone aren't in it.  Bounds can't change once the zone
+	 * is created.  If they need to, remove the zone and add a new one.
+	 *
+	 * @author don_bruce
+	 */
+	public static abstract class PresenceZone{
+		public final double minX;
+		public final double minZ;
+		public final double maxX;
+		public final double maxZ;
+		private final Set<AEntityBase> entities = new HashSet<AEntityBase>();
+
+		public PresenceZone(double minX, double minZ, double maxX, double maxZ){
+			this.minX = minX;
+			this.minZ = minZ;
+			this.maxX = maxX;
+			this.maxZ = maxZ;
+		}
+
+		/**
+		 *  Returns true if the passed-in position is in this zone.
+		 */
+		public boolean contains(Point3d position){
+			return position.x > minX && position.x < maxX && position.z > minZ && position.z < maxZ;
+		}
+
+		/**
+		 *  Returns the number of entities in this zone.
+		 */
+		public int getEntityCount(){
+			return entities.size();
+		}
+
+		/**
+		 *  Called when an entity goes into this zone.
+		 */
+		protected abstract void onEntityEntered(AEntityBase entity);
+
+		/**
+		 *  Called when an entity goes out of this zone, or is removed from the world while in it.
+		 */
+		protected abstract void onEntityExited(AEntityBase entity);
+	}
+}
@@ -0,0 +1,641 @@
+package minecrafttransportsimulator.systems;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.google.gson.stream.JsonWriter;
+
+import minecrafttransportsimulator.jsondefs.AJSONItem;
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.vehicles.main.AEntityBase;
+
+/**Class that keeps track of how long the various parts of the game's updates take.  This lets us
+ * see if lag is due to collisions, engines, guns, fluid transfer, packets, or something else, and which
+ * vehicles and pack definitions are responsible for it.  Times are put into the {@link ProfilerStage}
+ * they were spent in, and are recorded for the stage as a whole, for the entity they were spent on, and
+ * for the definition or packet type they were spent on.  Each of these is a histogram of how long each
+ * sample took, so spikes can be told apart from things that are always a little slow.
+ * <br><br>
+ * Times are recorded into {@link ProfilerTimes} kept on the things being timed, like entities, parts,
+ * and tile entities.  Only the thread updating a thing records into its times, so recording doesn't lock
+ * or look anything up.  Recorded times are merged into the shared data once per tick by {@link #mergeTimes(boolean)}.
+ * Getting the time still costs about as much as updating a simple part, so only one in every
+ * {@link #getSampleInterval()} updates of each thing is timed, and the other updates only cost a flag check.
+ * Histograms are of the timed updates, and totals are estimated from them.  Client and server times are
+ * kept separate, as they run on different threads in singleplayer.
+ *
+ * @author don_bruce
+ */
+public final class ProfilerSystem{
+	/**Max number of entities we keep times for.  Entities past this are still counted in their stage and definition.**/
+	public static final int MAX_ENTITIES = 1024;
+	/**Number of histogram buckets.  Bucket n holds times less than 2^n nanoseconds, so the last bucket is about 9 minutes.**/
+	private static final int BUCKETS = 40;
+
+	private static final ProfilerData serverData = new ProfilerData();
+	private static final ProfilerData clientData = new ProfilerData();
+	/**Server and client times for classes, like packets.  Kept on the class so they aren't looked up in a map.**/
+	private static final ClassValue<ProfilerTimes[]> classTimes = new ClassValue<ProfilerTimes[]>(){
+		@Override
+		protected ProfilerTimes[] computeValue(Class<?> type){
+			return new ProfilerTimes[]{new ProfilerTimes(type, false, true), new ProfilerTimes(type, true, true)};
+		}
+	};
+
+	/**
+	 *  Returns true if the profiler is recording times.
+	 */
+	public static boolean isEnabled(){
+		return ConfigSystem.configObject.general.profiler.value;
+	}
+
+	/**
+	 *  Returns how many updates of each thing there are for every update that is timed.  Always at least 1.
+	 */
+	public static int getSampleInterval(){
+		return Math.max(ConfigSystem.configObject.general.profilerSampleInterval.value, 1);
+	}
+
+	/**
+	 *  Returns the time to start timing a stage of the current update from, or 0 if the update isn't timed.
+	 *  Pass the returned value to one of the add methods with the same times once the stage is done.
+	 */
+	public static long getTime(ProfilerTimes times){
+		return times.sampling ? System.nanoTime() : 0;
+	}
+
+	/**
+	 *  Adds the time since the passed-in start time to the passed-in stage of the passed-in times.
+	 *  Returns the current time, so the next stage can be timed from it without another call to
+	 *  {@link #getTime(ProfilerTimes)}.  If the update isn't timed, nothing is added and 0 is returned.
+	 */
+	public static long addTime(ProfilerTimes times, ProfilerStage stage, long startTime){
+		if(startTime != 0){
+			long currentTime = System.nanoTime();
+			times.add(stage, currentTime - startTime);
+			return currentTime;
+		}else{
+			return 0;
+		}
+	}
+
+	/**
+	 *  Like {@link #addTime(ProfilerTimes, ProfilerStage, long)}, but also takes the time out of the passed-in parent stage.
+	 *  Used for stages that are timed inside another stage, so the time isn't counted in both.
+	 *  The parent stage must be added to the times after this is called.
+	 */
+	public static long addNestedTime(ProfilerTimes times, ProfilerStage stage, ProfilerStage parentStage, long startTime){
+		if(startTime != 0){
+			long currentTime = System.nanoTime();
+			times.add(stage, currentTime - startTime);
+			times.add(parentStage, startTime - currentTime);
+			return currentTime;
+		}else{
+			return 0;
+		}
+	}
+
+	/**
+	 *  Like {@link #addTime(ProfilerTimes, ProfilerStage, long)}, but the time is also added to the passed-in
+	 *  part times.  Used for things entities update, like parts.  The stage then gets the time once for the
+	 *  whole entity, while the part's definition gets it for each part.  Part times must not add to the stages.
+	 */
+	public static void addPartTime(ProfilerTimes times, ProfilerTimes partTimes, ProfilerStage stage, long startTime){
+		if(startTime != 0){
+			long time = System.nanoTime() - startTime;
+			times.add(stage, time);
+			partTimes.add(stage, time);
+		}
+	}
+
+	/**
+	 *  Ends the current update of the passed-in times, and picks if the next update will be timed.
+	 *  Call this once at the end of every update, timed or not.
+	 */
+	public static void finishUpdate(ProfilerTimes times){
+		times.sampling = isEnabled() && ++times.updates%getSampleInterval() == 0;
+	}
+
+	/**
+	 *  Returns the times for the passed-in class.  Used for things that are timed by their class, like packets.
+	 *  This doesn't lock, but costs more than a field, so don't get the times more than once per update.
+	 */
+	public static ProfilerTimes getClassTimes(Class<?> type, boolean client){
+		return classTimes.get(type)[client ? 1 : 0];
+	}
+
+	/**
+	 *  Returns the times for stages that aren't done for any one thing, like updating all sounds.
+	 */
+	public static ProfilerTimes getStageTimes(boolean client){
+		return client ? clientData.stageTimes : serverData.stageTimes;
+	}
+
+	/**
+	 *  Merges all times recorded since the last merge into the stages, entities, and types.
+	 *  Call this once per tick on the main thread of the passed-in side, when nothing is updating.
+	 */
+	public static void mergeTimes(boolean client){
+		ProfilerData data = client ? clientData : serverData;
+		if(!data.pendingTimes.isEmpty()){
+			int weight = getSampleInterval();
+			synchronized(data){
+				ProfilerTimes times;
+				while((times = data.pendingTimes.poll()) != null){
+					data.merge(times, weight);
+				}
+			}
+		}
+	}
+
+	/**
+	 *  Removes the times for the passed-in entity.  Call this when the entity is removed from the world,
+	 *  so we don't keep times for entities that are gone.  Its times stay in the stage and definition totals.
+	 */
+	public static void removeEntity(AEntityBase entity){
+		ProfilerData data = entity.world.isClient() ? clientData : serverData;
+		synchronized(data){
+			data.entityProfiles.remove(entity.uniqueUUID);
+		}
+	}
+
+	/**
+	 *  Clears all recorded times.
+	 */
+	public static void reset(){
+		for(ProfilerData data : new ProfilerData[]{serverData, clientData}){
+			synchronized(data){
+				data.reset();
+			}
+		}
+	}
+
+	/**
+	 *  Runs the profiler command with the passed-in arguments, and returns the lines to show to the user.
+	 *  This is MC-agnostic, so the command wrapper only needs to pass the arguments and show the result.
+	 *  Valid arguments are:
+	 *  <ul>
+	 *  <li>(none) or stages - the times for each stage.</li>
+	 *  <li>entities [count] - the entities with the most time, 10 by default.</li>
+	 *  <li>types [count] - the definitions and packets with the most time, 10 by default.</li>
+	 *  <li>export csv|json - writes all data to a file in the mts_profiler folder.</li>
+	 *  <li>reset - clears all data.</li>
+	 *  </ul>
+	 *  Adding "client" after any argument uses client times rather than server times.
+	 */
+	public static List<String> runCommand(String[] args){
+		List<String> lines = new ArrayList<String>();
+		String command = args.length > 0 ? args[0].toLowerCase() : "stages";
+		boolean client = args.length > 0 && args[args.length - 1].equalsIgnoreCase("client");
+		ProfilerData data = client ? clientData : serverData;
+		if(!isEnabled()){
+			lines.add("The profiler is off.  Set profiler to true in the config to turn it on.");
+		}
+		switch(command){
+			case("stages") : {
+				lines.add("Times for all " + (client ? "client" : "server") + " stages:");
+				synchronized(data){
+					for(ProfilerStage stage : ProfilerStage.values()){
+						if(data.stages[stage.ordinal()].count != 0){
+							lines.add(stage.name() + ": " + data.stages[stage.ordinal()].getSummary());
+						}
+					}
+				}
+				break;
+			}
+			case("entities") :
+			case("types") : {
+				boolean entities = command.equals("entities");
+				int count = 10;
+				if(args.length > 1 && !args[1].equalsIgnoreCase("client")){
+					try{
+						count = Integer.parseInt(args[1]);
+					}catch(NumberFormatException e){
+						lines.add("ERROR: " + args[1] + " is not a number.");
+						return lines;
+					}
+				}
+				lines.add("Top " + count + " " + (client ? "client" : "server") + " " + command + " by estimated total time:");
+				synchronized(data){
+					for(Profile profile : data.getSortedProfiles(entities ? data.entityProfiles : data.typeProfiles, count)){
+						lines.add(profile.getSummary());
+					}
+				}
+				break;
+			}
+			case("export") : {
+				boolean json = args.length > 1 && args[1].equalsIgnoreCase("json");
+				try{
+					lines.add("Exported profiler data to: " + export(json).getAbsolutePath());
+				}catch(IOException e){
+					lines.add("ERROR: Could not export profiler data: " + e.getMessage());
+				}
+				break;
+			}
+			case("reset") : {
+				reset();
+				lines.add("Reset all profiler data.");
+				break;
+			}
+			default : lines.add("Usage: [stages|entities [count]|types [count]|export csv|json|reset] [client]");
+		}
+		return lines;
+	}
+
+	/**
+	 *  Writes all recorded times to a new file in the mts_profiler folder of the game directory.
+	 *  The file is either CSV or JSON.  Both have one entry per stage of every total, entity, and type,
+	 *  with the count, total, estimated total, mean, percentiles, max, and the histogram bucket counts.  Returns the file.
+	 */
+	public static File export(boolean json) throws IOException{
+		File profilerDir = new File(MasterLoader.gameDirectory, "mts_profiler");
+		if(!profilerDir.exists() && !profilerDir.mkdirs()){
+			throw new IOException("Could not create directory: " + profilerDir.getAbsolutePath());
+		}
+		File exportFile = new File(profilerDir, "profile_" + new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date()) + (json ? ".json" : ".csv"));
+		FileWriter writer = new FileWriter(exportFile);
+		try{
+			if(json){
+				JsonWriter jsonWriter = new JsonWriter(writer);
+				jsonWriter.setIndent("\t");
+				jsonWriter.beginObject();
+				jsonWriter.name("server");
+				serverData.writeJSON(jsonWriter);
+				jsonWriter.name("client");
+				clientData.writeJSON(jsonWriter);
+				jsonWriter.endObject();
+				jsonWriter.flush();
+			}else{
+				PrintWriter printWriter = new PrintWriter(writer);
+				printWriter.println("side,category,name,stage,count,total_ns,estimated_total_ns,mean_ns,p50_ns,p90_ns,p99_ns,max_ns,buckets");
+				serverData.writeCSV(printWriter, "server");
+				clientData.writeCSV(printWriter, "client");
+				printWriter.flush();
+			}
+		}finally{
+			writer.close();
+		}
+		return exportFile;
+	}
+
+	/**
+	 *  Times recorded for one thing, like an entity, part, tile entity, or packet class.  Keep one of these
+	 *  on each thing that is timed, and only record into it from the thread that updates the thing.
+	 *  Recorded times are kept here until the next merge, so recording doesn't need to lock anything.
+	 */
+	public static final class ProfilerTimes{
+		private final long[] times = new long[ProfilerStage.values().length];
+		private final ProfilerData data;
+		private final AEntityBase entity;
+		private final Object type;
+		private final boolean addsToStages;
+		private int updates;
+		private boolean sampling;
+		/**True if these times are waiting to be merged.**/
+		private boolean queued;
+		/**Profiles these times are merged into.  Only used when merging, so they are only looked up after a reset.**/
+		private Profile entityProfile;
+		private Profile typeProfile;
+		private int profileGeneration = -1;
+
+		/**
+		 *  Creates times for the passed-in entity.  Times are added to the stages, the entity, and its definition.
+		 */
+		public ProfilerTimes(AEntityBase entity, AJSONItem<?> definition){
+			this(entity.world.isClient() ? clientData : serverData, entity, definition, true);
+		}
+
+		/**
+		 *  Creates times for the passed-in type, which is the definition or class of the thing timed.
+		 *  If addsToStages is false, times are only added to the type.  This is for things timed as part
+		 *  of an entity's update, like parts, as the entity adds the time to the stage.
+		 */
+		public ProfilerTimes(Object type, boolean client, boolean addsToStages){
+			this(client ? clientData : serverData, null, type, addsToStages);
+		}
+
+		private ProfilerTimes(ProfilerData data, AEntityBase entity, Object type, boolean addsToStages){
+			this.data = data;
+			this.entity = entity;
+			this.type = type;
+			this.addsToStages = addsToStages;
+			//Start things at different points in the interval, so they aren't all timed on the same tick.
+			this.updates = System.identityHashCode(this) & 0xFFFF;
+			this.sampling = ConfigSystem.configObject != null && isEnabled() && updates%getSampleInterval() == 0;
+		}
+
+		private void add(ProfilerStage stage, long time){
+			times[stage.ordinal()] += time;
+			if(!queued){
+				queued = true;
+				data.pendingTimes.add(this);
+			}
+		}
+	}
+
+	/**
+	 *  All times for one side.  All access must be synchronized on the data object, except for adding pending times.
+	 */
+	private static class ProfilerData{
+		private final Histogram[] stages = new Histogram[ProfilerStage.values().length];
+		private final Map<String, Profile> entityProfiles = new HashMap<String, Profile>();
+		private final Map<Object, Profile> typeProfiles = new HashMap<Object, Profile>();
+		/**Times with recordings that haven't been merged yet.  Added to by the threads recording them.**/
+		private final Queue<ProfilerTimes> pendingTimes = new ConcurrentLinkedQueue<ProfilerTimes>();
+		private final ProfilerTimes stageTimes = new ProfilerTimes(this, null, null, true);
+		/**Incremented on every reset, so times know their cached profiles are gone.**/
+		private int generation;
+
+		private ProfilerData(){
+			for(int i=0; i<stages.length; ++i){
+				stages[i] = new Histogram();
+			}
+		}
+
+		private void merge(ProfilerTimes times, int weight){
+			if(times.profileGeneration != generation){
+				times.profileGeneration = generation;
+				times.entityProfile = null;
+				times.typeProfile = times.type != null ? getTypeProfile(times.type) : null;
+			}
+			//Don't make profiles for entities that were removed before their last times were merged.
+			if(times.entity != null && times.entityProfile == null && times.entity.isValid){
+				times.entityProfile = getEntityProfile(times.entity, (AJSONItem<?>) times.type);
+			}
+			for(ProfilerStage stage : ProfilerStage.values()){
+				//Nested stages can leave a parent below 0 if the profiler was turned on part way through an update.
+				long time = times.times[stage.ordinal()];
+				if(time > 0){
+					if(times.addsToStages){
+						stages[stage.ordinal()].add(time, weight);
+					}
+					if(times.typeProfile != null){
+						addTime(times.typeProfile, stage, time, weight);
+					}
+					if(times.entityProfile != null){
+						addTime(times.entityProfile, stage, time, weight);
+					}
+				}
+				times.times[stage.ordinal()] = 0;
+			}
+			times.queued = false;
+		}
+
+		/**
+		 *  Returns the profile for the passed-in entity, making it if needed.  Returns null if we have too many entities.
+		 */
+		private Profile getEntityProfile(AEntityBase entity, AJSONItem<?> definition){
+			Profile profile = entityProfiles.get(entity.uniqueUUID);
+			if(profile == null && entityProfiles.size() < MAX_ENTITIES){
+				profile = new Profile(definition.packID + ":" + definition.systemName + " " + entity.uniqueUUID);
+				entityProfiles.put(entity.uniqueUUID, profile);
+			}
+			return profile;
+		}
+
+		private Profile getTypeProfile(Object type){
+			Profile profile = typeProfiles.get(type);
+			if(profile == null){
+				if(type instanceof AJSONItem){
+					profile = new Profile(((AJSONItem<?>) type).packID + ":" + ((AJSONItem<?>) type).systemName);
+				}else if(type instanceof Class){
+					profile = new Profile(((Class<?>) type).getSimpleName());
+				}else{
+					profile = new Profile(String.valueOf(type));
+				}
+				typeProfiles.put(type, profile);
+			}
+			return profile;
+		}
+
+		private void addTime(Profile profile, ProfilerStage stage, long time, int weight){
+			if(profile.stages[stage.ordinal()] == null){
+				profile.stages[stage.ordinal()] = new Histogram();
+			}
+			profile.stages[stage.ordinal()].add(time, weight);
+			profile.estimatedTotal += time*weight;
+		}
+
+		private List<Profile> getSortedProfiles(Map<?, Profile> profiles, int count){
+			List<Profile> sortedProfiles = new ArrayList<Profile>(profiles.values());
+			Collections.sort(sortedProfiles, new Comparator<Profile>(){
+				@Override
+				public int compare(Profile profile1, Profile profile2){
+					return Long.compare(profile2.estimatedTotal, profile1.estimatedTotal);
+				}
+			});
+			return sortedProfiles.size() > count ? sortedProfiles.subList(0, count) : sortedProfiles;
+		}
+
+		private void reset(){
+			for(Histogram histogram : stages){
+				histogram.reset();
+			}
+			entityProfiles.clear();
+			typeProfiles.clear();
+			++generation;
+		}
+
+		private synchronized void writeCSV(PrintWriter writer, String side){
+			for(ProfilerStage stage : ProfilerStage.values()){
+				stages[stage.ordinal()].writeCSV(writer, side, "stage", stage.name(), stage);
+			}
+			for(Profile profile : entityProfiles.values()){
+				profile.writeCSV(writer, side, "entity");
+			}
+			for(Profile profile : typeProfiles.values()){
+				profile.writeCSV(writer, side, "type");
+			}
+		}
+
+		private synchronized void writeJSON(JsonWriter writer) throws IOException{
+			writer.beginObject();
+			writer.name("stages");
+			writer.beginObject();
+			for(ProfilerStage stage : ProfilerStage.values()){
+				writer.name(stage.name());
+				stages[stage.ordinal()].writeJSON(writer);
+			}
+			writer.endObject();
+			writer.name("entities");
+			writeJSON(writer, entityProfiles);
+			writer.name("types");
+			writeJSON(writer, typeProfiles);
+			writer.endObject();
+		}
+
+		private void writeJSON(JsonWriter writer, Map<?, Profile> profiles) throws IOException{
+			writer.beginArray();
+			for(Profile profile : profiles.values()){
+				writer.beginObject();
+				writer.name("name").value(profile.name);
+				writer.name("estimatedTotalNs").value(profile.estimatedTotal);
+				writer.name("stages");
+				writer.beginObject();
+				for(ProfilerStage stage : ProfilerStage.values()){
+					if(profile.stages[stage.ordinal()] != null){
+						writer.name(stage.name());
+						profile.stages[stage.ordinal()].writeJSON(writer);
+					}
+				}
+				writer.endObject();
+				writer.endObject();
+			}
+			writer.endArray();
+		}
+	}
+
+	/**
+	 *  Times for one entity or type.  Stages the entity or type never had a time for have no histogram.
+	 */
+	private static class Profile{
+		private final String name;
+		private final Histogram[] stages = new Histogram[ProfilerStage.values().length];
+		private long estimatedTotal;
+
+		private Profile(String name){
+			this.name = name;
+		}
+
+		private String getSummary(){
+			StringBuilder builder = new StringBuilder(name).append(": ").append(String.format("%.2fms", estimatedTotal/1E6)).append(" estimated total");
+			for(ProfilerStage stage : ProfilerStage.values()){
+				Histogram histogram = stages[stage.ordinal()];
+				if(histogram != null){
+					builder.append(", ").append(stage.name()).append(" ").append(String.format("%.1fus avg", histogram.total/1E3/histogram.count));
+				}
+			}
+			return builder.toString();
+		}
+
+		private void writeCSV(PrintWriter writer, String side, String category){
+			for(ProfilerStage stage : ProfilerStage.values()){
+				if(stages[stage.ordinal()] != null){
+					stages[stage.ordinal()].writeCSV(writer, side, category, name, stage);
+				}
+			}
+		}
+	}
+
+	/**
+	 *  Histogram of times.  Bucket n counts times of at least 2^(n-1) and less than 2^n nanoseconds,
+	 *  so percentiles are accurate to a factor of 2.  This keeps the histogram small and adding to it fast.
+	 *  Only timed updates are added, so the estimated total is the total of the times, each times the
+	 *  number of updates it stands for.
+	 */
+	private static class Histogram{
+		private final long[] buckets = new long[BUCKETS];
+		private long count;
+		private long total;
+		private long estimatedTotal;
+		private long max;
+
+		private void add(long time, int weight){
+			if(time < 0){
+				time = 0;
+			}
+			++buckets[Math.min(64 - Long.numberOfLeadingZeros(time), BUCKETS - 1)];
+			++count;
+			total += time;
+			estimatedTotal += time*weight;
+			if(time > max){
+				max = time;
+			}
+		}
+
+		/**
+		 *  Returns the upper bound of the bucket the passed-in percentile (0-1) of times is in.
+		 */
+		private long getPercentile(double percentile){
+			long targetCount = (long) Math.ceil(count*percentile);
+			long currentCount = 0;
+			for(int i=0; i<BUCKETS; ++i){
+				currentCount += buckets[i];
+				if(currentCount >= targetCount && currentCount != 0){
+					return Math.min(1L << i, max);
+				}
+			}
+			return max;
+		}
+
+		private String getSummary(){
+			return String.format("%d samples, %.2fms estimated total, %.1fus avg, %.1fus p50, %.1fus p99, %.1fus max", count, estimatedTotal/1E6, total/1E3/count, getPercentile(0.5)/1E3, getPercentile(0.99)/1E3, max/1E3);
+		}
+
+		private void reset(){
+			for(int i=0; i<BUCKETS; ++i){
+				buckets[i] = 0;
+			}
+			count = 0;
+			total = 0;
+			estimatedTotal = 0;
+			max = 0;
+		}
+
+		private void writeCSV(PrintWriter writer, String side, String category, String name, ProfilerStage stage){
+			if(count != 0){
+				StringBuilder bucketString = new StringBuilder();
+				for(int i=0; i<BUCKETS; ++i){
+					bucketString.append(i == 0 ? "" : ";").append(buckets[i]);
+				}
+				writer.println(side + "," + category + ",\"" + name.replace("\"", "\"\"") + "\"," + stage.name() + "," + count + "," + total + "," + estimatedTotal + "," + total/count + "," + getPercentile(0.5) + "," + getPercentile(0.9) + "," + getPercentile(0.99) + "," + max + "," + bucketString);
+			}
+		}
+
+		private void writeJSON(JsonWriter writer) throws IOException{
+			writer.beginObject();
+			writer.name("count").value(count);
+			writer.name("totalNs").value(total);
+			writer.name("estimatedTotalNs").value(estimatedTotal);
+			writer.name("meanNs").value(count != 0 ? total/count : 0);
+			writer.name("p50Ns").value(getPercentile(0.5));
+			writer.name("p90Ns").value(getPercentile(0.9));
+			writer.name("p99Ns").value(getPercentile(0.99));
+			writer.name("maxNs").value(max);
+			writer.name("buckets");
+			writer.beginArray();
+			for(long bucket : buckets){
+				writer.value(bucket);
+			}
+			writer.endArray();
+			writer.endObject();
+		}
+	}
+
+	public static enum ProfilerStage{
+		/**Updating the vehicle's collision and interaction boxes.**/
+		COLLISION_BOXES,
+		/**Calculating the forces on the vehicle.**/
+		FORCES,
+		/**Ground device operations, like wheel skidding and block breaking.**/
+		GROUND_OPERATIONS,
+		/**Moving the vehicle, including checking for block collisions.  Correcting them is in {@link #COLLISION_CORRECTION}.**/
+		MOVEMENT,
+		/**Correcting the vehicle's movement when it collides with blocks.  Not counted in {@link #MOVEMENT}.**/
+		COLLISION_CORRECTION,
+		/**Updating parts, like engines and guns.  Stage samples are for all parts of a vehicle; part definitions get a sample per part.**/
+		PARTS,
+		/**Updating fuel tanks, fluid transfer, beacons, and lights.**/
+		VEHICLE_STATE,
+		/**Updating tickable tile entities, like pumps and signal controllers.**/
+		TILE_ENTITIES,
+		/**Handling packets.**/
+		PACKETS,
+		/**Updating sounds.**/
+		AUDIO,
+		/**Rendering entities.**/
+		RENDER;
+	}
+}
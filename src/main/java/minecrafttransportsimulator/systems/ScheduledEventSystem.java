@@ -0,0 +1,121 @@
+package minecrafttransportsimulator.systems;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+
+/**Class that handles events scheduled to happen at a set time in a world.  Rather than having
+ * things check every tick if it's time for them to do something, they schedule an event for
+ * when they need to do it, and this class runs it when that time comes.  Events are kept in a
+ * queue sorted by time, so each tick only checks the first event in the queue.  This means
+ * that worlds with thousands of waiting events cost no more per tick than worlds with none.
+ * <br><br>
+ * Events are run on the main thread of the world they are scheduled in, during that world's tick.
+ * Client and server worlds have their own queues, so an event only runs on the side it was scheduled on.
+ * Events that are scheduled in the same tick run in the order they were scheduled.
+ *
+ * @author don_bruce
+ */
+public final class ScheduledEventSystem{
+	private static final Map<IWrapperWorld, PriorityQueue<ScheduledEvent>> worldEvents = new HashMap<IWrapperWorld, PriorityQueue<ScheduledEvent>>();
+	private static long eventsScheduled;
+
+	/**
+	 *  Schedules the passed-in event to run in the passed-in world after the passed-in number of ticks.
+	 *  Delays less than 1 run the event on the next tick, so events that re-schedule themselves
+	 *  can never run forever in one tick.  Events that are already scheduled are moved to the new time.
+	 */
+	public static void scheduleEvent(IWrapperWorld world, ScheduledEvent event, long delay){
+		event.cancel();
+		PriorityQueue<ScheduledEvent> events = worldEvents.get(world);
+		if(events == null){
+			events = new PriorityQueue<ScheduledEvent>();
+			worldEvents.put(world, events);
+		}
+		event.world = world;
+		event.time = world.getTime() + Math.max(delay, 1);
+		event.order = eventsScheduled++;
+		event.scheduled = true;
+		events.add(event);
+	}
+
+	/**
+	 *  Runs all events in the passed-in world that are due.  Call this once every tick for every world.
+	 */
+	public static void tick(IWrapperWorld world){
+		PriorityQueue<ScheduledEvent> events = worldEvents.get(world);
+		if(events != null){
+			long currentTime = world.getTime();
+			while(!events.isEmpty() && events.peek().time <= currentTime){
+				ScheduledEvent event = events.poll();
+				event.scheduled = false;
+				event.execute();
+			}
+		}
+	}
+
+	/**
+	 *  Removes all events from the passed-in world.  Call this when the world is unloaded.
+	 */
+	public static void removeWorld(IWrapperWorld world){
+		PriorityQueue<ScheduledEvent> events = worldEvents.remove(world);
+		if(events != null){
+			for(ScheduledEvent event : events){
+				event.scheduled = false;
+			}
+		}
+	}
+
+	/**
+	 *  Returns the number of events waiting to run in the passed-in world.
+	 */
+	public static int getEventCount(IWrapperWorld world){
+		PriorityQueue<ScheduledEvent> events = worldEvents.get(world);
+		return events != null ? events.size() : 0;
+	}
+
+	/**Event that may be scheduled in this system.  Events may be re-scheduled after
+	 * they run, or while they are waiting to run, to change when they run next.
+	 *
+	 * @author don_bruce
+	 */
+	public static abstract class ScheduledEvent implements Comparable<ScheduledEvent>{
+		private IWrapperWorld world;
+		private long time;
+		private long order;
+		private boolean scheduled;
+
+		/**
+		 *  Removes this event from the queue.  Does nothing if the event isn't waiting to run.
+		 */
+		public void cancel(){
+			if(scheduled){
+				worldEvents.get(world).remove(this);
+				scheduled = false;
+			}
+		}
+
+		/**
+		 *  Returns true if this event is waiting to run.
+		 */
+		public boolean isScheduled(){
+			return scheduled;
+		}
+
+		/**
+		 *  Called when this event's time has come.
+		 */
+		protected abstract void execute();
+
+		@Override
+		public int compareTo(ScheduledEvent other){
+			if(time != other.time){
+				return time < other.time ? -1 : 1;
+			}else{
+				return order < other.order ? -1 : (order == other.order ? 0 : 1);
+			}
+		}
+	}
+}
@@ -0,0 +1,336 @@
+package minecrafttransportsimulator.systems;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import minecrafttransportsimulator.baseclasses.Point3d;
+import minecrafttransportsimulator.baseclasses.Point3i;
+import minecrafttransportsimulator.baseclasses.RoadLaneGraph;
+import minecrafttransportsimulator.baseclasses.RoadLaneGraph.GraphLane;
+import minecrafttransportsimulator.baseclasses.RoadLaneGraph.LanePosition;
+import minecrafttransportsimulator.baseclasses.RoadLaneGraph.RouteSegment;
+import minecrafttransportsimulator.baseclasses.SignalNetworkSchedule;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityPole_TrafficSignal.SignalState;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntitySignalController;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntitySignalController.OpMode;
+import minecrafttransportsimulator.blocks.tileentities.instances.TileEntitySignalController.OpState;
+import minecrafttransportsimulator.mcinterface.IWrapperWorld;
+import minecrafttransportsimulator.mcinterface.MasterLoader;
+import minecrafttransportsimulator.packets.instances.PacketSignalNetworkState;
+import minecrafttransportsimulator.systems.ScheduledEventSystem.ScheduledEvent;
+
+/**Class that handles networks of signal controllers.  Timed controllers on the same road are
+ * put into a network, and the network runs all their cycles from one {@link SignalNetworkSchedule}.
+ * This gives a green wave down the road, rather than every controller doing its own thing.
+ * <br><br>
+ * Controllers are put on the road lane closest to their signals.  From there, the lanes in the
+ * {@link RoadLaneGraph} are followed for up to {@link #MAX_LINK_DISTANCE} blocks, and any controllers
+ * on those lanes are linked with the distance to them.  Linked controllers are in the same network.
+ * Networks are re-built a tick after any controller changes, so many changes at once, such as from
+ * a chunk loading, only cause one re-build.
+ * <br><br>
+ * Each network is a single {@link ScheduledEvent} that runs when any of its controllers needs to
+ * change state.  It changes all the controllers that need it, and sends one packet to clients with
+ * all those changes to the clients in that world.  Controllers in a network don't schedule their
+ * own changes.  This is only done on servers, as clients get their states from the packets.
+ * <br><br>
+ * When a network is made, its controllers don't jump to the schedule right away, as that could
+ * skip their yellow or all-red states.  Instead, they keep running their own cycles until they are
+ * in the state the schedule has them in, or until they are done clearing in an all-red state and
+ * the schedule has them in a state with no yellows.  Controllers that get to an all-red state before
+ * this wait there for the network to take them.
+ *
+ * @author don_bruce
+ */
+public final class SignalNetworkSystem{
+	/**How fast the green wave goes down the road, in blocks per tick.**/
+	public static final double WAVE_SPEED = 0.5D;
+	/**Farthest distance along the road controllers can be from each other and still be linked.**/
+	public static final int MAX_LINK_DISTANCE = 256;
+	/**Farthest distance the signals of a controller can be from a lane and still be put on it.**/
+	public static final int LANE_DISTANCE = 16;
+
+	private static final Map<IWrapperWorld, NetworkWorld> networkWorlds = new HashMap<IWrapperWorld, NetworkWorld>();
+
+	/**
+	 *  Call this whenever a controller's mode or components change, or it is removed.
+	 *  Timed controllers that are still in the world are added, all others are removed.
+	 *  The networks for the world are re-built on the next tick.
+	 */
+	public static void controllerChanged(TileEntitySignalController controller, boolean removed){
+		NetworkWorld networkWorld = networkWorlds.get(controller.world);
+		if(networkWorld == null){
+			networkWorld = new NetworkWorld(controller.world);
+			networkWorlds.put(controller.world, networkWorld);
+		}
+		if(!removed && controller.currentOpMode.equals(OpMode.TIMED_CYCLE) && !controller.componentLocations.isEmpty()){
+			networkWorld.controllers.add(controller);
+		}else{
+			networkWorld.controllers.remove(controller);
+			if(controller.getNetwork() != null){
+				//Take us out of our network right away, so it won't change us anymore.
+				controller.setNetwork(null);
+			}
+		}
+		ScheduledEventSystem.scheduleEvent(controller.world, networkWorld, 1);
+	}
+
+	/**
+	 *  Returns the number of networks in the passed-in world.
+	 */
+	public static int getNetworkCount(IWrapperWorld world){
+		NetworkWorld networkWorld = networkWorlds.get(world);
+		return networkWorld != null ? networkWorld.networks.size() : 0;
+	}
+
+	/**
+	 *  Removes all networks from the passed-in world.  Call this when the world is unloaded.
+	 */
+	public static void removeWorld(IWrapperWorld world){
+		NetworkWorld networkWorld = networkWorlds.remove(world);
+		if(networkWorld != null){
+			networkWorld.cancel();
+			for(SignalNetwork network : networkWorld.networks){
+				network.cancel();
+			}
+		}
+	}
+
+	/**Networks and controllers for a single world.  This is also the event that re-builds the networks.
+	 *
+	 * @author don_bruce
+	 */
+	private static class NetworkWorld extends ScheduledEvent{
+		private final IWrapperWorld world;
+		private final Set<TileEntitySignalController> controllers = new LinkedHashSet<TileEntitySignalController>();
+		private final List<SignalNetwork> networks = new ArrayList<SignalNetwork>();
+
+		private NetworkWorld(IWrapperWorld world){
+			this.world = world;
+		}
+
+		@Override
+		protected void execute(){
+			//Remove the old networks.  Their controllers are checked at the end to see if they are still in one.
+			Set<TileEntitySignalController> oldMembers = new HashSet<TileEntitySignalController>();
+			for(SignalNetwork network : networks){
+				network.cancel();
+				oldMembers.addAll(network.members);
+			}
+			networks.clear();
+
+			//Put all controllers on their closest lane.
+			RoadLaneGraph graph = RoadLaneGraph.getGraph(world);
+			Map<TileEntitySignalController, LanePosition> controllerLanes = new LinkedHashMap<TileEntitySignalController, LanePosition>();
+			Map<GraphLane, List<TileEntitySignalController>> laneControllers = new HashMap<GraphLane, List<TileEntitySignalController>>();
+			for(TileEntitySignalController controller : controllers){
+				Point3d center = new Point3d(0, 0, 0);
+				for(Point3i location : controller.componentLocations){
+					center.add(location.x + 0.5D, location.y, location.z + 0.5D);
+				}
+				center.multiply(1D/controller.componentLocations.size());
+				LanePosition lanePosition = graph.getClosestLane(center, LANE_DISTANCE);
+				if(lanePosition != null){
+					controllerLanes.put(controller, lanePosition);
+					List<TileEntitySignalController> onLane = laneControllers.get(lanePosition.lane);
+					if(onLane == null){
+						onLane = new ArrayList<TileEntitySignalController>();
+						laneControllers.put(lanePosition.lane, onLane);
+					}
+					onLane.add(controller);
+				}
+			}
+
+			//Follow the lanes from each controller to find the controllers down the road from it.
+			Map<TileEntitySignalController, Map<TileEntitySignalController, Double>> links = new LinkedHashMap<TileEntitySignalController, Map<TileEntitySignalController, Double>>();
+			Set<TileEntitySignalController> downstreamControllers = new HashSet<TileEntitySignalController>();
+			for(TileEntitySignalController controller : controllerLanes.keySet()){
+				LanePosition start = controllerLanes.get(controller);
+				Set<Integer> checkedLanes = new HashSet<Integer>();
+				RouteSegment segment = new RouteSegment(start.lane, false);
+				double distance = -start.segment;
+				while(segment != null && distance <= MAX_LINK_DISTANCE && checkedLanes.add(segment.lane.laneID)){
+					List<TileEntitySignalController> onLane = laneControllers.get(segment.lane);
+					if(onLane != null){
+						for(TileEntitySignalController otherController : onLane){
+							float otherSegment = controllerLanes.get(otherController).segment;
+							double otherDistance = distance + (segment.reversed ? segment.lane.curve.pathLength - otherSegment : otherSegment);
+							if(otherController != controller && otherDistance > 0 && otherDistance <= MAX_LINK_DISTANCE){
+								addLink(links, controller, otherController, otherDistance);
+								addLink(links, otherController, controller, -otherDistance);
+								downstreamControllers.add(otherController);
+							}
+						}
+					}
+					distance += segment.lane.curve.pathLength;
+					segment = segment.reversed ? segment.lane.getPriorSegment(graph) : segment.lane.getNextSegment(graph);
+				}
+			}
+
+			//Make networks out of linked controllers.  Start from controllers at the start of a road if we can,
+			//so offsets go down the road from them.  The distance to each controller is found by following links.
+			List<TileEntitySignalController> startControllers = new ArrayList<TileEntitySignalController>();
+			for(TileEntitySignalController controller : links.keySet()){
+				if(!downstreamControllers.contains(controller)){
+					startControllers.add(controller);
+				}
+			}
+			startControllers.addAll(links.keySet());
+			Set<TileEntitySignalController> networkedControllers = new HashSet<TileEntitySignalController>();
+			for(TileEntitySignalController startController : startControllers){
+				if(networkedControllers.add(startController)){
+					List<TileEntitySignalController> members = new ArrayList<TileEntitySignalController>();
+					List<Double> distances = new ArrayList<Double>();
+					members.add(startController);
+					distances.add(0D);
+					for(int i=0; i<members.size(); ++i){
+						for(Map.Entry<TileEntitySignalController, Double> link : links.get(members.get(i)).entrySet()){
+							if(networkedControllers.add(link.getKey())){
+								members.add(link.getKey());
+								distances.add(distances.get(i) + link.getValue());
+							}
+						}
+					}
+					SignalNetwork network = new SignalNetwork(world, members, distances);
+					networks.add(network);
+					network.execute();
+				}
+			}
+
+			//Controllers that were in a network and aren't anymore go back to running their own cycles.
+			for(TileEntitySignalController controller : oldMembers){
+				if(controllers.contains(controller) && !networkedControllers.contains(controller)){
+					controller.setNetwork(null);
+				}
+			}
+		}
+
+		private static void addLink(Map<TileEntitySignalController, Map<TileEntitySignalController, Double>> links, TileEntitySignalController from, TileEntitySignalController to, double distance){
+			Map<TileEntitySignalController, Double> fromLinks = links.get(from);
+			if(fromLinks == null){
+				fromLinks = new LinkedHashMap<TileEntitySignalController, Double>();
+				links.put(from, fromLinks);
+			}
+			if(!fromLinks.containsKey(to) || Math.abs(distance) < Math.abs(fromLinks.get(to))){
+				fromLinks.put(to, distance);
+			}
+		}
+	}
+
+	/**Network of signal controllers.  When run, this sets all controllers to the state the schedule
+	 * has them in, sends the changes to clients, and schedules itself for the next time a state changes.
+	 * Controllers that are still joining the network are only switched to the schedule once it's safe.
+	 *
+	 * @author don_bruce
+	 */
+	public static class SignalNetwork extends ScheduledEvent{
+		private final IWrapperWorld world;
+		private final List<TileEntitySignalController> members;
+		private final Set<TileEntitySignalController> joiningMembers;
+		private final SignalNetworkSchedule schedule;
+		private long nextRunTime;
+
+		private SignalNetwork(IWrapperWorld world, List<TileEntitySignalController> members, List<Double> distances){
+			this.world = world;
+			this.members = members;
+			this.joiningMembers = new HashSet<TileEntitySignalController>(members);
+			int[][] stateTimes = new int[members.size()][];
+			double[] memberDistances = new double[members.size()];
+			for(int i=0; i<members.size(); ++i){
+				TileEntitySignalController controller = members.get(i);
+				stateTimes[i] = new int[]{controller.greenMainTime*20, controller.yellowMainTime*20, controller.allRedTime*20, controller.greenCrossTime*20, controller.yellowCrossTime*20, controller.allRedTime*20};
+				memberDistances[i] = distances.get(i);
+			}
+			this.schedule = new SignalNetworkSchedule(stateTimes, memberDistances, WAVE_SPEED);
+			for(TileEntitySignalController controller : members){
+				controller.setNetwork(this);
+			}
+		}
+
+		/**
+		 *  Returns the number of controllers in this network.
+		 */
+		public int getMemberCount(){
+			return members.size();
+		}
+
+		/**
+		 *  Returns true if the passed-in controller is still running its own cycle, and hasn't been
+		 *  switched to this network's schedule yet.
+		 */
+		public boolean isJoining(TileEntitySignalController controller){
+			return joiningMembers.contains(controller);
+		}
+
+		/**
+		 *  Call this when a joining controller gets to an all-red state on its own.  The controller should wait
+		 *  in that state, and this network will switch it to the schedule once it's done clearing.
+		 */
+		public void onJoiningAllRed(TileEntitySignalController controller){
+			long joinTime = Math.max(getClearedTime(controller), world.getTime() + 1);
+			if(!isScheduled() || joinTime < nextRunTime){
+				nextRunTime = joinTime;
+				ScheduledEventSystem.scheduleEvent(world, this, joinTime - world.getTime());
+			}
+		}
+
+		@Override
+		protected void execute(){
+			long time = world.getTime();
+			long nextTime = schedule.getNextChangeTime(time);
+			List<TileEntitySignalController> changedControllers = new ArrayList<TileEntitySignalController>();
+			for(int i=0; i<members.size(); ++i){
+				TileEntitySignalController controller = members.get(i);
+				if(controller.getNetwork() == this){
+					OpState state = OpState.values()[schedule.getState(i, time)];
+					if(joiningMembers.contains(controller)){
+						if(controller.currentOpState.equals(state) || (isAllRed(controller.currentOpState) && time >= getClearedTime(controller) && !hasYellow(state))){
+							//Safe to switch.  Set our network again to cancel the controller's own state change.
+							joiningMembers.remove(controller);
+							controller.setNetwork(this);
+						}else{
+							//Not safe yet.  If the controller is clearing, check it again once it's done.
+							if(isAllRed(controller.currentOpState) && time < getClearedTime(controller)){
+								nextTime = Math.min(nextTime, getClearedTime(controller));
+							}
+							continue;
+						}
+					}
+					if(!controller.currentOpState.equals(state)){
+						controller.updateState(state, true);
+						changedControllers.add(controller);
+					}
+				}
+			}
+			if(!changedControllers.isEmpty()){
+				MasterLoader.networkInterface.sendToClientsInWorld(new PacketSignalNetworkState(changedControllers), world);
+			}
+			nextRunTime = nextTime;
+			ScheduledEventSystem.scheduleEvent(world, this, nextTime - time);
+		}
+
+		/**
+		 *  Returns the time the passed-in controller is done clearing the state it's in.
+		 */
+		private static long getClearedTime(TileEntitySignalController controller){
+			return (controller.timeOperationStarted + controller.allRedTime)*20L;
+		}
+
+		/**
+		 *  Returns true if the passed-in state is red in both directions.
+		 */
+		public static boolean isAllRed(OpState state){
+			return state.mainSignalState.equals(SignalState.RED) && state.crossSignalState.equals(SignalState.RED);
+		}
+
+		private static boolean hasYellow(OpState state){
+			return state.mainSignalState.equals(SignalState.YELLOW) || state.crossSignalState.equals(SignalState.YELLOW);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package minecrafttransportsimulator.systems;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**Class that handles simulation tiers for vehicles.  Vehicles close to players need full physics,
+ * but vehicles far away from players don't, as nobody can see how accurate they are.  To save CPU
+ * time, vehicles are put into one of the tiers in {@link SimulationTier} based on how far they are
+ * from the closest player.  Tiers use hysteresis, so vehicles right on the edge of a tier's distance
+ * won't flip back and forth between tiers every check.
+ * <br><br>
+ * This class also keeps track of how long vehicles in each tier take to update.  This allows for
+ * checking how much time is actually being saved, and if the distances in the config need tweaking.
+ *
+ * @author don_bruce
+ */
+public final class SimulationTierSystem{
+	/**Extra distance a vehicle needs to be past a tier's distance before it drops to a lower tier.**/
+	public static final int TIER_HYSTERESIS = 16;
+	/**How often (in ticks) vehicles in the minimal tier do a full update to handle gravity, friction, and sleeping.**/
+	public static final int MINIMAL_UPDATE_INTERVAL = 20;
+
+	private static final AtomicLongArray tickCosts = new AtomicLongArray(SimulationTier.values().length);
+	private static final AtomicLongArray tickCounts = new AtomicLongArray(SimulationTier.values().length);
+
+	/**
+	 *  Returns the tier a vehicle should be in, given its current tier and the distance to the nearest player.
+	 *  Vehicles go up in tiers as soon as they are inside a tier's distance, but they need to be
+	 *  {@link #TIER_HYSTERESIS} blocks past a tier's distance before they drop down.
+	 */
+	public static SimulationTier getTier(SimulationTier currentTier, double playerDistance){
+		int fullDistance = ConfigSystem.configObject.general.simulationFullDistance.value;
+		int reducedDistance = ConfigSystem.configObject.general.simulationReducedDistance.value;
+		if(playerDistance < fullDistance){
+			return SimulationTier.FULL;
+		}
+		switch(currentTier){
+			case FULL: {
+				if(playerDistance < fullDistance + TIER_HYSTERESIS){
+					return SimulationTier.FULL;
+				}else{
+					return playerDistance < reducedDistance + TIER_HYSTERESIS ? SimulationTier.REDUCED : SimulationTier.MINIMAL;
+				}
+			}
+			case REDUCED: return playerDistance < reducedDistance + TIER_HYSTERESIS ? SimulationTier.REDUCED : SimulationTier.MINIMAL;
+			default: return playerDistance < reducedDistance ? SimulationTier.REDUCED : SimulationTier.MINIMAL;
+		}
+	}
+
+	/**
+	 *  Adds the time a vehicle took to update to the passed-in tier's metrics.
+	 */
+	public static void addTickCost(SimulationTier tier, long nanoseconds){
+		tickCosts.addAndGet(tier.ordinal(), nanoseconds);
+		tickCounts.incrementAndGet(tier.ordinal());
+	}
+
+	/**
+	 *  Returns the average time, in microseconds, a vehicle update took in the passed-in tier.
+	 */
+	public static double getAverageTickCost(SimulationTier tier){
+		long count = tickCounts.get(tier.ordinal());
+		return count != 0 ? tickCosts.get(tier.ordinal())/1000D/count : 0;
+	}
+
+	/**
+	 *  Returns the number of vehicle updates done in the passed-in tier.
+	 */
+	public static long getTickCount(SimulationTier tier){
+		return tickCounts.get(tier.ordinal());
+	}
+
+	/**
+	 *  Resets all metrics.
+	 */
+	public static void resetMetrics(){
+		for(SimulationTier tier : SimulationTier.values()){
+			tickCosts.set(tier.ordinal(), 0);
+			tickCounts.set(tier.ordinal(), 0);
+		}
+	}
+
+	public static enum SimulationTier{
+		/**All physics, part updates, and ground device corrections are done every tick.**/
+		FULL,
+		/**Full updates are only done every few ticks, without ground device pitch and roll corrections.
+		 * Vehicles just keep moving along their last path between updates.**/
+		REDUCED,
+		/**Vehicles only move along their last path, with an occasional full update to handle gravity and friction.**/
+		MINIMAL;
+	}
+}
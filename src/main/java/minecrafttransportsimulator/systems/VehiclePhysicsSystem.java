@@ -0,0 +1,113 @@
+package minecrafttransportsimulator.systems;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
+
+/**Class that handles updating vehicles in phases.  Normally, each vehicle does its entire update
+ * at once.  This class instead does the start phase for all vehicles, then the compute phase for all
+ * vehicles, then the finish phase for all vehicles.  The compute phase only does math on each vehicle's
+ * own state, so it can be split across threads.  The start and finish phases interact with the world, so
+ * they are always done on the calling thread, in the order the vehicles were passed in.  As the compute
+ * phase for one vehicle can't affect any other vehicle, the results are identical no matter how many
+ * threads are used.  One thread is used by default, which does all phases on the calling thread.
+ * <br><br>
+ * Note that this changes the order vehicles see each other in compared to updating them one at a time.
+ * When updated one at a time, a vehicle sees the vehicles before it fully updated, and the ones after it
+ * not updated at all.  Here, every vehicle has done its start phase before any vehicle does its finish phase,
+ * so the finish phase sees the parts and previous states of all vehicles already updated for this tick.
+ * The finish phases still run in order, so vehicles see the moves of the vehicles before them like before.
+ * Vehicles that don't interact get the exact same results either way.
+ *
+ * @author don_bruce
+ */
+public final class VehiclePhysicsSystem{
+	/**Number of vehicles each compute task handles before it stops splitting.**/
+	private static final int VEHICLES_PER_TASK = 4;
+	private static final List<EntityVehicleF_Physics> computeVehicles = new ArrayList<EntityVehicleF_Physics>();
+	private static ForkJoinPool computePool;
+
+	/**
+	 *  Updates all passed-in vehicles.  Vehicles being towed should not be passed-in, as they
+	 *  are updated by the vehicle towing them.  This should only be called on servers.
+	 */
+	public static void updateVehicles(List<EntityVehicleF_Physics> vehicles){
+		//Do the start phase.  Some vehicles won't need the other phases this tick.
+		computeVehicles.clear();
+		for(EntityVehicleF_Physics vehicle : vehicles){
+			if(vehicle.startUpdate()){
+				computeVehicles.add(vehicle);
+			}
+		}
+
+		//Do the compute phase.  Only use the pool if we have enough vehicles to make it worth it.
+		int threads = ConfigSystem.configObject.general.physicsThreads.value;
+		if(threads > 1 && computeVehicles.size() > VEHICLES_PER_TASK){
+			getPool(threads).invoke(new ComputeTask(0, computeVehicles.size()));
+		}else{
+			for(EntityVehicleF_Physics vehicle : computeVehicles){
+				vehicle.computeUpdate();
+			}
+		}
+
+		//Do the finish phase.
+		for(EntityVehicleF_Physics vehicle : computeVehicles){
+			vehicle.finishUpdate();
+		}
+		computeVehicles.clear();
+	}
+
+	/**
+	 *  Returns the pool for the compute phase, creating it if we don't have one with the right number of threads.
+	 *  Threads are daemons so they don't hold up the game on exit.
+	 */
+	private static ForkJoinPool getPool(int threads){
+		if(computePool == null || computePool.getParallelism() != threads){
+			if(computePool != null){
+				computePool.shutdown();
+			}
+			computePool = new ForkJoinPool(threads, new ForkJoinWorkerThreadFactory(){
+				@Override
+				public ForkJoinWorkerThread newThread(ForkJoinPool pool){
+					ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+					thread.setName("MTS Physics Worker");
+					thread.setDaemon(true);
+					thread.setContextClassLoader(VehiclePhysicsSystem.class.getClassLoader());
+					return thread;
+				}
+			}, null, false);
+		}
+		return computePool;
+	}
+
+	/**
+	 *  Task that does the compute phase for a range of vehicles, splitting the range in half until it's small enough.
+	 */
+	private static class ComputeTask extends RecursiveAction{
+		private static final long serialVersionUID = 1L;
+		private final int start;
+		private final int end;
+
+		private ComputeTask(int start, int end){
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute(){
+			if(end - start <= VEHICLES_PER_TASK){
+				for(int i=start; i<end; ++i){
+					computeVehicles.get(i).computeUpdate();
+				}
+			}else{
+				int middle = (start + end)/2;
+				invokeAll(new ComputeTask(start, middle), new ComputeTask(middle, end));
+			}
+		}
+	}
+}
@@ -33,6 +33,10 @@ import minecrafttransportsimulator.packets.instances.PacketEntityRiderChange;
  * for loading will be passed-in to the constructor.  This data should be used to create the entity
  * in its loaded state.  For saving, which can happen multiple times in the entity's lifetime,
  * {@link #save(WrapperNBT)} is called.  All data required in the constructor should be saved here.
+ * <br><br>
+ * As saving is done every time the chunk the entity is in is saved, entities track if they
+ * have changed since their last save.  If they haven't, the data from the prior save is re-used
+ * rather than calling {@link #save(WrapperNBT)} again.  See {@link #getSaveData()} for details.
  * 
  * 
  * @author don_bruce
@@ -70,6 +74,9 @@ public abstract class AEntityBase{
 	/**Counter for how many ticks this entity has existed in the world.  Realistically, it's the number of updates.**/
 	public long ticksExisted;
 	
+	/**True if this entity is sleeping.  Sleeping entities aren't updated until they are woken via {@link #wakeUp()}.**/
+	public boolean sleeping;
+	
 	
 	/**List of bounding boxes that should be used for collision of other entities with this entity.**/
 	public List<BoundingBox> collisionBoxes = new ArrayList<BoundingBox>();
@@ -99,6 +106,12 @@ public abstract class AEntityBase{
 	 **/
 	public BiMap<Point3d, IWrapperEntity> locationRiderMap = HashBiMap.create();
 	
+	/**True if this entity has changed in a way {@link #isDirty()} can't check for since the last save.**/
+	private boolean dirty = true;
+	/**Data from the last save.  Re-used by {@link #getSaveData()} if we aren't dirty.  Sub-classes may read
+	 * this in {@link #isDirty()} to compare against current state, but it must never be modified once created.**/
+	protected IWrapperNBT savedData;
+	
 	public AEntityBase(IWrapperWorld world, IWrapperEntity wrapper, IWrapperNBT data){
 		this.lookupID = world.isClient() ? data.getInteger("lookupID") : idCounter++;
 		this.uniqueUUID = data.getString("uniqueUUID").isEmpty() ? UUID.randomUUID().toString() : data.getString("uniqueUUID"); 
@@ -196,6 +209,8 @@ public abstract class AEntityBase{
 			
 			//Add rider to map, and send out packet if required.
 			locationRiderMap.put(riderLocation, rider);
+			markDirty();
+			wakeUp();
 			if(!world.isClient()){
 				rider.setRiding(this);
 				MasterLoader.networkInterface.sendToAllClients(new PacketEntityRiderChange(this, rider, riderLocation));
@@ -216,6 +231,7 @@ public abstract class AEntityBase{
 			}else{
 				locationRiderMap.inverse().remove(rider);
 			}
+			markDirty();
 			if(!world.isClient()){
 				rider.setRiding(null);
 				MasterLoader.networkInterface.sendToAllClients(new PacketEntityRiderChange(this, rider, null));
@@ -223,12 +239,26 @@ public abstract class AEntityBase{
 		}
 	}
 	
+	/**
+	 *  Wakes this entity up if it is sleeping.  Call this whenever something happens that
+	 *  may need a sleeping entity to update, such as getting a rider, a packet, or being hit.
+	 */
+	public void wakeUp(){
+		sleeping = false;
+	}
+	
 	/**
 	 *  Called when the entity is attacked.
 	 *  This should ONLY be called on the server; clients will sync via packets.
 	 */
 	public void attack(Damage damage){}
 	
+	/**
+	 *  Called when this entity is removed from the world, or the world it's in is unloaded.
+	 *  Anything that keeps a reference to this entity outside of it should be released here.
+	 */
+	public void remove(){}
+	
 	/**
 	 *  This method returns true if this entity is lit up.  Used to send lighting status to various
 	 *  systems for rendering.  Note that this does NOT imply that this entity is bright enough to make
@@ -244,9 +274,50 @@ public abstract class AEntityBase{
 	 */
 	public abstract void render(float partialTicks);
 	
+	/**
+	 *  Marks this entity as changed, so it will be fully saved on the next call to {@link #getSaveData()}.
+	 *  Call this whenever state that is saved changes, unless {@link #isDirty()} already checks for it.
+	 */
+	public void markDirty(){
+		dirty = true;
+	}
+	
+	/**
+	 *  Returns true if this entity has changed since the last call to {@link #getSaveData()}.
+	 *  By default this checks the dirty flag and if we have moved.  Sub-classes should extend
+	 *  this to check any saved state that changes on its own, such as fuel and power levels,
+	 *  by comparing it to {@link #savedData}.  As the super call checks if we have saved data, sub-classes
+	 *  should short-circuit their checks after it to avoid comparing to null data.
+	 *  This may be called off the main thread, so it should only read state.
+	 */
+	public boolean isDirty(){
+		return dirty || savedData == null || !position.equals(savedData.getPoint3d("position")) || !motion.equals(savedData.getPoint3d("motion")) || !angles.equals(savedData.getPoint3d("angles")) || !rotation.equals(savedData.getPoint3d("rotation"));
+	}
+	
+	/**
+	 *  Returns the saved data for this entity.  If the entity hasn't changed since the last call,
+	 *  the same data is returned.  Otherwise, {@link #save(IWrapperNBT)} is called on a new tag.
+	 *  The returned data must NOT be modified, as it will be re-used for later saves.
+	 *  <br><br>
+	 *  This may be called off the main thread to prepare saves in parallel, but ONLY while the entity
+	 *  isn't being updated.  This ensures the entity state is a frozen snapshot while we save it.
+	 */
+	public IWrapperNBT getSaveData(){
+		if(isDirty()){
+			IWrapperNBT data = MasterLoader.coreInterface.createNewTag();
+			save(data);
+			savedData = data;
+			dirty = false;
+		}
+		return savedData;
+	}
+	
 	/**
 	 *  Called when the entity needs to be saved to disk.  The passed-in wrapper
 	 *  should be written to at this point with any data needing to be saved.
+	 *  Normally this is called via {@link #getSaveData()}, which skips the save
+	 *  if nothing has changed.  Any sub-classes that save state that changes without
+	 *  calling {@link #markDirty()} should check for that in {@link #isDirty()}.
 	 */
 	public void save(IWrapperNBT data){
 		data.setInteger("lookupID", lookupID);
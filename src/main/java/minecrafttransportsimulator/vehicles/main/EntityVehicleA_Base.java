@@ -1,11 +1,11 @@
 package minecrafttransportsimulator.vehicles.main;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import minecrafttransportsimulator.baseclasses.Point3d;
 import minecrafttransportsimulator.items.instances.ItemPart;
@@ -20,6 +20,9 @@ import minecrafttransportsimulator.mcinterface.MasterLoader;
 import minecrafttransportsimulator.packets.instances.PacketVehiclePartChange;
 import minecrafttransportsimulator.systems.ConfigSystem;
 import minecrafttransportsimulator.systems.PackParserSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerStage;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerTimes;
 import minecrafttransportsimulator.vehicles.parts.APart;
 import minecrafttransportsimulator.vehicles.parts.PartSeat;
 
@@ -54,8 +57,12 @@ abstract class EntityVehicleA_Base extends AEntityBase{
 	/**Cached pack definition mappings for sub-part packs.  First key is the parent vehicle part definition, which links to a map..
 	 * This second map is keyed by a part vehicle definition, with the value equal to a corrected vehicle definition.  This means that
 	 * in total, this object contains all sub-packs created on any vehicle for any part with sub-packs.  This is done as parts with
-	 * sub-parts use relative locations, and thus we need to ensure we have the correct position for them on any vehicle part location.*/
-	private static final Map<VehiclePart, Map<VehiclePart, VehiclePart>> SUBPACK_MAPPINGS = new HashMap<VehiclePart, Map<VehiclePart, VehiclePart>>();  
+	 * sub-parts use relative locations, and thus we need to ensure we have the correct position for them on any vehicle part location.
+	 * Both maps are weak-keyed, so mappings for definitions that are no longer loaded, such as after a pack reload, are dropped.*/
+	private static final Map<VehiclePart, Map<VehiclePart, VehiclePart>> SUBPACK_MAPPINGS = new WeakHashMap<VehiclePart, Map<VehiclePart, VehiclePart>>();  
+	
+	/**Times for this vehicle's updates.  Recorded into during updates, and merged by the {@link ProfilerSystem} once per tick.*/
+	public final ProfilerTimes profilerTimes;
 	
 	/**Cached value for speedFactor.  Saves us from having to use the long form all over.  Not like it'll change in-game...*/
 	public final double SPEED_FACTOR = ConfigSystem.configObject.general.speedFactor.value;
@@ -66,6 +73,7 @@ abstract class EntityVehicleA_Base extends AEntityBase{
 		ItemVehicle item = PackParserSystem.getItem(data.getString("packID"), data.getString("systemName"), data.getString("subName")); 
 		this.definition = item.definition;
 		this.currentSubName = item.subName;
+		this.profilerTimes = new ProfilerTimes(this, definition);
 		
 		//Add parts.
 		//Also Replace ride-able locations with seat locations.
@@ -90,10 +98,13 @@ abstract class EntityVehicleA_Base extends AEntityBase{
 		//Send update call down to all parts.
 		//They need to get processed first to handle hitbox logic, or removal based on damage.
 		//We call this before we call the super as they need to know the prev statuses..
+		//Each part's time is also recorded for its definition, so we can tell which engines or guns are slow.
 		Iterator<APart> iterator = parts.iterator();
 		while(iterator.hasNext()){
 			APart part = iterator.next();
+			long partStartTime = ProfilerSystem.getTime(profilerTimes);
 			part.update();
+			ProfilerSystem.addPartTime(profilerTimes, part.profilerTimes, ProfilerStage.PARTS, partStartTime);
 			if(!part.isValid){
 				removePart(part, iterator);
 			}
@@ -222,6 +233,7 @@ abstract class EntityVehicleA_Base extends AEntityBase{
    	 */
 	public void addPart(APart part){
 		parts.add(part);
+		markDirty();
 		
 		//Add a ride-able location.
 		if(part instanceof PartSeat){
@@ -242,6 +254,7 @@ abstract class EntityVehicleA_Base extends AEntityBase{
 			}else{
 				parts.remove(part);
 			}
+			markDirty();
 			//Remove any riders riding this part from the riding map.
 			if(locationRiderMap.containsKey(part.placementOffset)){
 				removeRider(locationRiderMap.get(part.placementOffset), null);
@@ -376,6 +389,13 @@ abstract class EntityVehicleA_Base extends AEntityBase{
 		return packPart.pos.equals(offset);
 	}
 	
+	/**
+	 * Returns the number of parent part definitions that have sub-part packs cached.
+	 */
+	public static int getSubPackMappingCount(){
+		return SUBPACK_MAPPINGS.size();
+	}
+	
 	/**
 	 * Returns a PackPart with the correct properties for a SubPart.  This is because
 	 * subParts inherit some properties from their parent parts.  All created sub-part
@@ -385,7 +405,7 @@ abstract class EntityVehicleA_Base extends AEntityBase{
 	 */
 	public VehiclePart getPackForSubPart(VehiclePart parentPack, VehiclePart subPack){
 		if(!SUBPACK_MAPPINGS.containsKey(parentPack)){
-			SUBPACK_MAPPINGS.put(parentPack, new HashMap<VehiclePart, VehiclePart>());
+			SUBPACK_MAPPINGS.put(parentPack, new WeakHashMap<VehiclePart, VehiclePart>());
 		}
 		
 		VehiclePart correctedPack = SUBPACK_MAPPINGS.get(parentPack).get(subPack);
@@ -475,6 +495,19 @@ abstract class EntityVehicleA_Base extends AEntityBase{
 		}
 	}
 	
+	@Override
+	public boolean isDirty(){
+		if(super.isDirty() || !currentSubName.equals(savedData.getString("subName"))){
+			return true;
+		}
+		for(APart part : parts){
+			if(part.isValid && !part.isFake() && part.isDirty()){
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	@Override
 	public void save(IWrapperNBT data){
 		super.save(data);
@@ -485,15 +518,9 @@ abstract class EntityVehicleA_Base extends AEntityBase{
 		int totalParts = 0;
 		for(APart part : parts){
 			//Don't save the part if it's not valid or a fake part.
+			//Parts that haven't changed since the last save will give us their prior data.
 			if(part.isValid && !part.isFake()){
-				IWrapperNBT partData = part.getData();
-				//We need to set some extra data here for the part to allow this vehicle to know where it went.
-				//This only gets set here during saving/loading, and is NOT returned in the item that comes from the part.
-				partData.setString("packID", part.definition.packID);
-				partData.setString("systemName", part.definition.systemName);
-				partData.setString("subName", part.currentSubName);
-				partData.setPoint3d("offset", part.placementOffset);
-				data.setData("part_" + totalParts, partData);
+				data.setData("part_" + totalParts, part.getSaveData());
 				++totalParts;
 			}
 		}
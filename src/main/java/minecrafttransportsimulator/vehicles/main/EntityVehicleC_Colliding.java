@@ -1,5 +1,6 @@
 package minecrafttransportsimulator.vehicles.main;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -67,10 +68,24 @@ abstract class EntityVehicleC_Colliding extends EntityVehicleB_Rideable{
 	public final Map<BoundingBox, VehicleDoor> vehicleDoorBoxes = new HashMap<BoundingBox, VehicleDoor>();
 	public final Map<APart, Map<BoundingBox, VehicleDoor>> partDoorBoxes = new HashMap<APart, Map<BoundingBox, VehicleDoor>>();
 	
+	//Interaction box states.  The interaction boxes only change if one of these changes, so we check them
+	//every tick rather than re-checking every slot and part.  Parts added or removed set the changed flag directly.
+	private final List<BoundingBox> activeInteractionBoxes = new ArrayList<BoundingBox>();
+	private boolean interactionBoxesChanged = true;
+	private final Set<String> lastDoorsOpen = new HashSet<String>();
+	private IWrapperPlayer lastClientPlayer;
+	private AItemBase lastHeldItem;
+	private boolean lastClientRidingThis;
+	private Point3d lastClientRiderLocation;
+	
 	
 	public EntityVehicleC_Colliding(IWrapperWorld world, IWrapperEntity wrapper, IWrapperNBT data){
 		super(world, wrapper, data);
 		
+		//Set the interaction boxes to be our active boxes followed by the collision boxes.
+		//This way we don't need to copy the collision boxes into the list when they change.
+		interactionBoxes = new InteractionBoxList(activeInteractionBoxes, collisionBoxes);
+		
 		//Create the initial part slots.
 		recalculatePartSlots();
 		
@@ -147,60 +162,44 @@ abstract class EntityVehicleC_Colliding extends EntityVehicleB_Rideable{
 			}
 		}
 		
-		//Update vehicle collision boxes.
-		for(BoundingBox box : vehicleCollisionBoxes){
-			box.updateToEntity(this);
-		}
-		
-		//Update part collision boxes.
-		//We need to manually set the collision here as part boxes rotate with the part.
-		for(APart part : partCollisionBoxes.keySet()){
-			for(BoundingBox box : partCollisionBoxes.get(part)){
-				//First rotate the boxes based on the part's rotation.
-				box.globalCenter.setTo(box.localCenter).rotateFine(part.totalRotation);
-				//Now translate the box to it's actual position relative to the vehicle.
-				box.globalCenter.add(part.totalOffset);
-				//Now rotate the collision box by the vehicle's rotation.
-				box.globalCenter.rotateFine(angles);
-				//Add the worldOffset based on the vehicle's current position.
-				box.globalCenter.add(position);
-				//Clamp the box's points if required.
-				if(box.isCollision){
-					//Need to round box to prevent floating-point errors.
-					box.globalCenter.x = ((int) (box.globalCenter.x/ConfigSystem.configObject.general.hitboxClamp.value))*ConfigSystem.configObject.general.hitboxClamp.value;
-					box.globalCenter.y = ((int) (box.globalCenter.y/ConfigSystem.configObject.general.hitboxClamp.value))*ConfigSystem.configObject.general.hitboxClamp.value;
-					box.globalCenter.z = ((int) (box.globalCenter.z/ConfigSystem.configObject.general.hitboxClamp.value))*ConfigSystem.configObject.general.hitboxClamp.value;
-				}
-			}
-		}
-		
-		//Update door collision boxes.
-		for(Entry<BoundingBox, VehicleDoor> doorEntry : vehicleDoorBoxes.entrySet()){
-			if(doorsOpen.contains(doorEntry.getValue().name)){
-				doorEntry.getKey().globalCenter.setTo(doorEntry.getValue().openPos).rotateFine(angles).add(position);
-			}else{
-				doorEntry.getKey().globalCenter.setTo(doorEntry.getValue().closedPos).rotateFine(angles).add(position);
+		//Check if anything that decides which boxes the player can interact with has changed.
+		//If so, update the interaction boxes.
+		if(world.isClient()){
+			IWrapperPlayer clientPlayer = MasterLoader.gameInterface.getClientPlayer();
+			AItemBase heldItem = clientPlayer.getHeldItem();
+			boolean clientRidingThis = this.equals(clientPlayer.getEntityRiding());
+			Point3d clientRiderLocation = locationRiderMap.inverse().get(clientPlayer);
+			if(clientPlayer != lastClientPlayer || heldItem != lastHeldItem || clientRidingThis != lastClientRidingThis || clientRiderLocation != lastClientRiderLocation){
+				lastClientPlayer = clientPlayer;
+				lastHeldItem = heldItem;
+				lastClientRidingThis = clientRidingThis;
+				lastClientRiderLocation = clientRiderLocation;
+				interactionBoxesChanged = true;
 			}
 		}
-		for(APart part : parts){
-			if(partDoorBoxes.containsKey(part)){
-				for(Entry<BoundingBox, VehicleDoor> doorEntry : partDoorBoxes.get(part).entrySet()){
-					if(doorsOpen.contains(doorEntry.getValue().name)){
-						doorEntry.getKey().globalCenter.setTo(doorEntry.getValue().openPos).rotateFine(part.totalRotation).add(part.totalOffset).rotateFine(angles).add(position);
-					}else{
-						doorEntry.getKey().globalCenter.setTo(doorEntry.getValue().closedPos).rotateFine(part.totalRotation).add(part.totalOffset).rotateFine(angles).add(position);
-					}
-				}
-			}
+		if(!doorsOpen.equals(lastDoorsOpen)){
+			lastDoorsOpen.clear();
+			lastDoorsOpen.addAll(doorsOpen);
+			interactionBoxesChanged = true;
 		}
-		
-		//Update part slot box positions.
-		for(BoundingBox box : partSlotBoxes.keySet()){
-			box.updateToEntity(this);
+		if(interactionBoxesChanged){
+			updateInteractionBoxes();
+			interactionBoxesChanged = false;
 		}
 		
-		//Clear out interaction and slot boxes, as some boxes may not be added this tick depending on various factors.
-		interactionBoxes.clear();
+		//Set hardness hit this tick to 0 to reset collision force calculations.
+		hardnessHitThisTick = 0;
+	}
+	
+	/**
+	 * Updates the interaction boxes for this vehicle.  These are the part slots the player can click, followed by
+	 * the parts, followed by the collision boxes.  The collision boxes are always in the list, so we only update
+	 * the slot and part boxes here.  This should only be called when something that changes these boxes changes,
+	 * such as the held item of the client player, the seat they are in, the open doors, or our parts.
+	 */
+	private void updateInteractionBoxes(){
+		//Clear out interaction and slot boxes, as some boxes may not be added depending on various factors.
+		activeInteractionBoxes.clear();
 		partInteractionBoxes.clear();
 		
 		//Add active part slots to slot boxes.
@@ -209,8 +208,8 @@ abstract class EntityVehicleC_Colliding extends EntityVehicleB_Rideable{
 		//We add these before part boxes so the player can click them before clicking a part.
 		if(world.isClient()){
 			activePartSlotBoxes.clear();
-			IWrapperPlayer player = MasterLoader.gameInterface.getClientPlayer();
-			AItemBase heldItem = player.getHeldItem();
+			IWrapperPlayer player = lastClientPlayer;
+			AItemBase heldItem = lastHeldItem;
 			if(heldItem instanceof ItemPart){
 				for(Entry<BoundingBox, VehiclePart> partSlotBoxEntry : partSlotBoxes.entrySet()){
 					ItemPart heldPart = (ItemPart) heldItem;
@@ -238,7 +237,7 @@ abstract class EntityVehicleC_Colliding extends EntityVehicleB_Rideable{
 		}
 		
 		//Add all the active open slot boxes to the interaction frame.
-		interactionBoxes.addAll(activePartSlotBoxes.keySet());
+		activeInteractionBoxes.addAll(activePartSlotBoxes.keySet());
 		
 		//Part interaction boxes are linked to the part's bounding box, so we don't need to update those.
 		//Rather, the part will update them on it's own update call.
@@ -247,7 +246,7 @@ abstract class EntityVehicleC_Colliding extends EntityVehicleB_Rideable{
 		//This is dependent on what the current player entity is holding.
 		for(APart part : parts){
 			if(world.isClient()){
-				IWrapperPlayer clientPlayer = MasterLoader.gameInterface.getClientPlayer();
+				IWrapperPlayer clientPlayer = lastClientPlayer;
 				//If the part is fake, don't add it.
 				if(part.isFake()){
 					continue;
@@ -269,17 +268,72 @@ abstract class EntityVehicleC_Colliding extends EntityVehicleB_Rideable{
 			}
 			
 			//Conditions to add have been met, do so.
-			interactionBoxes.add(part.boundingBox);
+			activeInteractionBoxes.add(part.boundingBox);
 			partInteractionBoxes.add(part.boundingBox);
 		}
 		
-		//Now add the collision boxes.  These go last as we want to avoid clicking on them and they should be checked last.
-		//We do need to add these, however, as the player can interact with collision boxes to open inventories or wrench
-		//the vehicle.  In general, the interaction layer is everything the player can click, which includes what they can touch.
-		interactionBoxes.addAll(collisionBoxes);
+		//The collision boxes are after these boxes in the interaction list.  These go last as we want to avoid clicking
+		//on them and they should be checked last.  We do need them, however, as the player can interact with collision
+		//boxes to open inventories or wrench the vehicle.  In general, the interaction layer is everything the player can
+		//click, which includes what they can touch.
+	}
+	
+	/**
+	 * Updates the positions of all collision, door, and part slot boxes to match our current position and angles.
+	 * This is only math on our own state, so it is done in the compute phase of the update.
+	 */
+	protected void updateCollisionBoxes(){
+		//Update vehicle collision boxes.
+		for(BoundingBox box : vehicleCollisionBoxes){
+			box.updateToEntity(this);
+		}
+		
+		//Update part collision boxes.
+		//We need to manually set the collision here as part boxes rotate with the part.
+		for(APart part : partCollisionBoxes.keySet()){
+			for(BoundingBox box : partCollisionBoxes.get(part)){
+				//First rotate the boxes based on the part's rotation.
+				box.globalCenter.setTo(box.localCenter).rotateFine(part.totalRotation);
+				//Now translate the box to it's actual position relative to the vehicle.
+				box.globalCenter.add(part.totalOffset);
+				//Now rotate the collision box by the vehicle's rotation.
+				box.globalCenter.rotateFine(angles);
+				//Add the worldOffset based on the vehicle's current position.
+				box.globalCenter.add(position);
+				//Clamp the box's points if required.
+				if(box.isCollision){
+					//Need to round box to prevent floating-point errors.
+					box.globalCenter.x = ((int) (box.globalCenter.x/ConfigSystem.configObject.general.hitboxClamp.value))*ConfigSystem.configObject.general.hitboxClamp.value;
+					box.globalCenter.y = ((int) (box.globalCenter.y/ConfigSystem.configObject.general.hitboxClamp.value))*ConfigSystem.configObject.general.hitboxClamp.value;
+					box.globalCenter.z = ((int) (box.globalCenter.z/ConfigSystem.configObject.general.hitboxClamp.value))*ConfigSystem.configObject.general.hitboxClamp.value;
+				}
+			}
+		}
 		
-		//Set hardness hit this tick to 0 to reset collision force calculations.
-		hardnessHitThisTick = 0;
+		//Update door collision boxes.
+		for(Entry<BoundingBox, VehicleDoor> doorEntry : vehicleDoorBoxes.entrySet()){
+			if(doorsOpen.contains(doorEntry.getValue().name)){
+				doorEntry.getKey().globalCenter.setTo(doorEntry.getValue().openPos).rotateFine(angles).add(position);
+			}else{
+				doorEntry.getKey().globalCenter.setTo(doorEntry.getValue().closedPos).rotateFine(angles).add(position);
+			}
+		}
+		for(APart part : parts){
+			if(partDoorBoxes.containsKey(part)){
+				for(Entry<BoundingBox, VehicleDoor> doorEntry : partDoorBoxes.get(part).entrySet()){
+					if(doorsOpen.contains(doorEntry.getValue().name)){
+						doorEntry.getKey().globalCenter.setTo(doorEntry.getValue().openPos).rotateFine(part.totalRotation).add(part.totalOffset).rotateFine(angles).add(position);
+					}else{
+						doorEntry.getKey().globalCenter.setTo(doorEntry.getValue().closedPos).rotateFine(part.totalRotation).add(part.totalOffset).rotateFine(angles).add(position);
+					}
+				}
+			}
+		}
+		
+		//Update part slot box positions.
+		for(BoundingBox box : partSlotBoxes.keySet()){
+			box.updateToEntity(this);
+		}
 	}
 	
 	@Override
@@ -367,6 +421,7 @@ abstract class EntityVehicleC_Colliding extends EntityVehicleB_Rideable{
 		
 		//Recalculate slots.
 		recalculatePartSlots();
+		interactionBoxesChanged = true;
 	}
 	
 	@Override
@@ -391,6 +446,7 @@ abstract class EntityVehicleC_Colliding extends EntityVehicleB_Rideable{
 		
 		//Recalculate slots.
 		recalculatePartSlots();
+		interactionBoxesChanged = true;
 	}
 	
 	/**
@@ -525,4 +581,29 @@ abstract class EntityVehicleC_Colliding extends EntityVehicleB_Rideable{
 			data.setBoolean("doorsOpen_" + doorName, true);
 		}
 	}
+	
+	/**
+	 * List of interaction boxes.  This is a list of the active interaction boxes followed by the collision boxes.
+	 * Both lists are used as-is, so changes to either list are seen in this list without copying them.
+	 * This list can't be modified; modify the backing lists instead.
+	 */
+	private static class InteractionBoxList extends AbstractList<BoundingBox>{
+		private final List<BoundingBox> activeBoxes;
+		private final List<BoundingBox> collisionBoxes;
+		
+		private InteractionBoxList(List<BoundingBox> activeBoxes, List<BoundingBox> collisionBoxes){
+			this.activeBoxes = activeBoxes;
+			this.collisionBoxes = collisionBoxes;
+		}
+		
+		@Override
+		public BoundingBox get(int index){
+			return index < activeBoxes.size() ? activeBoxes.get(index) : collisionBoxes.get(index - activeBoxes.size());
+		}
+		
+		@Override
+		public int size(){
+			return activeBoxes.size() + collisionBoxes.size();
+		}
+	}
 }
@@ -15,6 +15,11 @@ import minecrafttransportsimulator.mcinterface.MasterLoader;
 import minecrafttransportsimulator.packets.instances.PacketVehicleServerMovement;
 import minecrafttransportsimulator.packets.instances.PacketVehicleTrailerChange;
 import minecrafttransportsimulator.systems.ConfigSystem;
+import minecrafttransportsimulator.systems.PresenceSensorSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerStage;
+import minecrafttransportsimulator.systems.SimulationTierSystem;
+import minecrafttransportsimulator.systems.SimulationTierSystem.SimulationTier;
 import minecrafttransportsimulator.vehicles.parts.APart;
 import minecrafttransportsimulator.vehicles.parts.PartGroundDevice;
 import minecrafttransportsimulator.vehicles.parts.PartPropeller;
@@ -62,6 +67,25 @@ abstract class EntityVehicleD_Moving extends EntityVehicleC_Colliding{
 	private final Point3d normalizedGroundHeadingVector = new Point3d(0, 0, 0);
   	public final VehicleGroundDeviceCollection groundDeviceCollective;
 	
+	//Sleep states.
+	/**How many ticks we need to be at rest before we go to sleep.**/
+	private static final int TICKS_BEFORE_SLEEP = 100;
+	/**Max distance we can move in a tick and still be at rest.**/
+	private static final double SLEEP_VELOCITY = 0.001;
+	/**Max angle we can rotate in a tick and still be at rest.**/
+	private static final double SLEEP_ROTATION = 0.01;
+	private int ticksAtRest;
+	
+	//Simulation tier states.
+	/**How often (in ticks) we check which simulation tier we should be in.**/
+	private static final int TIER_CHECK_INTERVAL = 20;
+	public SimulationTier simulationTier = SimulationTier.FULL;
+	private int ticksSinceTierCheck;
+	/**Ticks since our last full update.  0 if the last update was a full update, more if it just moved us.**/
+	public int ticksSinceFullUpdate;
+	private boolean forceFullUpdate;
+	private boolean doPhysics;
+	
 	public EntityVehicleD_Moving(IWrapperWorld world, IWrapperEntity wrapper, IWrapperNBT data){
 		super(world, wrapper, data);
 		this.locked = data.getBoolean("locked");
@@ -81,6 +105,21 @@ abstract class EntityVehicleD_Moving extends EntityVehicleC_Colliding{
 	
 	@Override
 	public void update(){
+		if(startUpdate()){
+			computeUpdate();
+			finishUpdate();
+		}
+	}
+	
+	/**
+	 * First phase of the update.  This does all the updates that need to happen before the physics
+	 * calculations, such as part updates.  These may interact with the world, so this phase must
+	 * be called on the main thread.  If this returns false, the other phases should not be called.
+	 * Normally all phases are called in sequence from {@link #update()}, but servers may instead call
+	 * this phase for all vehicles, then {@link #computeUpdate()} for all vehicles, then
+	 * {@link #finishUpdate()} for all vehicles.  This allows the compute phase to run in parallel.
+	 */
+	public boolean startUpdate(){
 		//Before calling super, see if we need to link a towed or towed by vehicle.
 		//We need to wait on this in case the vehicle didn't load at the same time.
 		if(!towedVehicleSavedID.isEmpty() || !towedByVehicleSavedID.isEmpty()){
@@ -118,16 +157,184 @@ abstract class EntityVehicleD_Moving extends EntityVehicleC_Colliding{
 				}
 			}
 		}
-		
-		//Now do update calculations and logic.
-		if(!ConfigSystem.configObject.general.noclipVehicles.value || groundDeviceCollective.isReady()){
+		doPhysics = !ConfigSystem.configObject.general.noclipVehicles.value || groundDeviceCollective.isReady();
+		return true;
+	}
+	
+	/**
+	 * Second phase of the update.  This does the physics calculations that only depend on this vehicle's state.
+	 * This phase may NOT interact with the world or any other vehicles, aside from reading the state of the
+	 * vehicle towing us, as it may be called on a worker thread at the same time as other vehicles' compute phases.
+	 */
+	public void computeUpdate(){
+		long stageStartTime = ProfilerSystem.getTime(profilerTimes);
+		updateCollisionBoxes();
+		stageStartTime = ProfilerSystem.addTime(profilerTimes, ProfilerStage.COLLISION_BOXES, stageStartTime);
+		if(doPhysics){
 			getForcesAndMotions();
+			ProfilerSystem.addTime(profilerTimes, ProfilerStage.FORCES, stageStartTime);
+		}
+	}
+	
+	/**
+	 * Final phase of the update.  This applies the results of the physics calculations to the world,
+	 * such as block collisions, entity movement, and packets.  This phase must be called on the main thread.
+	 */
+	public void finishUpdate(){
+		//Now do update logic with the forces we calculated.
+		if(doPhysics){
+			long stageStartTime = ProfilerSystem.getTime(profilerTimes);
 			performGroundOperations();
+			stageStartTime = ProfilerSystem.addTime(profilerTimes, ProfilerStage.GROUND_OPERATIONS, stageStartTime);
 			moveVehicle();
-			if(!world.isClient()){
-				dampenControlSurfaces();
+			ProfilerSystem.addTime(profilerTimes, ProfilerStage.MOVEMENT, stageStartTime);
+			dampenControlSurfaces();
+			PresenceSensorSystem.updateEntity(this);
+		}
+		
+		//Check if we should go to sleep.  We need to be at rest for a while first, as we may only be stopped for a moment.
+		//Once we are asleep, we don't update until something wakes us up, so make sure we are fully stopped.
+		//If we are in a reduced simulation tier, count all the ticks since our last full update, not just this one.
+		if(canSleep()){
+			ticksAtRest += Math.max(ticksSinceFullUpdate, 1);
+			if(ticksAtRest >= TICKS_BEFORE_SLEEP){
+				motion.set(0D, 0D, 0D);
+				rotation.set(0D, 0D, 0D);
+				prevPosition.setTo(position);
+				prevMotion.setTo(motion);
+				prevAngles.setTo(angles);
+				prevRotation.setTo(rotation);
+				sleeping = true;
 			}
+		}else{
+			ticksAtRest = 0;
 		}
+		ticksSinceFullUpdate = 0;
+	}
+	
+	/**
+	 * Returns true if this vehicle should do a full update this tick.  This depends on our current
+	 * {@link SimulationTier}, which we re-check every {@link #TIER_CHECK_INTERVAL} ticks.
+	 * If this returns false, {@link #updateKinematics()} should be called instead of {@link #update()}.
+	 */
+	protected boolean isFullUpdateTick(){
+		if(++ticksSinceTierCheck >= TIER_CHECK_INTERVAL){
+			ticksSinceTierCheck = 0;
+			updateSimulationTier();
+		}
+		++ticksSinceFullUpdate;
+		if(forceFullUpdate){
+			forceFullUpdate = false;
+			return true;
+		}
+		switch(simulationTier){
+			case REDUCED: return ticksSinceFullUpdate >= ConfigSystem.configObject.general.simulationReducedInterval.value;
+			case MINIMAL: return ticksSinceFullUpdate >= SimulationTierSystem.MINIMAL_UPDATE_INTERVAL;
+			default: return true;
+		}
+	}
+	
+	/**
+	 * Updates our simulation tier based on how far away the closest player is.
+	 * Vehicles with riders or towing links always get full updates, as the riders
+	 * need smooth movement, and trailers are updated by the vehicle towing them.
+	 */
+	private void updateSimulationTier(){
+		if(!locationRiderMap.isEmpty() || towedVehicle != null || towedByVehicle != null || !towedVehicleSavedID.isEmpty() || !towedByVehicleSavedID.isEmpty()){
+			simulationTier = SimulationTier.FULL;
+		}else{
+			simulationTier = SimulationTierSystem.getTier(simulationTier, world.getNearestPlayerDistance(position));
+		}
+	}
+	
+	/**
+	 * Moves this vehicle along its current path without doing any physics or part updates.  This is called on ticks
+	 * where our simulation tier doesn't call for a full update.  Servers keep doing the same movement they did
+	 * on the last full update, minus any ground corrections, as those only apply for a single tick.  Clients
+	 * just follow the server deltas, as the player is too far away to see any rubberbanding.  Following the
+	 * deltas exactly also means we don't have any corrections to apply once we get back to full updates.
+	 * If the movement would put us into a block, we don't move and do a full update next tick to handle it.
+	 * Our boxes and part positions are moved with us, as other entities and our next tick's block check use them.
+	 */
+	protected void updateKinematics(){
+		++ticksExisted;
+		prevPosition.setTo(position);
+		prevMotion.setTo(motion);
+		prevAngles.setTo(angles);
+		prevRotation.setTo(rotation);
+		
+		if(world.isClient()){
+			motionApplied.setTo(serverDeltaM).subtract(clientDeltaM);
+			rotationApplied.setTo(serverDeltaR).subtract(clientDeltaR);
+			clientDeltaM.add(motionApplied);
+			clientDeltaR.add(rotationApplied);
+		}else{
+			if(!groundDeviceCollective.groundedGroundDevices.isEmpty()){
+				motionApplied.y = 0;
+			}
+			rotationApplied.x = 0;
+			rotationApplied.z = 0;
+			if(motionApplied.isZero() && rotationApplied.isZero()){
+				return;
+			}
+			tempBoxAngles.setTo(rotationApplied).add(angles);
+			for(BoundingBox box : blockCollisionBoxes){
+				tempBoxPosition.setTo(box.localCenter).rotateCoarse(tempBoxAngles).add(position).add(motionApplied);
+				if(!box.collidesWithLiquids && box.updateCollidingBlocks(world, tempBoxPosition.subtract(box.globalCenter))){
+					motionApplied.set(0D, 0D, 0D);
+					rotationApplied.set(0D, 0D, 0D);
+					forceFullUpdate = true;
+					return;
+				}
+			}
+			addToServerDeltas(motionApplied, rotationApplied);
+			MasterLoader.networkInterface.sendToAllClients(new PacketVehicleServerMovement((EntityVehicleF_Physics) this, motionApplied, rotationApplied));
+		}
+		
+		if(!motionApplied.isZero() || !rotationApplied.isZero()){
+			world.moveEntities(collisionBoxes, position, angles, motionApplied, rotationApplied);
+			position.add(motionApplied);
+			angles.add(rotationApplied);
+			updateCollisionBoxes();
+			for(APart part : parts){
+				part.updateWorldPos();
+			}
+			PresenceSensorSystem.updateEntity(this);
+		}
+	}
+	
+	/**
+	 * Returns true if this vehicle can go to sleep.  Vehicles can only sleep if they are at rest,
+	 * have no riders or towing links, and all parts are able to sleep.  Sub-classes should extend
+	 * this to check any state that changes on its own while the vehicle is parked.
+	 * Vehicles never sleep on clients, as they need to update for the client player even when parked,
+	 * such as to add part slot boxes when the player holds a part.
+	 */
+	protected boolean canSleep(){
+		if(world.isClient()){
+			return false;
+		}
+		if(!locationRiderMap.isEmpty() || towedVehicle != null || towedByVehicle != null || !towedVehicleSavedID.isEmpty() || !towedByVehicleSavedID.isEmpty()){
+			return false;
+		}
+		if(position.distanceTo(prevPosition) > SLEEP_VELOCITY || Math.abs(angles.x - prevAngles.x) > SLEEP_ROTATION || Math.abs(angles.y - prevAngles.y) > SLEEP_ROTATION || Math.abs(angles.z - prevAngles.z) > SLEEP_ROTATION){
+			return false;
+		}
+		for(APart part : parts){
+			if(!part.canSleep()){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	public void wakeUp(){
+		super.wakeUp();
+		ticksAtRest = 0;
+		//Something is interacting with us, so make sure we are fully simulated for it.
+		simulationTier = SimulationTier.FULL;
+		ticksSinceTierCheck = 0;
 	}
 	
 	@Override
@@ -394,8 +601,10 @@ abstract class EntityVehicleD_Moving extends EntityVehicleC_Colliding{
 		//Handle collision box collisions, if we have any.  Otherwise do ground device operations as normal.
 		double groundRotationBoost = 0;
 		if(collisionBoxCollided){
+			long correctionStartTime = ProfilerSystem.getTime(profilerTimes);
 			correctCollidingMovement();
-		}else if(towedByVehicle == null || !towedByVehicle.activeHitchConnection.mounted){
+			ProfilerSystem.addNestedTime(profilerTimes, ProfilerStage.COLLISION_CORRECTION, ProfilerStage.MOVEMENT, correctionStartTime);
+		}else if(simulationTier == SimulationTier.FULL && (towedByVehicle == null || !towedByVehicle.activeHitchConnection.mounted)){
 			groundRotationBoost = groundDeviceCollective.performPitchCorrection(groundCollisionBoost);
 			groundRotationBoost = groundDeviceCollective.performRollCorrection(groundCollisionBoost + groundRotationBoost);
 		}
@@ -591,6 +800,7 @@ abstract class EntityVehicleD_Moving extends EntityVehicleC_Colliding{
 			towedVehicle = trailer;
 			activeHitchConnection = definition.motorized.hitches.get(hitchIndex);
 			trailer.towedByVehicle = (EntityVehicleF_Physics) this;
+			trailer.wakeUp();
 			trailer.activeHookupConnection = trailer.definition.motorized.hookups.get(hookupIndex); 
 			trailer.parkingBrakeOn = false;
 			if(activeHitchConnection.mounted){
@@ -627,9 +837,17 @@ abstract class EntityVehicleD_Moving extends EntityVehicleC_Colliding{
 	/**
 	 * Method block for dampening control surfaces.
 	 * Used to move control surfaces back to neutral position.
+	 * This is called on both servers and clients, so it should only change
+	 * controls based on state that both sides have, and should NOT send packets.
 	 */
 	protected abstract void dampenControlSurfaces();
     
+	@Override
+	public boolean isDirty(){
+		//Trailers being towed copy state from their towing vehicle every tick, so always save them.
+		return super.isDirty() || towedByVehicle != null || locked != savedData.getBoolean("locked") || parkingBrakeOn != savedData.getBoolean("parkingBrakeOn") || brake != savedData.getInteger("brake") || !savedData.getString("towedVehicleID").equals(towedVehicle != null ? towedVehicle.uniqueUUID : "") || !savedData.getString("towedByVehicleID").isEmpty() || !ownerUUID.equals(savedData.getString("ownerUUID")) || !serverDeltaM.equals(savedData.getPoint3d("serverDeltaM")) || !serverDeltaR.equals(savedData.getPoint3d("serverDeltaR"));
+	}
+	
 	@Override
 	public void save(IWrapperNBT data){
 		super.save(data);
@@ -36,6 +36,8 @@ import minecrafttransportsimulator.sound.Radio;
 import minecrafttransportsimulator.sound.SoundInstance;
 import minecrafttransportsimulator.systems.ConfigSystem;
 import minecrafttransportsimulator.systems.PackParserSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerStage;
 import minecrafttransportsimulator.vehicles.parts.APart;
 import minecrafttransportsimulator.vehicles.parts.PartEngine;
 import minecrafttransportsimulator.vehicles.parts.PartGroundDevice;
@@ -151,11 +153,18 @@ abstract class EntityVehicleE_Powered extends EntityVehicleD_Moving implements I
 		
 		//Create radio.
 		this.radio = new Radio(this, data);
+		
+		//Prefetch vehicle sounds.  Part sounds are prefetched as the parts are added.
+		if(world.isClient()){
+			MasterLoader.audioInterface.prefetchSound(definition.motorized.hornSound);
+			MasterLoader.audioInterface.prefetchSound(definition.motorized.sirenSound);
+		}
 	}
 	
 	@Override
-	public void update(){
-		super.update();
+	public void finishUpdate(){
+		super.finishUpdate();
+		long stateStartTime = ProfilerSystem.getTime(profilerTimes);
 		//Start sounds if we haven't already.  We have to do this via the update check, as some mods will create
 		//vehicles in random locations for their code.  I'm looking at YOU, The One Probe!
 		if(ticksExisted == 1 && world.isClient()){
@@ -165,6 +174,9 @@ abstract class EntityVehicleE_Powered extends EntityVehicleD_Moving implements I
 			}
 		}
 		
+		//Update our fuel tank to sync or interpolate the fuel level.
+		fuelTank.update();
+		
 		//If we have space for fuel, and we have tanks with it, transfer it.
 		if(!world.isClient() && fuelTank.getFluidLevel() < definition.motorized.fuelCapacity - 100){
 			for(APart part : parts){
@@ -257,6 +269,7 @@ abstract class EntityVehicleE_Powered extends EntityVehicleD_Moving implements I
 		soundPosition.put((float) position.y);
 		soundPosition.put((float) position.z);
 		soundPosition.flip();
+		ProfilerSystem.addTime(profilerTimes, ProfilerStage.VEHICLE_STATE, stateStartTime);
 	}
 	
 	@Override
@@ -309,9 +322,21 @@ abstract class EntityVehicleE_Powered extends EntityVehicleD_Moving implements I
 		super.removeRider(rider, iterator);
 	}
 	
+	@Override
+	public void remove(){
+		super.remove();
+		fuelTank.remove();
+		radio.remove();
+		for(APart part : parts){
+			if(part instanceof PartInteractable && ((PartInteractable) part).tank != null){
+				((PartInteractable) part).tank.remove();
+			}
+		}
+	}
+	
 	@Override
 	public boolean isLitUp(){
-		return ConfigSystem.configObject.clientRendering.vehicleBlklt.value && (lightsOn.contains(LightType.DAYTIMELIGHT) ? lightsOn.size() > 1 : !lightsOn.isEmpty());
+		return lightsOn.contains(LightType.DAYTIMELIGHT) ? lightsOn.size() > 1 : !lightsOn.isEmpty();
 	}
 	
 	 /**
@@ -358,6 +383,11 @@ abstract class EntityVehicleE_Powered extends EntityVehicleD_Moving implements I
 	@Override
 	public void addPart(APart part){
 		super.addPart(part);
+		if(world.isClient()){
+			for(String soundName : part.getSoundNames()){
+				MasterLoader.audioInterface.prefetchSound(soundName);
+			}
+		}
 		if(part instanceof PartEngine){
 			//Because parts is a list, the #1 engine will always come before the #2 engine.
 			//We can use this to determine where in the list this engine needs to go.
@@ -463,6 +493,36 @@ abstract class EntityVehicleE_Powered extends EntityVehicleD_Moving implements I
 		return radio;
 	}
 	
+	@Override
+	protected boolean canSleep(){
+		//Don't sleep if we are being fueled, have lights draining power, or have something moving.
+		if(!super.canSleep() || beingFueled || !missilesIncoming.isEmpty() || (gearUpCommand ? gearMovementTime < definition.motorized.gearSequenceDuration : gearMovementTime > 0)){
+			return false;
+		}
+		for(LightType light : lightsOn){
+			if(light.hasBeam){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	public boolean isDirty(){
+		return super.isDirty() || hornOn != savedData.getBoolean("hornOn") || sirenOn != savedData.getBoolean("sirenOn") || reverseThrust != savedData.getBoolean("reverseThrust") || gearUpCommand != savedData.getBoolean("gearUpCommand") || throttle != savedData.getInteger("throttle") || electricPower != savedData.getDouble("electricPower") || !selectedBeaconName.equals(savedData.getString("selectedBeaconName")) || !fuelTank.getFluid().equals(savedData.getString("currentFluid")) || fuelTank.getFluidLevel() != savedData.getDouble("fluidLevel") || fuelTank.getAmountDispensed() != savedData.getDouble("fluidDispensed") || !getLightsOnString().equals(savedData.getString("lightsOn")) || radio.preset != savedData.getInteger("preset") || radio.volume != savedData.getInteger("volume") || radio.getSource().ordinal() != savedData.getInteger("currentSource");
+	}
+	
+	/**
+	 * Returns the lights that are on as a comma-separated string, for saving.
+	 */
+	private String getLightsOnString(){
+		String lightsOnString = "";
+		for(LightType light : lightsOn){
+			lightsOnString += light.name() + ",";
+		}
+		return lightsOnString;
+	}
+	
 	@Override
 	public void save(IWrapperNBT data){
 		super.save(data);
@@ -475,10 +535,7 @@ abstract class EntityVehicleE_Powered extends EntityVehicleD_Moving implements I
 		data.setString("selectedBeaconName", selectedBeaconName);
 		fuelTank.save(data);
 		
-		String lightsOnString = "";
-		for(LightType light : lightsOn){
-			lightsOnString += light.name() + ",";
-		}
+		String lightsOnString = getLightsOnString();
 		data.setString("lightsOn", lightsOnString);
 		
 		String customsOnString = "";
@@ -2,17 +2,20 @@ package minecrafttransportsimulator.vehicles.main;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map.Entry;
 
 import minecrafttransportsimulator.baseclasses.Point3d;
 import minecrafttransportsimulator.mcinterface.IWrapperEntity;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
 import minecrafttransportsimulator.mcinterface.IWrapperWorld;
 import minecrafttransportsimulator.mcinterface.MasterLoader;
-import minecrafttransportsimulator.packets.instances.PacketVehicleControlAnalog;
-import minecrafttransportsimulator.packets.instances.PacketVehicleControlDigital;
+import minecrafttransportsimulator.packets.instances.PacketVehicleControlSync;
 import minecrafttransportsimulator.rendering.components.LightType;
 import minecrafttransportsimulator.rendering.instances.RenderVehicle;
 import minecrafttransportsimulator.systems.ConfigSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerStage;
+import minecrafttransportsimulator.systems.SimulationTierSystem;
 import minecrafttransportsimulator.vehicles.parts.APart;
 import minecrafttransportsimulator.vehicles.parts.PartEngine;
 import minecrafttransportsimulator.vehicles.parts.PartPropeller;
@@ -64,13 +67,21 @@ public class EntityVehicleF_Physics extends EntityVehicleE_Powered{
 	public double cruiseControlSpeed;
 	public double altitudeSetting;
 	
+	//Control syncing.
+	/**How often (in ticks) the server sends its control checksum to clients.**/
+	private static final int CONTROL_SYNC_INTERVAL = 20;
+	private int lastSyncedChecksum;
+	
 	//Internal states.
 	private boolean updateThisCycle;
+	private long updateCost;
 	public boolean isVTOL;
 	private double pitchDirectionFactor;
 	private double currentWingArea;
 	public double trackAngle;
 	private final List<EntityVehicleF_Physics> towedVehiclesCheckedForWeights = new ArrayList<EntityVehicleF_Physics>();
+	/**Model this vehicle acquired from the ModelGeometryCache when it started rendering, or null if it hasn't rendered.  Only used by {@link RenderVehicle}.**/
+	public String renderedModelLocation;
 	
 	//Coefficients.
 	private double wingLiftCoeff;
@@ -123,18 +134,43 @@ public class EntityVehicleF_Physics extends EntityVehicleE_Powered{
 	}
 	
 	@Override
-	public void update(){
+	public boolean startUpdate(){
 		//If we are a towed trailer, and we aren't scheduled for an update, skip this cycle.
 		//Instead, we get called to update from the vehicle we are being towed by.
 		//If we are updating from that vehicle, we'll have the flag set to not return here.
 		if(towedByVehicle != null && !updateThisCycle){
-			return;
+			return false;
 		}else{
 			updateThisCycle = false;
 		}
 		
+		//If we don't need a full update this tick due to our simulation tier, just move along our current path.
+		long updateStartTime = System.nanoTime();
+		if(!isFullUpdateTick()){
+			updateKinematics();
+			SimulationTierSystem.addTickCost(simulationTier, System.nanoTime() - updateStartTime);
+			return false;
+		}
+		
+		//Do the first phase of the update.  We keep track of the time each phase takes, as the
+		//phases may not be done back-to-back, and we only want the time spent on this vehicle.
+		super.startUpdate();
+		updateCost = System.nanoTime() - updateStartTime;
+		return true;
+	}
+	
+	@Override
+	public void computeUpdate(){
+		long updateStartTime = System.nanoTime();
+		super.computeUpdate();
+		updateCost += System.nanoTime() - updateStartTime;
+	}
+	
+	@Override
+	public void finishUpdate(){
+		long updateStartTime = System.nanoTime();
 		//Do movement and all other updates.
-		super.update();
+		super.finishUpdate();
 		
 		//Turn on brake lights and indicator lights.
 		if(brake > 0){
@@ -171,6 +207,9 @@ public class EntityVehicleF_Physics extends EntityVehicleE_Powered{
 			--flapCurrentAngle;
 		}
 		
+		SimulationTierSystem.addTickCost(simulationTier, updateCost + System.nanoTime() - updateStartTime);
+		ProfilerSystem.finishUpdate(profilerTimes);
+		
 		//If we are towing a vehicle, update it now.
 		if(towedVehicle != null){
 			towedVehicle.updateThisCycle = true;
@@ -451,12 +490,10 @@ public class EntityVehicleF_Physics extends EntityVehicleE_Powered{
 		if(cruiseControl){
 			if(velocity < cruiseControlSpeed){
 				if(throttle < 100){
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlAnalog(this, PacketVehicleControlAnalog.Controls.THROTTLE, (short) 1, (byte) 0));
 					++throttle;
 				}
 			}else if(velocity > cruiseControlSpeed){
 				if(throttle > 0){
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlAnalog(this, PacketVehicleControlAnalog.Controls.THROTTLE, (short) -1, (byte) 0));
 					--throttle;
 				}
 			}
@@ -469,9 +506,9 @@ public class EntityVehicleF_Physics extends EntityVehicleE_Powered{
 				//Only do this once every 1/2 second to allow for thrust changes.
 				if(world.getTime()%10 == 0){
 					if(motion.y < 0 && throttle < 100){
-						MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlAnalog(this, PacketVehicleControlAnalog.Controls.THROTTLE, ++throttle, (byte) 0));
+						++throttle;
 					}else if(motion.y > 0 && throttle < 100){
-						MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlAnalog(this, PacketVehicleControlAnalog.Controls.THROTTLE, --throttle, (byte) 0));
+						--throttle;
 					}
 				}
 				//Change pitch/roll based on movement.
@@ -479,33 +516,25 @@ public class EntityVehicleF_Physics extends EntityVehicleE_Powered{
 				double sidewaysVelocity = motion.dotProduct(sideVector);
 				if(forwardsVelocity < 0 && elevatorTrim < MAX_ELEVATOR_TRIM){
 					++elevatorTrim;
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(this, PacketVehicleControlDigital.Controls.TRIM_PITCH, true));
 				}else if(forwardsVelocity > 0 && elevatorTrim > -MAX_ELEVATOR_TRIM){
 					--elevatorTrim;
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(this, PacketVehicleControlDigital.Controls.TRIM_PITCH, false));
 				}
 				if(sidewaysVelocity < 0 && aileronTrim < MAX_AILERON_TRIM){
 					++aileronTrim;
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(this, PacketVehicleControlDigital.Controls.TRIM_ROLL, true));
 				}else if(sidewaysVelocity > 0 && aileronTrim > -MAX_AILERON_TRIM){
 					--aileronTrim;
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(this, PacketVehicleControlDigital.Controls.TRIM_ROLL, false));
 				}
 			}else{
 				//Reset trim to prevent directional surges.
 				if(elevatorTrim < 0){
 					++elevatorTrim;
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(this, PacketVehicleControlDigital.Controls.TRIM_PITCH, true));
 				}else if(elevatorTrim > 0){
 					--elevatorTrim;
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(this, PacketVehicleControlDigital.Controls.TRIM_PITCH, false));
 				}
 				if(aileronTrim < 0){
 					++aileronTrim;
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(this, PacketVehicleControlDigital.Controls.TRIM_ROLL, true));
 				}else if(aileronTrim > 0){
 					--aileronTrim;
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(this, PacketVehicleControlDigital.Controls.TRIM_ROLL, false));
 				}
 			}
 		}else{
@@ -514,18 +543,14 @@ public class EntityVehicleF_Physics extends EntityVehicleE_Powered{
 				//If we are not flying at a steady elevation, angle the elevator to compensate
 				if(-motion.y*100 > elevatorTrim + 1 && elevatorTrim < MAX_ELEVATOR_TRIM){
 					++elevatorTrim;
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(this, PacketVehicleControlDigital.Controls.TRIM_PITCH, true));
 				}else if(-motion.y*100 < elevatorTrim - 1 && elevatorTrim > -MAX_ELEVATOR_TRIM){
 					--elevatorTrim;
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(this, PacketVehicleControlDigital.Controls.TRIM_PITCH, false));
 				}
 				//Keep the roll angle at 0.
 				if(-angles.z > aileronTrim + 1 && aileronTrim < MAX_AILERON_TRIM){
 					++aileronTrim;
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(this, PacketVehicleControlDigital.Controls.TRIM_ROLL, true));
 				}else if(-angles.z < aileronTrim - 1 && aileronTrim > -MAX_AILERON_TRIM){
 					--aileronTrim;
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(this, PacketVehicleControlDigital.Controls.TRIM_ROLL, false));
 				}
 			}
 		}
@@ -533,10 +558,8 @@ public class EntityVehicleF_Physics extends EntityVehicleE_Powered{
 		if(aileronCooldown==0){
 			if(aileronAngle != 0){
 				if(aileronAngle < AILERON_DAMPEN_RATE && aileronAngle > -AILERON_DAMPEN_RATE){
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlAnalog(this, PacketVehicleControlAnalog.Controls.AILERON, (short) -aileronAngle, (byte) 0));
 					aileronAngle = 0;
 				}else{
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlAnalog(this, PacketVehicleControlAnalog.Controls.AILERON, aileronAngle < 0 ? AILERON_DAMPEN_RATE : -AILERON_DAMPEN_RATE, (byte) 0));
 					aileronAngle += aileronAngle < 0 ? AILERON_DAMPEN_RATE : -AILERON_DAMPEN_RATE;
 				}
 			}
@@ -547,10 +570,8 @@ public class EntityVehicleF_Physics extends EntityVehicleE_Powered{
 		if(elevatorCooldown==0){
 			if(elevatorAngle != 0){
 				if(elevatorAngle < ELEVATOR_DAMPEN_RATE && elevatorAngle > -ELEVATOR_DAMPEN_RATE){
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlAnalog(this, PacketVehicleControlAnalog.Controls.ELEVATOR, (short) -elevatorAngle, (byte) 0));
 					elevatorAngle = 0;
 				}else{
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlAnalog(this, PacketVehicleControlAnalog.Controls.ELEVATOR, elevatorAngle < 0 ? ELEVATOR_DAMPEN_RATE : -ELEVATOR_DAMPEN_RATE, (byte) 0));
 					elevatorAngle += elevatorAngle < 0 ? ELEVATOR_DAMPEN_RATE : -ELEVATOR_DAMPEN_RATE;
 				}
 			}
@@ -561,21 +582,62 @@ public class EntityVehicleF_Physics extends EntityVehicleE_Powered{
 		if(rudderCooldown==0){
 			if(rudderAngle != 0){
 				if(rudderAngle < RUDDER_DAMPEN_RATE && rudderAngle > -RUDDER_DAMPEN_RATE){
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlAnalog(this, PacketVehicleControlAnalog.Controls.RUDDER, (short) -rudderAngle, (byte) 0));
 					rudderAngle = 0;
 				}else{
-					MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlAnalog(this, PacketVehicleControlAnalog.Controls.RUDDER, rudderAngle < 0 ? RUDDER_DAMPEN_RATE : -RUDDER_DAMPEN_RATE, (byte) 0));
 					rudderAngle += rudderAngle < 0 ? RUDDER_DAMPEN_RATE : -RUDDER_DAMPEN_RATE;
 				}
 			}
 		}else{
 			--rudderCooldown;
 		}
+		
+		//Send our checksum to clients so they can check they are simulating the same thing we are.
+		//Only do this if our controls changed since the last one we sent.  Idle vehicles, even ones
+		//with autopilot or running automatic engines, don't change their controls, so they send nothing.
+		if(!world.isClient() && ticksExisted%CONTROL_SYNC_INTERVAL == 0){
+			int checksum = getControlChecksum();
+			if(checksum != lastSyncedChecksum){
+				MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlSync(this, PacketVehicleControlSync.SyncType.CHECKSUM));
+				lastSyncedChecksum = checksum;
+			}
+		}
+	}
+	
+	/**
+	 *  Returns a checksum of all simulated control states.  This is used to check
+	 *  if clients are simulating the same controls as the server.
+	 */
+	public int getControlChecksum(){
+		int checksum = throttle;
+		checksum = 31*checksum + aileronAngle;
+		checksum = 31*checksum + elevatorAngle;
+		checksum = 31*checksum + rudderAngle;
+		checksum = 31*checksum + aileronTrim;
+		checksum = 31*checksum + elevatorTrim;
+		checksum = 31*checksum + rudderTrim;
+		checksum = 31*checksum + aileronCooldown;
+		checksum = 31*checksum + elevatorCooldown;
+		checksum = 31*checksum + rudderCooldown;
+		//Add engines in a way that doesn't depend on the map order.
+		for(Entry<Byte, PartEngine> engineEntry : engines.entrySet()){
+			checksum += (engineEntry.getKey() + 1)*(31*engineEntry.getValue().currentGear + engineEntry.getValue().shiftCooldown)*0x9E3779B1;
+		}
+		return checksum;
 	}
 	
 	@Override
 	public void render(float partialTicks){
+		long renderStartTime = ProfilerSystem.getTime(profilerTimes);
 		RenderVehicle.render(this, partialTicks);
+		ProfilerSystem.addTime(profilerTimes, ProfilerStage.RENDER, renderStartTime);
+	}
+	
+	@Override
+	public void remove(){
+		super.remove();
+		if(world.isClient()){
+			RenderVehicle.removeVehicle(this);
+		}
 	}
 	
 	protected static double getLiftCoeff(double angleOfAttack, double maxLiftCoeff){
@@ -594,6 +656,17 @@ public class EntityVehicleF_Physics extends EntityVehicleE_Powered{
 		}
 	}
     
+	@Override
+	protected boolean canSleep(){
+		//VTOLs reset their trim when not on autopilot, so wait for that to finish.
+		return super.canSleep() && !autopilot && !cruiseControl && aileronAngle == 0 && elevatorAngle == 0 && rudderAngle == 0 && flapCurrentAngle == flapDesiredAngle && (!isVTOL || (aileronTrim == 0 && elevatorTrim == 0));
+	}
+	
+	@Override
+	public boolean isDirty(){
+		return super.isDirty() || aileronAngle != savedData.getInteger("aileronAngle") || elevatorAngle != savedData.getInteger("elevatorAngle") || rudderAngle != savedData.getInteger("rudderAngle") || flapDesiredAngle != savedData.getInteger("flapDesiredAngle") || flapCurrentAngle != savedData.getInteger("flapCurrentAngle") || aileronTrim != savedData.getInteger("aileronTrim") || elevatorTrim != savedData.getInteger("elevatorTrim") || rudderTrim != savedData.getInteger("rudderTrim") || autopilot != savedData.getBoolean("autopilot") || cruiseControl != savedData.getBoolean("cruiseControl") || altitudeSetting != savedData.getDouble("altitudeSetting") || cruiseControlSpeed != savedData.getDouble("cruiseControlSpeed");
+	}
+	
 	@Override
 	public void save(IWrapperNBT data){
 		super.save(data);
@@ -21,9 +21,11 @@ import minecrafttransportsimulator.mcinterface.IWrapperWorld;
 import minecrafttransportsimulator.mcinterface.MasterLoader;
 import minecrafttransportsimulator.rendering.components.DurationDelayClock;
 import minecrafttransportsimulator.rendering.components.VehicleAnimations;
+import minecrafttransportsimulator.rendering.instances.RenderVehicle;
 import minecrafttransportsimulator.sound.ISoundProvider;
 import minecrafttransportsimulator.sound.SoundInstance;
 import minecrafttransportsimulator.systems.PackParserSystem;
+import minecrafttransportsimulator.systems.ProfilerSystem.ProfilerTimes;
 import minecrafttransportsimulator.vehicles.main.EntityVehicleF_Physics;
 
 /**This class is the base for all parts and should be extended for any vehicle-compatible parts.
@@ -61,8 +63,17 @@ public abstract class APart implements ISoundProvider{
 	public final Point3d totalRotation;
 	public final Point3d worldPos;
 	public final BoundingBox boundingBox;
+	/**Times for this part's updates.  These only go to our definition, as the vehicle adds them to its stage.**/
+	public final ProfilerTimes profilerTimes;
+	/**Model this part acquired from the ModelGeometryCache when it started rendering, or null if it hasn't rendered.  Only used by {@link RenderVehicle}.**/
+	public String renderedModelLocation;
 	public String currentSubName;
 	public boolean isValid = true;
+	/**True if this part has changed in a way {@link #isDirty()} can't check for since the last save.**/
+	private boolean dirty = true;
+	/**Data from the last save.  Re-used by {@link #getSaveData()} if we aren't dirty.  Sub-classes may read
+	 * this in {@link #isDirty()} to compare against current state, but it must never be modified once created.**/
+	protected IWrapperNBT savedData;
 		
 	public APart(EntityVehicleF_Physics vehicle, VehiclePart packVehicleDef, ItemPart item, IWrapperNBT data, APart parentPart){
 		this.vehicle = vehicle;
@@ -70,6 +81,7 @@ public abstract class APart implements ISoundProvider{
 		this.totalOffset = placementOffset.copy();
 		this.definition = item.definition;;
 		this.vehicleDefinition = packVehicleDef;
+		this.profilerTimes = new ProfilerTimes(definition, vehicle.world.isClient(), false);
 		this.worldPos = placementOffset.copy().rotateFine(vehicle.angles).add(vehicle.position);
 		this.boundingBox = new BoundingBox(placementOffset, worldPos, getWidth()/2D, getHeight()/2D, getWidth()/2D, definition.ground != null ? definition.ground.canFloat : false, false, false, 0);
 		this.placementRotation = packVehicleDef.rot != null ? packVehicleDef.rot : new Point3d(0, 0, 0);
@@ -165,7 +177,7 @@ public abstract class APart implements ISoundProvider{
 			totalOffset.setTo(getPositionOffset(0)).add(placementOffset);
 			totalRotation.setTo(getPositionRotation(0)).add(placementRotation);
 		}
-		worldPos.setTo(totalOffset).rotateFine(vehicle.angles).add(vehicle.position);
+		updateWorldPos();
 
 		//Update sound variables.
 		soundPosition.rewind();
@@ -175,6 +187,14 @@ public abstract class APart implements ISoundProvider{
 		soundPosition.flip();
 	}
 	
+	/**
+	 * Updates our worldPos, and with it our bounding box, to our current offset on the vehicle.
+	 * Vehicles that move without updating their parts call this to keep the part boxes with them.
+	 */
+	public void updateWorldPos(){
+		worldPos.setTo(totalOffset).rotateFine(vehicle.angles).add(vehicle.position);
+	}
+	
 	/**
 	 * Gets the movement position offset for the part as a vector.
 	 * This offset is an addition to the main placement offset defined by the JSON.
@@ -317,6 +337,9 @@ public abstract class APart implements ISoundProvider{
 		if(parentPart != null){
 			parentPart.childParts.remove(this);
 		}
+		if(vehicle.world.isClient()){
+			RenderVehicle.removePart(this);
+		}
 	}
 	
 	/**
@@ -346,6 +369,63 @@ public abstract class APart implements ISoundProvider{
 		return data;
 	}
 	
+	/**
+	 * Marks this part as changed, so it will be fully saved on the next call to {@link #getSaveData()}.
+	 * Call this whenever state that is saved changes, unless {@link #isDirty()} already checks for it.
+	 */
+	public void markDirty(){
+		dirty = true;
+	}
+	
+	/**
+	 * Returns true if this part can let the vehicle go to sleep.  Parts that do things on their
+	 * own while the vehicle is parked, such as running engines, should return false here.
+	 */
+	public boolean canSleep(){
+		return true;
+	}
+	
+	/**
+	 * Returns true if this part has changed since the last call to {@link #getSaveData()}.
+	 * Sub-classes should extend this to compare any state they save in {@link #getData()}
+	 * to {@link #savedData}.  As the super call checks if we have saved data, sub-classes
+	 * should short-circuit their checks after it to avoid comparing to null data.
+	 * This may be called off the main thread, so it should only read state.
+	 */
+	public boolean isDirty(){
+		if(dirty || savedData == null || !currentSubName.equals(savedData.getString("subName"))){
+			return true;
+		}
+		if(definition.rendering != null && definition.rendering.textObjects != null){
+			for(byte i=0; i<definition.rendering.textObjects.size(); ++i){
+				if(!textLines.get(i).equals(savedData.getString("textLine" + i))){
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns the data for saving this part with its vehicle.  This is the data from {@link #getData()}
+	 * with the extra data the vehicle needs to know where the part went.  If this part hasn't changed since
+	 * the last call, the same data is returned.  The returned data must NOT be modified, as it will be re-used.
+	 */
+	public IWrapperNBT getSaveData(){
+		if(isDirty()){
+			IWrapperNBT data = getData();
+			//We need to set some extra data here for the part to allow this vehicle to know where it went.
+			//This only gets set here during saving/loading, and is NOT returned in the item that comes from the part.
+			data.setString("packID", definition.packID);
+			data.setString("systemName", definition.systemName);
+			data.setString("subName", currentSubName);
+			data.setPoint3d("offset", placementOffset);
+			savedData = data;
+			dirty = false;
+		}
+		return savedData;
+	}
+	
 	public abstract float getWidth();
 	
 	public abstract float getHeight();
@@ -362,6 +442,15 @@ public abstract class APart implements ISoundProvider{
 	
 	@Override
 	public void startSounds(){}
+	
+	/**
+	 * Returns the names of all sounds this part may play.  These are prefetched
+	 * when the part is added to a vehicle on the client.  This ensures they are
+	 * decoded and ready to go the first time they are played.
+	 */
+	public List<String> getSoundNames(){
+		return new ArrayList<String>();
+	}
     
 	@Override
     public FloatBuffer getProviderPosition(){
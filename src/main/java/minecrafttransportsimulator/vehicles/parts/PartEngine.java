@@ -1,6 +1,7 @@
 package minecrafttransportsimulator.vehicles.parts;
 
 import java.awt.Color;
+import java.util.List;
 
 import minecrafttransportsimulator.baseclasses.BoundingBox;
 import minecrafttransportsimulator.baseclasses.Damage;
@@ -14,7 +15,6 @@ import minecrafttransportsimulator.mcinterface.IWrapperEntity;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
 import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
 import minecrafttransportsimulator.mcinterface.MasterLoader;
-import minecrafttransportsimulator.packets.instances.PacketVehicleControlDigital;
 import minecrafttransportsimulator.packets.instances.PacketVehiclePartEngine;
 import minecrafttransportsimulator.packets.instances.PacketVehiclePartEngine.Signal;
 import minecrafttransportsimulator.rendering.components.IVehiclePartFXProvider;
@@ -50,7 +50,7 @@ public class PartEngine extends APart implements IVehiclePartFXProvider{
 	private boolean isPropellerInLiquid;
 	private boolean autoStarterEngaged;
 	private int starterLevel;
-	private int shiftCooldown;
+	public int shiftCooldown;
 	private int internalFuel;
 	private long lastTimeParticleSpawned;
 	private float currentGearRatio;
@@ -287,31 +287,27 @@ public class PartEngine extends APart implements IVehiclePartFXProvider{
 			}
 			
 			//Do automatic transmission functions if needed.
-			if(definition.engine.isAutomatic && !vehicle.world.isClient()){
+			if(definition.engine.isAutomatic){
 				if(currentGear > 0){
 					if(shiftCooldown == 0){
 						if(definition.engine.upShiftRPM != null && definition.engine.downShiftRPM != null){
 							if(rpm > definition.engine.upShiftRPM[currentGear - 1]*0.5*(1.0F + vehicle.throttle/100F)) {
 								if(shiftUp(true)){
 									shiftCooldown = definition.engine.shiftSpeed;
-									MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(vehicle, PacketVehicleControlDigital.Controls.SHIFT_UP, true));
 								}
 							}else if(rpm < definition.engine.downShiftRPM[currentGear - 1]*0.5*(1.0F + vehicle.throttle/100F) && currentGear > 1){
 								if(shiftDown(true)){
 									shiftCooldown = definition.engine.shiftSpeed;
-									MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(vehicle, PacketVehicleControlDigital.Controls.SHIFT_DN, true));
 								}
 							}
 						}else{
 							if(rpm > getSafeRPMFromMax(definition.engine.maxRPM)*0.5F*(1.0F + vehicle.throttle/100F)){
 								if(shiftUp(true)){
 									shiftCooldown = definition.engine.shiftSpeed;
-									MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(vehicle, PacketVehicleControlDigital.Controls.SHIFT_UP, true));
 								}
 							}else if(rpm < getSafeRPMFromMax(definition.engine.maxRPM)*0.25*(1.0F + vehicle.throttle/100F) && currentGear > 1){
 								if(shiftDown(true)){
 									shiftCooldown = definition.engine.shiftSpeed;
-									MasterLoader.networkInterface.sendToAllClients(new PacketVehicleControlDigital(vehicle, PacketVehicleControlDigital.Controls.SHIFT_DN, true));
 								}
 							}
 						}
@@ -510,6 +506,16 @@ public class PartEngine extends APart implements IVehiclePartFXProvider{
 		}
 	}
 	
+	@Override
+	public boolean canSleep(){
+		return !state.running && !state.esOn && !state.hsOn && Math.abs(rpm) < 10;
+	}
+	
+	@Override
+	public boolean isDirty(){
+		return super.isDirty() || isCreative != savedData.getBoolean("isCreative") || oilLeak != savedData.getBoolean("oilLeak") || fuelLeak != savedData.getBoolean("fuelLeak") || brokenStarter != savedData.getBoolean("brokenStarter") || currentGear != savedData.getInteger("currentGear") || hours != savedData.getDouble("hours") || rpm != savedData.getDouble("rpm") || temp != savedData.getDouble("temp") || pressure != savedData.getDouble("pressure") || state.ordinal() != savedData.getInteger("state");
+	}
+	
 	@Override
 	public IWrapperNBT getData(){
 		IWrapperNBT data = super.getData();
@@ -744,10 +750,12 @@ public class PartEngine extends APart implements IVehiclePartFXProvider{
 			nextGear = 1;
 			doShift = vehicle.axialVelocity < MAX_SHIFT_SPEED || wheelFriction == 0 || !vehicle.goingInReverse;
 		}else if(currentGear < definition.engine.gearRatios.length - (1 + reverseGears)){//Forwards gear to higher forwards gear.
-			doShift = !definition.engine.isAutomatic || (autoShift && !vehicle.world.isClient());
+			doShift = !definition.engine.isAutomatic || autoShift;
 			nextGear = (byte) (currentGear + 1);
 		}
-		if(doShift || vehicle.world.isClient()){
+		//Clients take player shifts the server said were bad, as they get the gear from the server after.
+		//Auto-shifts are simulated on both sides, so they must only happen if the shift can be done.
+		if(doShift || (vehicle.world.isClient() && !autoShift)){
 			currentGear = nextGear;
 		}else if(!vehicle.world.isClient() && !autoShift && currentGear <= 0){
 			MasterLoader.networkInterface.sendToAllClients(new PacketVehiclePartEngine(this, Signal.BAD_SHIFT));
@@ -768,7 +776,7 @@ public class PartEngine extends APart implements IVehiclePartFXProvider{
 			doShift = true;
 			nextGear = (byte) (currentGear - 1);
 		}
-		if(doShift || vehicle.world.isClient()){
+		if(doShift || (vehicle.world.isClient() && !autoShift)){
 			currentGear = nextGear;
 			//If we are a big truck, turn on the backup beeper.
 			if(currentGear == -1 && vehicle.definition.motorized.isBigTruck && vehicle.world.isClient()){
@@ -996,6 +1004,28 @@ public class PartEngine extends APart implements IVehiclePartFXProvider{
 			MasterLoader.audioInterface.playQuickSound(new SoundInstance(this, MasterLoader.resourceDomain + ":backup_beeper", true));
 		}
 	}
+	
+	@Override
+	public List<String> getSoundNames(){
+		List<String> soundNames = super.getSoundNames();
+		String soundPrefix = definition.packID + ":" + definition.systemName;
+		soundNames.add(soundPrefix + "_starting");
+		soundNames.add(soundPrefix + "_cranking");
+		soundNames.add(soundPrefix + "_stopping");
+		soundNames.add(soundPrefix + "_sputter");
+		if(definition.engine.customSoundset != null){
+			for(EngineSound soundDefinition : definition.engine.customSoundset){
+				soundNames.add(soundDefinition.soundName);
+			}
+		}else{
+			soundNames.add(soundPrefix + "_running");
+			soundNames.add(soundPrefix + "_supercharger");
+		}
+		if(vehicle.definition.motorized.isBigTruck){
+			soundNames.add(MasterLoader.resourceDomain + ":backup_beeper");
+		}
+		return soundNames;
+	}
 
 	
 	
@@ -142,6 +142,11 @@ public class PartGroundDevice extends APart implements IVehiclePartFXProvider{
 		}
 	}
 	
+	@Override
+	public boolean isDirty(){
+		return super.isDirty() || isFlat != savedData.getBoolean("isFlat");
+	}
+	
 	@Override
 	public IWrapperNBT getData(){
 		IWrapperNBT data = super.getData();
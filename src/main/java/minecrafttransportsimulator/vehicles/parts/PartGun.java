@@ -367,6 +367,17 @@ public class PartGun extends APart implements IVehiclePartFXProvider{
 		return new Point3d(0D, 0D, 0D);
 	}
 	
+	@Override
+	public boolean isDirty(){
+		if(super.isDirty() || bulletsFired != savedData.getInteger("shotsFired") || bulletsLeft != savedData.getInteger("bulletsLeft") || !currentOrientation.equals(savedData.getPoint3d("currentOrientation"))){
+			return true;
+		}else if(loadedBullet != null){
+			return !loadedBullet.definition.packID.equals(savedData.getString("loadedBulletPack")) || !loadedBullet.definition.systemName.equals(savedData.getString("loadedBulletName"));
+		}else{
+			return !savedData.getString("loadedBulletPack").isEmpty();
+		}
+	}
+	
 	@Override
 	public IWrapperNBT getData(){
 		IWrapperNBT data = super.getData();
@@ -422,6 +433,15 @@ public class PartGun extends APart implements IVehiclePartFXProvider{
 			MasterLoader.audioInterface.playQuickSound(new SoundInstance(this, definition.packID + ":" + definition.systemName + "_winding", true));
 		}
 	}
+	
+	@Override
+	public List<String> getSoundNames(){
+		List<String> soundNames = super.getSoundNames();
+		soundNames.add(definition.packID + ":" + definition.systemName + "_firing");
+		soundNames.add(definition.packID + ":" + definition.systemName + "_reloading");
+		soundNames.add(definition.packID + ":" + definition.systemName + "_winding");
+		return soundNames;
+	}
 		
 	@Override
 	public void spawnParticles(){
@@ -69,6 +69,9 @@ public final class PartInteractable extends APart{
 		if(interactable != null){
 			interactable.update();
 		}
+		if(tank != null){
+			tank.update();
+		}
 		
 		//Check to see if we are linked and need to send fluid to the linked tank.
 		//Only do checks on the server.  Clients get packets.
@@ -122,6 +125,28 @@ public final class PartInteractable extends APart{
 		}
 	}
 	
+	@Override
+	public void remove(){
+		super.remove();
+		if(tank != null){
+			tank.remove();
+		}
+	}
+	
+	@Override
+	public boolean isDirty(){
+		if(super.isDirty()){
+			return true;
+		}else if(interactable != null){
+			//Inventories are changed by the game directly, so we can't tell if they have changed.
+			return true;
+		}else if(tank != null){
+			return !tank.getFluid().equals(savedData.getString("currentFluid")) || tank.getFluidLevel() != savedData.getDouble("fluidLevel") || tank.getAmountDispensed() != savedData.getDouble("fluidDispensed");
+		}else{
+			return false;
+		}
+	}
+	
 	@Override
 	public IWrapperNBT getData(){
 		IWrapperNBT data = super.getData();
@@ -155,7 +180,13 @@ public final class PartInteractable extends APart{
 		return count;
 	}
 	
-	public double getInventoryPercent(){
+	@Override
+	public boolean canSleep(){
+		//Furnaces and brewing stands cook on their own, and linked tanks transfer fluid, so don't sleep with those.
+		return linkedVehicle == null && linkedPart == null && !definition.interactable.interactionType.equals("furnace") && !definition.interactable.interactionType.equals("brewing_stand");
+	}
+	
+	public double getInventoryPercent(float partialTicks){
 		if(inventory != null){
 			int count = 0;
 			for(int i=0; i<inventory.getSize(); ++i){
@@ -165,7 +196,7 @@ public final class PartInteractable extends APart{
 			}
 			return count/(double)inventory.getSize();
 		}else if(tank != null){
-			return tank.getFluidLevel()/tank.getMaxLevel();
+			return tank.getDisplayedLevel(partialTicks)/tank.getMaxLevel();
 		}else{
 			return 0;
 		}
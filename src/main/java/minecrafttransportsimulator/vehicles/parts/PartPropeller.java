@@ -20,6 +20,8 @@ public class PartPropeller extends APart{
 	
 	private final PartEngine connectedEngine;
 	private final Point3d propellerForce = new Point3d(0D, 0D, 0D);
+	/**Cached liquid state, as force calculations can't check the world.**/
+	private boolean inLiquid;
 	
 	public static final int MIN_DYNAMIC_PITCH = 45;
 	
@@ -54,6 +56,7 @@ public class PartPropeller extends APart{
 	@Override
 	public void update(){
 		super.update();
+		inLiquid = isInLiquid();
 		//Maybe we aren't connected to an engine?  Not sure how this could happen, but it could.
 		if(connectedEngine == null){
 			isValid = false;
@@ -121,6 +124,11 @@ public class PartPropeller extends APart{
 		}
 	}
 	
+	@Override
+	public boolean isDirty(){
+		return super.isDirty() || damage != savedData.getDouble("damage");
+	}
+	
 	@Override
 	public IWrapperNBT getData(){
 		IWrapperNBT data = super.getData();		
@@ -185,7 +193,7 @@ public class PartPropeller extends APart{
 				}
 				
 				//If the propeller is in the water, increase thrust.
-				if(isInLiquid()){
+				if(inLiquid){
 					thrust *= 50;
 				}
 				
@@ -148,6 +148,17 @@ public final class PartSeat extends APart{
 		}
 	}
 	
+	@Override
+	public boolean isDirty(){
+		if(super.isDirty()){
+			return true;
+		}else if(activeGun != null){
+			return !activeGun.definition.packID.equals(savedData.getString("activeGunPackID")) || !activeGun.definition.systemName.equals(savedData.getString("activeGunSystemName"));
+		}else{
+			return !savedData.getString("activeGunPackID").isEmpty();
+		}
+	}
+	
 	@Override
 	public IWrapperNBT getData(){
 		IWrapperNBT data = super.getData();